@@ -0,0 +1,97 @@
+#!/usr/bin/env bash
+
+# Compares the index size and point-lookup latency of the old VARCHAR
+# IDs ("G" + 13 character TSID) against the numeric TSID (bigint) keys.
+#
+# It creates two throwaway tables in the given PostgreSQL database, fills
+# both with the same TSIDs, and drops them again at the end.
+#
+# This has not been run for the switch to numeric IDs yet, so no index
+# size or lookup gain is claimed for it; attach the output when there is
+# any.
+#
+# Usage: ./hack/benchmark-id-storage.sh [rows] [lookups]
+# Connection settings are taken from the usual PG* variables
+# (PGHOST, PGPORT, PGUSER, PGPASSWORD, PGDATABASE).
+
+set -e
+
+ROWS=${1:-1000000}
+LOOKUPS=${2:-100000}
+
+echo "--- Benchmarking ID storage with $ROWS rows and $LOOKUPS lookups ---"
+
+psql -v ON_ERROR_STOP=1 -q <<EOF
+DROP TABLE IF EXISTS bench_ids_varchar;
+DROP TABLE IF EXISTS bench_ids_bigint;
+
+CREATE OR REPLACE FUNCTION pg_temp.tsid_string(v bigint) RETURNS text AS \$\$
+DECLARE
+    alphabet CONSTANT text := '0123456789ABCDEFGHJKMNPQRSTVWXYZ';
+    result text := '';
+BEGIN
+    FOR i IN 0..12 LOOP
+        result := substr(alphabet, ((v >> (i * 5)) & 31)::int + 1, 1) || result;
+    END LOOP;
+    RETURN result;
+END;
+\$\$ LANGUAGE plpgsql IMMUTABLE;
+
+-- TSID layout: 42 bits of milliseconds since 2020-01-01, then 22 bits of node + counter
+CREATE TEMP TABLE bench_tsids AS
+SELECT ((((extract(epoch FROM now()) * 1000)::bigint - 1577836800000 - $ROWS + n) << 22)
+        | (random() * 4194303)::bigint) AS id
+FROM generate_series(1, $ROWS) AS n;
+
+CREATE TABLE bench_ids_varchar (id varchar(255) PRIMARY KEY, request_id varchar(255), status varchar(255));
+CREATE TABLE bench_ids_bigint (id bigint PRIMARY KEY, request_id bigint, status varchar(255));
+
+INSERT INTO bench_ids_varchar SELECT 'G' || pg_temp.tsid_string(id), 'R' || pg_temp.tsid_string(id >> 4), 'FINISHED' FROM bench_tsids;
+INSERT INTO bench_ids_bigint SELECT id, id >> 4, 'FINISHED' FROM bench_tsids;
+
+CREATE INDEX ON bench_ids_varchar (request_id);
+CREATE INDEX ON bench_ids_bigint (request_id);
+VACUUM ANALYZE bench_ids_varchar;
+VACUUM ANALYZE bench_ids_bigint;
+
+\echo
+\echo 'Index sizes'
+SELECT t.relname AS table_name,
+       pg_size_pretty(pg_relation_size(t.oid)) AS table_size,
+       pg_size_pretty(sum(pg_relation_size(i.indexrelid))) AS index_size
+FROM pg_class t JOIN pg_index i ON i.indrelid = t.oid
+WHERE t.relname IN ('bench_ids_varchar', 'bench_ids_bigint')
+GROUP BY t.relname, t.oid;
+
+\echo 'Point lookups by primary key'
+DO \$\$
+DECLARE
+    keys bigint[];
+    string_keys text[];
+    started timestamptz;
+    dummy text;
+BEGIN
+    SELECT array_agg(id), array_agg('G' || pg_temp.tsid_string(id)) INTO keys, string_keys
+    FROM (SELECT id FROM bench_tsids ORDER BY random() LIMIT $LOOKUPS) s;
+
+    started := clock_timestamp();
+    FOR i IN 1..array_length(keys, 1) LOOP
+        SELECT status INTO dummy FROM bench_ids_varchar WHERE id = string_keys[i];
+    END LOOP;
+    RAISE NOTICE 'varchar: % us per lookup',
+        round(extract(epoch FROM clock_timestamp() - started) * 1000000 / array_length(keys, 1), 2);
+
+    started := clock_timestamp();
+    FOR i IN 1..array_length(keys, 1) LOOP
+        SELECT status INTO dummy FROM bench_ids_bigint WHERE id = keys[i];
+    END LOOP;
+    RAISE NOTICE 'bigint:  % us per lookup',
+        round(extract(epoch FROM clock_timestamp() - started) * 1000000 / array_length(keys, 1), 2);
+END;
+\$\$;
+
+DROP TABLE bench_ids_varchar;
+DROP TABLE bench_ids_bigint;
+EOF
+
+echo "--- Benchmark Complete ---"
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+
+# Measures the sustained throughput of the REST read endpoints of a
+# running service, with more concurrent clients than worker threads.
+#
+# Run it once against a build from before the reactive read path and once
+# against the current one, with the same pool settings on both, e.g.:
+#
+#   QUARKUS_THREAD_POOL_MAX_THREADS=16 \
+#   QUARKUS_DATASOURCE_JDBC_MAX_SIZE=20 \
+#   QUARKUS_DATASOURCE_REACTIVE_MAX_SIZE=20 \
+#   java -jar target/quarkus-app/quarkus-run.jar
+#
+# The blocking build is capped by the 16 worker threads, the reactive one
+# by the 20 database connections.
+#
+# This has not been run against the reactive read path yet, so no
+# throughput gain is claimed for it; attach the numbers of both runs when
+# there are any.
+#
+# Usage: ./hack/benchmark-reactive-reads.sh [base-url] [concurrency] [duration]
+# Needs curl, jq and hey (https://github.com/rakyll/hey), and at least one
+# generation in the database.
+
+set -e
+
+BASE_URL=${1:-http://localhost:8080}
+CONCURRENCY=${2:-256}
+DURATION=${3:-30s}
+
+GENERATION_ID=$(curl -sf "$BASE_URL/api/v1/generations?page=0&size=1" | jq -r '.content[0].id')
+REQUEST_ID=$(curl -sf "$BASE_URL/api/v1/generations/$GENERATION_ID" | jq -r '.requestId')
+
+if [ -z "$GENERATION_ID" ] || [ "$GENERATION_ID" = "null" ]; then
+    echo "No generations found at $BASE_URL, trigger one first" >&2
+    exit 1
+fi
+
+echo "--- Benchmarking $BASE_URL with $CONCURRENCY clients for $DURATION each ---"
+
+for path in \
+    "/api/v1/generations/$GENERATION_ID" \
+    "/api/v1/requests/$REQUEST_ID/generations/all" \
+    "/api/v1/generations?page=0&size=20"; do
+    # Warm up connections and JIT before measuring
+    hey -z 5s -c "$CONCURRENCY" "$BASE_URL$path" > /dev/null
+    echo
+    echo "$path"
+    hey -z "$DURATION" -c "$CONCURRENCY" "$BASE_URL$path" | grep -E 'Requests/sec|Average|99% in|\[[0-9]+\]'
+done
+
+echo "--- Benchmark Complete ---"
@@ -0,0 +1,50 @@
+package org.jboss.sbomer.sbom.service.adapter.in.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.sbomer.events.common.FailureSpec;
+import org.jboss.sbomer.sbom.service.core.utility.FailureUtility;
+
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+
+/**
+ * <p>
+ * Processes an incoming record and nacks it if processing throws, instead of failing the channel. The channel's
+ * {@code delayed-retry-topic} failure strategy then moves the record to the next retry topic, or to the dead-letter
+ * topic after the last one, and the partition moves on.
+ * </p>
+ * <p>
+ * The record is forwarded with the {@link FailureSpec} of the exception in headers: {@value #FAILURE_ERROR_CODE_HEADER}
+ * and {@value #FAILURE_SPEC_HEADER}, the spec as JSON. Every attempt adds its own, the last one is the latest failure.
+ * </p>
+ */
+public final class FailedRecords {
+
+    public static final String FAILURE_ERROR_CODE_HEADER = "sbomer-failure-error-code";
+
+    public static final String FAILURE_SPEC_HEADER = "sbomer-failure-spec";
+
+    private FailedRecords() {}
+
+    public static <T> CompletionStage<Void> process(Message<T> message, Consumer<T> processor) {
+        try {
+            processor.accept(message.getPayload());
+        } catch (Exception e) {
+            return message.nack(e, failureMetadata(e));
+        }
+        return message.ack();
+    }
+
+    private static Metadata failureMetadata(Exception e) {
+        FailureSpec failure = FailureUtility.buildFailureSpecFromException(e);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(FAILURE_ERROR_CODE_HEADER, failure.getErrorCode().getBytes(StandardCharsets.UTF_8));
+        headers.add(FAILURE_SPEC_HEADER, failure.toString().getBytes(StandardCharsets.UTF_8));
+        return Metadata.of(OutgoingKafkaRecordMetadata.builder().withHeaders(headers).build());
+    }
+}
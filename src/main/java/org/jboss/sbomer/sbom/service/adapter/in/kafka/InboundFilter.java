@@ -0,0 +1,122 @@
+package org.jboss.sbomer.sbom.service.adapter.in.kafka;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.common.header.Headers;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.message.Encoding;
+import io.cloudevents.core.message.MessageReader;
+import io.cloudevents.kafka.KafkaMessageFactory;
+import io.cloudevents.rw.CloudEventRWException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Decides from the CloudEvents binary-mode headers of an incoming record, before its payload is decoded, whether it
+ * needs any work. A record is dropped if:
+ * </p>
+ * <ul>
+ * <li>its {@code ce_type} is not one of the types accepted on the channel,</li>
+ * <li>its {@code ce_id} is one of the latest {@code dedupe-window} events this replica processed on the channel.</li>
+ * </ul>
+ * <p>
+ * The events processed are remembered per replica, so a record redelivered after a rebalance is only dropped if its
+ * partition went back to the replica that processed it. Otherwise it is processed again, which the processors
+ * tolerate. Records are not checked against the records we track, as that takes a database query per record; the
+ * processors ignore updates of unknown generations and enhancements once they are decoded.
+ * </p>
+ * <p>
+ * Records without these headers are always processed. Dropped records are counted in the
+ * {@code sbomer.inbound.skipped} metric, by channel and reason. An event is only remembered once it is
+ * {@link #processed(String, LazyRecord) processed}, so records that failed are processed again when retried.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class InboundFilter {
+
+    static final String SKIPPED_METRIC = "sbomer.inbound.skipped";
+
+    private static final String SPEC_VERSION_HEADER = "ce_specversion";
+
+    private final InboundFilterConfig config;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Set<String>> processed = new ConcurrentHashMap<>();
+
+    @Inject
+    public InboundFilter(InboundFilterConfig config, MeterRegistry registry) {
+        this.config = config;
+        this.registry = registry;
+    }
+
+    /**
+     * @return whether the record needs to be decoded and processed
+     */
+    public boolean accept(String channel, LazyRecord<?> record) {
+        Optional<CloudEvent> event = headersOf(record);
+        if (!config.enabled() || event.isEmpty()) {
+            return true;
+        }
+        String reason = null;
+        List<String> types = config.types().get(channel);
+        if (types != null && !types.contains(event.get().getType())) {
+            reason = "type";
+        } else if (processedOn(channel).contains(event.get().getId())) {
+            reason = "duplicate";
+        }
+        if (reason == null) {
+            return true;
+        }
+        log.debug("Skipping {} event {} on {}: {}", event.get().getType(), event.get().getId(), channel, reason);
+        registry.counter(SKIPPED_METRIC, "channel", channel, "reason", reason).increment();
+        return false;
+    }
+
+    /**
+     * Remembers the event of the record, so that it is dropped if delivered again.
+     */
+    public void processed(String channel, LazyRecord<?> record) {
+        if (config.enabled()) {
+            headersOf(record).ifPresent(event -> processedOn(channel).add(event.getId()));
+        }
+    }
+
+    private Set<String> processedOn(String channel) {
+        return processed.computeIfAbsent(channel, key -> Collections.synchronizedSet(Collections
+                .newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > config.dedupeWindow();
+                    }
+                })));
+    }
+
+    /**
+     * @return the attributes of the event, without its data, if the record is in CloudEvents binary mode
+     */
+    static Optional<CloudEvent> headersOf(LazyRecord<?> record) {
+        Headers headers = record.headers();
+        if (headers == null || headers.lastHeader(SPEC_VERSION_HEADER) == null) {
+            return Optional.empty();
+        }
+        try {
+            MessageReader reader = KafkaMessageFactory.createReader(headers, null);
+            return reader.getEncoding() == Encoding.BINARY ? Optional.of(reader.toEvent()) : Optional.empty();
+        } catch (CloudEventRWException e) {
+            log.debug("Ignoring invalid CloudEvents headers", e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.jboss.sbomer.sbom.service.adapter.in.kafka;
+
+import java.util.List;
+import java.util.Map;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of the {@link InboundFilter}.
+ */
+@ConfigMapping(prefix = "sbomer.inbound")
+public interface InboundFilterConfig {
+
+    /**
+     * Whether records are filtered on their CloudEvents headers. If disabled, all records are decoded and processed.
+     */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Number of the latest processed event IDs kept per channel to drop redeliveries of.
+     */
+    @WithDefault("10000")
+    int dedupeWindow();
+
+    /**
+     * Event types ({@code ce_type}) accepted by channel. Records of other types are dropped, channels without an entry
+     * accept all types.
+     */
+    Map<String, List<String>> types();
+}
@@ -0,0 +1,70 @@
+package org.jboss.sbomer.sbom.service.adapter.in.kafka;
+
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+
+import io.apicurio.registry.serde.avro.AvroKafkaDeserializer;
+
+/**
+ * <p>
+ * Value deserializer of the incoming channels: it wraps every record in a {@link LazyRecord} and leaves decoding to
+ * the delegate, the Apicurio {@link AvroKafkaDeserializer} unless {@value #DELEGATE_CONFIG} names another one. The
+ * delegate is configured with the channel's configuration, and shared by all records of the consumer, along with the
+ * schemas it caches.
+ * </p>
+ * <p>
+ * Records sent to retry and dead-letter topics are written as they were received by the mirrored
+ * {@link LazyAvroSerializer}.
+ * </p>
+ */
+public class LazyAvroDeserializer<T> implements Deserializer<LazyRecord<T>> {
+
+    public static final String DELEGATE_CONFIG = "sbomer.lazy.delegate.deserializer";
+
+    private Deserializer<T> delegate;
+
+    public LazyAvroDeserializer() {
+    }
+
+    public LazyAvroDeserializer(Deserializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (delegate == null) {
+            Object delegateClass = configs.get(DELEGATE_CONFIG);
+            try {
+                delegate = delegateClass == null ? new AvroKafkaDeserializer<>()
+                        : Utils.newInstance(delegateClass.toString(), Deserializer.class);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unknown deserializer " + delegateClass, e);
+            }
+        }
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public LazyRecord<T> deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public LazyRecord<T> deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return new LazyRecord<>(topic, headers, data, delegate);
+    }
+
+    @Override
+    public void close() {
+        if (delegate != null) {
+            delegate.close();
+        }
+    }
+}
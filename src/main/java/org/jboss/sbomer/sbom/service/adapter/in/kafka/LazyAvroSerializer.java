@@ -0,0 +1,16 @@
+package org.jboss.sbomer.sbom.service.adapter.in.kafka;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes a {@link LazyRecord} as it was received, so that records moved to retry and dead-letter topics keep their
+ * original encoding, and are not decoded for it. Picked by the {@code delayed-retry-topic} failure strategy as the
+ * mirror of the {@link LazyAvroDeserializer}.
+ */
+public class LazyAvroSerializer implements Serializer<LazyRecord<?>> {
+
+    @Override
+    public byte[] serialize(String topic, LazyRecord<?> record) {
+        return record == null ? null : record.data();
+    }
+}
@@ -0,0 +1,57 @@
+package org.jboss.sbomer.sbom.service.adapter.in.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * The value of an incoming record, with its headers, whose payload is only decoded when {@link #get()} is first
+ * called. Records that are filtered on their headers are never decoded.
+ */
+public final class LazyRecord<T> {
+
+    private final String topic;
+
+    private final Headers headers;
+
+    private final byte[] data;
+
+    private final Deserializer<T> deserializer;
+
+    private T value;
+
+    private boolean decoded;
+
+    public LazyRecord(String topic, Headers headers, byte[] data, Deserializer<T> deserializer) {
+        this.topic = topic;
+        this.headers = headers;
+        this.data = data;
+        this.deserializer = deserializer;
+    }
+
+    public Headers headers() {
+        return headers;
+    }
+
+    /**
+     * @return the payload as it was received
+     */
+    public byte[] data() {
+        return data;
+    }
+
+    /**
+     * @return the decoded payload, decoded on the first call only
+     */
+    public synchronized T get() {
+        if (!decoded) {
+            value = deserializer.deserialize(topic, headers, data);
+            decoded = true;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return decoded ? String.valueOf(value) : "<" + (data == null ? 0 : data.length) + " bytes from " + topic + ">";
+    }
+}
@@ -1,9 +1,16 @@
 package org.jboss.sbomer.sbom.service.adapter.in.kafka.enhancement;
 
+import java.util.concurrent.CompletionStage;
+
 import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.jboss.sbomer.events.enhancer.EnhancementUpdate;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.FailedRecords;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.InboundFilter;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.LazyRecord;
 import org.jboss.sbomer.sbom.service.core.port.api.enhancement.EnhancementStatusProcessor;
 
+import io.smallrye.reactive.messaging.annotations.Blocking;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
@@ -15,16 +22,29 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class KafkaEnhancementStatusProcessor {
 
+    private static final String CHANNEL = "enhancement-update";
+
     private EnhancementStatusProcessor enhancementStatusProcessor;
 
+    private InboundFilter inboundFilter;
+
     @Inject
-    KafkaEnhancementStatusProcessor(EnhancementStatusProcessor enhancementStatusProcessor) {
+    KafkaEnhancementStatusProcessor(EnhancementStatusProcessor enhancementStatusProcessor, InboundFilter inboundFilter) {
         this.enhancementStatusProcessor = enhancementStatusProcessor;
+        this.inboundFilter = inboundFilter;
     }
 
-    @Incoming("enhancement-update")
-    public void processEnhancementStatusUpdatesFromKafka(EnhancementUpdate enhancementUpdate) {
-        log.info("Received a generation update from Kafka for requestId '{}'", enhancementUpdate);
-        enhancementStatusProcessor.processEnhancementStatusUpdate(enhancementUpdate);
+    @Incoming(CHANNEL)
+    @Blocking
+    public CompletionStage<Void> processEnhancementStatusUpdatesFromKafka(Message<LazyRecord<EnhancementUpdate>> message) {
+        return FailedRecords.process(message, record -> {
+            if (!inboundFilter.accept(CHANNEL, record)) {
+                return;
+            }
+            EnhancementUpdate enhancementUpdate = record.get();
+            log.info("Received a generation update from Kafka for requestId '{}'", enhancementUpdate);
+            enhancementStatusProcessor.processEnhancementStatusUpdate(enhancementUpdate);
+            inboundFilter.processed(CHANNEL, record);
+        });
     }
 }
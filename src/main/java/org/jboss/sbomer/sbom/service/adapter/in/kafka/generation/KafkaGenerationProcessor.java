@@ -1,9 +1,19 @@
 package org.jboss.sbomer.sbom.service.adapter.in.kafka.generation;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionStage;
+
 import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.jboss.sbomer.events.request.RequestsCreated;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.FailedRecords;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.InboundFilter;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.LazyRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
 import org.jboss.sbomer.sbom.service.core.port.api.generation.GenerationProcessor;
 
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import io.smallrye.reactive.messaging.kafka.api.IncomingKafkaRecordMetadata;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
@@ -15,16 +25,44 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class KafkaGenerationProcessor {
 
+    /**
+     * Optional header with the {@link RequestPriority} of the request, as the event has no field for it.
+     */
+    public static final String PRIORITY_HEADER = "sbomer-priority";
+
+    private static final String CHANNEL = "requests-created";
+
     private GenerationProcessor generationProcessor;
 
+    private InboundFilter inboundFilter;
+
     @Inject
-    KafkaGenerationProcessor(GenerationProcessor generationProcessor) {
+    KafkaGenerationProcessor(GenerationProcessor generationProcessor, InboundFilter inboundFilter) {
         this.generationProcessor = generationProcessor;
+        this.inboundFilter = inboundFilter;
+    }
+
+    @Incoming(CHANNEL)
+    @Blocking
+    public CompletionStage<Void> processGenerationsFromKafka(Message<LazyRecord<RequestsCreated>> message) {
+        return FailedRecords.process(message, record -> {
+            // The request is new, so there is nothing to check its subject against
+            if (!inboundFilter.accept(CHANNEL, record)) {
+                return;
+            }
+            RequestsCreated requestsCreated = record.get();
+            log.info("Received requests.created event from" + requestsCreated.getContext().getSource() + ". Setting up and dispatching to generators");
+            // Safe to retry from the retry topics: a failed attempt leaves nothing behind, and a request that was
+            // saved before is not created again
+            generationProcessor.processGenerations(requestsCreated, priority(message));
+            inboundFilter.processed(CHANNEL, record);
+        });
     }
 
-    @Incoming("requests-created")
-    public void processGenerationsFromKafka(RequestsCreated requestsCreated) {
-        log.info("Received requests.created event from" + requestsCreated.getContext().getSource() + ". Setting up and dispatching to generators");
-        generationProcessor.processGenerations(requestsCreated);
+    private static RequestPriority priority(Message<?> message) {
+        return message.getMetadata(IncomingKafkaRecordMetadata.class)
+                .map(metadata -> metadata.getHeaders().lastHeader(PRIORITY_HEADER))
+                .map(header -> RequestPriority.fromName(new String(header.value(), StandardCharsets.UTF_8)))
+                .orElse(RequestPriority.NORMAL);
     }
 }
@@ -1,9 +1,16 @@
 package org.jboss.sbomer.sbom.service.adapter.in.kafka.generation;
 
+import java.util.concurrent.CompletionStage;
+
 import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.jboss.sbomer.events.generator.GenerationUpdate;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.FailedRecords;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.InboundFilter;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.LazyRecord;
 import org.jboss.sbomer.sbom.service.core.port.api.generation.GenerationStatusProcessor;
 
+import io.smallrye.reactive.messaging.annotations.Blocking;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
@@ -15,16 +22,29 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class KafkaGenerationStatusProcessor {
 
+    private static final String CHANNEL = "generation-update";
+
     private GenerationStatusProcessor generationStatusProcessor;
 
+    private InboundFilter inboundFilter;
+
     @Inject
-    KafkaGenerationStatusProcessor(GenerationStatusProcessor generationStatusProcessor) {
+    KafkaGenerationStatusProcessor(GenerationStatusProcessor generationStatusProcessor, InboundFilter inboundFilter) {
         this.generationStatusProcessor = generationStatusProcessor;
+        this.inboundFilter = inboundFilter;
     }
 
-    @Incoming("generation-update")
-    public void processGenerationStatusUpdatesFromKafka(GenerationUpdate generationUpdate) {
-        log.info("Received a generation update from Kafka for requestId '{}'", generationUpdate);
-        generationStatusProcessor.processGenerationStatusUpdate(generationUpdate);
+    @Incoming(CHANNEL)
+    @Blocking
+    public CompletionStage<Void> processGenerationStatusUpdatesFromKafka(Message<LazyRecord<GenerationUpdate>> message) {
+        return FailedRecords.process(message, record -> {
+            if (!inboundFilter.accept(CHANNEL, record)) {
+                return;
+            }
+            GenerationUpdate generationUpdate = record.get();
+            log.info("Received a generation update from Kafka for requestId '{}'", generationUpdate);
+            generationStatusProcessor.processGenerationStatusUpdate(generationUpdate);
+            inboundFilter.processed(CHANNEL, record);
+        });
     }
 }
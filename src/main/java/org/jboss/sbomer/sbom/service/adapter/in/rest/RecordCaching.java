@@ -0,0 +1,168 @@
+package org.jboss.sbomer.sbom.service.adapter.in.rest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * <p>
+ * Answers GETs of single records with an ETag derived from the {@link RecordStamp} revision and a Last-Modified from
+ * its update time. {@code If-None-Match} and {@code If-Modified-Since} are checked against the stamp alone, which the
+ * repositories read with narrow aggregate queries, so a 304 never loads the record.
+ * </p>
+ * <p>
+ * Records in progress have to be revalidated on every use. Terminal ones may be reused for {@code terminal-max-age}
+ * without asking; they are not immutable, a retry moves them back into progress.
+ * </p>
+ * <p>
+ * Records narrowed to a {@link FieldSelection} are different representations, their ETag carries a digest of the
+ * selected fields.
+ * </p>
+ */
+@ApplicationScoped
+public class RecordCaching {
+
+    private final CacheControl inProgress;
+
+    private final CacheControl terminal;
+
+    private final SparseFields sparseFields;
+
+    @Inject
+    public RecordCaching(SparseFields sparseFields,
+            @ConfigProperty(name = "sbomer.api.cache.terminal-max-age", defaultValue = "1h") Duration terminalMaxAge) {
+        this.sparseFields = sparseFields;
+        this.inProgress = new CacheControl();
+        this.inProgress.setNoCache(true);
+        this.inProgress.setNoTransform(false);
+        this.terminal = new CacheControl();
+        this.terminal.setMaxAge((int) terminalMaxAge.toSeconds());
+        this.terminal.setNoTransform(false);
+    }
+
+    /**
+     * @param stamp   reads the stamp of the record, null if it is not found
+     * @param record  loads the record, null if it is not found
+     * @param stampOf stamps a loaded record, the same way as {@code stamp} does
+     */
+    public <T> Uni<Response> get(HttpHeaders headers, Supplier<Uni<RecordStamp>> stamp, Supplier<Uni<T>> record,
+            Function<T, RecordStamp> stampOf) {
+        if (headers.getHeaderString(HttpHeaders.IF_NONE_MATCH) == null
+                && headers.getHeaderString(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            return record.get().map(found -> ok(found, stampOf));
+        }
+        return stamp.get().flatMap(current -> {
+            if (current == null) {
+                return Uni.createFrom().item(Response.status(Response.Status.NOT_FOUND).build());
+            }
+            if (isNotModified(headers, current, "")) {
+                return Uni.createFrom().item(withValidators(Response.notModified(), current, "").build());
+            }
+            // The record may have moved on since the stamp was read, its own stamp is the one matching the body
+            return record.get().map(found -> ok(found, stampOf));
+        });
+    }
+
+    /**
+     * The same for a record narrowed to {@code fields}. It may lack what its stamp is derived from, so the validators
+     * always come from {@code stamp}.
+     */
+    public <T> Uni<Response> get(HttpHeaders headers, FieldSelection fields, Supplier<Uni<RecordStamp>> stamp,
+            Supplier<Uni<T>> record, Function<T, RecordStamp> stampOf) {
+        if (fields.isAll()) {
+            return get(headers, stamp, record, stampOf);
+        }
+        String variant = "-" + Integer.toHexString(String.join(",", fields.fields()).hashCode());
+        return stamp.get().flatMap(current -> {
+            if (current == null) {
+                return Uni.createFrom().item(Response.status(Response.Status.NOT_FOUND).build());
+            }
+            if (isNotModified(headers, current, variant)) {
+                return Uni.createFrom().item(withValidators(Response.notModified(), current, variant).build());
+            }
+            // A record newer than the stamp gets older validators, the next revalidation sends it again
+            return record.get().map(found -> found == null
+                    ? Response.status(Response.Status.NOT_FOUND).build()
+                    : withValidators(Response.ok(sparseFields.trim(found, fields, null)), current, variant).build());
+        });
+    }
+
+    private <T> Response ok(T record, Function<T, RecordStamp> stampOf) {
+        if (record == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return withValidators(Response.ok(record), stampOf.apply(record), "").build();
+    }
+
+    private Response.ResponseBuilder withValidators(Response.ResponseBuilder response, RecordStamp stamp,
+            String variant) {
+        response.tag(entityTag(stamp, variant)).cacheControl(stamp.terminal() ? terminal : inProgress);
+        if (stamp.lastModified() != null) {
+            response.lastModified(Date.from(stamp.lastModified()));
+        }
+        return response;
+    }
+
+    /**
+     * If-None-Match takes precedence, If-Modified-Since is only checked without it (RFC 9110, section 13.2.2).
+     */
+    private static boolean isNotModified(HttpHeaders headers, RecordStamp stamp, String variant) {
+        String ifNoneMatch = headers.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String current = entityTag(stamp, variant).getValue();
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .anyMatch(tag -> tag.equals("*") || opaqueTag(tag).equals(current));
+        }
+        Instant ifModifiedSince = parseHttpDate(headers.getHeaderString(HttpHeaders.IF_MODIFIED_SINCE));
+        return ifModifiedSince != null && stamp.lastModified() != null
+                && !stamp.lastModified().truncatedTo(ChronoUnit.SECONDS).isAfter(ifModifiedSince);
+    }
+
+    private static EntityTag entityTag(RecordStamp stamp, String variant) {
+        return new EntityTag(stamp.revision() + variant);
+    }
+
+    /**
+     * GETs compare weakly, so {@code W/"1"} matches {@code "1"}.
+     */
+    private static String opaqueTag(String tag) {
+        String strong = tag.startsWith("W/") ? tag.substring(2) : tag;
+        return strong.length() >= 2 && strong.startsWith("\"") && strong.endsWith("\"")
+                ? strong.substring(1, strong.length() - 1)
+                : strong;
+    }
+
+    /**
+     * @return null for a missing or invalid date, which is to be ignored
+     */
+    private static Instant parseHttpDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -1,47 +1,75 @@
 package org.jboss.sbomer.sbom.service.adapter.in.rest;
 
+import java.net.URI;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
 import org.jboss.sbomer.events.common.ContextSpec;
 import org.jboss.sbomer.events.common.GenerationRequestSpec;
 import org.jboss.sbomer.events.common.PublisherSpec;
 import org.jboss.sbomer.events.common.Target;
 import org.jboss.sbomer.events.request.RequestData;
 import org.jboss.sbomer.events.request.RequestsCreated;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.dto.BatchGetRequestDTO;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.dto.EnhancementRetryRequestDTO;
 import org.jboss.sbomer.sbom.service.adapter.in.rest.dto.GenerationRequestDTO;
 import org.jboss.sbomer.sbom.service.adapter.in.rest.dto.GenerationRequestsDTO;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.dto.GenerationRetryRequestDTO;
 import org.jboss.sbomer.sbom.service.adapter.in.rest.dto.PublisherDTO;
-import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
-import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.BatchGetResult;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
 import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
-import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestEvent;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.port.api.ReactiveSbomAdministration;
 import org.jboss.sbomer.sbom.service.core.port.api.SbomAdministration;
 import org.jboss.sbomer.sbom.service.core.port.api.generation.GenerationProcessor;
 import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
 
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.vertx.core.http.HttpServerResponse;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -55,80 +83,196 @@ import lombok.extern.slf4j.Slf4j;
 @Consumes(MediaType.APPLICATION_JSON)
 public class SbomResource {
 
+    private static final int MAX_SEARCH_SIZE = 100;
+
+    private static final int MAX_BATCH_GET_IDS = 500;
+
     @Inject
     SbomAdministration sbomAdministration;
 
+    // Reads return Uni and run on the event loop; only the retry and trigger actions block a worker thread
+    @Inject
+    ReactiveSbomAdministration reactiveSbomAdministration;
+
     @Inject
     GenerationProcessor generationProcessor;
 
+    @Inject
+    RecordCaching recordCaching;
+
+    @Inject
+    SparseFields sparseFields;
+
     @GET
     @Path("/requests")
     @Operation(summary = "List Requests", description = "Paginated list of high-level SBOM generation requests.")
-    public Response fetchRequests(@QueryParam("page") @DefaultValue("0") int page,
-                                  @QueryParam("size") @DefaultValue("20") int size) {
-        Page<RequestRecord> result = sbomAdministration.fetchRequests(page, size);
-        return Response.ok(result).build();
+    public Uni<Response> fetchRequests(@QueryParam("page") @DefaultValue("0") int page,
+                                       @QueryParam("size") @DefaultValue("20") int size) {
+        return reactiveSbomAdministration.fetchRequests(page, size)
+                .map(result -> Response.ok(result).build());
     }
 
     @GET
     @Path("/requests/{id}")
     @Operation(summary = "Get Request Details", description = "Fetch a specific SBOM generation request by ID.")
     @APIResponse(responseCode = "200", description = "Found")
+    @APIResponse(responseCode = "304", description = "Not modified since the cached copy")
     @APIResponse(responseCode = "404", description = "Request not found")
-    public Response getRequest(@PathParam("id") String requestId) {
-        RequestRecord record = sbomAdministration.getRequest(requestId);
-        if (record == null) {
-            return Response.status(Response.Status.NOT_FOUND).build();
-        }
-        return Response.ok(record).build();
+    public Uni<Response> getRequest(@PathParam("id") String requestId, @Context HttpHeaders headers) {
+        return recordCaching.get(headers, () -> reactiveSbomAdministration.getRequestStamp(requestId),
+                () -> reactiveSbomAdministration.getRequest(requestId), RecordStamp::of);
+    }
+
+    @GET
+    @Path("/requests/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Watch Request", description = "Server-sent events with the state of the request, its generations and enhancements, then every change until the request is finished. Send Last-Event-ID to resume.")
+    @APIResponse(responseCode = "200", description = "Event stream")
+    @APIResponse(responseCode = "404", description = "Request not found")
+    public Uni<Void> watchRequest(@PathParam("id") String requestId,
+                                  @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+                                  @Context SseEventSink sink,
+                                  @Context Sse sse) {
+        // Nothing is sent before the request is known, so that unknown requests still get a 404
+        return reactiveSbomAdministration.watchRequest(requestId, resumeFrom(lastEventId))
+                .onItem().ifNull().failWith(() -> new NotFoundException("Request not found: " + requestId))
+                .invoke(events -> {
+                    Cancellable subscription = events
+                            .onTermination().invoke(sink::close)
+                            .subscribe().with(event -> sink.send(sse.newEventBuilder()
+                                    .id(event.id())
+                                    .name(event.kind())
+                                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                                    .data(event)
+                                    .build()),
+                                    failure -> log.warn("Event stream of request {} failed", requestId, failure));
+                    // The sink is closed when the client disconnects, which has to end its watch as well
+                    SseBroadcaster disconnects = sse.newBroadcaster();
+                    disconnects.onClose(closed -> subscription.cancel());
+                    disconnects.register(sink);
+                    if (sink.isClosed()) {
+                        subscription.cancel();
+                    }
+                })
+                .replaceWithVoid();
     }
 
     @GET
     @Path("/requests/{requestId}/generations")
     @Operation(summary = "List Generations for Request", description = "Paginated list of generations belonging to a specific request ID.")
-    public Response fetchGenerations(@PathParam("requestId") String requestId,
-                                     @QueryParam("page") @DefaultValue("0") int page,
-                                     @QueryParam("size") @DefaultValue("20") int size) {
-        Page<GenerationRecord> result = sbomAdministration.fetchGenerationsForRequest(requestId, page, size);
-        return Response.ok(result).build();
+    public Uni<Response> fetchGenerations(@PathParam("requestId") String requestId,
+                                          @QueryParam("page") @DefaultValue("0") int page,
+                                          @QueryParam("size") @DefaultValue("20") int size,
+                                          @QueryParam("fields") String fields) {
+        return withFields(fields, FieldSelection.GENERATION_FIELDS, selection -> reactiveSbomAdministration
+                .fetchGenerationsForRequest(requestId, page, size, selection)
+                .map(result -> Response.ok(sparseFields.trim(result, selection, "content")).build()));
     }
 
     @GET
     @Path("/requests/{requestId}/generations/all")
-    @Operation(summary = "Fetch All Generations", description = "Get a full list of generations for a request (non-paginated).")
-    public Response getAllGenerationsForRequest(@PathParam("requestId") String requestId) {
-        List<GenerationRecord> records = sbomAdministration.getGenerationsForRequest(requestId);
-
-        if (records == null || records.isEmpty()) {
-            // Maybe return 404 if the request ID doesn't exist,
-            // just empty list 200 is okay for now
-            // TODO throw an error
-        }
-
-        return Response.ok(records).build();
+    @Operation(summary = "Fetch All Generations", description = "Get a full list of generations for a request (non-paginated), streamed as a JSON array.")
+    public Multi<GenerationRecord> getAllGenerationsForRequest(@PathParam("requestId") String requestId,
+                                                               @Context HttpServerResponse response) {
+        // Maybe return 404 if the request ID doesn't exist,
+        // just empty list 200 is okay for now
+        // TODO throw an error
+        compressStream(response);
+        return reactiveSbomAdministration.streamGenerationsForRequest(requestId);
     }
 
+    @GET
+    @Path("/requests/{requestId}/generations/all")
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Stream All Generations", description = "The generations of a request as newline-delimited JSON, one generation per line.")
+    public Multi<GenerationRecord> streamAllGenerationsForRequest(@PathParam("requestId") String requestId,
+                                                                  @Context HttpServerResponse response) {
+        compressStream(response);
+        return reactiveSbomAdministration.streamGenerationsForRequest(requestId);
+    }
 
     @GET
     @Path("/generations")
     @Operation(summary = "List Generations", description = "Paginated list of generations.")
-    public Response fetchGenerations(@QueryParam("page") @DefaultValue("0") int page,
-                                  @QueryParam("size") @DefaultValue("20") int size) {
-        Page<GenerationRecord> result = sbomAdministration.fetchGenerations(page, size);
-        return Response.ok(result).build();
+    public Uni<Response> fetchGenerations(@QueryParam("page") @DefaultValue("0") int page,
+                                          @QueryParam("size") @DefaultValue("20") int size,
+                                          @QueryParam("fields") String fields) {
+        return withFields(fields, FieldSelection.GENERATION_FIELDS, selection -> reactiveSbomAdministration
+                .fetchGenerations(page, size, selection)
+                .map(result -> Response.ok(sparseFields.trim(result, selection, "content")).build()));
+    }
+
+    @GET
+    @Path("/generations/search")
+    @Operation(summary = "Search Generations", description = "Generations matching all given filters, newest first. Pass the returned nextCursor as 'after' to get the next page.")
+    @APIResponse(responseCode = "200", description = "Found")
+    @APIResponse(responseCode = "400", description = "Invalid page size, cursor or field")
+    public Uni<Response> searchGenerations(@QueryParam("status") Set<GenerationStatus> statuses,
+                                           @QueryParam("targetType") String targetType,
+                                           @QueryParam("targetIdentifierPrefix") String targetIdentifierPrefix,
+                                           @QueryParam("targetIdentifierContains") String targetIdentifierContains,
+                                           @QueryParam("generatorName") String generatorName,
+                                           @QueryParam("generatorVersion") String generatorVersion,
+                                           @QueryParam("result") Integer result,
+                                           @QueryParam("createdAfter") Instant createdAfter,
+                                           @QueryParam("createdBefore") Instant createdBefore,
+                                           @QueryParam("finishedAfter") Instant finishedAfter,
+                                           @QueryParam("finishedBefore") Instant finishedBefore,
+                                           @QueryParam("after") String after,
+                                           @QueryParam("size") @DefaultValue("20") int size,
+                                           @QueryParam("fields") String fields) {
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("size must be between 1 and " + MAX_SEARCH_SIZE).build());
+        }
+        if (after != null && TsidUtility.parseNumericId(after).isEmpty()) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Not a valid cursor: " + after).build());
+        }
+        GenerationSearchQuery query = GenerationSearchQuery.builder()
+                .statuses(statuses != null ? statuses : Set.of())
+                .targetType(targetType)
+                .targetIdentifierPrefix(targetIdentifierPrefix)
+                .targetIdentifierContains(targetIdentifierContains)
+                .generatorName(generatorName)
+                .generatorVersion(generatorVersion)
+                .result(result)
+                .createdAfter(createdAfter)
+                .createdBefore(createdBefore)
+                .finishedAfter(finishedAfter)
+                .finishedBefore(finishedBefore)
+                .after(after)
+                .limit(size)
+                .build();
+        return withFields(fields, FieldSelection.GENERATION_FIELDS, selection -> reactiveSbomAdministration
+                .searchGenerations(query, selection)
+                .map(page -> Response.ok(sparseFields.trim(page, selection, "content")).build()));
     }
 
     @GET
     @Path("/generations/{id}")
     @Operation(summary = "Get Generation Details", description = "Fetch a specific generation record by ID.")
     @APIResponse(responseCode = "200", description = "Found")
+    @APIResponse(responseCode = "304", description = "Not modified since the cached copy")
+    @APIResponse(responseCode = "400", description = "Unknown field selected")
     @APIResponse(responseCode = "404", description = "Generation not found")
-    public Response getGeneration(@PathParam("id") String generationId) {
-        GenerationRecord record = sbomAdministration.getGeneration(generationId);
-        if (record == null) {
-            return Response.status(Response.Status.NOT_FOUND).build();
-        }
-        return Response.ok(record).build();
+    public Uni<Response> getGeneration(@PathParam("id") String generationId,
+                                       @QueryParam("fields") String fields,
+                                       @Context HttpHeaders headers) {
+        return withFields(fields, FieldSelection.GENERATION_FIELDS, selection -> recordCaching.get(headers, selection,
+                () -> reactiveSbomAdministration.getGenerationStamp(generationId),
+                () -> reactiveSbomAdministration.getGeneration(generationId, selection), RecordStamp::of));
+    }
+
+    @POST
+    @Path("/generations:batchGet")
+    @Operation(summary = "Batch Get Generations", description = "Fetch up to " + MAX_BATCH_GET_IDS + " generation records by ID in one call.")
+    @APIResponse(responseCode = "200", description = "The generations found and the IDs that were not")
+    @APIResponse(responseCode = "400", description = "No IDs, too many IDs or an unknown field given")
+    public Uni<Response> batchGetGenerations(BatchGetRequestDTO request, @QueryParam("fields") String fields) {
+        return withFields(fields, FieldSelection.GENERATION_FIELDS, selection -> batchGet(request,
+                ids -> reactiveSbomAdministration.getGenerations(ids, selection), selection));
     }
 
 
@@ -136,7 +280,7 @@ public class SbomResource {
     // todo auth
     @POST
     @Path("/generations/{id}/retry")
-    @Operation(summary = "Retry Generation", description = "Resets a FAILED generation to NEW and re-schedules the event.")
+    @Operation(summary = "Retry Generation", description = "Resets a FAILED generation to SCHEDULED and sends its event again right away.")
     @APIResponse(responseCode = "202", description = "Retry scheduled successfully")
     @APIResponse(responseCode = "404", description = "Generation ID not found")
     @APIResponse(responseCode = "409", description = "Conflict: Generation is not in FAILED state")
@@ -160,39 +304,56 @@ public class SbomResource {
     @Path("/enhancements/{id}")
     @Operation(summary = "Get Enhancement Details", description = "Fetch a specific enhancement record by ID.")
     @APIResponse(responseCode = "200", description = "Found")
+    @APIResponse(responseCode = "304", description = "Not modified since the cached copy")
+    @APIResponse(responseCode = "400", description = "Unknown field selected")
     @APIResponse(responseCode = "404", description = "Enhancement not found")
-    public Response getEnhancement(@PathParam("id") String enhancementId) {
-        EnhancementRecord record = sbomAdministration.getEnhancement(enhancementId);
-        if (record == null) {
-            return Response.status(Response.Status.NOT_FOUND).build();
-        }
-        return Response.ok(record).build();
+    public Uni<Response> getEnhancement(@PathParam("id") String enhancementId,
+                                        @QueryParam("fields") String fields,
+                                        @Context HttpHeaders headers) {
+        return withFields(fields, FieldSelection.ENHANCEMENT_FIELDS, selection -> recordCaching.get(headers, selection,
+                () -> reactiveSbomAdministration.getEnhancementStamp(enhancementId),
+                () -> reactiveSbomAdministration.getEnhancement(enhancementId, selection), RecordStamp::of));
+    }
+
+    @POST
+    @Path("/enhancements:batchGet")
+    @Operation(summary = "Batch Get Enhancements", description = "Fetch up to " + MAX_BATCH_GET_IDS + " enhancement records by ID in one call.")
+    @APIResponse(responseCode = "200", description = "The enhancements found and the IDs that were not")
+    @APIResponse(responseCode = "400", description = "No IDs, too many IDs or an unknown field given")
+    public Uni<Response> batchGetEnhancements(BatchGetRequestDTO request, @QueryParam("fields") String fields) {
+        return withFields(fields, FieldSelection.ENHANCEMENT_FIELDS, selection -> batchGet(request,
+                ids -> reactiveSbomAdministration.getEnhancements(ids, selection), selection));
     }
 
     @GET
     @Path("/enhancements/generation/{generationId}")
     @Operation(summary = "List Enhancements for Generation", description = "Get all enhancements for a specific generation ID.")
     @APIResponse(responseCode = "200", description = "Found")
+    @APIResponse(responseCode = "400", description = "Unknown field selected")
     @APIResponse(responseCode = "404", description = "Generation ID not found")
     @APIResponse(responseCode = "500", description = "Internal server error")
-    public Response getEnhancementsForGeneration(@PathParam("generationId") String generationId) {
-        List<EnhancementRecord> records = sbomAdministration.getEnhancementsForGeneration(generationId);
-        return Response.ok(records).build();
+    public Uni<Response> getEnhancementsForGeneration(@PathParam("generationId") String generationId,
+                                                     @QueryParam("fields") String fields) {
+        return withFields(fields, FieldSelection.ENHANCEMENT_FIELDS, selection -> reactiveSbomAdministration
+                .getEnhancementsForGeneration(generationId, selection)
+                .map(records -> Response.ok(sparseFields.trim(records, selection, null)).build()));
     }
 
     @GET
     @Path("/enhancements")
     @Operation(summary = "List Enhancements", description = "Paginated list of enhancements.")
-    public Response fetchEnhancements(@QueryParam("page") @DefaultValue("0") int page,
-                                  @QueryParam("size") @DefaultValue("20") int size) {
-        Page<EnhancementRecord> result = sbomAdministration.fetchEnhancements(page, size);
-        return Response.ok(result).build();
+    public Uni<Response> fetchEnhancements(@QueryParam("page") @DefaultValue("0") int page,
+                                           @QueryParam("size") @DefaultValue("20") int size,
+                                           @QueryParam("fields") String fields) {
+        return withFields(fields, FieldSelection.ENHANCEMENT_FIELDS, selection -> reactiveSbomAdministration
+                .fetchEnhancements(page, size, selection)
+                .map(result -> Response.ok(sparseFields.trim(result, selection, "content")).build()));
     }
 
     // todo under auth
     @POST
     @Path("/enhancements/{id}/retry")
-    @Operation(summary = "Retry Enhancement", description = "Resets a FAILED enhancement to NEW and re-schedules it using previous inputs.")
+    @Operation(summary = "Retry Enhancement", description = "Resets a FAILED enhancement to SCHEDULED and sends its event again right away, using previous inputs.")
     @APIResponse(responseCode = "202", description = "Retry scheduled successfully")
     @APIResponse(responseCode = "404", description = "Enhancement ID not found")
     @APIResponse(responseCode = "409", description = "Conflict: Enhancement not FAILED or parent generation missing")
@@ -210,6 +371,103 @@ public class SbomResource {
         }
     }
 
+    @POST
+    @Path("/generations/retry")
+    @Operation(summary = "Retry Generations", description = "Resets all FAILED generations matching the criteria to SCHEDULED and sends their events again in the background, rate limited.")
+    @APIResponse(responseCode = "202", description = "Retry job started, its progress is available at the returned location")
+    @APIResponse(responseCode = "400", description = "No criteria given")
+    public Response retryGenerations(GenerationRetryRequestDTO request) {
+        if (request == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Retry criteria are required").build();
+        }
+        return startRetryJob(() -> sbomAdministration.retryGenerations(RetryFilter.builder()
+                .ids(request.ids())
+                .requestId(request.requestId())
+                .workerName(request.generatorName())
+                .result(request.result())
+                .finishedAfter(request.finishedAfter())
+                .finishedBefore(request.finishedBefore())
+                .build()));
+    }
+
+    @POST
+    @Path("/enhancements/retry")
+    @Operation(summary = "Retry Enhancements", description = "Resets all FAILED enhancements matching the criteria to SCHEDULED and sends their events again in the background, rate limited.")
+    @APIResponse(responseCode = "202", description = "Retry job started, its progress is available at the returned location")
+    @APIResponse(responseCode = "400", description = "No criteria given")
+    public Response retryEnhancements(EnhancementRetryRequestDTO request) {
+        if (request == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Retry criteria are required").build();
+        }
+        return startRetryJob(() -> sbomAdministration.retryEnhancements(RetryFilter.builder()
+                .ids(request.ids())
+                .requestId(request.requestId())
+                .workerName(request.enhancerName())
+                .result(request.result())
+                .finishedAfter(request.finishedAfter())
+                .finishedBefore(request.finishedBefore())
+                .build()));
+    }
+
+    @GET
+    @Path("/retries/{id}")
+    @Operation(summary = "Get Retry Progress", description = "Fetch the progress of a bulk retry, as of its last finished batch.")
+    @APIResponse(responseCode = "200", description = "Found")
+    @APIResponse(responseCode = "404", description = "Retry job not found")
+    public Response getRetryJob(@PathParam("id") String jobId) {
+        return okOrNotFound(sbomAdministration.getRetryJob(jobId));
+    }
+
+    @POST
+    @Path("/dead-letters/{channel}/replay")
+    @Operation(summary = "Replay Dead Letters", description = "Sends up to max records of the dead-letter topic of an incoming channel, e.g. generation-update, back to the channel to be processed again.")
+    @APIResponse(responseCode = "200", description = "Records replayed")
+    @APIResponse(responseCode = "400", description = "Channel has no dead-letter topic, or max is not positive")
+    public Response replayDeadLetters(@PathParam("channel") String channel,
+            @QueryParam("max") @DefaultValue("100") int max) {
+        try {
+            return Response.ok(sbomAdministration.replayDeadLetters(channel, max)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            log.error("Failed to replay dead letters of channel {}", channel, e);
+            return Response.serverError().entity("Internal error").build();
+        }
+    }
+
+    @GET
+    @Path("/stats")
+    @Operation(summary = "Get Statistics", description = "Counts of generations and enhancements per status, generator and enhancer, with p50/p95/p99 time-in-state in milliseconds.")
+    public Uni<Response> getStats() {
+        return reactiveSbomAdministration.getStats().map(stats -> Response.ok(stats).build());
+    }
+
+    /**
+     * Event IDs are update times in epoch milliseconds, see {@link RequestEvent}. Anything else starts from scratch.
+     */
+    private static Instant resumeFrom(String lastEventId) {
+        if (lastEventId == null) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(lastEventId.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Response startRetryJob(Supplier<BulkRetryJob> start) {
+        try {
+            BulkRetryJob job = start.get();
+            return Response.accepted(job).location(URI.create("/api/v1/retries/" + job.getId())).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        } catch (Exception e) {
+            log.error("Failed to start bulk retry", e);
+            return Response.serverError().entity("Internal error").build();
+        }
+    }
+
     @POST
     @Path("/generations")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -232,7 +490,8 @@ public class SbomResource {
         RequestsCreated requestsCreatedEvent = toRequestsCreatedEvent(request);
 
         // 2. Pass the event to the core business logic (the "Port")
-        generationProcessor.processGenerations(requestsCreatedEvent);
+        generationProcessor.processGenerations(requestsCreatedEvent,
+                Optional.ofNullable(request.priority()).orElse(RequestPriority.NORMAL));
 
         // 3. Return a 202 Accepted response, as this is an async process.
         //    We return the batch RequestId so the user can track it.
@@ -240,6 +499,51 @@ public class SbomResource {
         return Response.accepted(Collections.singletonMap("id", requestId)).build();
     }
 
+    /**
+     * Parses the {@code fields} parameter, an unknown field is a bad request.
+     */
+    private static Uni<Response> withFields(String fields, Set<String> known,
+            Function<FieldSelection, Uni<Response>> read) {
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, known);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build());
+        }
+        return read.apply(selection);
+    }
+
+    private Uni<Response> batchGet(BatchGetRequestDTO request,
+            Function<Collection<String>, Uni<? extends BatchGetResult<?>>> lookup, FieldSelection fields) {
+        if (request == null || request.ids() == null || request.ids().isEmpty()) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("IDs are required").build());
+        }
+        if (request.ids().size() > MAX_BATCH_GET_IDS) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("At most " + MAX_BATCH_GET_IDS + " IDs can be fetched at once").build());
+        }
+        return lookup.apply(request.ids())
+                .map(result -> Response.ok(sparseFields.trim(result, fields, "records")).build());
+    }
+
+    /**
+     * Quarkus marks every response with the identity encoding and only lifts it for responses written in one go.
+     * Dropping it lets Vert.x gzip the chunks of a stream, if the client accepts gzip.
+     */
+    private static void compressStream(HttpServerResponse response) {
+        if ("identity".equals(response.headers().get(HttpHeaders.CONTENT_ENCODING))) {
+            response.headers().remove(HttpHeaders.CONTENT_ENCODING);
+        }
+    }
+
+    private static Response okOrNotFound(Object record) {
+        if (record == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(record).build();
+    }
+
     /**
      * Helper method to map our public DTOs to the internal Avro-generated event object.
      */
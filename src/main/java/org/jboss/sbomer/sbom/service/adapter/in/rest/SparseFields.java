@@ -0,0 +1,51 @@
+package org.jboss.sbomer.sbom.service.adapter.in.rest;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Leaves the fields a caller did not select with {@code fields=} out of generation and enhancement responses. The
+ * response is serialized as usual, then the other properties of the records are removed from the tree.
+ */
+@ApplicationScoped
+public class SparseFields {
+
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public SparseFields(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param entity  a record, a list of records or a wrapper holding them
+     * @param records the property of the wrapper holding the records, e.g. {@code content} of a page, null if the
+     *                entity is a record or a list of them
+     * @return the entity itself if all fields are selected
+     */
+    public Object trim(Object entity, FieldSelection fields, String records) {
+        if (fields.isAll() || entity == null) {
+            return entity;
+        }
+        JsonNode tree = objectMapper.valueToTree(entity);
+        JsonNode target = records != null ? tree.get(records) : tree;
+        if (target != null && target.isArray()) {
+            target.forEach(node -> retain(node, fields));
+        } else {
+            retain(target, fields);
+        }
+        return tree;
+    }
+
+    private static void retain(JsonNode node, FieldSelection fields) {
+        if (node instanceof ObjectNode record) {
+            record.retain(fields.fields());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.jboss.sbomer.sbom.service.adapter.in.rest.dto;
+
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "The IDs of the records to look up.")
+public record BatchGetRequestDTO(
+        @Schema(description = "Generation or enhancement IDs, at most 500.")
+        List<String> ids
+) {}
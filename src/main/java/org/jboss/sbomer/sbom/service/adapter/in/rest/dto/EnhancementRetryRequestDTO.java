@@ -0,0 +1,25 @@
+package org.jboss.sbomer.sbom.service.adapter.in.rest.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Selects FAILED enhancements for a bulk retry. All given criteria have to match, at least one is required.
+ */
+@Schema(description = "Criteria selecting the FAILED enhancements to retry. All given criteria have to match.")
+public record EnhancementRetryRequestDTO(
+        @Schema(description = "Only these enhancement IDs.")
+        List<String> ids,
+        @Schema(description = "Only enhancements of this request.")
+        String requestId,
+        @Schema(description = "Only enhancements of this enhancer.")
+        String enhancerName,
+        @Schema(description = "Only enhancements that failed with this result code.")
+        Integer result,
+        @Schema(description = "Only enhancements that failed at or after this instant.")
+        Instant finishedAfter,
+        @Schema(description = "Only enhancements that failed before this instant.")
+        Instant finishedBefore
+) {}
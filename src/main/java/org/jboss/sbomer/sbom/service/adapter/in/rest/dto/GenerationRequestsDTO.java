@@ -3,6 +3,7 @@ package org.jboss.sbomer.sbom.service.adapter.in.rest.dto;
 import java.util.List;
 
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
@@ -17,5 +18,8 @@ public record GenerationRequestsDTO(
         List<@Valid GenerationRequestDTO> generationRequests,
 
         @Schema(description = "Optional list of publishers to notify upon completion.")
-        List<@Valid PublisherDTO> publishers
+        List<@Valid PublisherDTO> publishers,
+
+        @Schema(description = "Dispatch lane of the generations, NORMAL if not given. HIGH is meant for interactive requests of a few targets, LOW for bulk ones.")
+        RequestPriority priority
 ) {}
@@ -0,0 +1,25 @@
+package org.jboss.sbomer.sbom.service.adapter.in.rest.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Selects FAILED generations for a bulk retry. All given criteria have to match, at least one is required.
+ */
+@Schema(description = "Criteria selecting the FAILED generations to retry. All given criteria have to match.")
+public record GenerationRetryRequestDTO(
+        @Schema(description = "Only these generation IDs.")
+        List<String> ids,
+        @Schema(description = "Only generations of this request.")
+        String requestId,
+        @Schema(description = "Only generations of this generator.", example = "syft")
+        String generatorName,
+        @Schema(description = "Only generations that failed with this result code.")
+        Integer result,
+        @Schema(description = "Only generations that failed at or after this instant.")
+        Instant finishedAfter,
+        @Schema(description = "Only generations that failed before this instant.")
+        Instant finishedBefore
+) {}
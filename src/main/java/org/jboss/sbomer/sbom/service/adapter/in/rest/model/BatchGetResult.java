@@ -0,0 +1,35 @@
+package org.jboss.sbomer.sbom.service.adapter.in.rest.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@Schema(description = "Records looked up by ID, with the IDs that were not found")
+public class BatchGetResult<T> {
+    @Schema(description = "The records found, in the order of the requested IDs")
+    private List<T> records;
+    @Schema(description = "The requested IDs without a record")
+    private List<String> missing;
+
+    /**
+     * Orders the records that were found like the requested IDs, which may contain duplicates.
+     */
+    public static <T> BatchGetResult<T> of(Collection<String> ids, List<T> found, Function<T, String> id) {
+        Map<String, T> byId = found.stream().collect(Collectors.toMap(id, Function.identity(), (a, b) -> a));
+        List<String> requested = ids.stream().filter(Objects::nonNull).distinct().toList();
+        return BatchGetResult.<T>builder()
+                .records(requested.stream().map(byId::get).filter(Objects::nonNull).toList())
+                .missing(requested.stream().filter(requestedId -> !byId.containsKey(requestedId)).toList())
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package org.jboss.sbomer.sbom.service.adapter.in.rest.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@Schema(description = "Keyset paginated response wrapper")
+public class CursorPage<T> {
+    @Schema(description = "The list of results")
+    private List<T> content;
+    @Schema(description = "Pass as 'after' to get the next page, absent on the last page")
+    private String nextCursor;
+    @Schema(description = "Page size")
+    private int pageSize;
+
+    /**
+     * Builds the page from up to {@code pageSize + 1} results, the extra one only telling that there is a next page.
+     */
+    public static <T> CursorPage<T> of(List<T> results, int pageSize, Function<T, String> cursor) {
+        boolean hasNext = results.size() > pageSize;
+        List<T> content = hasNext ? results.subList(0, pageSize) : results;
+        return CursorPage.<T>builder()
+                .content(content)
+                .nextCursor(hasNext ? cursor.apply(content.get(content.size() - 1)) : null)
+                .pageSize(pageSize)
+                .build();
+    }
+}
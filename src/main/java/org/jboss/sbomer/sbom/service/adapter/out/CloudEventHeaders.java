@@ -0,0 +1,81 @@
+package org.jboss.sbomer.sbom.service.adapter.out;
+
+import java.net.URI;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.sbomer.events.common.ContextSpec;
+
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.KafkaMessageFactory;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+
+/**
+ * <p>
+ * Puts the {@link ContextSpec} of an outgoing event into CloudEvents binary-mode headers ({@code ce_id},
+ * {@code ce_type}, {@code ce_source}, {@code ce_time}, ...), next to the Avro payload, so that consumers can filter,
+ * deduplicate and route records without decoding them. The correlation ID goes to the {@code correlationid}
+ * extension, and {@code ce_subject} holds the ID of the record the event is about: the generation, enhancement or
+ * request.
+ * </p>
+ * <p>
+ * Events whose context lacks an ID, type or source, all required by CloudEvents, are sent without these headers.
+ * </p>
+ */
+public final class CloudEventHeaders {
+
+    public static final String CORRELATION_ID_EXTENSION = "correlationid";
+
+    public static final String EVENT_VERSION_EXTENSION = "eventversion";
+
+    private CloudEventHeaders() {}
+
+    /**
+     * @param subject the ID of the record the event is about, or null
+     */
+    public static RecordHeaders of(ContextSpec context, String subject) {
+        RecordHeaders headers = new RecordHeaders();
+        if (context == null || context.getEventId() == null || context.getType() == null
+                || context.getSource() == null) {
+            return headers;
+        }
+        CloudEventBuilder builder = CloudEventBuilder.v1()
+                .withId(context.getEventId())
+                .withType(context.getType())
+                .withSource(URI.create(context.getSource()))
+                .withSubject(subject);
+        if (context.getTimestamp() != null) {
+            builder.withTime(context.getTimestamp().atOffset(ZoneOffset.UTC));
+        }
+        if (context.getCorrelationId() != null) {
+            builder.withExtension(CORRELATION_ID_EXTENSION, context.getCorrelationId());
+        }
+        if (context.getEventVersion() != null) {
+            builder.withExtension(EVENT_VERSION_EXTENSION, context.getEventVersion());
+        }
+        // The writer only needs a topic to build the record whose headers we are after
+        for (Header header : KafkaMessageFactory.createWriter("").writeBinary(builder.build()).headers()) {
+            headers.add(header);
+        }
+        return headers;
+    }
+
+    /**
+     * @param topic the topic to route the event to, the topic of the channel if empty
+     * @return the metadata of a message with the headers of the event
+     */
+    public static Metadata metadata(ContextSpec context, String subject, Optional<String> topic) {
+        return metadata(of(context, subject), topic);
+    }
+
+    public static Metadata metadata(RecordHeaders headers, Optional<String> topic) {
+        OutgoingKafkaRecordMetadata.OutgoingKafkaRecordMetadataBuilder<Object> builder = OutgoingKafkaRecordMetadata
+                .builder()
+                .withHeaders(headers);
+        topic.ifPresent(builder::withTopic);
+        return Metadata.of(builder.build());
+    }
+}
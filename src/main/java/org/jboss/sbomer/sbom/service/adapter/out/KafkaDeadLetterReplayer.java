@@ -0,0 +1,194 @@
+package org.jboss.sbomer.sbom.service.adapter.out;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.core.domain.dto.DeadLetterReplay;
+import org.jboss.sbomer.sbom.service.core.port.spi.DeadLetterReplayer;
+
+import io.smallrye.common.annotation.Identifier;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Replays the dead-letter topics of the incoming channels with a {@code dead-letter-queue.topic}. Records are copied
+ * as they are, without deserializing them, to the topic of the channel. The headers added by the retry and dead-letter
+ * handling are left out, so a replayed record starts over with the first retry topic.
+ * </p>
+ * <p>
+ * The offsets of the replayed records are committed for the {@code sbomer-dead-letter-replay} consumer group once the
+ * records were sent, so a record is replayed once even if it fails again and comes back to the dead-letter topic.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class KafkaDeadLetterReplayer implements DeadLetterReplayer {
+
+    static final String GROUP_ID = "sbomer-dead-letter-replay";
+
+    private static final Pattern DEAD_LETTER_TOPIC = Pattern
+            .compile("mp\\.messaging\\.incoming\\.([^.]+)\\.dead-letter-queue\\.topic");
+
+    /**
+     * Added by the {@code delayed-retry-topic} and {@code dead-letter-queue} failure strategies, and by the inbound
+     * adapters with the failure.
+     */
+    private static final List<String> FAILURE_HEADER_PREFIXES = List.of("delayed-retry-", "dead-letter-",
+            "sbomer-failure-");
+
+    /**
+     * The topic of an incoming channel and its dead-letter topic.
+     */
+    public record Route(String topic, String deadLetterTopic) {
+    }
+
+    private final Map<String, Route> routes;
+
+    private final Supplier<Consumer<byte[], byte[]>> consumers;
+
+    private final Supplier<Producer<byte[], byte[]>> producers;
+
+    private final Duration pollTimeout;
+
+    @Inject
+    public KafkaDeadLetterReplayer(Config config,
+            @Identifier("default-kafka-broker") Map<String, Object> kafkaConfig,
+            @ConfigProperty(name = "sbomer.dead-letter.poll-timeout", defaultValue = "5s") Duration pollTimeout) {
+        this(routes(config), () -> new KafkaConsumer<>(consumerConfig(kafkaConfig)),
+                () -> new KafkaProducer<>(producerConfig(kafkaConfig)), pollTimeout);
+    }
+
+    public KafkaDeadLetterReplayer(Map<String, Route> routes, Supplier<Consumer<byte[], byte[]>> consumers,
+            Supplier<Producer<byte[], byte[]>> producers, Duration pollTimeout) {
+        this.routes = routes;
+        this.consumers = consumers;
+        this.producers = producers;
+        this.pollTimeout = pollTimeout;
+    }
+
+    @Override
+    public DeadLetterReplay replay(String channel, int max) {
+        Route route = routes.get(channel);
+        if (route == null) {
+            throw new IllegalArgumentException("Channel has no dead-letter topic: " + channel);
+        }
+
+        int replayed = 0;
+        try (Consumer<byte[], byte[]> consumer = consumers.get(); Producer<byte[], byte[]> producer = producers.get()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(route.deadLetterTopic())
+                    .stream()
+                    .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(partitions));
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset);
+                } else {
+                    consumer.seekToBeginning(List.of(partition));
+                }
+            }
+
+            ConsumerRecords<byte[], byte[]> records;
+            while (replayed < max && !(records = consumer.poll(pollTimeout)).isEmpty()) {
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                List<Future<RecordMetadata>> sends = new ArrayList<>();
+                for (ConsumerRecord<byte[], byte[]> deadLetter : records) {
+                    if (replayed == max) {
+                        break;
+                    }
+                    sends.add(producer.send(replayOf(deadLetter, route.topic())));
+                    offsets.put(new TopicPartition(deadLetter.topic(), deadLetter.partition()),
+                            new OffsetAndMetadata(deadLetter.offset() + 1));
+                    replayed++;
+                }
+                producer.flush();
+                for (Future<RecordMetadata> send : sends) {
+                    send.get();
+                }
+                consumer.commitSync(offsets);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + route.deadLetterTopic(), e);
+        } catch (ExecutionException | KafkaException e) {
+            // Whatever was sent before the failure was committed already, a new replay picks up from there
+            throw new IllegalStateException("Could not replay " + route.deadLetterTopic() + " after " + replayed
+                    + " records", e);
+        }
+
+        log.info("Replayed {} records from {} to {}", replayed, route.deadLetterTopic(), route.topic());
+        return new DeadLetterReplay(channel, route.deadLetterTopic(), route.topic(), replayed);
+    }
+
+    private static ProducerRecord<byte[], byte[]> replayOf(ConsumerRecord<byte[], byte[]> deadLetter, String topic) {
+        ProducerRecord<byte[], byte[]> replay = new ProducerRecord<>(topic, deadLetter.key(), deadLetter.value());
+        for (Header header : deadLetter.headers()) {
+            if (FAILURE_HEADER_PREFIXES.stream().noneMatch(header.key()::startsWith)) {
+                replay.headers().add(header);
+            }
+        }
+        return replay;
+    }
+
+    private static Map<String, Route> routes(Config config) {
+        Map<String, Route> routes = new HashMap<>();
+        for (String name : config.getPropertyNames()) {
+            Matcher matcher = DEAD_LETTER_TOPIC.matcher(name);
+            if (matcher.matches()) {
+                String channel = matcher.group(1);
+                config.getOptionalValue("mp.messaging.incoming." + channel + ".topic", String.class)
+                        .ifPresent(topic -> routes.put(channel,
+                                new Route(topic, config.getValue(name, String.class))));
+            }
+        }
+        return routes;
+    }
+
+    private static Map<String, Object> consumerConfig(Map<String, Object> kafkaConfig) {
+        Map<String, Object> consumerConfig = new HashMap<>(kafkaConfig);
+        consumerConfig.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
+        consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        return consumerConfig;
+    }
+
+    private static Map<String, Object> producerConfig(Map<String, Object> kafkaConfig) {
+        Map<String, Object> producerConfig = new HashMap<>(kafkaConfig);
+        producerConfig.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerConfig.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+        producerConfig.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+        return producerConfig;
+    }
+}
@@ -3,6 +3,7 @@ package org.jboss.sbomer.sbom.service.adapter.out;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.apache.avro.io.BinaryEncoder;
@@ -11,6 +12,7 @@ import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.jboss.sbomer.events.common.ContextSpec;
 import org.jboss.sbomer.events.common.FailureSpec;
 import org.jboss.sbomer.events.error.ErrorData;
@@ -69,7 +71,7 @@ public class KafkaFailureNotifier implements FailureNotifier {
         log.error("Publishing a failure notification for event of type '{}' with correlationId '{}'. Reason: {}", eventType, correlationId, failure.getReason());
 
         // Send the event to the Kafka topic
-        emitter.send(pf);
+        emitter.send(Message.of(pf, CloudEventHeaders.metadata(context, null, Optional.empty())));
 
         log.error("Failure notification sent successfully to Kafka topic 'sbomer.errors'.");
     }
@@ -0,0 +1,34 @@
+package org.jboss.sbomer.sbom.service.adapter.out;
+
+import java.util.Optional;
+
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.sbomer.events.orchestration.RequestsFinished;
+import org.jboss.sbomer.sbom.service.core.port.spi.GenerationCompletedNotifier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+@ApplicationScoped
+@Slf4j
+public class KafkaGenerationCompletedNotifier implements GenerationCompletedNotifier {
+
+    @Inject
+    @Channel("generation-completed")
+    Emitter<RequestsFinished> emitter;
+
+    @Override
+    public void notify(RequestsFinished generationCompletedEvent) {
+        String generationId = generationCompletedEvent.getData()
+                .getCompletedGenerations()
+                .get(0)
+                .getGenerationRequest()
+                .getGenerationId();
+        emitter.send(Message.of(generationCompletedEvent,
+                CloudEventHeaders.metadata(generationCompletedEvent.getContext(), generationId, Optional.empty())));
+        log.debug("generation.completed sent to Kafka topic 'generation.completed' for generation ID {}", generationId);
+    }
+}
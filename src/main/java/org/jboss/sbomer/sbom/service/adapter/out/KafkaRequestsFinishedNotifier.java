@@ -1,25 +1,73 @@
 package org.jboss.sbomer.sbom.service.adapter.out;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
 import org.jboss.sbomer.events.orchestration.RequestsFinished;
+import org.jboss.sbomer.sbom.service.core.domain.dto.CompletionManifest;
 import org.jboss.sbomer.sbom.service.core.port.spi.RequestsFinishedNotifier;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Sends {@code RequestsFinished} events to the {@code requests.finished} topic. An event whose completed generations
+ * are in a manifest has none of its own and points to the manifest with the {@code sbomer-manifest-*} headers. Both
+ * carry the {@link CloudEventHeaders}.
+ */
 @ApplicationScoped
 @Slf4j
 public class KafkaRequestsFinishedNotifier implements RequestsFinishedNotifier {
 
+    public static final String MANIFEST_LOCATION_HEADER = "sbomer-manifest-location";
+
+    public static final String MANIFEST_CONTENT_TYPE_HEADER = "sbomer-manifest-content-type";
+
+    public static final String MANIFEST_CONTENT_ENCODING_HEADER = "sbomer-manifest-content-encoding";
+
+    public static final String MANIFEST_GENERATIONS_HEADER = "sbomer-manifest-generations";
+
+    public static final String MANIFEST_SHA256_HEADER = "sbomer-manifest-sha256";
+
+    public static final String MANIFEST_SIZE_HEADER = "sbomer-manifest-size";
+
     @Inject
     @Channel("requests-finished")
     Emitter<RequestsFinished> emitter;
 
     @Override
     public void notify(RequestsFinished requestsFinishedEvent) {
-        emitter.send(requestsFinishedEvent);
+        emitter.send(Message.of(requestsFinishedEvent, CloudEventHeaders.metadata(requestsFinishedEvent.getContext(),
+                requestsFinishedEvent.getData().getRequestId(), Optional.empty())));
         log.error("requests.finished sent successfully to Kafka topic 'requests.finished' for request ID: " + requestsFinishedEvent.getData().getRequestId());
     }
+
+    @Override
+    public void notify(RequestsFinished requestsFinishedEvent, CompletionManifest manifest) {
+        emitter.send(Message.of(requestsFinishedEvent, manifestMetadata(requestsFinishedEvent, manifest)));
+        log.info("requests.finished sent to Kafka topic 'requests.finished' for request ID {} with a manifest of {} generations at {}",
+                requestsFinishedEvent.getData().getRequestId(), manifest.generations(), manifest.location());
+    }
+
+    private static Metadata manifestMetadata(RequestsFinished requestsFinishedEvent, CompletionManifest manifest) {
+        RecordHeaders headers = CloudEventHeaders.of(requestsFinishedEvent.getContext(),
+                requestsFinishedEvent.getData().getRequestId());
+        headers.add(MANIFEST_LOCATION_HEADER, bytes(manifest.location().toString()));
+        headers.add(MANIFEST_CONTENT_TYPE_HEADER, bytes(manifest.contentType()));
+        headers.add(MANIFEST_CONTENT_ENCODING_HEADER, bytes(manifest.contentEncoding()));
+        headers.add(MANIFEST_GENERATIONS_HEADER, bytes(Long.toString(manifest.generations())));
+        headers.add(MANIFEST_SHA256_HEADER, bytes(manifest.sha256()));
+        headers.add(MANIFEST_SIZE_HEADER, bytes(Long.toString(manifest.size())));
+        return CloudEventHeaders.metadata(headers, Optional.empty());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
 }
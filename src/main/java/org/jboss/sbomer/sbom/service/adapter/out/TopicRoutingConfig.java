@@ -0,0 +1,37 @@
+package org.jboss.sbomer.sbom.service.adapter.out;
+
+import java.util.Map;
+import java.util.Optional;
+
+import io.smallrye.config.ConfigMapping;
+
+/**
+ * Configuration of the {@link WorkerTopics}.
+ */
+@ConfigMapping(prefix = "sbomer.routing")
+public interface TopicRoutingConfig {
+
+    /**
+     * Routing of {@code generation.created} events by generator name.
+     */
+    Route generation();
+
+    /**
+     * Routing of {@code enhancement.created} events by enhancer name.
+     */
+    Route enhancement();
+
+    interface Route {
+
+        /**
+         * Topic of the workers without one in {@link #topics()}, with {@code {worker}} replaced by the worker name, e.g.
+         * {@code generation.created.{worker}}. Without it, their events go to the topic of the channel.
+         */
+        Optional<String> pattern();
+
+        /**
+         * Topics by worker name.
+         */
+        Map<String, String> topics();
+    }
+}
@@ -0,0 +1,70 @@
+package org.jboss.sbomer.sbom.service.adapter.out;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.jboss.sbomer.events.common.EnhancerSpec;
+import org.jboss.sbomer.events.common.GeneratorSpec;
+import org.jboss.sbomer.events.orchestration.EnhancementCreated;
+import org.jboss.sbomer.events.orchestration.EnhancementData;
+import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.events.orchestration.GenerationData;
+import org.jboss.sbomer.events.orchestration.Recipe;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * <p>
+ * Routes {@code generation.created} and {@code enhancement.created} events to a topic per generator or enhancer, so
+ * that every worker deployment only consumes its own events and scales with them. The topic of a worker comes from the
+ * {@code topics} map of its route, else from the {@code pattern}; events of workers without either go to the topic of
+ * the channel, as do all events while nothing is configured.
+ * </p>
+ * <p>
+ * Characters that Kafka does not allow in topic names are replaced in worker names by {@code _}. Routed topics are not
+ * created here: they have to exist, or the broker has to create topics on demand.
+ * </p>
+ */
+@ApplicationScoped
+public class WorkerTopics {
+
+    static final String WORKER_PLACEHOLDER = "{worker}";
+
+    private static final Pattern ILLEGAL_TOPIC_CHARACTERS = Pattern.compile("[^a-zA-Z0-9._-]");
+
+    private final TopicRoutingConfig config;
+
+    @Inject
+    public WorkerTopics(TopicRoutingConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * @return the topic of the generator of the event, or nothing for the topic of the channel
+     */
+    public Optional<String> generation(GenerationCreated event) {
+        return topic(config.generation(), Optional.ofNullable(event.getData())
+                .map(GenerationData::getRecipe)
+                .map(Recipe::getGenerator)
+                .map(GeneratorSpec::getName));
+    }
+
+    /**
+     * @return the topic of the enhancer of the event, or nothing for the topic of the channel
+     */
+    public Optional<String> enhancement(EnhancementCreated event) {
+        return topic(config.enhancement(), Optional.ofNullable(event.getData())
+                .map(EnhancementData::getEnhancer)
+                .map(EnhancerSpec::getName));
+    }
+
+    /**
+     * @return the topic of the worker, or nothing if it goes to the topic of the channel
+     */
+    public static Optional<String> topic(TopicRoutingConfig.Route route, Optional<String> worker) {
+        return worker.flatMap(name -> Optional.ofNullable(route.topics().get(name))
+                .or(() -> route.pattern().map(pattern -> pattern.replace(WORKER_PLACEHOLDER,
+                        ILLEGAL_TOPIC_CHARACTERS.matcher(name).replaceAll("_")))));
+    }
+}
@@ -0,0 +1,63 @@
+package org.jboss.sbomer.sbom.service.adapter.out.blob;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.core.port.spi.BlobStore;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * {@link BlobStore} in a local directory, typically a volume shared with the consumers or served by a web server at
+ * {@code base-url}. Blobs are written to a temporary file next to their final path and moved in place once complete,
+ * so readers never see a partial blob.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "sbomer.blob-store.type", stringValue = "filesystem", enableIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+    private final Path directory;
+
+    private final Optional<URI> baseUrl;
+
+    @Inject
+    public FileSystemBlobStore(
+            @ConfigProperty(name = "sbomer.blob-store.directory", defaultValue = "data/blobs") String directory,
+            @ConfigProperty(name = "sbomer.blob-store.base-url") Optional<URI> baseUrl) {
+        this(Path.of(directory), baseUrl);
+    }
+
+    public FileSystemBlobStore(Path directory, Optional<URI> baseUrl) {
+        this.directory = directory.toAbsolutePath().normalize();
+        // Keys are resolved against the base URL, which only keeps its last segment with a trailing slash
+        this.baseUrl = baseUrl.map(url -> url.toString().endsWith("/") ? url : URI.create(url + "/"));
+    }
+
+    @Override
+    public URI write(String key, BlobWriter writer) throws IOException {
+        Path path = directory.resolve(key).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IllegalArgumentException("Blob key '" + key + "' is outside of the blob store");
+        }
+        Files.createDirectories(path.getParent());
+        Path partial = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".partial");
+        try {
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                writer.writeTo(out);
+            }
+            Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return baseUrl.map(url -> url.resolve(directory.relativize(path).toString().replace('\\', '/')))
+                .orElseGet(path::toUri);
+    }
+}
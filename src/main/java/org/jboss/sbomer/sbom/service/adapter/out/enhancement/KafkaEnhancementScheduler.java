@@ -2,22 +2,53 @@ package org.jboss.sbomer.sbom.service.adapter.out.enhancement;
 
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
 import org.jboss.sbomer.events.orchestration.EnhancementCreated;
+import org.jboss.sbomer.sbom.service.adapter.out.CloudEventHeaders;
+import org.jboss.sbomer.sbom.service.adapter.out.WorkerTopics;
+import org.jboss.sbomer.sbom.service.adapter.out.spool.EventSpool;
+import org.jboss.sbomer.sbom.service.adapter.out.spool.EventSpools;
 import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
 
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
 @ApplicationScoped
+@Startup
 @Slf4j
 public class KafkaEnhancementScheduler implements EnhancementScheduler {
 
     @Channel("enhancement-created")
     Emitter<EnhancementCreated> emitter;
 
+    @Inject
+    EventSpools eventSpools;
+
+    @Inject
+    WorkerTopics workerTopics;
+
+    private EventSpool<EnhancementCreated> spool;
+
+    // Started eagerly, so that events spooled before a restart are replayed without waiting for new ones
+    @PostConstruct
+    void openSpool() {
+        spool = eventSpools.open("enhancement-created", emitter, this::metadata, EnhancementCreated.class);
+    }
+
     @Override
     public void schedule(EnhancementCreated enhancementCreated) {
-        emitter.send(enhancementCreated);
+        spool.send(enhancementCreated);
         log.debug("Sent enhancement event {}", enhancementCreated.toString());
     }
+
+    /**
+     * CloudEvents headers of the event, and the topic of its enhancer, computed again when a spooled event is replayed.
+     */
+    private Metadata metadata(EnhancementCreated event) {
+        return CloudEventHeaders.metadata(event.getContext(), event.getData().getEnhancementId(),
+                workerTopics.enhancement(event));
+    }
 }
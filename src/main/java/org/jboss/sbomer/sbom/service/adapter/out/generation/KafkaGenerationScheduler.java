@@ -1,23 +1,93 @@
 package org.jboss.sbomer.sbom.service.adapter.out.generation;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.sbomer.events.common.GenerationRequestSpec;
 import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.sbom.service.adapter.out.CloudEventHeaders;
+import org.jboss.sbomer.sbom.service.adapter.out.WorkerTopics;
+import org.jboss.sbomer.sbom.service.adapter.out.spool.EventSpool;
+import org.jboss.sbomer.sbom.service.adapter.out.spool.EventSpools;
+import org.jboss.sbomer.sbom.service.core.domain.dto.CostEstimate;
 import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+import org.jboss.sbomer.sbom.service.core.service.CostModel;
 
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
 @ApplicationScoped
+@Startup
 @Slf4j
 public class KafkaGenerationScheduler implements GenerationScheduler {
 
+    /**
+     * Resource hints, from the {@link CostModel}, for workers to size the generation by: the expected duration in
+     * milliseconds (if any generation like it finished), the failure probability, and {@code high} or {@code default}
+     * memory depending on how often generations like it ran out of memory.
+     */
+    public static final String DURATION_HINT_HEADER = "sbomer-hint-duration-ms";
+
+    public static final String FAILURE_PROBABILITY_HINT_HEADER = "sbomer-hint-failure-probability";
+
+    public static final String MEMORY_HINT_HEADER = "sbomer-hint-memory";
+
     @Channel("generation-created")
     Emitter<GenerationCreated> emitter;
 
+    @Inject
+    EventSpools eventSpools;
+
+    @Inject
+    WorkerTopics workerTopics;
+
+    @Inject
+    CostModel costModel;
+
+    private EventSpool<GenerationCreated> spool;
+
+    // Started eagerly, so that events spooled before a restart are replayed without waiting for new ones
+    @PostConstruct
+    void openSpool() {
+        spool = eventSpools.open("generation-created", emitter, this::metadata, GenerationCreated.class);
+    }
+
     @Override
     public void schedule(GenerationCreated generationCreated) {
-        emitter.send(generationCreated);
+        spool.send(generationCreated);
         log.debug("Sent generation event {}", generationCreated.toString());
     }
+
+    /**
+     * CloudEvents headers and resource hints of the event, and the topic of its generator, computed again when a
+     * spooled event is replayed.
+     */
+    private Metadata metadata(GenerationCreated event) {
+        GenerationRequestSpec request = event.getData().getGenerationRequest();
+        RecordHeaders headers = CloudEventHeaders.of(event.getContext(), request.getGenerationId());
+        if (costModel.isEnabled() && request.getTarget() != null) {
+            costModel.estimate(event.getData().getRecipe().getGenerator().getName(), request.getTarget().getType(),
+                    request.getTarget().getIdentifier()).ifPresent(estimate -> addHints(headers, estimate));
+        }
+        return CloudEventHeaders.metadata(headers, workerTopics.generation(event));
+    }
+
+    private static void addHints(RecordHeaders headers, CostEstimate estimate) {
+        if (estimate.expectedDuration() != null) {
+            header(headers, DURATION_HINT_HEADER, String.valueOf(estimate.expectedDuration().toMillis()));
+        }
+        header(headers, FAILURE_PROBABILITY_HINT_HEADER, String.format(Locale.ROOT, "%.3f", estimate.failureProbability()));
+        header(headers, MEMORY_HINT_HEADER, estimate.highMemory() ? "high" : "default");
+    }
+
+    private static void header(RecordHeaders headers, String key, String value) {
+        headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -6,4 +6,4 @@ import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
-public class EnhancementRepository implements PanacheRepositoryBase<EnhancementEntity, String> {}
+public class EnhancementRepository implements PanacheRepositoryBase<EnhancementEntity, Long> {}
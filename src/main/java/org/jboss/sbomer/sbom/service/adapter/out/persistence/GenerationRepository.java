@@ -6,4 +6,4 @@ import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
-public class GenerationRepository implements PanacheRepositoryBase<GenerationEntity, String> {}
+public class GenerationRepository implements PanacheRepositoryBase<GenerationEntity, Long> {}
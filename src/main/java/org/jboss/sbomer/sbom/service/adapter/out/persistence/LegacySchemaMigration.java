@@ -0,0 +1,259 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Brings databases created by older versions of the service up to the current entity layout. Hibernate's
+ * {@code update} schema strategy only adds missing tables and columns; it never moves data, changes column types or
+ * drops anything, so those steps run here on startup. Every step checks whether it still applies and is a no-op on an
+ * up-to-date schema.
+ * </p>
+ * <ol>
+ * <li>SBOM URLs are moved from the {@code generation_sbom_urls} and {@code enhancement_sbom_urls} element-collection
+ * tables into the inline array columns, and the old tables are dropped.</li>
+ * <li>VARCHAR IDs and foreign keys ({@code "G0ABCDEFGHJKM"}) are converted to the numeric TSID they were rendered
+ * from, so every record keeps its external ID. IDs that are not prefixed TSIDs (UUID defaults, seeded dev data) have
+ * no such number, and two IDs of a table may convert to the same one (they only differ in case or prefix). Both are
+ * checked before anything is altered; if there are any, startup fails with the offending rows and the schema is left
+ * as it is, to be cleaned up by hand.</li>
+ * <li>Rows created before optimistic locking get version 0, Hibernate adds the {@code version} columns empty.</li>
+ * <li>On PostgreSQL, a trigram index on {@code generations.targetIdentifier} serves the prefix and substring search.
+ * JPA cannot declare it, and the {@code pg_trgm} extension it needs may not be available to the service's database
+ * user; the search then still works, without the index.</li>
+ * </ol>
+ */
+@ApplicationScoped
+@UnlessBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory", enableIfMissing = true)
+@Slf4j
+public class LegacySchemaMigration {
+
+    /**
+     * The ID and foreign key columns of the tables keyed on TSIDs, the primary key first where there is one.
+     */
+    private static final Map<String, List<String>> ID_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        ID_COLUMNS.put("requests", List.of("id"));
+        ID_COLUMNS.put("generations", List.of("id", "request_id"));
+        ID_COLUMNS.put("enhancements", List.of("id", "request_id", "generation_id"));
+        ID_COLUMNS.put("request_publishers", List.of("request_id"));
+    }
+
+    private static final String TSID_PATTERN = "^[RGE][0-9A-HJKMNP-TV-Za-hjkmnp-tv-z]{13}$";
+
+    private static final String TSID_TO_BIGINT_FUNCTION = """
+            CREATE OR REPLACE FUNCTION sbomer_tsid_to_bigint(v text) RETURNS bigint AS $$
+            DECLARE
+                alphabet CONSTANT text := '0123456789ABCDEFGHJKMNPQRSTVWXYZ';
+                result numeric := 0;
+            BEGIN
+                IF v IS NULL THEN
+                    RETURN NULL;
+                END IF;
+                IF v !~ '%s' THEN
+                    RAISE EXCEPTION 'Not a prefixed TSID: %%', v;
+                END IF;
+                FOR i IN 2..14 LOOP
+                    result := result * 32 + strpos(alphabet, upper(substr(v, i, 1))) - 1;
+                END LOOP;
+                IF result >= 9223372036854775808 THEN
+                    result := result - 18446744073709551616;
+                END IF;
+                RETURN CAST(result AS bigint);
+            END;
+            $$ LANGUAGE plpgsql IMMUTABLE
+            """.formatted(TSID_PATTERN);
+
+    private static final String TRIGRAM_INDEX = "idx_generations_target_identifier_trgm";
+
+    @Inject
+    EntityManager entityManager;
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        migrateSbomUrls("generation_sbom_urls", "generations", "generationSbomUrls", "generation_id");
+        migrateSbomUrls("enhancement_sbom_urls", "enhancements", "enhancedSbomUrls", "enhancement_id");
+
+        if (hasStringIds()) {
+            migrateIdsToNumericTsids();
+        }
+
+        for (String table : List.of("requests", "generations", "enhancements")) {
+            initializeVersions(table);
+        }
+
+        createTrigramIndex();
+    }
+
+    private void migrateSbomUrls(String legacyTable, String ownerTable, String urlColumn, String joinColumn) {
+        if (!tableExists(legacyTable)) {
+            return;
+        }
+
+        int migrated = entityManager.createNativeQuery("UPDATE " + ownerTable + " o SET " + urlColumn
+                + " = (SELECT array_agg(l.url) FROM " + legacyTable + " l WHERE l." + joinColumn + " = o.id)"
+                + " WHERE o." + urlColumn + " IS NULL AND EXISTS (SELECT 1 FROM " + legacyTable + " l WHERE l."
+                + joinColumn + " = o.id)")
+                .executeUpdate();
+        entityManager.createNativeQuery("DROP TABLE " + legacyTable).executeUpdate();
+
+        log.info("Migrated SBOM URLs of {} rows from '{}' into '{}.{}'", migrated, legacyTable, ownerTable, urlColumn);
+    }
+
+    private void initializeVersions(String table) {
+        int initialized = entityManager.createNativeQuery("UPDATE " + table + " SET version = 0 WHERE version IS NULL")
+                .executeUpdate();
+        if (initialized > 0) {
+            log.info("Initialized the version of {} rows in '{}'", initialized, table);
+        }
+    }
+
+    /**
+     * Runs in a savepoint, so that a missing privilege does not abort the rest of the startup transaction.
+     */
+    private void createTrigramIndex() {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+            Savepoint savepoint = connection.setSavepoint();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                statement.execute("CREATE INDEX IF NOT EXISTS " + TRIGRAM_INDEX
+                        + " ON generations USING gin (targetIdentifier gin_trgm_ops)");
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                log.warn("Could not create the trigram index {}, target identifier search will scan: {}",
+                        TRIGRAM_INDEX, e.getMessage());
+            }
+        });
+    }
+
+    private boolean tableExists(String table) {
+        Number count = (Number) entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = ?1")
+                .setParameter(1, table)
+                .getSingleResult();
+        return count.intValue() > 0;
+    }
+
+    private boolean hasStringIds() {
+        Number count = (Number) entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE LOWER(table_name) = 'requests'"
+                        + " AND LOWER(column_name) = 'id' AND LOWER(data_type) LIKE '%char%'")
+                .getSingleResult();
+        return count.intValue() > 0;
+    }
+
+    /**
+     * Runs over plain JDBC, as the PL/pgSQL body would otherwise be parsed for Hibernate query parameters.
+     */
+    private void migrateIdsToNumericTsids() {
+        log.info("Converting VARCHAR IDs to numeric TSIDs");
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                List<String> dropForeignKeys = new ArrayList<>();
+                try (ResultSet foreignKeys = statement.executeQuery(
+                        "SELECT table_name, constraint_name FROM information_schema.table_constraints"
+                                + " WHERE constraint_type = 'FOREIGN KEY' AND table_name IN ('"
+                                + String.join("', '", ID_COLUMNS.keySet()) + "')")) {
+                    while (foreignKeys.next()) {
+                        dropForeignKeys.add("ALTER TABLE " + foreignKeys.getString(1) + " DROP CONSTRAINT \""
+                                + foreignKeys.getString(2) + "\"");
+                    }
+                }
+
+                statement.execute(TSID_TO_BIGINT_FUNCTION);
+                checkConvertible(statement);
+
+                for (String sql : dropForeignKeys) {
+                    statement.execute(sql);
+                }
+                for (Map.Entry<String, List<String>> table : ID_COLUMNS.entrySet()) {
+                    statement.execute(toBigint(table.getKey(), table.getValue()));
+                }
+                statement.execute("DROP FUNCTION sbomer_tsid_to_bigint(text)");
+
+                statement.execute("ALTER TABLE generations ADD CONSTRAINT fk_generations_request"
+                        + " FOREIGN KEY (request_id) REFERENCES requests (id)");
+                statement.execute("ALTER TABLE enhancements ADD CONSTRAINT fk_enhancements_request"
+                        + " FOREIGN KEY (request_id) REFERENCES requests (id)");
+                statement.execute("ALTER TABLE enhancements ADD CONSTRAINT fk_enhancements_generation"
+                        + " FOREIGN KEY (generation_id) REFERENCES generations (id)");
+                statement.execute("ALTER TABLE request_publishers ADD CONSTRAINT fk_request_publishers_request"
+                        + " FOREIGN KEY (request_id) REFERENCES requests (id)");
+            }
+        });
+
+        log.info("Converted IDs of tables {} to numeric TSIDs", ID_COLUMNS.keySet());
+    }
+
+    /**
+     * Fails if an ID would not keep its value: it is not a prefixed TSID, or another ID of the same table converts to
+     * the same number. The startup transaction, DDL included, is rolled back then.
+     */
+    private static void checkConvertible(Statement statement) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, List<String>> table : ID_COLUMNS.entrySet()) {
+            for (String column : table.getValue()) {
+                try (ResultSet rows = statement.executeQuery("SELECT COUNT(*), MIN(" + column + ") FROM "
+                        + table.getKey() + " WHERE " + column + " !~ '" + TSID_PATTERN + "'")) {
+                    rows.next();
+                    if (rows.getLong(1) > 0) {
+                        problems.add(rows.getLong(1) + " values of " + table.getKey() + "." + column
+                                + " are not prefixed TSIDs, e.g. '" + rows.getString(2) + "'");
+                    }
+                }
+            }
+        }
+        if (problems.isEmpty()) {
+            for (Map.Entry<String, List<String>> table : ID_COLUMNS.entrySet()) {
+                if (!"id".equals(table.getValue().get(0))) {
+                    continue;
+                }
+                try (ResultSet rows = statement.executeQuery("SELECT COUNT(*), MIN(ids) FROM (SELECT"
+                        + " string_agg(id, ', ') AS ids FROM " + table.getKey()
+                        + " GROUP BY sbomer_tsid_to_bigint(id) HAVING COUNT(*) > 1) collisions")) {
+                    rows.next();
+                    if (rows.getLong(1) > 0) {
+                        problems.add(rows.getLong(1) + " groups of IDs in " + table.getKey()
+                                + " convert to the same number, e.g. " + rows.getString(2));
+                    }
+                }
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Cannot convert VARCHAR IDs to numeric TSIDs without changing them: "
+                    + String.join("; ", problems) + ". Update or remove these rows and restart.");
+        }
+    }
+
+    private static String toBigint(String table, List<String> columns) {
+        List<String> alterations = new ArrayList<>();
+        for (String column : columns) {
+            alterations.add("ALTER COLUMN " + column + " TYPE bigint USING sbomer_tsid_to_bigint(" + column + ")");
+        }
+        return "ALTER TABLE " + table + " " + String.join(", ", alterations);
+    }
+}
@@ -0,0 +1,129 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.port.spi.ReactiveStatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+
+import io.quarkus.arc.DefaultBean;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Fallback {@link ReactiveStatusRepository} for builds without a reactive PostgreSQL datasource (the in-memory
+ * repository, H2 in tests). Runs the blocking {@link StatusRepository} on the worker pool, so the event loop is never
+ * blocked, but concurrency stays bound to the worker pool size.
+ */
+@ApplicationScoped
+@DefaultBean
+public class OffloadingReactiveStatusRepository implements ReactiveStatusRepository {
+
+    @Inject
+    StatusRepository statusRepository;
+
+    @Override
+    public Uni<RequestRecord> findRequestById(String requestId) {
+        return offload(() -> statusRepository.findRequestById(requestId));
+    }
+
+    @Override
+    public Uni<Page<RequestRecord>> findAllRequests(int pageIndex, int pageSize) {
+        return offload(() -> statusRepository.findAllRequests(pageIndex, pageSize));
+    }
+
+    @Override
+    public Uni<GenerationRecord> findGenerationById(String generationId) {
+        return offload(() -> statusRepository.findGenerationById(generationId));
+    }
+
+    @Override
+    public Uni<List<GenerationRecord>> findGenerationsByIds(Collection<String> generationIds) {
+        return offload(() -> statusRepository.findGenerationsByIds(generationIds));
+    }
+
+    @Override
+    public Uni<Page<GenerationRecord>> findAllGenerations(int pageIndex, int pageSize) {
+        return offload(() -> statusRepository.findAllGenerations(pageIndex, pageSize));
+    }
+
+    @Override
+    public Uni<List<GenerationRecord>> searchGenerations(GenerationSearchQuery query) {
+        return offload(() -> statusRepository.searchGenerations(query));
+    }
+
+    @Override
+    public Multi<GenerationRecord> findGenerationsByRequestId(String requestId) {
+        return offload(() -> statusRepository.findGenerationsByRequestId(requestId))
+                .onItem().transformToMulti(records -> Multi.createFrom().iterable(records));
+    }
+
+    @Override
+    public Uni<Page<GenerationRecord>> findGenerationsByRequestId(String requestId, int pageIndex, int pageSize) {
+        return offload(() -> statusRepository.findGenerationsByRequestId(requestId, pageIndex, pageSize));
+    }
+
+    @Override
+    public Uni<List<GenerationRecord>> scrollGenerationsByRequestId(String requestId, String after, int limit) {
+        return offload(() -> statusRepository.scrollGenerationsByRequestId(requestId, after, limit));
+    }
+
+    @Override
+    public Uni<EnhancementRecord> findEnhancementById(String enhancementId) {
+        return offload(() -> statusRepository.findEnhancementById(enhancementId));
+    }
+
+    @Override
+    public Uni<List<EnhancementRecord>> findEnhancementsByIds(Collection<String> enhancementIds) {
+        return offload(() -> statusRepository.findEnhancementsByIds(enhancementIds));
+    }
+
+    @Override
+    public Multi<EnhancementRecord> findEnhancementsByGenerationId(String generationId) {
+        return offload(() -> statusRepository.findEnhancementsByGenerationId(generationId))
+                .onItem().transformToMulti(records -> Multi.createFrom().iterable(records));
+    }
+
+    @Override
+    public Uni<Page<EnhancementRecord>> findAllEnhancements(int pageIndex, int pageSize) {
+        return offload(() -> statusRepository.findAllEnhancements(pageIndex, pageSize));
+    }
+
+    @Override
+    public Uni<RecordStamp> findRequestStamp(String requestId) {
+        return offload(() -> statusRepository.findRequestStamp(requestId));
+    }
+
+    @Override
+    public Uni<RecordStamp> findGenerationStamp(String generationId) {
+        return offload(() -> statusRepository.findGenerationStamp(generationId));
+    }
+
+    @Override
+    public Uni<RecordStamp> findEnhancementStamp(String enhancementId) {
+        return offload(() -> statusRepository.findEnhancementStamp(enhancementId));
+    }
+
+    /**
+     * The blocking repositories always load whole records, only the response is narrowed.
+     */
+    @Override
+    public ReactiveStatusRepository selecting(FieldSelection fields) {
+        return this;
+    }
+
+    private static <T> Uni<T> offload(Supplier<T> call) {
+        return Uni.createFrom().item(call).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+}
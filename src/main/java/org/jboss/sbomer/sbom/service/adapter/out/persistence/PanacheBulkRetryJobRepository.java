@@ -0,0 +1,79 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.BulkRetryJobEntity;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.port.spi.BulkRetryJobRepository;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Keeps the bulk retries in the {@code bulk_retry_jobs} table, one row per job. Only the replica running a job writes
+ * its row, one update per batch.
+ */
+@ApplicationScoped
+@Transactional
+@UnlessBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory", enableIfMissing = true)
+public class PanacheBulkRetryJobRepository implements BulkRetryJobRepository {
+
+    @Inject
+    BulkRetryJobEntityRepository jobRepository;
+
+    @ConfigProperty(name = "sbomer.bulk-retry.retained-jobs", defaultValue = "100")
+    int retainedJobs;
+
+    @Override
+    public void create(BulkRetryJob job) {
+        BulkRetryJobEntity entity = new BulkRetryJobEntity();
+        entity.setId(job.getId());
+        entity.setKind(job.getKind());
+        entity.setMatched(job.getMatched());
+        entity.setCreated(job.getCreated());
+        copy(job, entity);
+        jobRepository.persist(entity);
+        List<String> expired = jobRepository.findAll(Sort.descending("created", "id"))
+                .range(retainedJobs, Integer.MAX_VALUE - 1)
+                .stream()
+                .map(BulkRetryJobEntity::getId)
+                .toList();
+        if (!expired.isEmpty()) {
+            jobRepository.delete("id in ?1", expired);
+        }
+    }
+
+    @Override
+    public void update(BulkRetryJob job) {
+        jobRepository.findByIdOptional(job.getId()).ifPresent(entity -> copy(job, entity));
+    }
+
+    @Override
+    public Optional<BulkRetryJob> findById(String jobId) {
+        return Optional.ofNullable(jobId).flatMap(jobRepository::findByIdOptional).map(entity -> {
+            BulkRetryJob job = new BulkRetryJob(entity.getId(), entity.getKind(), entity.getMatched(),
+                    entity.getCreated());
+            job.getReset().set(entity.getReset());
+            job.getDispatched().set(entity.getDispatched());
+            job.getSkipped().set(entity.getSkipped());
+            job.setState(entity.getState());
+            job.setFinished(entity.getFinished());
+            job.setError(entity.getError());
+            return job;
+        });
+    }
+
+    private static void copy(BulkRetryJob job, BulkRetryJobEntity entity) {
+        entity.setReset(job.getReset().get());
+        entity.setDispatched(job.getDispatched().get());
+        entity.setSkipped(job.getSkipped().get());
+        entity.setState(job.getState());
+        entity.setFinished(job.getFinished());
+        entity.setError(job.getError());
+    }
+}
@@ -0,0 +1,67 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.StatsRollupEntity;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsKey;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatsRollupRepository;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the statistics rollups in the {@code stats_rollups} table. Each flush of a replica is one transaction with one
+ * update per changed rollup, a rollup that does not exist yet is inserted. Two replicas inserting the same rollup at
+ * the same time make one flush fail, which is then retried with the next one.
+ */
+@ApplicationScoped
+@UnlessBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory", enableIfMissing = true)
+@Slf4j
+public class PanacheStatsRollupRepository implements StatsRollupRepository {
+
+    @Inject
+    StatsRollupEntityRepository rollupRepository;
+
+    @Override
+    @Transactional
+    public void seed(Supplier<Map<StatsKey, Long>> counts) {
+        if (rollupRepository.count() > 0) {
+            return;
+        }
+        Map<StatsKey, Long> seed = counts.get();
+        seed.forEach((key, value) -> rollupRepository.persist(new StatsRollupEntity(toKey(key), value)));
+        log.info("Seeded {} statistics rollups from the existing generations and enhancements", seed.size());
+    }
+
+    @Override
+    @Transactional
+    public void add(Map<StatsKey, Long> deltas) {
+        deltas.forEach((key, delta) -> {
+            if (rollupRepository.update("total = total + ?1 where id.kind = ?2 and id.name = ?3 and id.status = ?4"
+                    + " and id.bucket = ?5", delta, key.kind(), key.name(), key.status(), key.bucket()) == 0) {
+                rollupRepository.persist(new StatsRollupEntity(toKey(key), delta));
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public Map<StatsKey, Long> load() {
+        Map<StatsKey, Long> rollups = new HashMap<>();
+        rollupRepository.streamAll().forEach(rollup -> rollups.put(toStatsKey(rollup.getId()), rollup.getTotal()));
+        return rollups;
+    }
+
+    private static StatsRollupEntity.Key toKey(StatsKey key) {
+        return new StatsRollupEntity.Key(key.kind(), key.name(), key.status(), key.bucket());
+    }
+
+    private static StatsKey toStatsKey(StatsRollupEntity.Key key) {
+        return new StatsKey(key.getKind(), key.getName(), key.getStatus(), key.getBucket());
+    }
+}
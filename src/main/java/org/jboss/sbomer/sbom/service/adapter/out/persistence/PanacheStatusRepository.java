@@ -1,8 +1,11 @@
 package org.jboss.sbomer.sbom.service.adapter.out.persistence;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,21 +22,53 @@ import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.mapper.Gener
 import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.mapper.StatusMapper;
 import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
 import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
 import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StaleWorkQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsKey;
 import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
 import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
 import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
 
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
 
 @ApplicationScoped
 @Transactional
+@UnlessBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory", enableIfMissing = true)
 public class PanacheStatusRepository implements StatusRepository {
+
+    private static final Set<RequestStatus> REQUEST_TERMINAL_STATUSES = EnumSet.of(RequestStatus.FINISHED,
+            RequestStatus.FAILED);
+
+    private static final Set<GenerationStatus> GENERATION_TERMINAL_STATUSES = EnumSet.of(GenerationStatus.FINISHED,
+            GenerationStatus.FAILED);
+
+    private static final Set<EnhancementStatus> ENHANCEMENT_TERMINAL_STATUSES = EnumSet.of(EnhancementStatus.FINISHED,
+            EnhancementStatus.FAILED);
+
+    /**
+     * A retried generation starts over without redispatches or hedges.
+     */
+    private static final String GENERATION_ATTEMPT_RESETS = "dispatchAttempts = 0, hedgeAttempts = 0,"
+            + " failedAttempts = 0";
+
     @Inject
     RequestRepository requestRepository;
 
@@ -55,29 +90,56 @@ public class PanacheStatusRepository implements StatusRepository {
     @Override
     @Transactional
     public void saveRequestRecord(RequestRecord record) {
+        Optional.ofNullable(record.getGenerationRecords())
+                .ifPresent(generationRecords -> generationRecords.forEach(PanacheStatusRepository::assignMissingIds));
         RequestEntity requestEntity = mapper.toEntity(record);
         // FIXME: Should use persist instead of merge to assure no accidental overwrites
         requestEntity = requestRepository.getEntityManager().merge(requestEntity);
-        record.setId(requestEntity.getId());
+        record.setId(TsidUtility.toRequestId(requestEntity.getId()));
+        record.setVersion(requestEntity.getVersion());
         Optional.ofNullable(record.getGenerationRecords())
-                .ifPresent(generationRecords -> generationRecords.forEach(this::saveGeneration));
+                .ifPresent(generationRecords -> generationRecords.forEach(this::copySavedVersions));
     }
 
     @Override
     @Transactional
     public void updateRequestRecord(RequestRecord record) {
-        requestRepository.findByIdOptional(record.getId()).ifPresent(entity -> {
+        TsidUtility.parseNumericId(record.getId()).flatMap(requestRepository::findByIdOptional).ifPresent(entity -> {
+            checkVersion(record.getId(), record.getVersion(), entity.getVersion());
             entity.setStatus(record.getStatus());
+            flush(record.getId());
+            record.setVersion(entity.getVersion());
         });
     }
 
+    @Override
+    public boolean updateRequestStatus(String requestId, RequestStatus status) {
+        return TsidUtility.parseNumericId(requestId).map(id -> {
+            requestRepository.getEntityManager().flush();
+            int updated = requestRepository.update("status = ?1, version = version + 1"
+                    + " where id = ?2 and (status is null or status <> ?1)", status, id);
+            // The update bypasses the persistence context, see resetFailed
+            requestRepository.getEntityManager().clear();
+            return updated > 0;
+        }).orElse(false);
+    }
+
     @Override
     public RequestRecord findRequestById(String requestId) {
-        return requestRepository.findByIdOptional(requestId)
+        return TsidUtility.parseNumericId(requestId)
+                .flatMap(requestRepository::findByIdOptional)
                 .map(mapper::toDto)
                 .orElse(null);
     }
 
+    @Override
+    public List<PublisherRecord> findPublishersByRequestId(String requestId) {
+        return TsidUtility.parseNumericId(requestId)
+                .flatMap(requestRepository::findByIdOptional)
+                .map(requestEntity -> mapper.map(List.copyOf(requestEntity.getPublishers())))
+                .orElseGet(List::of);
+    }
+
     @Override
     public Page<RequestRecord> findAllRequests(int pageIndex, int pageSize) {
         PanacheQuery<RequestEntity> requestEntityPanacheQuery = requestRepository.findAll(Sort.by("id"));
@@ -102,12 +164,38 @@ public class PanacheStatusRepository implements StatusRepository {
     @Override
     @Transactional
     public void saveGeneration(GenerationRecord record) {
+        assignMissingIds(record);
         GenerationEntity generationEntity = generationMapper.toEntity(record);
         // FIXME: Should use persist instead of merge to assure no accidental overwrites
-        generationEntity = generationRepository.getEntityManager().merge(generationEntity);
-        record.setId(generationEntity.getId());
+        generationRepository.getEntityManager().merge(generationEntity);
+        copySavedVersions(record);
+    }
+
+    /**
+     * Children are saved by the cascade of their parent's merge. Their IDs are assigned up front, so that the records
+     * can be matched with the saved entities afterwards.
+     */
+    private static void assignMissingIds(GenerationRecord record) {
+        if (record.getId() == null) {
+            record.setId(TsidUtility.createUniqueGenerationId());
+        }
+        Optional.ofNullable(record.getEnhancements())
+                .ifPresent(enhancementRecords -> enhancementRecords.stream()
+                        .filter(enhancementRecord -> enhancementRecord.getId() == null)
+                        .forEach(enhancementRecord -> enhancementRecord
+                                .setId(TsidUtility.createUniqueEnhancementId())));
+    }
+
+    /**
+     * Hands the versions of a saved generation and its enhancements back to their records. The entities are all in the
+     * persistence context at this point, so no queries are issued.
+     */
+    private void copySavedVersions(GenerationRecord record) {
+        record.setVersion(generationRepository.findById(TsidUtility.toNumericId(record.getId())).getVersion());
         Optional.ofNullable(record.getEnhancements())
-                .ifPresent(enhancementRecords -> enhancementRecords.forEach(this::saveEnhancement));
+                .ifPresent(enhancementRecords -> enhancementRecords.forEach(enhancementRecord -> enhancementRecord
+                        .setVersion(enhancementRepository.findById(TsidUtility.toNumericId(enhancementRecord.getId()))
+                                .getVersion())));
     }
 
     @Override
@@ -131,14 +219,20 @@ public class PanacheStatusRepository implements StatusRepository {
 
     @Override
     public GenerationRecord findGenerationById(String generationId) {
-        return generationRepository.findByIdOptional(generationId)
+        return TsidUtility.parseNumericId(generationId)
+                .flatMap(generationRepository::findByIdOptional)
                 .map(generationMapper::toDto)
                 .orElse(null);
     }
 
+    @Override
+    public boolean requestExists(String requestId) {
+        return TsidUtility.parseNumericId(requestId).map(id -> requestRepository.count("id", id) > 0).orElse(false);
+    }
+
     @Override
     public List<GenerationRecord> findGenerationsByRequestId(String requestId) {
-        List<GenerationEntity> generationEntities = generationRepository.list("request.id", requestId);
+        List<GenerationEntity> generationEntities = listByParentId(generationRepository, "request.id", requestId);
         return generationEntities.stream()
                 .map(generationMapper::toDto)
                 .toList();
@@ -147,7 +241,7 @@ public class PanacheStatusRepository implements StatusRepository {
     @Override
     public Page<GenerationRecord> findGenerationsByRequestId(String requestId, int pageIndex, int pageSize) {
         PanacheQuery<GenerationEntity> generationEntityPanacheQuery = generationRepository.find("request.id = ?1",
-                Sort.by("id"), requestId);
+                Sort.by("id"), TsidUtility.parseNumericId(requestId).orElse(null));
         generationEntityPanacheQuery.page(pageIndex, pageSize);
         List<GenerationEntity> generationEntities = generationEntityPanacheQuery.list();
         long totalHits = generationEntityPanacheQuery.count();
@@ -164,6 +258,22 @@ public class PanacheStatusRepository implements StatusRepository {
                 .build();
     }
 
+    @Override
+    public List<GenerationRecord> scrollGenerationsByRequestId(String requestId, String after, int limit) {
+        Optional<Long> id = TsidUtility.parseNumericId(requestId);
+        Optional<Long> afterId = after == null ? Optional.of(Long.MIN_VALUE) : TsidUtility.parseNumericId(after);
+        if (id.isEmpty() || afterId.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // The collections of the batch are fetched lazily, quarkus.hibernate-orm.fetch.batch-size at a time
+        return generationRepository.find("request.id = ?1 and id > ?2", Sort.by("id"), id.get(), afterId.get())
+                .range(0, limit - 1)
+                .list()
+                .stream()
+                .map(generationMapper::toDto)
+                .toList();
+    }
+
     @Override
     public List<GenerationRecord> findByGenerationStatus(GenerationStatus status) {
         List<GenerationEntity> generationEntities = generationRepository.list("status", status);
@@ -172,9 +282,157 @@ public class PanacheStatusRepository implements StatusRepository {
                 .toList();
     }
 
+    @Override
+    public List<GenerationRecord> findStaleGenerations(Collection<GenerationStatus> statuses, StaleWorkQuery query) {
+        return findStale(generationRepository, "generatorName", statuses, query).stream()
+                .map(generationMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public List<GenerationRecord> searchGenerations(GenerationSearchQuery query) {
+        if (query.getLimit() <= 0) {
+            return List.of();
+        }
+        List<String> where = new ArrayList<>();
+        Parameters parameters = new Parameters();
+        if (!query.getStatuses().isEmpty()) {
+            where.add("status in :statuses");
+            parameters.and("statuses", query.getStatuses());
+        }
+        if (query.getTargetType() != null) {
+            where.add("targetType = :targetType");
+            parameters.and("targetType", query.getTargetType());
+        }
+        // Both LIKE forms can use the trigram index on PostgreSQL, see LegacySchemaMigration
+        if (query.getTargetIdentifierPrefix() != null) {
+            where.add("targetIdentifier like :identifierPrefix escape '\\'");
+            parameters.and("identifierPrefix",
+                    GenerationSearchQuery.escapeLike(query.getTargetIdentifierPrefix()) + "%");
+        }
+        if (query.getTargetIdentifierContains() != null) {
+            where.add("targetIdentifier like :identifierContains escape '\\'");
+            parameters.and("identifierContains",
+                    "%" + GenerationSearchQuery.escapeLike(query.getTargetIdentifierContains()) + "%");
+        }
+        if (query.getGeneratorName() != null) {
+            where.add("generatorName = :generatorName");
+            parameters.and("generatorName", query.getGeneratorName());
+        }
+        if (query.getGeneratorVersion() != null) {
+            where.add("generatorVersion = :generatorVersion");
+            parameters.and("generatorVersion", query.getGeneratorVersion());
+        }
+        if (query.getResult() != null) {
+            where.add("result = :result");
+            parameters.and("result", query.getResult());
+        }
+        if (query.getCreatedAfter() != null) {
+            where.add("created >= :createdAfter");
+            parameters.and("createdAfter", query.getCreatedAfter());
+        }
+        if (query.getCreatedBefore() != null) {
+            where.add("created < :createdBefore");
+            parameters.and("createdBefore", query.getCreatedBefore());
+        }
+        if (query.getFinishedAfter() != null) {
+            where.add("finished >= :finishedAfter");
+            parameters.and("finishedAfter", query.getFinishedAfter());
+        }
+        if (query.getFinishedBefore() != null) {
+            where.add("finished < :finishedBefore");
+            parameters.and("finishedBefore", query.getFinishedBefore());
+        }
+        if (query.getAfter() != null) {
+            Optional<Long> after = TsidUtility.parseNumericId(query.getAfter());
+            if (after.isEmpty()) {
+                return List.of();
+            }
+            where.add("id < :after");
+            parameters.and("after", after.get());
+        }
+        Sort newestFirst = Sort.by("id", Sort.Direction.Descending);
+        PanacheQuery<GenerationEntity> search = where.isEmpty() ? generationRepository.findAll(newestFirst)
+                : generationRepository.find(String.join(" and ", where), newestFirst, parameters);
+        return search.range(0, query.getLimit() - 1)
+                .list()
+                .stream()
+                .map(generationMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public List<GenerationRecord> findGenerationsByIds(Collection<String> generationIds) {
+        return listByIds(generationRepository, generationIds).stream()
+                .map(generationMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public long countFailedGenerations(RetryFilter filter) {
+        return failedQuery("generatorName", GenerationStatus.FAILED, filter)
+                .map(query -> generationRepository.count(query.where(), query.parameters()))
+                .orElse(0L);
+    }
+
+    @Override
+    @Transactional
+    public List<String> resetFailedGenerations(RetryFilter filter, Instant updated, int limit) {
+        return resetFailed(generationRepository, GenerationEntity.class, "generatorName", GenerationStatus.FAILED,
+                GenerationStatus.SCHEDULED, GENERATION_ATTEMPT_RESETS, filter, updated, limit).stream().map(TsidUtility::toGenerationId).toList();
+    }
+
+    @Override
+    public Map<StatsKey, Long> countByWorkerAndStatus() {
+        Map<StatsKey, Long> counts = new HashMap<>();
+        countByWorkerAndStatus(generationRepository, GenerationEntity.class, "generatorName", StatsKey.GENERATION,
+                counts);
+        countByWorkerAndStatus(enhancementRepository, EnhancementEntity.class, "enhancerName", StatsKey.ENHANCEMENT,
+                counts);
+        return counts;
+    }
+
+    @Override
+    public RecordStamp findRequestStamp(String requestId) {
+        return TsidUtility.parseNumericId(requestId).map(id -> {
+            RecordStamp stamp = stamp(requestRepository, RequestEntity.class, "creationDate", "id", id,
+                    REQUEST_TERMINAL_STATUSES);
+            if (stamp.revision() == 0) {
+                return null;
+            }
+            return stamp
+                    .combine(stamp(generationRepository, GenerationEntity.class, "updated", "request.id", id,
+                            GENERATION_TERMINAL_STATUSES))
+                    .combine(stamp(enhancementRepository, EnhancementEntity.class, "updated", "request.id", id,
+                            ENHANCEMENT_TERMINAL_STATUSES));
+        }).orElse(null);
+    }
+
+    @Override
+    public RecordStamp findGenerationStamp(String generationId) {
+        return TsidUtility.parseNumericId(generationId).map(id -> {
+            RecordStamp stamp = stamp(generationRepository, GenerationEntity.class, "updated", "id", id,
+                    GENERATION_TERMINAL_STATUSES);
+            if (stamp.revision() == 0) {
+                return null;
+            }
+            return stamp.combine(stamp(enhancementRepository, EnhancementEntity.class, "updated", "generation.id", id,
+                    ENHANCEMENT_TERMINAL_STATUSES));
+        }).orElse(null);
+    }
+
+    @Override
+    public RecordStamp findEnhancementStamp(String enhancementId) {
+        return TsidUtility.parseNumericId(enhancementId)
+                .map(id -> stamp(enhancementRepository, EnhancementEntity.class, "updated", "id", id,
+                        ENHANCEMENT_TERMINAL_STATUSES))
+                .filter(stamp -> stamp.revision() > 0)
+                .orElse(null);
+    }
+
     private void mergeEnhancements(GenerationEntity generationEntity,
             Collection<EnhancementRecord> enhancementRecords) {
-        Map<String, EnhancementEntity> existingById = Optional.ofNullable(generationEntity.getEnhancements())
+        Map<Long, EnhancementEntity> existingById = Optional.ofNullable(generationEntity.getEnhancements())
                 .orElse(Set.of())
                 .stream()
                 .filter(e -> e.getId() != null)
@@ -186,27 +444,30 @@ public class PanacheStatusRepository implements StatusRepository {
                 EnhancementEntity enhancementEntity;
 
                 if (enhancementRecord.getId() != null) {
-                    enhancementEntity = existingById.get(enhancementRecord.getId());
+                    Long enhancementId = TsidUtility.toNumericId(enhancementRecord.getId());
+                    enhancementEntity = existingById.get(enhancementId);
 
                     if (enhancementEntity == null) {
-                        enhancementEntity = enhancementRepository.findById(enhancementRecord.getId());
+                        enhancementEntity = enhancementRepository.findById(enhancementId);
 
                         if (enhancementEntity == null) {
                             throw new EntityNotFoundException("Unknown enhancement ID " + enhancementRecord.getId());
                         }
                     }
+                    checkVersion(enhancementRecord.getId(), enhancementRecord.getVersion(),
+                            enhancementEntity.getVersion());
                 } else {
                     enhancementEntity = enhancementMapper.toEntity(enhancementRecord);
                     enhancementEntity.setGeneration(generationEntity);
                     enhancementRepository.persist(enhancementEntity);
-                    enhancementRecord.setId(enhancementEntity.getId());
-                    enhancementRecord.setGenerationId(generationEntity.getId());
+                    enhancementRecord.setId(TsidUtility.toEnhancementId(enhancementEntity.getId()));
+                    enhancementRecord.setGenerationId(TsidUtility.toGenerationId(generationEntity.getId()));
                 }
 
                 enhancementDtoToEntity(enhancementRecord, enhancementEntity);
 
                 if (enhancementRecord.getRequestId() != null) {
-                    RequestEntity req = requestRepository.findById(enhancementRecord.getRequestId());
+                    RequestEntity req = requestRepository.findById(TsidUtility.toNumericId(enhancementRecord.getRequestId()));
                     enhancementEntity.setRequest(req);
                 } else if (generationEntity.getRequest() != null) {
                     enhancementEntity.setRequest(generationEntity.getRequest()); // XXX
@@ -237,19 +498,18 @@ public class PanacheStatusRepository implements StatusRepository {
         enhancementEntity.setStatus(enhancementRecord.getStatus());
         enhancementEntity.setResult(enhancementRecord.getResult());
         enhancementEntity.setReason(enhancementRecord.getReason());
+        enhancementEntity.setDispatchAttempts(enhancementRecord.getDispatchAttempts());
 
-        if (enhancementRecord.getEnhancedSbomUrls() != null) {
-            enhancementEntity.getEnhancedSbomUrls().clear();
-            enhancementEntity.getEnhancedSbomUrls().addAll(enhancementRecord.getEnhancedSbomUrls());
-        } else {
-            enhancementEntity.setEnhancedSbomUrls(null);
-        }
+        enhancementEntity.setEnhancedSbomUrls(Optional.ofNullable(enhancementRecord.getEnhancedSbomUrls())
+                .<List<String>>map(ArrayList::new)
+                .orElse(null));
     }
 
     @Override
     @Transactional
     public void updateGeneration(GenerationRecord record) {
-        generationRepository.findByIdOptional(record.getId()).ifPresent(entity -> {
+        TsidUtility.parseNumericId(record.getId()).flatMap(generationRepository::findByIdOptional).ifPresent(entity -> {
+            checkVersion(record.getId(), record.getVersion(), entity.getVersion());
             entity.setGeneratorName(record.getGeneratorName());
             entity.setGeneratorVersion(record.getGeneratorVersion());
             entity.setCreated(record.getCreated());
@@ -260,16 +520,18 @@ public class PanacheStatusRepository implements StatusRepository {
             entity.setReason(record.getReason());
             entity.setTargetType(record.getTargetType());
             entity.setTargetIdentifier(record.getTargetIdentifier());
-            entity.setRequest(record.getRequestId() != null ? requestRepository.findById(record.getRequestId()) : null);
+            entity.setDispatchAttempts(record.getDispatchAttempts());
+            entity.setHedgeAttempts(record.getHedgeAttempts());
+            entity.setFailedAttempts(record.getFailedAttempts());
+            entity.setRequest(record.getRequestId() != null ? requestRepository.findById(TsidUtility.toNumericId(record.getRequestId())) : null);
 
-            if (record.getGenerationSbomUrls() != null) {
-                entity.getGenerationSbomUrls().clear();
-                entity.getGenerationSbomUrls().addAll(record.getGenerationSbomUrls());
-            } else {
-                entity.setGenerationSbomUrls(null);
-            }
+            entity.setGenerationSbomUrls(Optional.ofNullable(record.getGenerationSbomUrls())
+                    .<List<String>>map(ArrayList::new)
+                    .orElse(null));
 
             mergeEnhancements(entity, record.getEnhancements());
+            flush(record.getId());
+            copySavedVersions(record);
         });
     }
 
@@ -281,12 +543,14 @@ public class PanacheStatusRepository implements StatusRepository {
         EnhancementEntity enhancementEntity = enhancementMapper.toEntity(record);
         // FIXME: Should use persist instead of merge to assure no accidental overwrites
         enhancementEntity = enhancementRepository.getEntityManager().merge(enhancementEntity);
-        record.setId(enhancementEntity.getId());
+        record.setId(TsidUtility.toEnhancementId(enhancementEntity.getId()));
+        record.setVersion(enhancementEntity.getVersion());
     }
 
     @Override
     public EnhancementRecord findEnhancementById(String enhancementId) {
-        return enhancementRepository.findByIdOptional(enhancementId)
+        return TsidUtility.parseNumericId(enhancementId)
+                .flatMap(enhancementRepository::findByIdOptional)
                 .map(enhancementMapper::toDto)
                 .orElse(null);
     }
@@ -299,17 +563,58 @@ public class PanacheStatusRepository implements StatusRepository {
                 .toList();
     }
 
+    @Override
+    public List<EnhancementRecord> findEnhancementsByIds(Collection<String> enhancementIds) {
+        return listByIds(enhancementRepository, enhancementIds).stream()
+                .map(enhancementMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public long countFailedEnhancements(RetryFilter filter) {
+        return failedQuery("enhancerName", EnhancementStatus.FAILED, filter)
+                .map(query -> enhancementRepository.count(query.where(), query.parameters()))
+                .orElse(0L);
+    }
+
+    @Override
+    @Transactional
+    public List<String> resetFailedEnhancements(RetryFilter filter, Instant updated, int limit) {
+        return resetFailed(enhancementRepository, EnhancementEntity.class, "enhancerName", EnhancementStatus.FAILED,
+                EnhancementStatus.SCHEDULED, "dispatchAttempts = 0", filter, updated, limit).stream().map(TsidUtility::toEnhancementId).toList();
+    }
+
+    @Override
+    public List<EnhancementRecord> findStaleEnhancements(Collection<EnhancementStatus> statuses,
+            StaleWorkQuery query) {
+        return findStale(enhancementRepository, "enhancerName", statuses, query).stream()
+                .map(enhancementMapper::toDto)
+                .toList();
+    }
+
     @Override
     @Transactional
     public void updateEnhancement(EnhancementRecord record) {
-        enhancementRepository.findByIdOptional(record.getId())
-                .ifPresent(enhancementEntity -> enhancementDtoToEntity(record, enhancementEntity));
+        TsidUtility.parseNumericId(record.getId())
+                .flatMap(enhancementRepository::findByIdOptional)
+                .ifPresent(enhancementEntity -> {
+                    checkVersion(record.getId(), record.getVersion(), enhancementEntity.getVersion());
+                    enhancementDtoToEntity(record, enhancementEntity);
+                    flush(record.getId());
+                    record.setVersion(enhancementEntity.getVersion());
+                });
     }
 
     // --- LOGIC HELPERS ---
 
     @Override
     public boolean isGenerationAndEnhancementsFinished(String generationId) {
+        return TsidUtility.parseNumericId(generationId)
+                .map(this::isGenerationAndEnhancementsFinished)
+                .orElse(false);
+    }
+
+    private boolean isGenerationAndEnhancementsFinished(Long generationId) {
         return generationRepository.findByIdOptional(generationId)
                 .filter(generationEntity -> generationEntity.getStatus() == GenerationStatus.FINISHED)
                 .map(generationEntity -> {
@@ -322,16 +627,17 @@ public class PanacheStatusRepository implements StatusRepository {
 
     @Override
     public boolean isAllGenerationRequestsFinished(String requestId) {
-        List<GenerationEntity> generationEntities = generationRepository.list("request.id", requestId);
+        List<GenerationEntity> generationEntities = listByParentId(generationRepository, "request.id", requestId);
         return !generationEntities.isEmpty() && generationEntities.stream()
                 .allMatch(generationEntity -> isGenerationAndEnhancementsFinished(generationEntity.getId()));
     }
 
     @Override
     public List<String> getFinalSbomUrlsForCompletedGeneration(String generationId) {
-        return List.copyOf(generationRepository.findByIdOptional(generationId)
+        return TsidUtility.parseNumericId(generationId)
+                .flatMap(generationRepository::findByIdOptional)
                 .map(generationEntity -> {
-                    List<EnhancementEntity> children = enhancementRepository.list("generation.id", generationId);
+                    List<EnhancementEntity> children = enhancementRepository.list("generation.id", generationEntity.getId());
                     return !children.isEmpty() ? children.stream()
                             .filter(e -> e.getStatus() == EnhancementStatus.FINISHED)
                             .max(Comparator.comparingInt(EnhancementEntity::getIndex))
@@ -340,12 +646,13 @@ public class PanacheStatusRepository implements StatusRepository {
                             : generationEntity.getGenerationSbomUrls();
 
                 })
-                .orElseGet(Set::of));
+                .map(List::copyOf)
+                .orElseGet(List::of);
     }
 
     @Override
     public List<EnhancementRecord> findEnhancementsByGenerationId(String generationId) {
-        List<EnhancementEntity> enhancementEntities = enhancementRepository.list("generation.id", generationId);
+        List<EnhancementEntity> enhancementEntities = listByParentId(enhancementRepository, "generation.id", generationId);
         return enhancementEntities.stream()
                 .map(enhancementMapper::toDto)
                 .toList();
@@ -369,4 +676,179 @@ public class PanacheStatusRepository implements StatusRepository {
                 .pageSize(pageSize)
                 .build();
     }
+
+    /**
+     * Rejects an update based on a record read at an older version. This covers the time between the caller's read and
+     * this transaction; a concurrent transaction committing in between is caught by the versioned UPDATE in
+     * {@link #flush(String)}.
+     */
+    private static void checkVersion(String id, Long expected, Long stored) {
+        if (expected != null && !expected.equals(stored)) {
+            throw new ConcurrentUpdateException(
+                    "Record " + id + " is at version " + stored + ", the update is based on version " + expected);
+        }
+    }
+
+    /**
+     * Flushes so that version conflicts surface here, as a {@link ConcurrentUpdateException}, rather than at commit.
+     */
+    private void flush(String id) {
+        try {
+            requestRepository.getEntityManager().flush();
+        } catch (OptimisticLockException e) {
+            throw new ConcurrentUpdateException("Record " + id + " was updated concurrently", e);
+        }
+    }
+
+    /**
+     * Pages over the (status, updated) index, oldest first. The ID breaks ties, so that batches are stable.
+     */
+    private static <E> List<E> findStale(PanacheRepositoryBase<E, Long> repository, String workerNamePath,
+            Collection<? extends Enum<?>> statuses, StaleWorkQuery query) {
+        if (statuses.isEmpty() || query.getLimit() <= 0) {
+            return List.of();
+        }
+        StringBuilder hql = new StringBuilder("status in :statuses and updated < :updatedBefore");
+        Parameters parameters = Parameters.with("statuses", statuses).and("updatedBefore", query.getUpdatedBefore());
+        if (query.getDispatchAttempts() != null) {
+            hql.append(" and dispatchAttempts = :dispatchAttempts");
+            parameters.and("dispatchAttempts", query.getDispatchAttempts());
+        }
+        if (query.getHedgeAttemptsBelow() != null) {
+            hql.append(" and hedgeAttempts < :hedgeAttemptsBelow");
+            parameters.and("hedgeAttemptsBelow", query.getHedgeAttemptsBelow());
+        }
+        if (query.getWorkerName() != null) {
+            hql.append(" and ").append(workerNamePath).append(" = :workerName");
+            parameters.and("workerName", query.getWorkerName());
+        }
+        if (!query.getExcludedWorkerNames().isEmpty()) {
+            hql.append(" and (").append(workerNamePath).append(" is null or ").append(workerNamePath)
+                    .append(" not in :excludedWorkerNames)");
+            parameters.and("excludedWorkerNames", query.getExcludedWorkerNames());
+        }
+        return repository.find(hql.toString(), Sort.by("updated").and("id"), parameters)
+                .page(0, query.getLimit())
+                .list();
+    }
+
+    private record FilterQuery(String where, Parameters parameters) {
+    }
+
+    /**
+     * Translates a {@link RetryFilter} into a query on the FAILED rows. Empty if the filter names IDs that cannot exist,
+     * so that no query is needed.
+     */
+    private static Optional<FilterQuery> failedQuery(String workerNamePath, Enum<?> failed, RetryFilter filter) {
+        StringBuilder where = new StringBuilder("status = :failed");
+        Parameters parameters = Parameters.with("failed", failed);
+        if (filter.getIds() != null && !filter.getIds().isEmpty()) {
+            List<Long> ids = filter.getIds().stream()
+                    .map(TsidUtility::parseNumericId)
+                    .flatMap(Optional::stream)
+                    .toList();
+            if (ids.isEmpty()) {
+                return Optional.empty();
+            }
+            where.append(" and id in :ids");
+            parameters.and("ids", ids);
+        }
+        if (filter.getRequestId() != null) {
+            Optional<Long> requestId = TsidUtility.parseNumericId(filter.getRequestId());
+            if (requestId.isEmpty()) {
+                return Optional.empty();
+            }
+            where.append(" and request.id = :requestId");
+            parameters.and("requestId", requestId.get());
+        }
+        if (filter.getWorkerName() != null) {
+            where.append(" and ").append(workerNamePath).append(" = :workerName");
+            parameters.and("workerName", filter.getWorkerName());
+        }
+        if (filter.getResult() != null) {
+            where.append(" and result = :result");
+            parameters.and("result", filter.getResult());
+        }
+        if (filter.getFinishedAfter() != null) {
+            where.append(" and finished >= :finishedAfter");
+            parameters.and("finishedAfter", filter.getFinishedAfter());
+        }
+        if (filter.getFinishedBefore() != null) {
+            where.append(" and finished < :finishedBefore");
+            parameters.and("finishedBefore", filter.getFinishedBefore());
+        }
+        return Optional.of(new FilterQuery(where.toString(), parameters));
+    }
+
+    /**
+     * Resets the next FAILED rows matching the filter with one update. The rows are locked first, so that a concurrent
+     * reset of the same rows waits for this one and then no longer finds them FAILED.
+     */
+    private static <E> List<Long> resetFailed(PanacheRepositoryBase<E, Long> repository, Class<E> entityClass,
+            String workerNamePath, Enum<?> failed, Enum<?> reset, String attemptResets, RetryFilter filter,
+            Instant updated, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        List<Long> ids = failedQuery(workerNamePath, failed, filter).map(query -> {
+            TypedQuery<Long> select = repository.getEntityManager()
+                    .createQuery("select id from " + entityClass.getSimpleName() + " where " + query.where()
+                            + " order by id", Long.class)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setMaxResults(limit);
+            query.parameters().map().forEach(select::setParameter);
+            return select.getResultList();
+        }).orElseGet(List::of);
+        if (!ids.isEmpty()) {
+            repository.update("status = ?1, reason = null, result = null, finished = null, updated = ?2, "
+                    + attemptResets + ", version = version + 1 where id in ?3", reset, updated, ids);
+            // The update bypasses the persistence context, so entities loaded earlier in the same transaction are
+            // stale now. Callers only ever get records, nothing holds on to the entities.
+            repository.getEntityManager().flush();
+            repository.getEntityManager().clear();
+        }
+        return ids;
+    }
+
+    private static void countByWorkerAndStatus(PanacheRepositoryBase<?, Long> repository, Class<?> entityClass,
+            String workerNamePath, String kind, Map<StatsKey, Long> counts) {
+        repository.getEntityManager()
+                .createQuery("select " + workerNamePath + ", status, count(*) from " + entityClass.getSimpleName()
+                        + " group by " + workerNamePath + ", status", Object[].class)
+                .getResultList()
+                .forEach(row -> counts.put(StatsKey.count(kind, (String) row[0], ((Enum<?>) row[1]).name()),
+                        (Long) row[2]));
+    }
+
+    /**
+     * Aggregates the version, time and status columns of the rows matching {@code parentPath = id}, the stamp of no
+     * rows has a revision of 0.
+     */
+    private static RecordStamp stamp(PanacheRepositoryBase<?, Long> repository, Class<?> entityClass,
+            String timePath, String parentPath, Long id, Set<? extends Enum<?>> terminalStatuses) {
+        Object[] row = repository.getEntityManager()
+                .createQuery("select coalesce(sum(version), 0) + count(*), max(" + timePath + "),"
+                        + " coalesce(sum(case when status in :terminal then 0 else 1 end), 0) from "
+                        + entityClass.getSimpleName() + " where " + parentPath + " = :id", Object[].class)
+                .setParameter("terminal", terminalStatuses)
+                .setParameter("id", id)
+                .getSingleResult();
+        return new RecordStamp(((Number) row[0]).longValue(), (Instant) row[1], ((Number) row[2]).longValue() == 0);
+    }
+
+    private static <E> List<E> listByIds(PanacheRepositoryBase<E, Long> repository, Collection<String> ids) {
+        List<Long> numericIds = ids.stream().map(TsidUtility::parseNumericId).flatMap(Optional::stream).toList();
+        return numericIds.isEmpty() ? List.of() : repository.list("id in ?1", numericIds);
+    }
+
+    /**
+     * Lists the children of a parent given by its prefixed ID, e.g. all generations of a request. A malformed ID cannot
+     * match any row, so it yields an empty list instead of a query.
+     */
+    private static <E> List<E> listByParentId(PanacheRepositoryBase<E, Long> repository, String parentPath,
+            String parentId) {
+        return TsidUtility.parseNumericId(parentId)
+                .map(id -> repository.list(parentPath, id))
+                .orElseGet(List::of);
+    }
 }
@@ -0,0 +1,232 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.WorkItemEntity;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.WorkerLockEntity;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * {@link WorkQueue} in the {@code work_queue} table, shared by all replicas.
+ * </p>
+ * <p>
+ * Releasing locks the {@code work_queue_workers} row of the worker with {@code FOR UPDATE SKIP LOCKED}, so only one
+ * replica at a time counts the released items of a worker and fills the rest of its limit; the others skip the worker
+ * until the next run. The queued items themselves are claimed with {@code FOR UPDATE SKIP LOCKED} as well, which keeps
+ * a replica that already took an item (and is about to replace or complete it) out of the way.
+ * </p>
+ */
+@ApplicationScoped
+@Transactional
+@UnlessBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory", enableIfMissing = true)
+@Slf4j
+public class PanacheWorkQueue implements WorkQueue {
+
+    @Inject
+    WorkItemRepository workItemRepository;
+
+    @Inject
+    WorkerLockRepository workerLockRepository;
+
+    @Override
+    public void enqueue(List<WorkItem> items) {
+        for (WorkItem item : items) {
+            // Replaces the item of the record, if any
+            workItemRepository.getEntityManager().merge(toEntity(item));
+        }
+    }
+
+    @Override
+    public Set<WorkerKey> queuedWorkers() {
+        return workItemRepository.getEntityManager()
+                .createQuery("select distinct workerName, workerVersion from WorkItemEntity where released is null",
+                        Object[].class)
+                .getResultStream()
+                .map(row -> new WorkerKey((String) row[0], (String) row[1]))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public List<WorkItem> release(WorkerKey worker, int limit, Map<RequestPriority, Integer> weights) {
+        Optional<WorkerLockEntity> lock = lockWorker(worker);
+        if (lock.isEmpty()) {
+            return List.of();
+        }
+
+        long inFlight = workItemRepository.count("workerName = ?1 and workerVersion = ?2 and released is not null",
+                worker.name(), worker.version());
+        int free = (int) Math.max(0, limit - inFlight);
+        if (free == 0) {
+            return List.of();
+        }
+
+        Map<RequestPriority, List<WorkItem>> lanes = new EnumMap<>(RequestPriority.class);
+        Map<String, WorkItemEntity> entities = new HashMap<>();
+        for (RequestPriority priority : RequestPriority.values()) {
+            List<WorkItemEntity> queued = workItemRepository.getEntityManager()
+                    .createQuery("from WorkItemEntity where workerName = ?1 and workerVersion = ?2"
+                            + " and released is null and priority = ?3 order by sequence, enqueued, recordId",
+                            WorkItemEntity.class)
+                    .setParameter(1, worker.name())
+                    .setParameter(2, worker.version())
+                    .setParameter(3, priority)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                    .setMaxResults(free)
+                    .getResultList();
+            queued.forEach(entity -> entities.put(entity.getRecordId(), entity));
+            lanes.put(priority, queued.stream().map(PanacheWorkQueue::toItem).toList());
+        }
+
+        Instant now = Instant.now();
+        List<WorkItem> released = WorkQueue.inTurn(lanes, weights, free);
+        for (WorkItem item : released) {
+            entities.get(item.getRecordId()).setReleased(now);
+        }
+        lock.get().setLastRelease(now);
+        return released.stream().map(item -> item.toBuilder().released(now).build()).toList();
+    }
+
+    @Override
+    public List<WorkItem> releasedBefore(Instant cutoff, String after, int limit) {
+        return workItemRepository.getEntityManager()
+                .createQuery("from WorkItemEntity where released < ?1 and recordId > ?2 order by recordId",
+                        WorkItemEntity.class)
+                .setParameter(1, cutoff)
+                .setParameter(2, after == null ? "" : after)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(PanacheWorkQueue::toItem)
+                .toList();
+    }
+
+    @Override
+    public void requeue(Collection<String> recordIds) {
+        if (!recordIds.isEmpty()) {
+            workItemRepository.update("released = null where recordId in ?1 and released is not null", recordIds);
+        }
+    }
+
+    @Override
+    public Optional<WorkerKey> complete(String recordId) {
+        return workItemRepository.findByIdOptional(recordId).map(entity -> {
+            workItemRepository.delete(entity);
+            return new WorkerKey(entity.getWorkerName(), entity.getWorkerVersion());
+        });
+    }
+
+    @Override
+    public Set<String> queued(Collection<String> recordIds) {
+        if (recordIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(workItemRepository.getEntityManager()
+                .createQuery("select recordId from WorkItemEntity where recordId in ?1 and released is null",
+                        String.class)
+                .setParameter(1, recordIds)
+                .getResultList());
+    }
+
+    @Override
+    public Set<String> tracked(Collection<String> recordIds) {
+        if (recordIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(workItemRepository.getEntityManager()
+                .createQuery("select recordId from WorkItemEntity where recordId in ?1", String.class)
+                .setParameter(1, recordIds)
+                .getResultList());
+    }
+
+    @Override
+    public Map<RequestPriority, Long> depth() {
+        Map<RequestPriority, Long> depth = new EnumMap<>(RequestPriority.class);
+        workItemRepository.getEntityManager()
+                .createQuery("select priority, count(*) from WorkItemEntity where released is null group by priority",
+                        Object[].class)
+                .getResultStream()
+                .forEach(row -> depth.put((RequestPriority) row[0], (Long) row[1]));
+        return depth;
+    }
+
+    /**
+     * @return the locked row of the worker, or nothing if another replica holds it
+     */
+    private Optional<WorkerLockEntity> lockWorker(WorkerKey worker) {
+        Optional<WorkerLockEntity> lock = tryLockWorker(worker);
+        if (lock.isPresent() || workerLockRepository.findByIdOptional(worker.toString()).isPresent()) {
+            return lock;
+        }
+        try {
+            // First release for this worker; the primary key rejects a concurrent insert by another replica
+            QuarkusTransaction.requiringNew().run(() -> {
+                WorkerLockEntity created = new WorkerLockEntity();
+                created.setWorker(worker.toString());
+                workerLockRepository.persistAndFlush(created);
+            });
+        } catch (RuntimeException e) {
+            log.debug("Worker {} was added by another replica", worker, e);
+        }
+        return tryLockWorker(worker);
+    }
+
+    private Optional<WorkerLockEntity> tryLockWorker(WorkerKey worker) {
+        return workerLockRepository.getEntityManager()
+                .createQuery("from WorkerLockEntity where worker = ?1", WorkerLockEntity.class)
+                .setParameter(1, worker.toString())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .getResultStream()
+                .findFirst();
+    }
+
+    private static WorkItemEntity toEntity(WorkItem item) {
+        WorkItemEntity entity = new WorkItemEntity();
+        entity.setRecordId(item.getRecordId());
+        entity.setKind(item.getKind());
+        entity.setWorkerName(item.getWorker().name());
+        entity.setWorkerVersion(item.getWorker().version());
+        entity.setPriority(item.getPriority());
+        entity.setRequestId(item.getRequestId());
+        entity.setSequence(item.getSequence());
+        entity.setEnqueued(item.getEnqueued());
+        entity.setReleased(item.getReleased());
+        return entity;
+    }
+
+    private static WorkItem toItem(WorkItemEntity entity) {
+        return WorkItem.builder()
+                .recordId(entity.getRecordId())
+                .kind(entity.getKind())
+                .worker(new WorkerKey(entity.getWorkerName(), entity.getWorkerVersion()))
+                .priority(entity.getPriority())
+                .requestId(entity.getRequestId())
+                .sequence(entity.getSequence())
+                .enqueued(entity.getEnqueued())
+                .released(entity.getReleased())
+                .build();
+    }
+}
@@ -0,0 +1,512 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.ReactiveStatusRepository;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * <p>
+ * {@link ReactiveStatusRepository} on the reactive PostgreSQL client. It reads the tables managed by the Hibernate
+ * entities, so it shares the schema with {@link PanacheStatusRepository} and only covers reads.
+ * </p>
+ * <p>
+ * Children are loaded with one {@code = ANY($1)} query per level instead of one query per parent. Column names are
+ * the entity field names, which PostgreSQL folds to lower case.
+ * </p>
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "quarkus.datasource.db-kind", stringValue = "postgresql")
+@UnlessBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory", enableIfMissing = true)
+public class ReactivePgStatusRepository implements ReactiveStatusRepository {
+
+    private static final String SELECT_REQUESTS = "SELECT id, status, creationDate, version FROM requests";
+
+    /**
+     * The record fields stored in the generations table, with their column where it differs from the field name.
+     */
+    private static final Map<String, String> GENERATION_COLUMNS = columns("id", "generatorName", "generatorVersion",
+            "created", "updated", "finished", "status", "result", "reason", "requestId:request_id", "targetType",
+            "targetIdentifier", "generationSbomUrls", "dispatchAttempts", "hedgeAttempts", "failedAttempts", "version");
+
+    private static final Map<String, String> ENHANCEMENT_COLUMNS = columns("id", "enhancerName", "enhancerVersion",
+            "index:\"index\"", "created", "updated", "finished", "status", "result", "reason", "requestId:request_id",
+            "enhancedSbomUrls", "generationId:generation_id", "dispatchAttempts", "version");
+
+    private static final String SELECT_GENERATIONS = select("generations", GENERATION_COLUMNS, FieldSelection.ALL);
+
+    private static final String SELECT_ENHANCEMENTS = select("enhancements", ENHANCEMENT_COLUMNS, FieldSelection.ALL);
+
+    private static final String PAGE = " ORDER BY id LIMIT $1 OFFSET $2";
+
+    @Inject
+    Pool pool;
+
+    private final String selectGenerations;
+
+    private final String selectEnhancements;
+
+    private final boolean enhancementsSelected;
+
+    public ReactivePgStatusRepository() {
+        this(null, FieldSelection.ALL);
+    }
+
+    private ReactivePgStatusRepository(Pool pool, FieldSelection fields) {
+        this.pool = pool;
+        this.selectGenerations = select("generations", GENERATION_COLUMNS, fields);
+        this.selectEnhancements = select("enhancements", ENHANCEMENT_COLUMNS, fields);
+        this.enhancementsSelected = fields.includes("enhancements");
+    }
+
+    /**
+     * Columns of fields that are not selected are read as NULL, so the rows keep their shape for the row mapping while
+     * PostgreSQL neither reads nor sends their values.
+     */
+    @Override
+    public ReactiveStatusRepository selecting(FieldSelection fields) {
+        return fields.isAll() ? this : new ReactivePgStatusRepository(pool, fields);
+    }
+
+    // --- REQUESTS ---
+
+    @Override
+    public Uni<RequestRecord> findRequestById(String requestId) {
+        return TsidUtility.parseNumericId(requestId)
+                .map(id -> query(SELECT_REQUESTS + " WHERE id = $1", Tuple.of(id), ReactivePgStatusRepository::toRequest)
+                        .flatMap(this::withGenerationRecords)
+                        .map(records -> records.isEmpty() ? null : records.get(0)))
+                .orElseGet(() -> Uni.createFrom().nullItem());
+    }
+
+    @Override
+    public Uni<Page<RequestRecord>> findAllRequests(int pageIndex, int pageSize) {
+        return page(SELECT_REQUESTS + PAGE, "SELECT COUNT(*) FROM requests", Tuple.tuple(), pageIndex, pageSize,
+                ReactivePgStatusRepository::toRequest, this::withGenerationRecords);
+    }
+
+    // --- GENERATIONS ---
+
+    @Override
+    public Uni<GenerationRecord> findGenerationById(String generationId) {
+        return TsidUtility.parseNumericId(generationId)
+                .map(id -> query(selectGenerations + " WHERE id = $1", Tuple.of(id),
+                        ReactivePgStatusRepository::toGeneration)
+                        .flatMap(this::generationChildren)
+                        .map(records -> records.isEmpty() ? null : records.get(0)))
+                .orElseGet(() -> Uni.createFrom().nullItem());
+    }
+
+    @Override
+    public Uni<List<GenerationRecord>> findGenerationsByIds(Collection<String> generationIds) {
+        Long[] ids = numericIds(generationIds);
+        if (ids.length == 0) {
+            return Uni.createFrom().item(List.of());
+        }
+        return query(selectGenerations + " WHERE id = ANY($1)", Tuple.tuple().addArrayOfLong(ids),
+                ReactivePgStatusRepository::toGeneration)
+                .flatMap(this::generationChildren);
+    }
+
+    @Override
+    public Uni<Page<GenerationRecord>> findAllGenerations(int pageIndex, int pageSize) {
+        return page(selectGenerations + PAGE, "SELECT COUNT(*) FROM generations", Tuple.tuple(), pageIndex,
+                pageSize, ReactivePgStatusRepository::toGeneration, this::generationChildren);
+    }
+
+    /**
+     * Builds one statement from the given criteria only, so that the planner sees exactly the predicates it can use
+     * an index for: the trigram index for both identifier LIKE forms, the primary key for the cursor and order.
+     */
+    @Override
+    public Uni<List<GenerationRecord>> searchGenerations(GenerationSearchQuery query) {
+        if (query.getLimit() <= 0) {
+            return Uni.createFrom().item(List.of());
+        }
+        List<String> where = new ArrayList<>();
+        Tuple arguments = Tuple.tuple();
+        if (!query.getStatuses().isEmpty()) {
+            arguments.addArrayOfString(query.getStatuses().stream().map(Enum::name).toArray(String[]::new));
+            where.add("status = ANY($" + arguments.size() + ")");
+        }
+        condition(where, arguments, "targetType = $", query.getTargetType());
+        condition(where, arguments, "targetIdentifier LIKE $", Optional.ofNullable(query.getTargetIdentifierPrefix())
+                .map(prefix -> GenerationSearchQuery.escapeLike(prefix) + "%")
+                .orElse(null));
+        condition(where, arguments, "targetIdentifier LIKE $", Optional.ofNullable(query.getTargetIdentifierContains())
+                .map(part -> "%" + GenerationSearchQuery.escapeLike(part) + "%")
+                .orElse(null));
+        condition(where, arguments, "generatorName = $", query.getGeneratorName());
+        condition(where, arguments, "generatorVersion = $", query.getGeneratorVersion());
+        condition(where, arguments, "result = $", query.getResult());
+        condition(where, arguments, "created >= $", toOffsetDateTime(query.getCreatedAfter()));
+        condition(where, arguments, "created < $", toOffsetDateTime(query.getCreatedBefore()));
+        condition(where, arguments, "finished >= $", toOffsetDateTime(query.getFinishedAfter()));
+        condition(where, arguments, "finished < $", toOffsetDateTime(query.getFinishedBefore()));
+        if (query.getAfter() != null) {
+            Optional<Long> after = TsidUtility.parseNumericId(query.getAfter());
+            if (after.isEmpty()) {
+                return Uni.createFrom().item(List.of());
+            }
+            condition(where, arguments, "id < $", after.get());
+        }
+        arguments.addLong((long) query.getLimit());
+        String sql = selectGenerations + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                + " ORDER BY id DESC LIMIT $" + arguments.size();
+        return query(sql, arguments, ReactivePgStatusRepository::toGeneration).flatMap(this::generationChildren);
+    }
+
+    @Override
+    public Multi<GenerationRecord> findGenerationsByRequestId(String requestId) {
+        return TsidUtility.parseNumericId(requestId)
+                .map(id -> query(selectGenerations + " WHERE request_id = $1", Tuple.of(id),
+                        ReactivePgStatusRepository::toGeneration)
+                        .flatMap(this::generationChildren))
+                .orElseGet(() -> Uni.createFrom().item(List.of()))
+                .onItem().transformToMulti(records -> Multi.createFrom().iterable(records));
+    }
+
+    @Override
+    public Uni<Page<GenerationRecord>> findGenerationsByRequestId(String requestId, int pageIndex, int pageSize) {
+        Long id = TsidUtility.parseNumericId(requestId).orElse(null);
+        return page(selectGenerations + " WHERE request_id = $3" + PAGE,
+                "SELECT COUNT(*) FROM generations WHERE request_id = $1", Tuple.of(id), pageIndex, pageSize,
+                ReactivePgStatusRepository::toGeneration, this::generationChildren);
+    }
+
+    @Override
+    public Uni<List<GenerationRecord>> scrollGenerationsByRequestId(String requestId, String after, int limit) {
+        Optional<Long> id = TsidUtility.parseNumericId(requestId);
+        Optional<Long> afterId = after == null ? Optional.of(Long.MIN_VALUE) : TsidUtility.parseNumericId(after);
+        if (id.isEmpty() || afterId.isEmpty() || limit <= 0) {
+            return Uni.createFrom().item(List.of());
+        }
+        return query(selectGenerations + " WHERE request_id = $1 AND id > $2 ORDER BY id LIMIT $3",
+                Tuple.of(id.get(), afterId.get(), (long) limit), ReactivePgStatusRepository::toGeneration)
+                .flatMap(this::generationChildren);
+    }
+
+    // --- ENHANCEMENTS ---
+
+    @Override
+    public Uni<EnhancementRecord> findEnhancementById(String enhancementId) {
+        return TsidUtility.parseNumericId(enhancementId)
+                .map(id -> query(selectEnhancements + " WHERE id = $1", Tuple.of(id),
+                        ReactivePgStatusRepository::toEnhancement)
+                        .map(records -> records.isEmpty() ? null : records.get(0)))
+                .orElseGet(() -> Uni.createFrom().nullItem());
+    }
+
+    @Override
+    public Uni<List<EnhancementRecord>> findEnhancementsByIds(Collection<String> enhancementIds) {
+        Long[] ids = numericIds(enhancementIds);
+        if (ids.length == 0) {
+            return Uni.createFrom().item(List.of());
+        }
+        return query(selectEnhancements + " WHERE id = ANY($1)", Tuple.tuple().addArrayOfLong(ids),
+                ReactivePgStatusRepository::toEnhancement);
+    }
+
+    @Override
+    public Multi<EnhancementRecord> findEnhancementsByGenerationId(String generationId) {
+        return TsidUtility.parseNumericId(generationId)
+                .map(id -> query(selectEnhancements + " WHERE generation_id = $1", Tuple.of(id),
+                        ReactivePgStatusRepository::toEnhancement))
+                .orElseGet(() -> Uni.createFrom().item(List.of()))
+                .onItem().transformToMulti(records -> Multi.createFrom().iterable(records));
+    }
+
+    @Override
+    public Uni<Page<EnhancementRecord>> findAllEnhancements(int pageIndex, int pageSize) {
+        return page(selectEnhancements + PAGE, "SELECT COUNT(*) FROM enhancements", Tuple.tuple(), pageIndex,
+                pageSize, ReactivePgStatusRepository::toEnhancement, records -> Uni.createFrom().item(records));
+    }
+
+    // --- STAMPS ---
+
+    @Override
+    public Uni<RecordStamp> findRequestStamp(String requestId) {
+        return stamp(requestId, stampPart(0, "requests", "creationDate", "id"),
+                stampPart(1, "generations", "updated", "request_id"),
+                stampPart(2, "enhancements", "updated", "request_id"));
+    }
+
+    @Override
+    public Uni<RecordStamp> findGenerationStamp(String generationId) {
+        return stamp(generationId, stampPart(0, "generations", "updated", "id"),
+                stampPart(1, "enhancements", "updated", "generation_id"));
+    }
+
+    @Override
+    public Uni<RecordStamp> findEnhancementStamp(String enhancementId) {
+        return stamp(enhancementId, stampPart(0, "enhancements", "updated", "id"));
+    }
+
+    /**
+     * Runs the aggregates of the record itself (part 0) and of its children in one statement. The stamp of no rows
+     * has a revision of 0, so a missing record is a null item.
+     */
+    private Uni<RecordStamp> stamp(String id, String... parts) {
+        return TsidUtility.parseNumericId(id)
+                .map(numericId -> query(String.join(" UNION ALL ", parts) + " ORDER BY part", Tuple.of(numericId),
+                        row -> new RecordStamp(row.getLong("revision"), toInstant(row.getValue("lastmodified")),
+                                row.getLong("open") == 0))
+                        .map(stamps -> stamps.get(0).revision() == 0 ? null
+                                : stamps.stream().reduce(RecordStamp::combine).orElseThrow()))
+                .orElseGet(() -> Uni.createFrom().nullItem());
+    }
+
+    private static String stampPart(int part, String table, String timeColumn, String parentColumn) {
+        return "SELECT " + part + " AS part, COALESCE(SUM(version), 0) + COUNT(*) AS revision, MAX(" + timeColumn
+                + ") AS lastmodified, COUNT(*) FILTER (WHERE status NOT IN ('FINISHED', 'FAILED')) AS open FROM "
+                + table + " WHERE " + parentColumn + " = $1";
+    }
+
+    // --- CHILDREN ---
+
+    private Uni<List<RequestRecord>> withGenerationRecords(List<RequestRecord> requests) {
+        if (requests.isEmpty()) {
+            return Uni.createFrom().item(requests);
+        }
+        Tuple ids = Tuple.tuple().addArrayOfLong(numericIds(requests, RequestRecord::getId));
+
+        Uni<List<PublisherRow>> publishers = query(
+                "SELECT request_id, name, version FROM request_publishers WHERE request_id = ANY($1)", ids,
+                row -> new PublisherRow(TsidUtility.toRequestId(row.getLong("request_id")), row.getString("name"),
+                        row.getString("version")));
+        Uni<List<GenerationRecord>> generations = query(SELECT_GENERATIONS + " WHERE request_id = ANY($1)", ids,
+                ReactivePgStatusRepository::toGeneration)
+                .flatMap(this::withEnhancements);
+
+        return Uni.combine().all().unis(publishers, generations).asTuple().map(children -> {
+            Map<String, List<PublisherRecord>> publishersByRequest = children.getItem1().stream()
+                    .collect(Collectors.groupingBy(PublisherRow::requestId,
+                            Collectors.mapping(PublisherRow::toRecord, Collectors.toList())));
+            Map<String, List<GenerationRecord>> generationsByRequest = children.getItem2().stream()
+                    .collect(Collectors.groupingBy(GenerationRecord::getRequestId));
+            requests.forEach(request -> {
+                request.setPublisherRecords(publishersByRequest.getOrDefault(request.getId(), new ArrayList<>()));
+                request.setGenerationRecords(generationsByRequest.getOrDefault(request.getId(), new ArrayList<>()));
+            });
+            return requests;
+        });
+    }
+
+    private Uni<List<GenerationRecord>> generationChildren(List<GenerationRecord> generations) {
+        return enhancementsSelected ? withEnhancements(generations) : Uni.createFrom().item(generations);
+    }
+
+    private Uni<List<GenerationRecord>> withEnhancements(List<GenerationRecord> generations) {
+        if (generations.isEmpty()) {
+            return Uni.createFrom().item(generations);
+        }
+        Tuple ids = Tuple.tuple().addArrayOfLong(numericIds(generations, GenerationRecord::getId));
+
+        return query(SELECT_ENHANCEMENTS + " WHERE generation_id = ANY($1)", ids,
+                ReactivePgStatusRepository::toEnhancement).map(enhancements -> {
+                    Map<String, List<EnhancementRecord>> byGeneration = enhancements.stream()
+                            .sorted(Comparator.comparingInt(EnhancementRecord::getIndex))
+                            .collect(Collectors.groupingBy(EnhancementRecord::getGenerationId));
+                    generations.forEach(generation -> generation
+                            .setEnhancements(byGeneration.getOrDefault(generation.getId(), new ArrayList<>())));
+                    return generations;
+                });
+    }
+
+    private record PublisherRow(String requestId, String name, String version) {
+        PublisherRecord toRecord() {
+            PublisherRecord record = new PublisherRecord();
+            record.setName(name);
+            record.setVersion(version);
+            return record;
+        }
+    }
+
+    // --- QUERY HELPERS ---
+
+    private <R> Uni<List<R>> query(String sql, Tuple arguments, Function<Row, R> mapper) {
+        return pool.preparedQuery(sql).execute(arguments).map(rows -> toList(rows, mapper));
+    }
+
+    /**
+     * Runs the page query with {@code $1} = limit and {@code $2} = offset, followed by the {@code filter} arguments,
+     * together with the count query that only takes the {@code filter} arguments.
+     */
+    private <R> Uni<Page<R>> page(String pageSql, String countSql, Tuple filter, int pageIndex, int pageSize,
+            Function<Row, R> mapper, Function<List<R>, Uni<List<R>>> children) {
+        Tuple pageArguments = Tuple.of((long) pageSize, (long) pageIndex * pageSize);
+        for (int i = 0; i < filter.size(); i++) {
+            pageArguments.addValue(filter.getValue(i));
+        }
+
+        Uni<List<R>> content = query(pageSql, pageArguments, mapper).flatMap(children::apply);
+        Uni<Long> totalHits = pool.preparedQuery(countSql).execute(filter)
+                .map(rows -> rows.iterator().next().getLong(0));
+
+        return Uni.combine().all().unis(content, totalHits).asTuple().map(result -> Page.<R>builder()
+                .content(result.getItem1())
+                .totalHits(result.getItem2())
+                .totalPages((int) Math.ceil((double) result.getItem2() / pageSize))
+                .pageIndex(pageIndex)
+                .pageSize(pageSize)
+                .build());
+    }
+
+    /**
+     * Adds {@code predicate} with the number of the next argument appended, unless the value is {@code null}. LIKE
+     * patterns escape with a backslash, which is the PostgreSQL default.
+     */
+    private static void condition(List<String> where, Tuple arguments, String predicate, Object value) {
+        if (value != null) {
+            arguments.addValue(value);
+            where.add(predicate + arguments.size());
+        }
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    private static Map<String, String> columns(String... fields) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (String field : fields) {
+            String[] renamed = field.split(":", 2);
+            columns.put(renamed[0], renamed.length > 1 ? renamed[1] : renamed[0]);
+        }
+        return columns;
+    }
+
+    private static String select(String table, Map<String, String> columns, FieldSelection fields) {
+        return columns.entrySet().stream()
+                .map(column -> fields.includes(column.getKey()) ? column.getValue() : "NULL AS " + column.getValue())
+                .collect(Collectors.joining(", ", "SELECT ", " FROM " + table));
+    }
+
+    private static <R> List<R> toList(RowSet<Row> rows, Function<Row, R> mapper) {
+        return StreamSupport.stream(rows.spliterator(), false).map(mapper).collect(Collectors.toList());
+    }
+
+    private static <R> Long[] numericIds(List<R> records, Function<R, String> id) {
+        return records.stream().map(id).map(TsidUtility::toNumericId).toArray(Long[]::new);
+    }
+
+    /**
+     * Malformed IDs cannot match any row, they are left out.
+     */
+    private static Long[] numericIds(Collection<String> ids) {
+        return ids.stream()
+                .map(TsidUtility::parseNumericId)
+                .flatMap(Optional::stream)
+                .distinct()
+                .toArray(Long[]::new);
+    }
+
+    // --- ROW MAPPING ---
+
+    private static RequestRecord toRequest(Row row) {
+        RequestRecord record = new RequestRecord();
+        record.setId(TsidUtility.toRequestId(row.getLong("id")));
+        record.setStatus(toEnum(RequestStatus.class, row.getString("status")));
+        record.setCreationDate(toInstant(row.getValue("creationdate")));
+        record.setVersion(row.getLong("version"));
+        return record;
+    }
+
+    private static GenerationRecord toGeneration(Row row) {
+        GenerationRecord record = new GenerationRecord();
+        record.setId(TsidUtility.toGenerationId(row.getLong("id")));
+        record.setGeneratorName(row.getString("generatorname"));
+        record.setGeneratorVersion(row.getString("generatorversion"));
+        record.setCreated(toInstant(row.getValue("created")));
+        record.setUpdated(toInstant(row.getValue("updated")));
+        record.setFinished(toInstant(row.getValue("finished")));
+        record.setStatus(toEnum(GenerationStatus.class, row.getString("status")));
+        record.setResult(row.getInteger("result"));
+        record.setReason(row.getString("reason"));
+        record.setRequestId(Optional.ofNullable(row.getLong("request_id")).map(TsidUtility::toRequestId).orElse(null));
+        record.setTargetType(row.getString("targettype"));
+        record.setTargetIdentifier(row.getString("targetidentifier"));
+        record.setGenerationSbomUrls(toList(row.getArrayOfStrings("generationsbomurls")));
+        record.setDispatchAttempts(Optional.ofNullable(row.getInteger("dispatchattempts")).orElse(0));
+        record.setHedgeAttempts(Optional.ofNullable(row.getInteger("hedgeattempts")).orElse(0));
+        record.setFailedAttempts(Optional.ofNullable(row.getInteger("failedattempts")).orElse(0));
+        record.setVersion(row.getLong("version"));
+        return record;
+    }
+
+    private static EnhancementRecord toEnhancement(Row row) {
+        EnhancementRecord record = new EnhancementRecord();
+        record.setId(TsidUtility.toEnhancementId(row.getLong("id")));
+        record.setEnhancerName(row.getString("enhancername"));
+        record.setEnhancerVersion(row.getString("enhancerversion"));
+        record.setIndex(Optional.ofNullable(row.getInteger("index")).orElse(0));
+        record.setCreated(toInstant(row.getValue("created")));
+        record.setUpdated(toInstant(row.getValue("updated")));
+        record.setFinished(toInstant(row.getValue("finished")));
+        record.setStatus(toEnum(EnhancementStatus.class, row.getString("status")));
+        record.setResult(row.getInteger("result"));
+        record.setReason(row.getString("reason"));
+        record.setRequestId(Optional.ofNullable(row.getLong("request_id")).map(TsidUtility::toRequestId).orElse(null));
+        record.setEnhancedSbomUrls(toList(row.getArrayOfStrings("enhancedsbomurls")));
+        record.setGenerationId(
+                Optional.ofNullable(row.getLong("generation_id")).map(TsidUtility::toGenerationId).orElse(null));
+        record.setDispatchAttempts(Optional.ofNullable(row.getInteger("dispatchattempts")).orElse(0));
+        record.setVersion(row.getLong("version"));
+        return record;
+    }
+
+    private static <E extends Enum<E>> E toEnum(Class<E> type, String name) {
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    // Hibernate maps Instant to "timestamp with time zone", older schemas may still have "timestamp"
+    private static Instant toInstant(Object value) {
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime.toInstant(ZoneOffset.UTC);
+        }
+        return null;
+    }
+
+    private static List<String> toList(String[] values) {
+        return values != null ? new ArrayList<>(Arrays.asList(values)) : null;
+    }
+}
@@ -6,4 +6,4 @@ import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
-public class RequestRepository implements PanacheRepositoryBase<RequestEntity, String> {}
+public class RequestRepository implements PanacheRepositoryBase<RequestEntity, Long> {}
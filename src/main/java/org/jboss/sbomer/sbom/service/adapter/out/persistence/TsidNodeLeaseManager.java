@@ -0,0 +1,153 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.TsidNodeLeaseEntity;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Leases a unique TSID node identifier for this replica from the {@code tsid_node_leases} table, so that replicas
+ * started by the autoscaler never generate colliding IDs and no per-instance {@code TSIDCREATOR_NODE} has to be set.
+ * </p>
+ * <p>
+ * The lease is claimed on startup (taking over the lowest expired lease, or inserting the lowest unused node),
+ * renewed by a heartbeat and deleted on shutdown. A replica that dies without shutting down leaves its lease behind
+ * until the TTL passes. If a heartbeat finds the lease taken over, a new node is claimed straight away.
+ * </p>
+ */
+@ApplicationScoped
+@UnlessBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory", enableIfMissing = true)
+@Slf4j
+public class TsidNodeLeaseManager {
+
+    private static final int MAX_CLAIM_ATTEMPTS = 10;
+
+    @Inject
+    TsidNodeLeaseRepository leaseRepository;
+
+    @ConfigProperty(name = "sbomer.tsid.node-lease.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "sbomer.tsid.node-lease.ttl", defaultValue = "60s")
+    Duration ttl;
+
+    private final String owner = System.getenv().getOrDefault("HOSTNAME", "sbom-service") + "-" + UUID.randomUUID();
+
+    private volatile Integer nodeId;
+
+    // Claim before other startup observers (e.g. the Kafka consumers) can create IDs
+    void onStart(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) StartupEvent event) {
+        if (!enabled) {
+            log.info("TSID node leasing is disabled, using the TSIDCREATOR_NODE environment settings");
+            return;
+        }
+        claim();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        Integer leased = nodeId;
+        if (leased == null) {
+            return;
+        }
+        QuarkusTransaction.requiringNew()
+                .run(() -> leaseRepository.delete("nodeId = ?1 and owner = ?2", leased, owner));
+        log.info("Released TSID node {}", leased);
+    }
+
+    @Scheduled(every = "${sbomer.tsid.node-lease.heartbeat-interval:15s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void heartbeat() {
+        Integer leased = nodeId;
+        if (leased == null) {
+            return;
+        }
+
+        boolean renewed = QuarkusTransaction.requiringNew().call(() -> leaseRepository
+                .update("heartbeat = ?1 where nodeId = ?2 and owner = ?3", Instant.now(), leased, owner) == 1);
+        if (!renewed) {
+            log.warn("Lease on TSID node {} was lost, claiming a new node", leased);
+            claim();
+        }
+    }
+
+    /**
+     * @return the currently leased node, or null if leasing is disabled or has not happened yet
+     */
+    public Integer getNodeId() {
+        return nodeId;
+    }
+
+    private void claim() {
+        for (int attempt = 1; attempt <= MAX_CLAIM_ATTEMPTS; attempt++) {
+            Optional<Integer> claimed = tryClaim();
+            if (claimed.isPresent()) {
+                TsidUtility.useNode(claimed.get());
+                nodeId = claimed.get();
+                log.info("Leased TSID node {} as '{}'", nodeId, owner);
+                return;
+            }
+            log.debug("Attempt {} to lease a TSID node lost a race with another replica", attempt);
+        }
+        throw new IllegalStateException("Could not lease a TSID node after " + MAX_CLAIM_ATTEMPTS + " attempts");
+    }
+
+    private Optional<Integer> tryClaim() {
+        try {
+            return QuarkusTransaction.requiringNew().call(() -> {
+                Instant now = Instant.now();
+
+                // Take over an expired lease; the heartbeat in the WHERE clause guards against a concurrent takeover
+                List<TsidNodeLeaseEntity> expired = leaseRepository.list("heartbeat < ?1", Sort.by("nodeId"),
+                        now.minus(ttl));
+                for (TsidNodeLeaseEntity lease : expired) {
+                    if (leaseRepository.update("owner = ?1, heartbeat = ?2 where nodeId = ?3 and heartbeat = ?4",
+                            owner, now, lease.getNodeId(), lease.getHeartbeat()) == 1) {
+                        return Optional.of(lease.getNodeId());
+                    }
+                }
+
+                // Otherwise insert the lowest unused node; the primary key rejects a concurrent insert of the same node
+                Set<Integer> taken = leaseRepository.listAll().stream()
+                        .map(TsidNodeLeaseEntity::getNodeId)
+                        .collect(Collectors.toSet());
+                for (int candidate = 0; candidate < TsidUtility.NODE_COUNT; candidate++) {
+                    if (!taken.contains(candidate)) {
+                        TsidNodeLeaseEntity lease = new TsidNodeLeaseEntity();
+                        lease.setNodeId(candidate);
+                        lease.setOwner(owner);
+                        lease.setHeartbeat(now);
+                        leaseRepository.persistAndFlush(lease);
+                        return Optional.of(candidate);
+                    }
+                }
+
+                throw new IllegalStateException("All " + TsidUtility.NODE_COUNT + " TSID nodes are leased");
+            });
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.debug("Failed to lease a TSID node", e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.WorkItemEntity;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class WorkItemRepository implements PanacheRepositoryBase<WorkItemEntity, String> {}
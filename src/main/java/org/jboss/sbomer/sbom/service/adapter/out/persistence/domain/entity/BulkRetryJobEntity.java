@@ -0,0 +1,57 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity;
+
+import java.time.Instant;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The progress of one bulk retry, see
+ * {@link org.jboss.sbomer.sbom.service.adapter.out.persistence.PanacheBulkRetryJobRepository}.
+ */
+@Entity
+@Table(name = "bulk_retry_jobs", indexes = { @Index(name = "idx_bulk_retry_jobs_created", columnList = "created") })
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
+public class BulkRetryJobEntity extends PanacheEntityBase {
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private String kind;
+
+    private int matched;
+
+    private Instant created;
+
+    @Column(name = "reset_count")
+    private int reset;
+
+    private int dispatched;
+
+    private int skipped;
+
+    @Enumerated(EnumType.STRING)
+    private BulkRetryJob.State state;
+
+    private Instant finished;
+
+    @Column(length = 4096)
+    private String error;
+}
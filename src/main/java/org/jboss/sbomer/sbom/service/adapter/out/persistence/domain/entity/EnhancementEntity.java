@@ -1,10 +1,14 @@
 package org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity;
 
 import java.time.Instant;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
@@ -15,7 +19,11 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "enhancements")
+@Table(name = "enhancements", indexes = {
+        @Index(name = "idx_enhancements_status_updated", columnList = "status, updated"),
+        @Index(name = "idx_enhancements_request", columnList = "request_id"),
+        @Index(name = "idx_enhancements_generation", columnList = "generation_id")
+})
 @NoArgsConstructor
 @Getter
 @Setter
@@ -25,7 +33,7 @@ public class EnhancementEntity extends PanacheEntityBase {
     @Id
     @EqualsAndHashCode.Include
     @ToString.Include
-    private String id;
+    private Long id;
 
     private String enhancerName;
 
@@ -50,22 +58,28 @@ public class EnhancementEntity extends PanacheEntityBase {
     @JoinColumn(name = "request_id")
     private RequestEntity request;
 
-    @ElementCollection
-    @CollectionTable(name = "enhancement_sbom_urls", joinColumns = @JoinColumn(name = "enhancement_id"))
-    @Column(name = "url")
-    private Set<String> enhancedSbomUrls = new HashSet<>();
+    // Inline array column, same layout as GenerationEntity#generationSbomUrls
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private List<String> enhancedSbomUrls = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "generation_id")
     private GenerationEntity generation;
 
+    @ColumnDefault("0")
+    private int dispatchAttempts;
+
+    // Optimistic lock, same as GenerationEntity#version
+    @Version
+    private Long version;
+
     // This acts as the "Default" generator.
     // If we provide an ID (TSID/Test ID), this does nothing.
-    // If we provide null, this generates a UUID.
+    // If we provide null, this generates a numeric TSID.
     @PrePersist
     public void ensureId() {
         if (this.id == null) {
-            this.id = java.util.UUID.randomUUID().toString();
+            this.id = TsidUtility.createNumericId();
         }
     }
 
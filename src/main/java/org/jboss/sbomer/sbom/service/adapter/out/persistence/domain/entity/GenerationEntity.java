@@ -1,10 +1,16 @@
 package org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
@@ -15,7 +21,13 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "generations")
+// The trigram index on targetIdentifier for substring search cannot be declared here, see LegacySchemaMigration
+@Table(name = "generations", indexes = {
+        @Index(name = "idx_generations_status_updated", columnList = "status, updated"),
+        @Index(name = "idx_generations_generator_created", columnList = "generatorName, created"),
+        @Index(name = "idx_generations_created", columnList = "created"),
+        @Index(name = "idx_generations_request", columnList = "request_id")
+})
 @NoArgsConstructor
 @Getter
 @Setter
@@ -25,7 +37,7 @@ public class GenerationEntity extends PanacheEntityBase {
     @Id
     @EqualsAndHashCode.Include
     @ToString.Include
-    private String id;
+    private Long id;
 
     private String generatorName;
 
@@ -52,25 +64,39 @@ public class GenerationEntity extends PanacheEntityBase {
 
     private String targetIdentifier;
 
-    @ElementCollection
-    @CollectionTable(name = "generation_sbom_urls", joinColumns = @JoinColumn(name = "generation_id"))
-    @Column(name = "url")
-    private Set<String> generationSbomUrls = new HashSet<>();
+    // Stored inline as an array column so that loading or updating a generation touches a single row
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private List<String> generationSbomUrls = new ArrayList<>();
 
     @OneToMany(mappedBy = "generation", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<EnhancementEntity> enhancements = new HashSet<>();
 
+    // Column default, so that rows written before the column existed count as never redispatched
+    @ColumnDefault("0")
+    private int dispatchAttempts;
+
+    // Duplicate dispatches of a slow generation, and how many of its attempts failed, see GenerationHedger
+    @ColumnDefault("0")
+    private int hedgeAttempts;
+
+    @ColumnDefault("0")
+    private int failedAttempts;
+
+    // Optimistic lock: checked against the version of the record an update is based on, see PanacheStatusRepository
+    @Version
+    private Long version;
+
     public void setEnhancements(Set<EnhancementEntity> enhancements) {
         this.enhancements = enhancements != null ? new HashSet<>(enhancements) : new HashSet<>();
     }
 
     // This acts as the "Default" generator.
     // If we provide an ID (TSID/Test ID), this does nothing.
-    // If we provide null, this generates a UUID.
+    // If we provide null, this generates a numeric TSID.
     @PrePersist
     public void ensureId() {
         if (this.id == null) {
-            this.id = java.util.UUID.randomUUID().toString();
+            this.id = TsidUtility.createNumericId();
         }
     }
 }
@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
@@ -26,7 +27,7 @@ public class RequestEntity extends PanacheEntityBase {
     @Id
     @EqualsAndHashCode.Include
     @ToString.Include
-    private String id;
+    private Long id;
 
     @OneToMany(mappedBy = "request", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<GenerationEntity> generations = new HashSet<>();
@@ -40,6 +41,10 @@ public class RequestEntity extends PanacheEntityBase {
 
     private Instant creationDate;
 
+    // Optimistic lock, same as GenerationEntity#version
+    @Version
+    private Long version;
+
     @Embeddable
     @Data
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
@@ -53,11 +58,11 @@ public class RequestEntity extends PanacheEntityBase {
 
     // This acts as the "Default" generator.
     // If we provide an ID (TSID/Test ID), this does nothing.
-    // If we provide null, this generates a UUID.
+    // If we provide null, this generates a numeric TSID.
     @PrePersist
     public void ensureId() {
         if (this.id == null) {
-            this.id = java.util.UUID.randomUUID().toString();
+            this.id = TsidUtility.createNumericId();
         }
     }
 
@@ -0,0 +1,49 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity;
+
+import java.io.Serializable;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * One statistics rollup shared by all replicas: a count of generations or enhancements in a status, or one bucket of
+ * their time-in-state histogram. Replicas add their changes in batches, see the StatusStatistics service.
+ */
+@Entity
+@Table(name = "stats_rollups")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
+public class StatsRollupEntity extends PanacheEntityBase {
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private Key id;
+
+    private long total;
+
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    @ToString
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String kind;
+        private String name;
+        private String status;
+        private int bucket;
+    }
+}
@@ -0,0 +1,34 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity;
+
+import java.time.Instant;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * A TSID node identifier claimed by one running replica. The row is kept alive by heartbeats and can be taken over by
+ * another replica once the heartbeat is older than the lease TTL.
+ */
+@Entity
+@Table(name = "tsid_node_leases")
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
+public class TsidNodeLeaseEntity extends PanacheEntityBase {
+    @Id
+    @EqualsAndHashCode.Include
+    private Integer nodeId;
+
+    private String owner;
+
+    private Instant heartbeat;
+}
@@ -0,0 +1,56 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity;
+
+import java.time.Instant;
+
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.domain.enums.WorkKind;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * A generation or enhancement waiting for capacity of its worker ({@code released} is null) or in flight, see
+ * {@link org.jboss.sbomer.sbom.service.adapter.out.persistence.PanacheWorkQueue}.
+ */
+@Entity
+@Table(name = "work_queue", indexes = {
+        @Index(name = "idx_work_queue_worker", columnList = "workerName, workerVersion, released, priority, sequence")
+})
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
+public class WorkItemEntity extends PanacheEntityBase {
+    @Id
+    @EqualsAndHashCode.Include
+    private String recordId;
+
+    @Enumerated(EnumType.STRING)
+    private WorkKind kind;
+
+    private String workerName;
+
+    private String workerVersion;
+
+    @Enumerated(EnumType.STRING)
+    private RequestPriority priority;
+
+    private String requestId;
+
+    private int sequence;
+
+    private Instant enqueued;
+
+    private Instant released;
+}
@@ -0,0 +1,35 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity;
+
+import java.time.Instant;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * One row per generator or enhancer version, locked by the replica that releases its queued work, so that replicas
+ * releasing at the same time do not both fill the same free capacity.
+ */
+@Entity
+@Table(name = "work_queue_workers")
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
+public class WorkerLockEntity extends PanacheEntityBase {
+    /**
+     * {@code name:version}
+     */
+    @Id
+    @EqualsAndHashCode.Include
+    private String worker;
+
+    private Instant lastRelease;
+}
@@ -12,10 +12,12 @@ import org.mapstruct.Mapping;
 public interface EnhancementMapper {
     @Mapping(target = "generationId", source = "generation")
     @Mapping(target = "requestId", source = "request")
+    @Mapping(target = "id", source = "id", qualifiedByName = "toEnhancementId")
     EnhancementRecord toDto(EnhancementEntity entity);
 
     @Mapping(target = "generation", source = "generationId")
     @Mapping(target = "request", source = "requestId")
+    @Mapping(target = "id", source = "id", qualifiedByName = "toNumericId")
     EnhancementEntity toEntity(EnhancementRecord record);
 
     default List<EnhancementRecord> map(List<EnhancementEntity> entities) {
@@ -9,9 +9,11 @@ import org.mapstruct.Mapping;
 public interface GenerationMapper {
     @Mapping(target = "enhancements", source = "enhancements")
     @Mapping(target = "requestId", source = "request")
+    @Mapping(target = "id", source = "id", qualifiedByName = "toGenerationId")
     GenerationRecord toDto(GenerationEntity entity);
 
     @Mapping(target = "request", source = "requestId")
     @Mapping(target = "enhancements", source = "enhancements")
+    @Mapping(target = "id", source = "id", qualifiedByName = "toNumericId")
     GenerationEntity toEntity(GenerationRecord dto);
 }
@@ -4,38 +4,71 @@ import java.util.Optional;
 
 import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.GenerationEntity;
 import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.RequestEntity;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.mapstruct.Named;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
+/**
+ * Translates between the prefixed string IDs used by the core records and the numeric TSIDs stored in the entities.
+ */
 @ApplicationScoped
 public class IdMapping {
+    /**
+     * Set on the parent references created from an ID. An entity without a version is taken for a new row by
+     * {@code merge}; with one, merge resolves the reference by its ID instead. The value itself is never compared.
+     */
+    private static final Long REFERENCE_VERSION = 0L;
+
     public String mapEntityToId(RequestEntity entity) {
-        return Optional.ofNullable(entity).map(RequestEntity::getId).orElse(null);
+        return Optional.ofNullable(entity).map(RequestEntity::getId).map(TsidUtility::toRequestId).orElse(null);
     }
 
-    private static RequestEntity newRequestEntity(final String requestId) {
+    private static RequestEntity newRequestEntity(final Long requestId) {
         RequestEntity entity = new RequestEntity();
         entity.setId(requestId);
+        entity.setVersion(REFERENCE_VERSION);
         return entity;
     }
 
     public RequestEntity mapRequestId(String requestId) {
-        return Optional.ofNullable(requestId).map(IdMapping::newRequestEntity).orElse(null);
+        return Optional.ofNullable(requestId).map(TsidUtility::toNumericId).map(IdMapping::newRequestEntity).orElse(null);
 
     }
 
-    private static GenerationEntity newGenerationEntity(final String generationId) {
+    private static GenerationEntity newGenerationEntity(final Long generationId) {
         GenerationEntity entity = new GenerationEntity();
         entity.setId(generationId);
+        entity.setVersion(REFERENCE_VERSION);
         return entity;
     }
 
     public GenerationEntity mapGenerationId(String generationId) {
-        return Optional.ofNullable(generationId).map(IdMapping::newGenerationEntity).orElse(null);
+        return Optional.ofNullable(generationId).map(TsidUtility::toNumericId).map(IdMapping::newGenerationEntity).orElse(null);
 
     }
 
     public String mapGenerationEntity(GenerationEntity entity) {
-        return Optional.ofNullable(entity).map(GenerationEntity::getId).orElse(null);
+        return Optional.ofNullable(entity).map(GenerationEntity::getId).map(TsidUtility::toGenerationId).orElse(null);
+    }
+
+    @Named("toNumericId")
+    public Long toNumericId(String id) {
+        return Optional.ofNullable(id).map(TsidUtility::toNumericId).orElse(null);
+    }
+
+    @Named("toRequestId")
+    public String toRequestId(Long id) {
+        return Optional.ofNullable(id).map(TsidUtility::toRequestId).orElse(null);
+    }
+
+    @Named("toGenerationId")
+    public String toGenerationId(Long id) {
+        return Optional.ofNullable(id).map(TsidUtility::toGenerationId).orElse(null);
+    }
+
+    @Named("toEnhancementId")
+    public String toEnhancementId(Long id) {
+        return Optional.ofNullable(id).map(TsidUtility::toEnhancementId).orElse(null);
     }
 }
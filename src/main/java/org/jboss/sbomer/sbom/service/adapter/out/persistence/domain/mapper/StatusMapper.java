@@ -9,15 +9,16 @@ import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "cdi", uses = {GenerationMapper.class, EnhancementMapper.class})
+@Mapper(componentModel = "cdi", uses = {GenerationMapper.class, EnhancementMapper.class, IdMapping.class})
 public interface StatusMapper {
     @Mapping(target = "generationRecords", source = "generations")
     @Mapping(target = "publisherRecords", source = "publishers")
+    @Mapping(target = "id", source = "id", qualifiedByName = "toRequestId")
     RequestRecord toDto(RequestEntity entity);
 
     @Mapping(target = "generations", source = "generationRecords")
     @Mapping(target = "publishers", source = "publisherRecords")
-    @Mapping(target = "id", source = "id")
+    @Mapping(target = "id", source = "id", qualifiedByName = "toNumericId")
     RequestEntity toEntity(RequestRecord dto);
 
     default List<PublisherRecord> map(List<RequestEntity.PublisherEmbeddable> publishers) {
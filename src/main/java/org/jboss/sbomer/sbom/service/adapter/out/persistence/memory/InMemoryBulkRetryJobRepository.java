@@ -0,0 +1,50 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.memory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.port.spi.BulkRetryJobRepository;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * {@link BulkRetryJobRepository} for a single instance next to the {@link InMemoryStatusRepository}. The jobs are not
+ * written to its log, so they are forgotten on restart.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory")
+public class InMemoryBulkRetryJobRepository implements BulkRetryJobRepository {
+
+    private final Map<String, BulkRetryJob> jobs;
+
+    @Inject
+    public InMemoryBulkRetryJobRepository(
+            @ConfigProperty(name = "sbomer.bulk-retry.retained-jobs", defaultValue = "100") int retainedJobs) {
+        this.jobs = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BulkRetryJob> eldest) {
+                return size() > retainedJobs;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void create(BulkRetryJob job) {
+        jobs.put(job.getId(), job.copy());
+    }
+
+    @Override
+    public synchronized void update(BulkRetryJob job) {
+        jobs.computeIfPresent(job.getId(), (id, previous) -> job.copy());
+    }
+
+    @Override
+    public synchronized Optional<BulkRetryJob> findById(String jobId) {
+        return Optional.ofNullable(jobId).map(jobs::get).map(BulkRetryJob::copy);
+    }
+}
@@ -0,0 +1,39 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsKey;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatsRollupRepository;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * {@link StatsRollupRepository} for a single instance next to the {@link InMemoryStatusRepository}. Nothing is shared
+ * and nothing is persisted: the rollups are seeded from the restored records on every start.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory")
+public class InMemoryStatsRollupRepository implements StatsRollupRepository {
+
+    private final Map<StatsKey, Long> rollups = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void seed(Supplier<Map<StatsKey, Long>> counts) {
+        if (rollups.isEmpty()) {
+            rollups.putAll(counts.get());
+        }
+    }
+
+    @Override
+    public synchronized void add(Map<StatsKey, Long> deltas) {
+        deltas.forEach((key, delta) -> rollups.merge(key, delta, Long::sum));
+    }
+
+    @Override
+    public Map<StatsKey, Long> load() {
+        return Map.copyOf(rollups);
+    }
+}
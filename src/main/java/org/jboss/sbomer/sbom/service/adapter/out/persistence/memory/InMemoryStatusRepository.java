@@ -0,0 +1,1041 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StaleWorkQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * {@link StatusRepository} that keeps all requests, generations and enhancements in memory, for edge deployments and
+ * load tests where running PostgreSQL is not wanted. Enabled by building with
+ * {@code sbomer.status-repository.type=in-memory}.
+ * </p>
+ * <p>
+ * Records live in sorted concurrent maps keyed by their prefixed ID (which sorts like the numeric TSID), with secondary
+ * indexes by parent ID and by status. Reads never lock and always hand out copies. Mutations are serialized by a
+ * single lock: each one is encoded as a batch of row changes, appended to the {@link WriteAheadLog} and only then
+ * applied to the maps, so a replay after a restart reproduces exactly the acknowledged state.
+ * </p>
+ * <p>
+ * Rows carry a version that every update checks and increments, with the same semantics as the entity versions of the
+ * Panache implementation. This matters even in a single process, as callers read and update in separate calls.
+ * </p>
+ * <p>
+ * Every {@code snapshot-interval} mutations, or when the log is full, the whole state is written to a snapshot file
+ * and the log is reset. Startup loads the snapshot and replays the log entries that are newer than it.
+ * </p>
+ */
+@ApplicationScoped
+@Startup
+@IfBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory")
+@Slf4j
+public class InMemoryStatusRepository implements StatusRepository {
+
+    private static final int SNAPSHOT_MAGIC = 0x53425352; // "SBSR"
+
+    private static final int SNAPSHOT_VERSION = 3;
+
+    private static final byte PUT_REQUEST = 1;
+
+    private static final byte PUT_GENERATION = 2;
+
+    private static final byte PUT_ENHANCEMENT = 3;
+
+    private static final byte REMOVE_ENHANCEMENT = 4;
+
+    private static final Comparator<EnhancementRecord> ENHANCEMENT_ORDER = Comparator
+            .comparingInt(EnhancementRecord::getIndex)
+            .thenComparing(EnhancementRecord::getId);
+
+    private final Path directory;
+
+    private final long walSize;
+
+    private final int snapshotInterval;
+
+    private final boolean forceWrites;
+
+    private final ConcurrentNavigableMap<String, RequestRecord> requests = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentNavigableMap<String, GenerationRecord> generations = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentNavigableMap<String, EnhancementRecord> enhancements = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Set<String>> generationsByRequest = new ConcurrentHashMap<>();
+
+    private final Map<GenerationStatus, Set<String>> generationsByStatus = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> enhancementsByGeneration = new ConcurrentHashMap<>();
+
+    private final Map<EnhancementStatus, Set<String>> enhancementsByStatus = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private WriteAheadLog wal;
+
+    private long lastSequence;
+
+    private int mutationsSinceSnapshot;
+
+    @Inject
+    public InMemoryStatusRepository(
+            @ConfigProperty(name = "sbomer.status-repository.in-memory.directory", defaultValue = "data/status-repository") String directory,
+            @ConfigProperty(name = "sbomer.status-repository.in-memory.wal-size", defaultValue = "64M") MemorySize walSize,
+            @ConfigProperty(name = "sbomer.status-repository.in-memory.snapshot-interval", defaultValue = "100000") int snapshotInterval,
+            @ConfigProperty(name = "sbomer.status-repository.in-memory.force-writes", defaultValue = "false") boolean forceWrites) {
+        this(Path.of(directory), walSize.asLongValue(), snapshotInterval, forceWrites);
+    }
+
+    public InMemoryStatusRepository(Path directory, long walSize, int snapshotInterval, boolean forceWrites) {
+        this.directory = directory;
+        this.walSize = walSize;
+        this.snapshotInterval = snapshotInterval;
+        this.forceWrites = forceWrites;
+    }
+
+    /**
+     * Rebuilds the state from the snapshot and the write-ahead log in the configured directory.
+     */
+    @PostConstruct
+    public void open() {
+        writeLock.lock();
+        try {
+            Files.createDirectories(directory);
+            lastSequence = loadSnapshot();
+            long snapshotSequence = lastSequence;
+            wal = new WriteAheadLog(directory.resolve("wal.bin"), walSize, forceWrites);
+            lastSequence = wal.replay(snapshotSequence, (sequence, payload) -> decode(payload).forEach(this::apply));
+            mutationsSinceSnapshot = (int) Math.min(Integer.MAX_VALUE, lastSequence - snapshotSequence);
+            log.info("Recovered {} requests, {} generations and {} enhancements from '{}' (snapshot at #{}, log at #{})",
+                    requests.size(), generations.size(), enhancements.size(), directory, snapshotSequence,
+                    lastSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the status repository in " + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a final snapshot, so the next start does not have to replay the log.
+     */
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            if (wal != null) {
+                snapshot();
+                wal.close();
+                wal = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // --- REQUESTS ---
+
+    @Override
+    public void saveRequestRecord(RequestRecord record) {
+        mutate(() -> {
+            if (record.getId() == null) {
+                record.setId(TsidUtility.createUniqueGenerationRequestId());
+            }
+            record.setVersion(0L);
+            List<Change> changes = new ArrayList<>();
+            changes.add(new RequestPut(copyRequest(record)));
+            Optional.ofNullable(record.getGenerationRecords())
+                    .ifPresent(generationRecords -> generationRecords.forEach(generationRecord -> {
+                        if (generationRecord.getRequestId() == null) {
+                            generationRecord.setRequestId(record.getId());
+                        }
+                        generationChanges(generationRecord, changes);
+                    }));
+            return changes;
+        });
+    }
+
+    @Override
+    public void updateRequestRecord(RequestRecord record) {
+        mutate(() -> Optional.ofNullable(record.getId()).map(requests::get).map(existing -> {
+            checkVersion(record.getId(), record.getVersion(), existing.getVersion());
+            RequestRecord updated = copyRequest(existing);
+            updated.setStatus(record.getStatus());
+            updated.setVersion(existing.getVersion() + 1);
+            record.setVersion(updated.getVersion());
+            return List.<Change>of(new RequestPut(updated));
+        }).orElseGet(List::of));
+    }
+
+    @Override
+    public boolean updateRequestStatus(String requestId, RequestStatus status) {
+        AtomicBoolean changed = new AtomicBoolean();
+        mutate(() -> Optional.ofNullable(requestId).map(requests::get)
+                .filter(existing -> existing.getStatus() != status)
+                .map(existing -> {
+                    RequestRecord updated = copyRequest(existing);
+                    updated.setStatus(status);
+                    updated.setVersion(existing.getVersion() + 1);
+                    changed.set(true);
+                    return List.<Change>of(new RequestPut(updated));
+                }).orElseGet(List::of));
+        return changed.get();
+    }
+
+    @Override
+    public RequestRecord findRequestById(String requestId) {
+        return Optional.ofNullable(requestId).map(requests::get).map(this::assembleRequest).orElse(null);
+    }
+
+    @Override
+    public List<PublisherRecord> findPublishersByRequestId(String requestId) {
+        return Optional.ofNullable(requestId)
+                .map(requests::get)
+                .map(RequestRecord::getPublisherRecords)
+                .<List<PublisherRecord>>map(List::copyOf)
+                .orElseGet(List::of);
+    }
+
+    @Override
+    public Page<RequestRecord> findAllRequests(int pageIndex, int pageSize) {
+        return page(requests.values(), requests.size(), pageIndex, pageSize, this::assembleRequest);
+    }
+
+    // --- GENERATIONS ---
+
+    @Override
+    public void saveGeneration(GenerationRecord record) {
+        mutate(() -> {
+            List<Change> changes = new ArrayList<>();
+            generationChanges(record, changes);
+            return changes;
+        });
+    }
+
+    @Override
+    public GenerationRecord findGenerationById(String generationId) {
+        return Optional.ofNullable(generationId).map(generations::get).map(this::assembleGeneration).orElse(null);
+    }
+
+    @Override
+    public boolean requestExists(String requestId) {
+        return requestId != null && requests.containsKey(requestId);
+    }
+
+    @Override
+    public Page<GenerationRecord> findAllGenerations(int pageIndex, int pageSize) {
+        return page(generations.values(), generations.size(), pageIndex, pageSize, this::assembleGeneration);
+    }
+
+    @Override
+    public List<GenerationRecord> findGenerationsByRequestId(String requestId) {
+        return generationRowsOf(requestId).stream().map(this::assembleGeneration).toList();
+    }
+
+    @Override
+    public Page<GenerationRecord> findGenerationsByRequestId(String requestId, int pageIndex, int pageSize) {
+        List<GenerationRecord> rows = generationRowsOf(requestId);
+        return page(rows, rows.size(), pageIndex, pageSize, this::assembleGeneration);
+    }
+
+    @Override
+    public List<GenerationRecord> scrollGenerationsByRequestId(String requestId, String after, int limit) {
+        return generationRowsOf(requestId).stream()
+                .filter(row -> after == null || row.getId().compareTo(after) > 0)
+                .limit(Math.max(limit, 0))
+                .map(this::assembleGeneration)
+                .toList();
+    }
+
+    @Override
+    public List<GenerationRecord> findByGenerationStatus(GenerationStatus status) {
+        return rows(generationsByStatus, status, generations).stream().map(this::assembleGeneration).toList();
+    }
+
+    @Override
+    public List<GenerationRecord> findStaleGenerations(Collection<GenerationStatus> statuses, StaleWorkQuery query) {
+        return findStale(generationsByStatus, generations, statuses, query, GenerationRecord::getGeneratorName,
+                GenerationRecord::getUpdated, GenerationRecord::getDispatchAttempts, GenerationRecord::getHedgeAttempts,
+                GenerationRecord::getId).stream()
+                .map(this::assembleGeneration)
+                .toList();
+    }
+
+    /**
+     * Walks the generations newest first, starting after the cursor, until the page is full. Without an index per
+     * criterion, a selective query may go through the whole map.
+     */
+    @Override
+    public List<GenerationRecord> searchGenerations(GenerationSearchQuery query) {
+        if (query.getAfter() != null && TsidUtility.parseNumericId(query.getAfter()).isEmpty()) {
+            return List.of();
+        }
+        ConcurrentNavigableMap<String, GenerationRecord> older = query.getAfter() != null
+                ? generations.headMap(query.getAfter(), false)
+                : generations;
+        return older.descendingMap().values().stream()
+                .filter(row -> matches(query, row))
+                .limit(Math.max(query.getLimit(), 0))
+                .map(this::assembleGeneration)
+                .toList();
+    }
+
+    @Override
+    public List<GenerationRecord> findGenerationsByIds(Collection<String> generationIds) {
+        return generationIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(generations::get)
+                .filter(Objects::nonNull)
+                .map(this::assembleGeneration)
+                .toList();
+    }
+
+    @Override
+    public long countFailedGenerations(RetryFilter filter) {
+        return failedGenerations(filter).count();
+    }
+
+    @Override
+    public List<String> resetFailedGenerations(RetryFilter filter, Instant updated, int limit) {
+        List<String> ids = new ArrayList<>();
+        mutate(() -> failedGenerations(filter).limit(Math.max(limit, 0)).map(row -> {
+            GenerationRecord reset = copyGeneration(row);
+            reset.setStatus(GenerationStatus.SCHEDULED);
+            reset.setReason(null);
+            reset.setResult(null);
+            reset.setFinished(null);
+            reset.setUpdated(updated);
+            reset.setDispatchAttempts(0);
+            reset.setHedgeAttempts(0);
+            reset.setFailedAttempts(0);
+            reset.setVersion(row.getVersion() + 1);
+            ids.add(reset.getId());
+            return (Change) new GenerationPut(reset);
+        }).toList());
+        return ids;
+    }
+
+    private Stream<GenerationRecord> failedGenerations(RetryFilter filter) {
+        return rows(generationsByStatus, GenerationStatus.FAILED, generations).stream()
+                .filter(row -> matches(filter, row.getId(), row.getRequestId(), row.getGeneratorName(),
+                        row.getResult(), row.getFinished()));
+    }
+
+    /**
+     * Like the Panache implementation, the enhancements of the given record replace the stored ones: existing
+     * enhancements are updated, new ones are created and the ones that are no longer listed are removed.
+     */
+    @Override
+    public void updateGeneration(GenerationRecord record) {
+        mutate(() -> Optional.ofNullable(record.getId()).map(generations::get).map(existing -> {
+            checkVersion(record.getId(), record.getVersion(), existing.getVersion());
+            List<Change> changes = new ArrayList<>();
+            GenerationRecord updated = copyGeneration(record);
+            updated.setVersion(existing.getVersion() + 1);
+            updated.setRequestId(record.getRequestId() != null && requests.containsKey(record.getRequestId())
+                    ? record.getRequestId()
+                    : null);
+            changes.add(new GenerationPut(updated));
+
+            Set<String> kept = new HashSet<>();
+            for (EnhancementRecord enhancementRecord : Optional.ofNullable(record.getEnhancements())
+                    .orElseGet(List::of)) {
+                EnhancementRecord enhancement;
+                if (enhancementRecord.getId() != null) {
+                    EnhancementRecord stored = enhancements.get(enhancementRecord.getId());
+                    if (stored == null) {
+                        throw new IllegalArgumentException("Unknown enhancement ID " + enhancementRecord.getId());
+                    }
+                    checkVersion(enhancementRecord.getId(), enhancementRecord.getVersion(), stored.getVersion());
+                    enhancement = copyEnhancement(stored);
+                    enhancement.setVersion(stored.getVersion() + 1);
+                } else {
+                    enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+                    enhancementRecord.setGenerationId(updated.getId());
+                    enhancement = new EnhancementRecord();
+                    enhancement.setId(enhancementRecord.getId());
+                    enhancement.setVersion(0L);
+                }
+                copyEnhancementState(enhancementRecord, enhancement);
+                enhancement.setGenerationId(updated.getId());
+
+                if (enhancementRecord.getRequestId() != null) {
+                    enhancement.setRequestId(requests.containsKey(enhancementRecord.getRequestId())
+                            ? enhancementRecord.getRequestId()
+                            : null);
+                } else if (updated.getRequestId() != null) {
+                    enhancement.setRequestId(updated.getRequestId());
+                } else {
+                    throw new IllegalArgumentException("Request ID is null");
+                }
+
+                kept.add(enhancement.getId());
+                changes.add(new EnhancementPut(enhancement));
+                enhancementRecord.setVersion(enhancement.getVersion());
+            }
+            record.setVersion(updated.getVersion());
+
+            enhancementsByGeneration.getOrDefault(updated.getId(), Set.of()).stream()
+                    .filter(enhancementId -> !kept.contains(enhancementId))
+                    .forEach(enhancementId -> changes.add(new EnhancementRemoval(enhancementId)));
+            return changes;
+        }).orElseGet(List::of));
+    }
+
+    // --- ENHANCEMENTS ---
+
+    @Override
+    public void saveEnhancement(EnhancementRecord record) {
+        mutate(() -> {
+            if (record.getId() == null) {
+                record.setId(TsidUtility.createUniqueEnhancementId());
+            }
+            record.setVersion(0L);
+            return List.of(new EnhancementPut(copyEnhancement(record)));
+        });
+    }
+
+    @Override
+    public EnhancementRecord findEnhancementById(String enhancementId) {
+        return Optional.ofNullable(enhancementId).map(enhancements::get).map(InMemoryStatusRepository::copyEnhancement)
+                .orElse(null);
+    }
+
+    @Override
+    public List<EnhancementRecord> findByEnhancementStatus(EnhancementStatus status) {
+        return rows(enhancementsByStatus, status, enhancements).stream()
+                .map(InMemoryStatusRepository::copyEnhancement)
+                .toList();
+    }
+
+    @Override
+    public List<EnhancementRecord> findEnhancementsByIds(Collection<String> enhancementIds) {
+        return enhancementIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(enhancements::get)
+                .filter(Objects::nonNull)
+                .map(InMemoryStatusRepository::copyEnhancement)
+                .toList();
+    }
+
+    @Override
+    public long countFailedEnhancements(RetryFilter filter) {
+        return failedEnhancements(filter).count();
+    }
+
+    @Override
+    public Map<StatsKey, Long> countByWorkerAndStatus() {
+        Map<StatsKey, Long> counts = new HashMap<>();
+        generations.values().forEach(row -> counts.merge(
+                StatsKey.count(StatsKey.GENERATION, row.getGeneratorName(), row.getStatus().name()), 1L, Long::sum));
+        enhancements.values().forEach(row -> counts.merge(
+                StatsKey.count(StatsKey.ENHANCEMENT, row.getEnhancerName(), row.getStatus().name()), 1L, Long::sum));
+        return counts;
+    }
+
+    // The records are copied from memory, there is nothing cheaper to read than the records themselves
+
+    @Override
+    public RecordStamp findRequestStamp(String requestId) {
+        return Optional.ofNullable(findRequestById(requestId)).map(RecordStamp::of).orElse(null);
+    }
+
+    @Override
+    public RecordStamp findGenerationStamp(String generationId) {
+        return Optional.ofNullable(findGenerationById(generationId)).map(RecordStamp::of).orElse(null);
+    }
+
+    @Override
+    public RecordStamp findEnhancementStamp(String enhancementId) {
+        return Optional.ofNullable(findEnhancementById(enhancementId)).map(RecordStamp::of).orElse(null);
+    }
+
+    @Override
+    public List<String> resetFailedEnhancements(RetryFilter filter, Instant updated, int limit) {
+        List<String> ids = new ArrayList<>();
+        mutate(() -> failedEnhancements(filter).limit(Math.max(limit, 0)).map(row -> {
+            EnhancementRecord reset = copyEnhancement(row);
+            reset.setStatus(EnhancementStatus.SCHEDULED);
+            reset.setReason(null);
+            reset.setResult(null);
+            reset.setFinished(null);
+            reset.setUpdated(updated);
+            reset.setDispatchAttempts(0);
+            reset.setVersion(row.getVersion() + 1);
+            ids.add(reset.getId());
+            return (Change) new EnhancementPut(reset);
+        }).toList());
+        return ids;
+    }
+
+    private Stream<EnhancementRecord> failedEnhancements(RetryFilter filter) {
+        return rows(enhancementsByStatus, EnhancementStatus.FAILED, enhancements).stream()
+                .filter(row -> matches(filter, row.getId(), row.getRequestId(), row.getEnhancerName(),
+                        row.getResult(), row.getFinished()));
+    }
+
+    @Override
+    public List<EnhancementRecord> findStaleEnhancements(Collection<EnhancementStatus> statuses,
+            StaleWorkQuery query) {
+        return findStale(enhancementsByStatus, enhancements, statuses, query, EnhancementRecord::getEnhancerName,
+                EnhancementRecord::getUpdated, EnhancementRecord::getDispatchAttempts, row -> 0,
+                EnhancementRecord::getId)
+                .stream()
+                .map(InMemoryStatusRepository::copyEnhancement)
+                .toList();
+    }
+
+    @Override
+    public List<EnhancementRecord> findEnhancementsByGenerationId(String generationId) {
+        return enhancementRowsOf(generationId).stream().map(InMemoryStatusRepository::copyEnhancement).toList();
+    }
+
+    @Override
+    public void updateEnhancement(EnhancementRecord record) {
+        mutate(() -> Optional.ofNullable(record.getId()).map(enhancements::get).map(existing -> {
+            checkVersion(record.getId(), record.getVersion(), existing.getVersion());
+            EnhancementRecord updated = copyEnhancement(existing);
+            copyEnhancementState(record, updated);
+            updated.setVersion(existing.getVersion() + 1);
+            record.setVersion(updated.getVersion());
+            return List.<Change>of(new EnhancementPut(updated));
+        }).orElseGet(List::of));
+    }
+
+    @Override
+    public Page<EnhancementRecord> findAllEnhancements(int pageIndex, int pageSize) {
+        return page(enhancements.values(), enhancements.size(), pageIndex, pageSize,
+                InMemoryStatusRepository::copyEnhancement);
+    }
+
+    // --- LOGIC HELPERS ---
+
+    @Override
+    public boolean isGenerationAndEnhancementsFinished(String generationId) {
+        return Optional.ofNullable(generationId)
+                .map(generations::get)
+                .filter(generation -> generation.getStatus() == GenerationStatus.FINISHED)
+                .map(generation -> enhancementRowsOf(generationId).stream()
+                        .allMatch(enhancement -> enhancement.getStatus() == EnhancementStatus.FINISHED))
+                .orElse(false);
+    }
+
+    @Override
+    public boolean isAllGenerationRequestsFinished(String requestId) {
+        List<GenerationRecord> rows = generationRowsOf(requestId);
+        return !rows.isEmpty()
+                && rows.stream().allMatch(generation -> isGenerationAndEnhancementsFinished(generation.getId()));
+    }
+
+    @Override
+    public List<String> getFinalSbomUrlsForCompletedGeneration(String generationId) {
+        return Optional.ofNullable(generationId)
+                .map(generations::get)
+                .map(generation -> enhancementRowsOf(generationId).stream()
+                        .filter(enhancement -> enhancement.getStatus() == EnhancementStatus.FINISHED)
+                        .max(Comparator.comparingInt(EnhancementRecord::getIndex))
+                        .map(EnhancementRecord::getEnhancedSbomUrls)
+                        .orElse(generation.getGenerationSbomUrls()))
+                .<List<String>>map(List::copyOf)
+                .orElseGet(List::of);
+    }
+
+    // --- MUTATIONS ---
+
+    private sealed interface Change permits RequestPut, GenerationPut, EnhancementPut, EnhancementRemoval {
+    }
+
+    private record RequestPut(RequestRecord row) implements Change {
+    }
+
+    private record GenerationPut(GenerationRecord row) implements Change {
+    }
+
+    private record EnhancementPut(EnhancementRecord row) implements Change {
+    }
+
+    private record EnhancementRemoval(String id) implements Change {
+    }
+
+    private void generationChanges(GenerationRecord record, List<Change> changes) {
+        if (record.getId() == null) {
+            record.setId(TsidUtility.createUniqueGenerationId());
+        }
+        record.setVersion(0L);
+        changes.add(new GenerationPut(copyGeneration(record)));
+        Optional.ofNullable(record.getEnhancements())
+                .ifPresent(enhancementRecords -> enhancementRecords.forEach(enhancementRecord -> {
+                    if (enhancementRecord.getId() == null) {
+                        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+                    }
+                    if (enhancementRecord.getGenerationId() == null) {
+                        enhancementRecord.setGenerationId(record.getId());
+                    }
+                    enhancementRecord.setVersion(0L);
+                    changes.add(new EnhancementPut(copyEnhancement(enhancementRecord)));
+                }));
+    }
+
+    private static void checkVersion(String id, Long expected, Long stored) {
+        if (expected != null && !expected.equals(stored)) {
+            throw new ConcurrentUpdateException(
+                    "Record " + id + " is at version " + stored + ", the update is based on version " + expected);
+        }
+    }
+
+    /**
+     * Computes the changes of a mutation under the write lock, logs them and applies them.
+     */
+    private void mutate(Supplier<List<Change>> mutation) {
+        writeLock.lock();
+        try {
+            if (wal == null) {
+                throw new IllegalStateException("Status repository is not open");
+            }
+            List<Change> changes = mutation.get();
+            if (changes.isEmpty()) {
+                return;
+            }
+
+            byte[] payload = encode(changes);
+            long sequence = lastSequence + 1;
+            if (!wal.append(sequence, payload)) {
+                if (!wal.fits(payload.length)) {
+                    throw new IllegalStateException("Mutation of " + payload.length
+                            + " bytes is larger than the write-ahead log, increase its size");
+                }
+                snapshot();
+                wal.append(sequence, payload);
+            }
+            lastSequence = sequence;
+            changes.forEach(this::apply);
+
+            if (++mutationsSinceSnapshot >= snapshotInterval) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        if (change instanceof RequestPut put) {
+            requests.put(put.row().getId(), put.row());
+        } else if (change instanceof GenerationPut put) {
+            GenerationRecord previous = generations.put(put.row().getId(), put.row());
+            if (previous != null) {
+                unindex(generationsByRequest, previous.getRequestId(), previous.getId());
+                unindex(generationsByStatus, previous.getStatus(), previous.getId());
+            }
+            index(generationsByRequest, put.row().getRequestId(), put.row().getId());
+            index(generationsByStatus, put.row().getStatus(), put.row().getId());
+        } else if (change instanceof EnhancementPut put) {
+            unindexEnhancement(enhancements.put(put.row().getId(), put.row()));
+            index(enhancementsByGeneration, put.row().getGenerationId(), put.row().getId());
+            index(enhancementsByStatus, put.row().getStatus(), put.row().getId());
+        } else if (change instanceof EnhancementRemoval removal) {
+            unindexEnhancement(enhancements.remove(removal.id()));
+        }
+    }
+
+    private void unindexEnhancement(EnhancementRecord previous) {
+        if (previous != null) {
+            unindex(enhancementsByGeneration, previous.getGenerationId(), previous.getId());
+            unindex(enhancementsByStatus, previous.getStatus(), previous.getId());
+        }
+    }
+
+    private static <K> void index(Map<K, Set<String>> index, K key, String id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static <K> void unindex(Map<K, Set<String>> index, K key, String id) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static byte[] encode(List<Change> changes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(changes.size());
+        for (Change change : changes) {
+            if (change instanceof RequestPut put) {
+                out.writeByte(PUT_REQUEST);
+                StatusRecordCodec.writeRequest(out, put.row());
+            } else if (change instanceof GenerationPut put) {
+                out.writeByte(PUT_GENERATION);
+                StatusRecordCodec.writeGeneration(out, put.row());
+            } else if (change instanceof EnhancementPut put) {
+                out.writeByte(PUT_ENHANCEMENT);
+                StatusRecordCodec.writeEnhancement(out, put.row());
+            } else if (change instanceof EnhancementRemoval removal) {
+                out.writeByte(REMOVE_ENHANCEMENT);
+                StatusRecordCodec.writeString(out, removal.id());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Change> decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        List<Change> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            switch (type) {
+                case PUT_REQUEST -> changes.add(new RequestPut(StatusRecordCodec.readRequest(in)));
+                case PUT_GENERATION -> changes.add(new GenerationPut(StatusRecordCodec.readGeneration(in)));
+                case PUT_ENHANCEMENT -> changes.add(new EnhancementPut(StatusRecordCodec.readEnhancement(in)));
+                case REMOVE_ENHANCEMENT -> changes.add(new EnhancementRemoval(StatusRecordCodec.readString(in)));
+                default -> throw new IOException("Unknown change type " + type + " in write-ahead log");
+            }
+        }
+        return changes;
+    }
+
+    // --- SNAPSHOTS ---
+
+    /**
+     * Writes the whole state next to the current snapshot, swaps it in atomically and then resets the log. Runs under
+     * the write lock, reads carry on meanwhile.
+     */
+    private void snapshot() throws IOException {
+        Path snapshot = directory.resolve("snapshot.bin");
+        Path temporary = directory.resolve("snapshot.bin.tmp");
+
+        try (OutputStream file = Files.newOutputStream(temporary)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(lastSequence);
+            out.writeInt(requests.size());
+            for (RequestRecord row : requests.values()) {
+                StatusRecordCodec.writeRequest(out, row);
+            }
+            out.writeInt(generations.size());
+            for (GenerationRecord row : generations.values()) {
+                StatusRecordCodec.writeGeneration(out, row);
+            }
+            out.writeInt(enhancements.size());
+            for (EnhancementRecord row : enhancements.values()) {
+                StatusRecordCodec.writeEnhancement(out, row);
+            }
+            out.flush();
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        wal.reset();
+        mutationsSinceSnapshot = 0;
+        log.debug("Wrote status snapshot at #{} with {} requests, {} generations and {} enhancements", lastSequence,
+                requests.size(), generations.size(), enhancements.size());
+    }
+
+    /**
+     * @return the sequence of the last log entry covered by the snapshot, or 0 if there is none
+     */
+    private long loadSnapshot() throws IOException {
+        Path snapshot = directory.resolve("snapshot.bin");
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+
+        try (InputStream file = Files.newInputStream(snapshot)) {
+            BufferedInputStream buffered = new BufferedInputStream(file);
+            CheckedInputStream checked = new CheckedInputStream(buffered, new CRC32C());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported status snapshot " + snapshot);
+            }
+            long sequence = in.readLong();
+            List<Change> changes = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                changes.add(new RequestPut(StatusRecordCodec.readRequest(in)));
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                changes.add(new GenerationPut(StatusRecordCodec.readGeneration(in)));
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                changes.add(new EnhancementPut(StatusRecordCodec.readEnhancement(in)));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (new DataInputStream(buffered).readInt() != expected) {
+                throw new IOException("Status snapshot " + snapshot + " is corrupt");
+            }
+            changes.forEach(this::apply);
+            return sequence;
+        }
+    }
+
+    // --- READ HELPERS ---
+
+    private List<GenerationRecord> generationRowsOf(String requestId) {
+        return rows(generationsByRequest, requestId, generations);
+    }
+
+    private List<EnhancementRecord> enhancementRowsOf(String generationId) {
+        return rows(enhancementsByGeneration, generationId, enhancements);
+    }
+
+    private static <K, V> List<V> rows(Map<K, Set<String>> index, K key, Map<String, V> table) {
+        if (key == null) {
+            return List.of();
+        }
+        return index.getOrDefault(key, Set.of()).stream()
+                .sorted()
+                .map(table::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static boolean matches(RetryFilter filter, String id, String requestId, String workerName, Integer result,
+            Instant finished) {
+        return (filter.getIds() == null || filter.getIds().isEmpty() || filter.getIds().contains(id))
+                && (filter.getRequestId() == null || filter.getRequestId().equals(requestId))
+                && (filter.getWorkerName() == null || filter.getWorkerName().equals(workerName))
+                && (filter.getResult() == null || filter.getResult().equals(result))
+                && (filter.getFinishedAfter() == null
+                        || finished != null && !finished.isBefore(filter.getFinishedAfter()))
+                && (filter.getFinishedBefore() == null
+                        || finished != null && finished.isBefore(filter.getFinishedBefore()));
+    }
+
+    private static boolean matches(GenerationSearchQuery query, GenerationRecord row) {
+        String identifier = row.getTargetIdentifier();
+        return (query.getStatuses().isEmpty() || query.getStatuses().contains(row.getStatus()))
+                && (query.getTargetType() == null || query.getTargetType().equals(row.getTargetType()))
+                && (query.getTargetIdentifierPrefix() == null
+                        || identifier != null && identifier.startsWith(query.getTargetIdentifierPrefix()))
+                && (query.getTargetIdentifierContains() == null
+                        || identifier != null && identifier.contains(query.getTargetIdentifierContains()))
+                && (query.getGeneratorName() == null || query.getGeneratorName().equals(row.getGeneratorName()))
+                && (query.getGeneratorVersion() == null
+                        || query.getGeneratorVersion().equals(row.getGeneratorVersion()))
+                && (query.getResult() == null || query.getResult().equals(row.getResult()))
+                && inRange(row.getCreated(), query.getCreatedAfter(), query.getCreatedBefore())
+                && inRange(row.getFinished(), query.getFinishedAfter(), query.getFinishedBefore());
+    }
+
+    /**
+     * @return true if there are no bounds, or the instant is within [from, to)
+     */
+    private static boolean inRange(Instant instant, Instant from, Instant to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return instant != null && (from == null || !instant.isBefore(from)) && (to == null || instant.isBefore(to));
+    }
+
+    /**
+     * Narrows down by the status index and filters the rest in place, there is no index by update time. Fine for the
+     * data sizes this repository is meant for, and still bounded in what it hands out.
+     */
+    private static <S, V> List<V> findStale(Map<S, Set<String>> index, Map<String, V> table, Collection<S> statuses,
+            StaleWorkQuery query, Function<V, String> workerName, Function<V, Instant> updated,
+            ToIntFunction<V> dispatchAttempts, ToIntFunction<V> hedgeAttempts, Function<V, String> id) {
+        return statuses.stream()
+                .flatMap(status -> index.getOrDefault(status, Set.of()).stream())
+                .map(table::get)
+                .filter(Objects::nonNull)
+                .filter(row -> updated.apply(row) != null && updated.apply(row).isBefore(query.getUpdatedBefore()))
+                .filter(row -> query.getDispatchAttempts() == null
+                        || dispatchAttempts.applyAsInt(row) == query.getDispatchAttempts())
+                .filter(row -> query.getHedgeAttemptsBelow() == null
+                        || hedgeAttempts.applyAsInt(row) < query.getHedgeAttemptsBelow())
+                .filter(row -> query.getWorkerName() == null
+                        || query.getWorkerName().equals(workerName.apply(row)))
+                .filter(row -> !query.getExcludedWorkerNames().contains(workerName.apply(row)))
+                .sorted(Comparator.comparing(updated).thenComparing(id))
+                .limit(Math.max(query.getLimit(), 0))
+                .toList();
+    }
+
+    private static <V, R> Page<R> page(Collection<V> rows, long totalHits, int pageIndex, int pageSize,
+            Function<V, R> assembler) {
+        List<R> content = rows.stream()
+                .skip((long) pageIndex * pageSize)
+                .limit(pageSize)
+                .map(assembler)
+                .toList();
+        int totalPages = (int) Math.ceil((double) totalHits / pageSize);
+        return Page.<R>builder()
+                .content(content)
+                .totalHits(totalHits)
+                .totalPages(totalPages)
+                .pageIndex(pageIndex)
+                .pageSize(pageSize)
+                .build();
+    }
+
+    private RequestRecord assembleRequest(RequestRecord row) {
+        RequestRecord record = copyRequest(row);
+        record.setGenerationRecords(generationRowsOf(row.getId()).stream().map(this::assembleGeneration).toList());
+        return record;
+    }
+
+    private GenerationRecord assembleGeneration(GenerationRecord row) {
+        GenerationRecord record = copyGeneration(row);
+        record.setEnhancements(enhancementRowsOf(row.getId()).stream()
+                .sorted(ENHANCEMENT_ORDER)
+                .map(InMemoryStatusRepository::copyEnhancement)
+                .collect(Collectors.toList()));
+        return record;
+    }
+
+    /**
+     * Copies without children, which are kept in their own map.
+     */
+    private static RequestRecord copyRequest(RequestRecord source) {
+        RequestRecord copy = new RequestRecord();
+        copy.setId(source.getId());
+        copy.setStatus(source.getStatus());
+        copy.setCreationDate(source.getCreationDate());
+        copy.setVersion(source.getVersion());
+        copy.setPublisherRecords(Optional.ofNullable(source.getPublisherRecords())
+                .map(publishers -> publishers.stream().map(publisher -> {
+                    PublisherRecord publisherCopy = new PublisherRecord();
+                    publisherCopy.setName(publisher.getName());
+                    publisherCopy.setVersion(publisher.getVersion());
+                    return publisherCopy;
+                }).toList())
+                .orElse(null));
+        return copy;
+    }
+
+    /**
+     * Copies without enhancements, which are kept in their own map.
+     */
+    private static GenerationRecord copyGeneration(GenerationRecord source) {
+        GenerationRecord copy = new GenerationRecord();
+        copy.setId(source.getId());
+        copy.setGeneratorName(source.getGeneratorName());
+        copy.setGeneratorVersion(source.getGeneratorVersion());
+        copy.setCreated(source.getCreated());
+        copy.setUpdated(source.getUpdated());
+        copy.setFinished(source.getFinished());
+        copy.setStatus(source.getStatus());
+        copy.setResult(source.getResult());
+        copy.setReason(source.getReason());
+        copy.setRequestId(source.getRequestId());
+        copy.setTargetType(source.getTargetType());
+        copy.setTargetIdentifier(source.getTargetIdentifier());
+        copy.setGenerationSbomUrls(copyUrls(source.getGenerationSbomUrls()));
+        copy.setDispatchAttempts(source.getDispatchAttempts());
+        copy.setHedgeAttempts(source.getHedgeAttempts());
+        copy.setFailedAttempts(source.getFailedAttempts());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    private static EnhancementRecord copyEnhancement(EnhancementRecord source) {
+        EnhancementRecord copy = new EnhancementRecord();
+        copy.setId(source.getId());
+        copy.setRequestId(source.getRequestId());
+        copy.setGenerationId(source.getGenerationId());
+        copyEnhancementState(source, copy);
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    /**
+     * Copies everything but the IDs and the version, the same fields the Panache implementation updates.
+     */
+    private static void copyEnhancementState(EnhancementRecord source, EnhancementRecord target) {
+        target.setEnhancerName(source.getEnhancerName());
+        target.setEnhancerVersion(source.getEnhancerVersion());
+        target.setIndex(source.getIndex());
+        target.setCreated(source.getCreated());
+        target.setUpdated(source.getUpdated());
+        target.setFinished(source.getFinished());
+        target.setStatus(source.getStatus());
+        target.setResult(source.getResult());
+        target.setReason(source.getReason());
+        target.setDispatchAttempts(source.getDispatchAttempts());
+        target.setEnhancedSbomUrls(copyUrls(source.getEnhancedSbomUrls()));
+    }
+
+    private static List<String> copyUrls(Collection<String> urls) {
+        return Optional.ofNullable(urls).<List<String>>map(ArrayList::new).orElse(null);
+    }
+}
@@ -0,0 +1,192 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.memory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.domain.enums.WorkKind;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link WorkQueue} of a single instance, built along with the {@link InMemoryStatusRepository}. The queue is not
+ * written to its log, it is rebuilt from the records on startup instead (see {@link #rebuild}). The priority of the
+ * requests is not kept, so queued work comes back in the NORMAL lane.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "sbomer.status-repository.type", stringValue = "in-memory")
+@Slf4j
+public class InMemoryWorkQueue implements WorkQueue {
+
+    private static final Comparator<WorkItem> TURN_ORDER = Comparator.comparingInt(WorkItem::getSequence)
+            .thenComparing(WorkItem::getEnqueued)
+            .thenComparing(WorkItem::getRecordId);
+
+    private final Map<String, WorkItem> items = new HashMap<>();
+
+    @Inject
+    InMemoryStatusRepository statusRepository;
+
+    void onStart(@Observes StartupEvent event) {
+        rebuild(statusRepository);
+    }
+
+    /**
+     * Queues the NEW generations, and the NEW enhancements that are next in their chain (their generation and the
+     * enhancements before them are FINISHED), in the order they were created. Generations and enhancements that were
+     * dispatched already are in flight again until they are FINISHED or FAILED.
+     */
+    public synchronized void rebuild(StatusRepository statusRepository) {
+        items.clear();
+        Instant now = Instant.now();
+        Map<String, Integer> sequences = new HashMap<>();
+        statusRepository.findByGenerationStatus(GenerationStatus.NEW)
+                .stream()
+                .sorted(Comparator.comparing(GenerationRecord::getId))
+                .forEach(record -> items.put(record.getId(), WorkItem.builder()
+                        .recordId(record.getId())
+                        .kind(WorkKind.GENERATION)
+                        .worker(new WorkerKey(record.getGeneratorName(), record.getGeneratorVersion()))
+                        .priority(RequestPriority.NORMAL)
+                        .requestId(record.getRequestId())
+                        .sequence(sequences.merge(record.getRequestId(), 1, Integer::sum) - 1)
+                        .enqueued(record.getCreated() != null ? record.getCreated() : now)
+                        .build()));
+        for (GenerationStatus status : GenerationStatus.values()) {
+            if (status != GenerationStatus.NEW && !status.isFinal()) {
+                statusRepository.findByGenerationStatus(status)
+                        .forEach(record -> items.put(record.getId(), WorkItem.inFlight(record, now)));
+            }
+        }
+        for (EnhancementStatus status : List.of(EnhancementStatus.SCHEDULED, EnhancementStatus.ENHANCING)) {
+            statusRepository.findByEnhancementStatus(status)
+                    .forEach(record -> items.put(record.getId(), WorkItem.inFlight(record, now)));
+        }
+        for (EnhancementRecord record : statusRepository.findByEnhancementStatus(EnhancementStatus.NEW)) {
+            if (isNext(record, statusRepository.findGenerationById(record.getGenerationId()))) {
+                items.put(record.getId(), WorkItem.builder()
+                        .recordId(record.getId())
+                        .kind(WorkKind.ENHANCEMENT)
+                        .worker(new WorkerKey(record.getEnhancerName(), record.getEnhancerVersion()))
+                        .priority(RequestPriority.NORMAL)
+                        .requestId(record.getRequestId())
+                        .enqueued(record.getUpdated() != null ? record.getUpdated() : now)
+                        .build());
+            }
+        }
+        log.info("Rebuilt the work queue with {} queued and {} released items",
+                items.values().stream().filter(WorkItem::isQueued).count(),
+                items.values().stream().filter(item -> !item.isQueued()).count());
+    }
+
+    private static boolean isNext(EnhancementRecord record, GenerationRecord generation) {
+        if (generation == null || generation.getStatus() != GenerationStatus.FINISHED) {
+            return false;
+        }
+        return generation.getEnhancements()
+                .stream()
+                .filter(other -> other.getIndex() < record.getIndex())
+                .allMatch(other -> other.getStatus() == EnhancementStatus.FINISHED);
+    }
+
+    @Override
+    public synchronized void enqueue(List<WorkItem> queued) {
+        queued.forEach(item -> items.put(item.getRecordId(), item));
+    }
+
+    @Override
+    public synchronized Set<WorkerKey> queuedWorkers() {
+        return items.values().stream().filter(WorkItem::isQueued).map(WorkItem::getWorker).collect(Collectors.toSet());
+    }
+
+    @Override
+    public synchronized List<WorkItem> release(WorkerKey worker, int limit, Map<RequestPriority, Integer> weights) {
+        long inFlight = items.values()
+                .stream()
+                .filter(item -> !item.isQueued() && item.getWorker().equals(worker))
+                .count();
+        int free = (int) Math.max(0, limit - inFlight);
+        if (free == 0) {
+            return List.of();
+        }
+
+        Map<RequestPriority, List<WorkItem>> lanes = new EnumMap<>(RequestPriority.class);
+        items.values()
+                .stream()
+                .filter(item -> item.isQueued() && item.getWorker().equals(worker))
+                .sorted(TURN_ORDER)
+                .forEach(item -> lanes.computeIfAbsent(item.getPriority(), priority -> new ArrayList<>())
+                        .add(item));
+
+        Instant now = Instant.now();
+        List<WorkItem> released = WorkQueue.inTurn(lanes, weights, free)
+                .stream()
+                .map(item -> item.toBuilder().released(now).build())
+                .toList();
+        released.forEach(item -> items.put(item.getRecordId(), item));
+        return released;
+    }
+
+    @Override
+    public synchronized List<WorkItem> releasedBefore(Instant cutoff, String after, int limit) {
+        return items.values()
+                .stream()
+                .filter(item -> !item.isQueued() && item.getReleased().isBefore(cutoff))
+                .filter(item -> after == null || item.getRecordId().compareTo(after) > 0)
+                .sorted(Comparator.comparing(WorkItem::getRecordId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public synchronized void requeue(Collection<String> recordIds) {
+        recordIds.forEach(id -> items.computeIfPresent(id,
+                (recordId, item) -> item.isQueued() ? item : item.toBuilder().released(null).build()));
+    }
+
+    @Override
+    public synchronized Optional<WorkerKey> complete(String recordId) {
+        return Optional.ofNullable(items.remove(recordId)).map(WorkItem::getWorker);
+    }
+
+    @Override
+    public synchronized Set<String> queued(Collection<String> recordIds) {
+        return recordIds.stream()
+                .filter(id -> items.containsKey(id) && items.get(id).isQueued())
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public synchronized Set<String> tracked(Collection<String> recordIds) {
+        return recordIds.stream().filter(items::containsKey).collect(Collectors.toSet());
+    }
+
+    @Override
+    public synchronized Map<RequestPriority, Long> depth() {
+        Map<RequestPriority, Long> depth = new EnumMap<>(RequestPriority.class);
+        items.values().stream().filter(WorkItem::isQueued).forEach(item -> depth.merge(item.getPriority(), 1L, Long::sum));
+        return depth;
+    }
+}
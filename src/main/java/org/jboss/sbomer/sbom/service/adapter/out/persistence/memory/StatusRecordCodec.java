@@ -0,0 +1,217 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+
+/**
+ * Compact binary encoding of the flat records kept by {@link InMemoryStatusRepository}, shared by the write-ahead log
+ * and the snapshots. Child collections ({@code generationRecords}, {@code enhancements}) are not encoded, the
+ * repository rebuilds them from its indexes.
+ */
+final class StatusRecordCodec {
+
+    private StatusRecordCodec() {}
+
+    static void writeRequest(DataOutput out, RequestRecord record) throws IOException {
+        writeString(out, record.getId());
+        writeEnum(out, record.getStatus());
+        writeInstant(out, record.getCreationDate());
+        writeLong(out, record.getVersion());
+        Collection<PublisherRecord> publishers = record.getPublisherRecords();
+        out.writeInt(publishers == null ? -1 : publishers.size());
+        if (publishers != null) {
+            for (PublisherRecord publisher : publishers) {
+                writeString(out, publisher.getName());
+                writeString(out, publisher.getVersion());
+            }
+        }
+    }
+
+    static RequestRecord readRequest(DataInput in) throws IOException {
+        RequestRecord record = new RequestRecord();
+        record.setId(readString(in));
+        record.setStatus(readEnum(in, RequestStatus.class));
+        record.setCreationDate(readInstant(in));
+        record.setVersion(readLong(in));
+        int publisherCount = in.readInt();
+        if (publisherCount >= 0) {
+            List<PublisherRecord> publishers = new ArrayList<>(publisherCount);
+            for (int i = 0; i < publisherCount; i++) {
+                PublisherRecord publisher = new PublisherRecord();
+                publisher.setName(readString(in));
+                publisher.setVersion(readString(in));
+                publishers.add(publisher);
+            }
+            record.setPublisherRecords(publishers);
+        }
+        return record;
+    }
+
+    static void writeGeneration(DataOutput out, GenerationRecord record) throws IOException {
+        writeString(out, record.getId());
+        writeString(out, record.getGeneratorName());
+        writeString(out, record.getGeneratorVersion());
+        writeInstant(out, record.getCreated());
+        writeInstant(out, record.getUpdated());
+        writeInstant(out, record.getFinished());
+        writeEnum(out, record.getStatus());
+        writeInteger(out, record.getResult());
+        writeString(out, record.getReason());
+        writeString(out, record.getRequestId());
+        writeString(out, record.getTargetType());
+        writeString(out, record.getTargetIdentifier());
+        writeStrings(out, record.getGenerationSbomUrls());
+        writeLong(out, record.getVersion());
+        out.writeInt(record.getDispatchAttempts());
+        out.writeInt(record.getHedgeAttempts());
+        out.writeInt(record.getFailedAttempts());
+    }
+
+    static GenerationRecord readGeneration(DataInput in) throws IOException {
+        GenerationRecord record = new GenerationRecord();
+        record.setId(readString(in));
+        record.setGeneratorName(readString(in));
+        record.setGeneratorVersion(readString(in));
+        record.setCreated(readInstant(in));
+        record.setUpdated(readInstant(in));
+        record.setFinished(readInstant(in));
+        record.setStatus(readEnum(in, GenerationStatus.class));
+        record.setResult(readInteger(in));
+        record.setReason(readString(in));
+        record.setRequestId(readString(in));
+        record.setTargetType(readString(in));
+        record.setTargetIdentifier(readString(in));
+        record.setGenerationSbomUrls(readStrings(in));
+        record.setVersion(readLong(in));
+        record.setDispatchAttempts(in.readInt());
+        record.setHedgeAttempts(in.readInt());
+        record.setFailedAttempts(in.readInt());
+        return record;
+    }
+
+    static void writeEnhancement(DataOutput out, EnhancementRecord record) throws IOException {
+        writeString(out, record.getId());
+        writeString(out, record.getEnhancerName());
+        writeString(out, record.getEnhancerVersion());
+        out.writeInt(record.getIndex());
+        writeInstant(out, record.getCreated());
+        writeInstant(out, record.getUpdated());
+        writeInstant(out, record.getFinished());
+        writeEnum(out, record.getStatus());
+        writeInteger(out, record.getResult());
+        writeString(out, record.getReason());
+        writeString(out, record.getRequestId());
+        writeStrings(out, record.getEnhancedSbomUrls());
+        writeString(out, record.getGenerationId());
+        writeLong(out, record.getVersion());
+        out.writeInt(record.getDispatchAttempts());
+    }
+
+    static EnhancementRecord readEnhancement(DataInput in) throws IOException {
+        EnhancementRecord record = new EnhancementRecord();
+        record.setId(readString(in));
+        record.setEnhancerName(readString(in));
+        record.setEnhancerVersion(readString(in));
+        record.setIndex(in.readInt());
+        record.setCreated(readInstant(in));
+        record.setUpdated(readInstant(in));
+        record.setFinished(readInstant(in));
+        record.setStatus(readEnum(in, EnhancementStatus.class));
+        record.setResult(readInteger(in));
+        record.setReason(readString(in));
+        record.setRequestId(readString(in));
+        record.setEnhancedSbomUrls(readStrings(in));
+        record.setGenerationId(readString(in));
+        record.setVersion(readLong(in));
+        record.setDispatchAttempts(in.readInt());
+        return record;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInstant(DataOutput out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    private static void writeInteger(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        writeString(out, value != null ? value.name() : null);
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInput in, Class<E> type) throws IOException {
+        String name = readString(in);
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    private static void writeStrings(DataOutput out, Collection<String> values) throws IOException {
+        out.writeInt(values == null ? -1 : values.size());
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,154 @@
+package org.jboss.sbomer.sbom.service.adapter.out.persistence.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * <p>
+ * Append-only log on a fixed size memory-mapped file. Appending copies the entry into the mapping, so a mutation costs
+ * no system call unless {@code forceWrites} is set. Entries survive a crash of the process, as the page cache is
+ * written back by the kernel; with {@code forceWrites} they also survive a crash of the host.
+ * </p>
+ * <p>
+ * Each entry is laid out as {@code [int length][int crc32c][long sequence][payload]}, where the length covers the
+ * sequence and the payload and the checksum covers both. The entry is always followed by a zero length, which marks the
+ * end of the log. Replay stops at that marker or at the first entry with a bad checksum, i.e. a torn write.
+ * </p>
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final boolean forceWrites;
+
+    @FunctionalInterface
+    interface EntryHandler {
+        void apply(long sequence, byte[] payload) throws IOException;
+    }
+
+    WriteAheadLog(Path file, long capacity, boolean forceWrites) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = Math.max(capacity, channel.size());
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Write-ahead log cannot be larger than 2GiB: " + size);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.forceWrites = forceWrites;
+    }
+
+    /**
+     * Reads the log from the start, passing every intact entry newer than {@code afterSequence} to the handler, and
+     * positions the log for appending after the last intact entry.
+     *
+     * @return the sequence of the last entry applied, or {@code afterSequence} if there was none
+     */
+    long replay(long afterSequence, EntryHandler handler) throws IOException {
+        long lastSequence = afterSequence;
+        int position = 0;
+
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < Long.BYTES || position + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+
+            byte[] entry = new byte[length];
+            buffer.get(position + HEADER_BYTES, entry);
+            CRC32C crc = new CRC32C();
+            crc.update(entry);
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+
+            long sequence = buffer.getLong(position + HEADER_BYTES);
+            if (sequence > lastSequence) {
+                byte[] payload = new byte[length - Long.BYTES];
+                System.arraycopy(entry, Long.BYTES, payload, 0, payload.length);
+                handler.apply(sequence, payload);
+                lastSequence = sequence;
+            }
+            position += HEADER_BYTES + length;
+        }
+
+        buffer.position(position);
+        markEnd();
+        return lastSequence;
+    }
+
+    /**
+     * Appends an entry, unless the remaining space is too small for it.
+     *
+     * @return false if the log is full and has to be {@link #reset()} first
+     */
+    boolean append(long sequence, byte[] payload) {
+        int length = Long.BYTES + payload.length;
+        if (buffer.remaining() < HEADER_BYTES + length + Integer.BYTES) {
+            return false;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(toBytes(sequence));
+        crc.update(payload);
+
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.putLong(sequence);
+        buffer.put(payload);
+        markEnd();
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        // Written last, so an entry only becomes visible to a replay once it is complete
+        buffer.putInt(start, length);
+
+        if (forceWrites) {
+            buffer.force();
+        }
+        return true;
+    }
+
+    /**
+     * @return whether an entry with the given payload size can be appended to an empty log at all
+     */
+    boolean fits(int payloadLength) {
+        return HEADER_BYTES + Long.BYTES + payloadLength + Integer.BYTES <= buffer.capacity();
+    }
+
+    /**
+     * Discards all entries, once they are covered by a snapshot.
+     */
+    void reset() {
+        buffer.position(0);
+        markEnd();
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void markEnd() {
+        if (buffer.remaining() >= Integer.BYTES) {
+            buffer.putInt(buffer.position(), 0);
+        }
+    }
+
+    private static byte[] toBytes(long value) {
+        byte[] bytes = new byte[Long.BYTES];
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+}
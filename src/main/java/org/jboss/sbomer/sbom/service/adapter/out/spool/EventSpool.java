@@ -0,0 +1,246 @@
+package org.jboss.sbomer.sbom.service.adapter.out.spool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Sends the events of one channel through its emitter while Kafka takes them, and appends them to a {@link SpoolLog}
+ * while it does not: when the emitter's buffer overflows, when Kafka rejects an event, and while earlier events are
+ * still spooled, so that those are not overtaken.
+ * </p>
+ * <p>
+ * {@link #drain()} sends the spooled events again, oldest first, and removes them from the log once Kafka acknowledged
+ * them. Events without an acknowledgement are sent again by the next drain, so delivery is at least once. Entries are
+ * Avro binary prefixed with the fingerprint of the schema they were written with; those of another schema, left over
+ * from an older version, are dropped and left to the stale work reaper. Once the log is full, events go to the emitter
+ * as if there were no spool, which is also all a spool without a log does.
+ * </p>
+ * <p>
+ * Every message gets the {@link Metadata} computed from its event, e.g. the topic it is routed to. It is computed again
+ * for replayed events, so only the event itself is spooled.
+ * </p>
+ */
+@Slf4j
+public class EventSpool<T extends SpecificRecordBase> implements Closeable {
+
+    static final String DEPTH_METRIC = "sbomer.spool.depth";
+
+    static final String EVENTS_METRIC = "sbomer.spool.events";
+
+    private final String channel;
+
+    private final Emitter<T> emitter;
+
+    private final Function<T, Metadata> metadata;
+
+    private final SpoolLog spoolLog;
+
+    private final long fingerprint;
+
+    private final SpecificDatumWriter<T> writer;
+
+    private final SpecificDatumReader<T> reader;
+
+    private final int drainBatchSize;
+
+    private final Duration ackTimeout;
+
+    private final Counter spooled;
+
+    private final Counter replayed;
+
+    private final Counter overflowed;
+
+    /**
+     * @param spoolLog null to send all events directly
+     */
+    EventSpool(String channel, Emitter<T> emitter, Function<T, Metadata> metadata, Class<T> type, SpoolLog spoolLog,
+            int drainBatchSize, Duration ackTimeout, MeterRegistry registry) {
+        this.channel = channel;
+        this.emitter = emitter;
+        this.metadata = metadata;
+        this.spoolLog = spoolLog;
+        this.fingerprint = SchemaNormalization.parsingFingerprint64(SpecificData.get().getSchema(type));
+        this.writer = new SpecificDatumWriter<>(type);
+        this.reader = new SpecificDatumReader<>(type);
+        this.drainBatchSize = drainBatchSize;
+        this.ackTimeout = ackTimeout;
+        this.spooled = registry.counter(EVENTS_METRIC, "channel", channel, "outcome", "spooled");
+        this.replayed = registry.counter(EVENTS_METRIC, "channel", channel, "outcome", "replayed");
+        this.overflowed = registry.counter(EVENTS_METRIC, "channel", channel, "outcome", "overflowed");
+        if (spoolLog != null) {
+            Gauge.builder(DEPTH_METRIC, spoolLog, SpoolLog::size).tag("channel", channel).register(registry);
+        }
+    }
+
+    public void send(T event) {
+        if (spoolLog == null) {
+            sendWithoutAck(event);
+            return;
+        }
+        if (spoolLog.isEmpty()) {
+            try {
+                emitter.send(Message.of(event, metadata.apply(event), () -> CompletableFuture.completedFuture(null),
+                        failure -> {
+                            log.warn("Kafka rejected an event of channel {}, spooling it", channel, failure);
+                            spool(event);
+                            return CompletableFuture.completedFuture(null);
+                        }));
+                return;
+            } catch (IllegalStateException e) {
+                log.warn("Emitter of channel {} is full, spooling events until Kafka catches up", channel);
+            }
+        }
+        spool(event);
+    }
+
+    /**
+     * Sends spooled events until the emitter does not take more, at most {@code drain-batch-size}, and waits for
+     * Kafka to acknowledge them.
+     *
+     * @return the number of events removed from the spool
+     */
+    public int drain() {
+        // Without demand Kafka is still stuck, sending would only fill the emitter's buffer
+        if (spoolLog == null || spoolLog.isEmpty() || !emitter.hasRequests()) {
+            return 0;
+        }
+        List<SpoolLog.Entry> entries = spoolLog.peek(drainBatchSize);
+        List<CompletableFuture<Void>> acks = new ArrayList<>();
+        for (SpoolLog.Entry entry : entries) {
+            T event = decode(entry.payload());
+            CompletableFuture<Void> ack = new CompletableFuture<>();
+            acks.add(ack);
+            if (event == null) {
+                ack.complete(null);
+                continue;
+            }
+            try {
+                emitter.send(Message.of(event, metadata.apply(event), () -> {
+                    ack.complete(null);
+                    return CompletableFuture.completedFuture(null);
+                }, failure -> {
+                    ack.completeExceptionally(failure);
+                    return CompletableFuture.completedFuture(null);
+                }));
+            } catch (IllegalStateException e) {
+                acks.remove(acks.size() - 1);
+                break;
+            }
+        }
+        if (acks.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Kafka did not acknowledge all {} spooled events of channel {}, will retry", acks.size(),
+                    channel);
+        }
+        // Only the acknowledged events in front are removed, the others are sent again in order
+        int acknowledged = 0;
+        while (acknowledged < acks.size() && acks.get(acknowledged).isDone()
+                && !acks.get(acknowledged).isCompletedExceptionally()) {
+            acknowledged++;
+        }
+        if (acknowledged > 0) {
+            spoolLog.remove(acknowledged, entries.get(acknowledged - 1));
+            replayed.increment(acknowledged);
+            log.info("Replayed {} spooled events of channel {}, {} left", acknowledged, channel, spoolLog.size());
+        }
+        return acknowledged;
+    }
+
+    public long depth() {
+        return spoolLog != null ? spoolLog.size() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spoolLog != null) {
+            spoolLog.close();
+        }
+    }
+
+    private void spool(T event) {
+        if (spoolLog.append(encode(event))) {
+            spooled.increment();
+            return;
+        }
+        overflowed.increment();
+        log.warn("Event spool of channel {} is full, sending without it", channel);
+        sendWithoutAck(event);
+    }
+
+    private void sendWithoutAck(T event) {
+        Metadata eventMetadata = metadata.apply(event);
+        if (eventMetadata.iterator().hasNext()) {
+            emitter.send(Message.of(event, eventMetadata));
+        } else {
+            emitter.send(event);
+        }
+    }
+
+    private byte[] encode(T event) {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            out.write(ByteBuffer.allocate(Long.BYTES).putLong(fingerprint).array());
+            BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+            writer.write(event, encoder);
+            encoder.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode an event of channel " + channel, e);
+        }
+    }
+
+    /**
+     * @return null if the entry was written with another schema, or cannot be read
+     */
+    private T decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (payload.length < Long.BYTES || buffer.getLong() != fingerprint) {
+            log.error("Dropping a spooled event of channel {} written with another schema", channel);
+            return null;
+        }
+        try {
+            return reader.read(null, DecoderFactory.get().binaryDecoder(payload, Long.BYTES,
+                    payload.length - Long.BYTES, null));
+        } catch (IOException | RuntimeException e) {
+            log.error("Dropping a spooled event of channel {} that cannot be read", channel, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.jboss.sbomer.sbom.service.adapter.out.spool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import org.apache.avro.specific.SpecificRecordBase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens an {@link EventSpool} per outgoing channel, each in a directory of its own, and drains them every
+ * {@code drain-interval}.
+ */
+@ApplicationScoped
+@Slf4j
+public class EventSpools {
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private final int maxSegments;
+
+    private final int drainBatchSize;
+
+    private final Duration ackTimeout;
+
+    private final MeterRegistry registry;
+
+    private final List<EventSpool<?>> spools = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public EventSpools(@ConfigProperty(name = "sbomer.spool.enabled", defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "sbomer.spool.directory", defaultValue = "data/event-spool") String directory,
+            @ConfigProperty(name = "sbomer.spool.segment-size", defaultValue = "16M") MemorySize segmentSize,
+            @ConfigProperty(name = "sbomer.spool.max-segments", defaultValue = "64") int maxSegments,
+            @ConfigProperty(name = "sbomer.spool.drain-batch-size", defaultValue = "500") int drainBatchSize,
+            @ConfigProperty(name = "sbomer.spool.ack-timeout", defaultValue = "30s") Duration ackTimeout,
+            MeterRegistry registry) {
+        this(enabled, Path.of(directory), segmentSize.asLongValue(), maxSegments, drainBatchSize, ackTimeout,
+                registry);
+    }
+
+    public EventSpools(boolean enabled, Path directory, long segmentSize, int maxSegments, int drainBatchSize,
+            Duration ackTimeout, MeterRegistry registry) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.drainBatchSize = drainBatchSize;
+        this.ackTimeout = ackTimeout;
+        this.registry = registry;
+    }
+
+    /**
+     * Opens the spool of a channel, with the events that were still spooled when the service stopped.
+     */
+    public <T extends SpecificRecordBase> EventSpool<T> open(String channel, Emitter<T> emitter, Class<T> type) {
+        return open(channel, emitter, event -> Metadata.empty(), type);
+    }
+
+    /**
+     * Opens the spool of a channel whose messages get the metadata computed from their event.
+     */
+    public <T extends SpecificRecordBase> EventSpool<T> open(String channel, Emitter<T> emitter,
+            Function<T, Metadata> metadata, Class<T> type) {
+        SpoolLog spoolLog = null;
+        if (enabled) {
+            try {
+                spoolLog = new SpoolLog(directory.resolve(channel), segmentSize, maxSegments);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the event spool in " + directory.resolve(channel), e);
+            }
+            if (!spoolLog.isEmpty()) {
+                log.info("Found {} spooled events of channel {}, replaying them", spoolLog.size(), channel);
+            }
+        }
+        EventSpool<T> spool = new EventSpool<>(channel, emitter, metadata, type, spoolLog, drainBatchSize, ackTimeout,
+                registry);
+        spools.add(spool);
+        return spool;
+    }
+
+    @Scheduled(every = "${sbomer.spool.drain-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void drain() {
+        for (EventSpool<?> spool : spools) {
+            try {
+                spool.drain();
+            } catch (RuntimeException e) {
+                log.warn("Could not drain an event spool", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (EventSpool<?> spool : spools) {
+            try {
+                spool.close();
+            } catch (IOException e) {
+                log.warn("Could not close an event spool", e);
+            }
+        }
+        spools.clear();
+    }
+}
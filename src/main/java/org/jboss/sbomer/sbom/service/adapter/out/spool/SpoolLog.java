@@ -0,0 +1,258 @@
+package org.jboss.sbomer.sbom.service.adapter.out.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * <p>
+ * First-in, first-out queue of entries on memory-mapped segment files of {@code segmentSize} bytes. Entries are
+ * appended to the last segment; when it is full, a new one is started, up to {@code maxSegments}, which bounds the disk
+ * use. The head, the oldest entry that has not been removed yet, is kept in a small memory-mapped cursor file. Segments
+ * are deleted once the head has moved past them.
+ * </p>
+ * <p>
+ * Entries are laid out as {@code [int length][int crc32c][payload]} and followed by a zero length that marks the end
+ * of the segment. Opening the log stops at the first entry with a bad checksum, i.e. a torn write, and appends after
+ * the last intact one.
+ * </p>
+ */
+final class SpoolLog implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final String SUFFIX = ".segment";
+
+    /**
+     * Where an entry starts, or where the next one would.
+     */
+    record Position(long segment, int offset) {
+    }
+
+    /**
+     * An entry and the position after it, which becomes the head once it is removed.
+     */
+    record Entry(byte[] payload, Position next) {
+    }
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+
+    private final FileChannel cursorChannel;
+
+    private final MappedByteBuffer cursor;
+
+    private Position head;
+
+    private long size;
+
+    SpoolLog(Path directory, long segmentSize, int maxSegments) throws IOException {
+        if (segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Spool segments cannot be larger than 2GiB: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(directory);
+        this.cursorChannel = FileChannel.open(directory.resolve("head"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.cursor = cursorChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES + Integer.BYTES);
+        this.head = new Position(cursor.getLong(0), cursor.getInt(Long.BYTES));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                long number = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                if (number < head.segment()) {
+                    Files.delete(file);
+                } else {
+                    segments.put(number, new Segment(file, this.segmentSize));
+                }
+            }
+        }
+        if (!segments.isEmpty() && !segments.containsKey(head.segment())) {
+            moveHead(new Position(segments.firstKey(), 0));
+        }
+
+        // Counts the entries from the head on, which also finds where the last segment is appended to
+        Position position = head;
+        Entry entry;
+        while ((entry = read(position)) != null) {
+            size++;
+            position = entry.next();
+        }
+        if (!segments.isEmpty()) {
+            Segment last = segments.lastEntry().getValue();
+            last.buffer.position(position.segment() == segments.lastKey() ? position.offset() : 0);
+            last.markEnd();
+        }
+    }
+
+    /**
+     * @return false if the log is full, or the entry is larger than a segment
+     */
+    synchronized boolean append(byte[] payload) {
+        int length = HEADER_BYTES + payload.length;
+        if (length + Integer.BYTES > segmentSize) {
+            return false;
+        }
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        if (last == null || last.getValue().buffer.remaining() < length + Integer.BYTES) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            long number = last == null ? head.segment() + 1 : last.getKey() + 1;
+            try {
+                segments.put(number, new Segment(directory.resolve(String.format("%020d", number) + SUFFIX),
+                        segmentSize));
+            } catch (IOException e) {
+                return false;
+            }
+            if (last == null) {
+                moveHead(new Position(number, 0));
+            }
+            last = segments.lastEntry();
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        MappedByteBuffer buffer = last.getValue().buffer;
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.put(payload);
+        last.getValue().markEnd();
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        // Written last, so an entry only becomes visible to a reopened log once it is complete
+        buffer.putInt(start, payload.length);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return up to {@code max} entries from the head on, without removing them
+     */
+    synchronized List<Entry> peek(int max) {
+        List<Entry> entries = new ArrayList<>();
+        Position position = head;
+        Entry entry;
+        while (entries.size() < max && (entry = read(position)) != null) {
+            entries.add(entry);
+            position = entry.next();
+        }
+        return entries;
+    }
+
+    /**
+     * Removes the entries up to and including {@code last}, which has to be one returned by {@link #peek(int)}.
+     */
+    synchronized void remove(int count, Entry last) {
+        moveHead(last.next());
+        size -= count;
+        NavigableMap<Long, Segment> consumed = segments.headMap(head.segment(), false);
+        for (Segment segment : consumed.values()) {
+            segment.delete();
+        }
+        consumed.clear();
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        cursor.force();
+        cursorChannel.close();
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    /**
+     * @return the intact entry at the position, moving on to the next segment at the end of one, or null at the end of
+     *         the log
+     */
+    private Entry read(Position position) {
+        Segment segment = segments.get(position.segment());
+        if (segment == null) {
+            return null;
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = position.offset();
+        int length = offset + HEADER_BYTES <= buffer.capacity() ? buffer.getInt(offset) : 0;
+        if (length > 0 && offset + HEADER_BYTES + length <= buffer.capacity()) {
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() == buffer.getInt(offset + Integer.BYTES)) {
+                return new Entry(payload, new Position(position.segment(), offset + HEADER_BYTES + length));
+            }
+        }
+        Long next = segments.higherKey(position.segment());
+        return next != null ? read(new Position(next, 0)) : null;
+    }
+
+    private void moveHead(Position position) {
+        head = position;
+        cursor.putLong(0, position.segment());
+        cursor.putInt(Long.BYTES, position.offset());
+    }
+
+    private static final class Segment implements Closeable {
+
+        private final Path file;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        Segment(Path file, int size) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        }
+
+        void markEnd() {
+            if (buffer.remaining() >= Integer.BYTES) {
+                buffer.putInt(buffer.position(), 0);
+            }
+        }
+
+        void delete() {
+            try {
+                close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Deleted again when the log is opened next
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
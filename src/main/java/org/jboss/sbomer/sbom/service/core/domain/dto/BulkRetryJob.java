@@ -0,0 +1,73 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Progress of a bulk retry. Updated by the dispatcher while the job runs, so the counts only ever grow, and written to
+ * the BulkRetryJobRepository after every batch.
+ */
+@Getter
+public class BulkRetryJob {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        FINISHED,
+        FAILED
+    }
+
+    private final String id;
+    /**
+     * {@code generation} or {@code enhancement}.
+     */
+    private final String kind;
+    /**
+     * FAILED records matching the filter when the job was started.
+     */
+    private final int matched;
+    private final Instant created;
+    /**
+     * Records reset to be processed again.
+     */
+    private final AtomicInteger reset = new AtomicInteger();
+    /**
+     * Records whose event was sent again.
+     */
+    private final AtomicInteger dispatched = new AtomicInteger();
+    /**
+     * Records that were reset but could not be dispatched, e.g. an enhancement whose generation is gone. The stale-work
+     * reaper gives up on these eventually.
+     */
+    private final AtomicInteger skipped = new AtomicInteger();
+    @Setter
+    private volatile State state = State.QUEUED;
+    @Setter
+    private volatile Instant finished;
+    @Setter
+    private volatile String error;
+
+    public BulkRetryJob(String id, String kind, int matched, Instant created) {
+        this.id = id;
+        this.kind = kind;
+        this.matched = matched;
+        this.created = created;
+    }
+
+    /**
+     * @return a snapshot of the job, which the running job no longer updates
+     */
+    public BulkRetryJob copy() {
+        BulkRetryJob copy = new BulkRetryJob(id, kind, matched, created);
+        copy.reset.set(reset.get());
+        copy.dispatched.set(dispatched.get());
+        copy.skipped.set(skipped.get());
+        copy.state = state;
+        copy.finished = finished;
+        copy.error = error;
+        return copy;
+    }
+}
@@ -0,0 +1,18 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.net.URI;
+
+/**
+ * A manifest with the completed generations of a finished request, referenced from its {@code RequestsFinished} event
+ * in place of the generations themselves.
+ *
+ * @param location    where the manifest can be read from
+ * @param contentType the media type of the manifest, before {@code contentEncoding} is undone
+ * @param contentEncoding how the manifest is compressed
+ * @param generations the number of completed generations in the manifest
+ * @param sha256      the hex encoded SHA-256 digest of the manifest as stored
+ * @param size        the size in bytes of the manifest as stored
+ */
+public record CompletionManifest(URI location, String contentType, String contentEncoding, long generations,
+        String sha256, long size) {
+}
@@ -0,0 +1,16 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Duration;
+
+/**
+ * What a generation is expected to cost, learned from the generations of the same {@link CostKey} that completed.
+ *
+ * @param samples            the number of completed generations the estimate is based on
+ * @param expectedDuration   how long FINISHED generations took from GENERATING to FINISHED
+ * @param failureProbability the share of generations that FAILED
+ * @param oomProbability     the share of generations that FAILED with {@code ERR_OOM}
+ * @param highMemory         whether the generation should be given more memory than usual
+ */
+public record CostEstimate(long samples, Duration expectedDuration, double failureProbability, double oomProbability,
+        boolean highMemory) {
+}
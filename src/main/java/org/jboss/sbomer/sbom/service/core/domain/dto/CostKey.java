@@ -0,0 +1,49 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.util.Objects;
+
+/**
+ * What the cost of a generation is learned by: its generator, the type of its target and the target identifier without
+ * version, tag or digest, e.g. {@code quay.io/org/image} for {@code quay.io/org/image:1.0}.
+ */
+public record CostKey(String generatorName, String targetType, String identifierPattern) {
+
+    /**
+     * Stands for all identifiers of a generator and target type.
+     */
+    public static final String ANY_IDENTIFIER = "*";
+
+    public CostKey {
+        generatorName = Objects.requireNonNullElse(generatorName, "");
+        targetType = Objects.requireNonNullElse(targetType, "");
+        identifierPattern = Objects.requireNonNullElse(identifierPattern, "");
+    }
+
+    public static CostKey of(String generatorName, String targetType, String targetIdentifier) {
+        return new CostKey(generatorName, targetType, identifierPattern(targetIdentifier));
+    }
+
+    /**
+     * @return the key of all identifiers of the same generator and target type
+     */
+    public CostKey anyIdentifier() {
+        return new CostKey(generatorName, targetType, ANY_IDENTIFIER);
+    }
+
+    static String identifierPattern(String identifier) {
+        if (identifier == null) {
+            return "";
+        }
+        String pattern = identifier;
+        int digest = pattern.indexOf('@');
+        if (digest >= 0) {
+            pattern = pattern.substring(0, digest);
+        }
+        // A colon after the last slash starts the tag or version, one before it belongs to a registry port
+        int colon = pattern.lastIndexOf(':');
+        if (colon > pattern.lastIndexOf('/')) {
+            pattern = pattern.substring(0, colon);
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,12 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+/**
+ * Outcome of replaying the dead-letter topic of an incoming channel.
+ *
+ * @param channel         The incoming channel, e.g. {@code generation-update}.
+ * @param deadLetterTopic The topic the records were read from.
+ * @param topic           The topic of the channel, where the records were sent to.
+ * @param replayed        The number of records sent back, at most the requested maximum.
+ */
+public record DeadLetterReplay(String channel, String deadLetterTopic, String topic, int replayed) {
+}
@@ -34,4 +34,9 @@ public class EnhancementRecord {
     private String requestId;
     private Collection<String> enhancedSbomUrls;
     private String generationId;
+    /**
+     * How often the stale-work reaper has dispatched this step again.
+     */
+    private int dispatchAttempts;
+    private Long version;
 }
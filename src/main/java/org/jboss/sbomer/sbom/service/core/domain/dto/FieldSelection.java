@@ -0,0 +1,59 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The top-level fields of generation or enhancement records a caller asked for with {@code fields=}. Repositories may
+ * leave the other fields empty, and they are left out of the response. The ID is always selected, it keys batch
+ * lookups and cursors.
+ *
+ * @param fields the selected field names, null for all fields
+ */
+public record FieldSelection(SortedSet<String> fields) {
+
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    public static final Set<String> GENERATION_FIELDS = Set.of("id", "generatorName", "generatorVersion", "created",
+            "updated", "finished", "status", "result", "reason", "requestId", "targetType", "targetIdentifier",
+            "generationSbomUrls", "enhancements", "dispatchAttempts", "hedgeAttempts", "failedAttempts", "version");
+
+    public static final Set<String> ENHANCEMENT_FIELDS = Set.of("id", "enhancerName", "enhancerVersion", "index",
+            "created", "updated", "finished", "status", "result", "reason", "requestId", "enhancedSbomUrls",
+            "generationId", "dispatchAttempts", "version");
+
+    public FieldSelection {
+        fields = fields != null ? Collections.unmodifiableSortedSet(new TreeSet<>(fields)) : null;
+    }
+
+    /**
+     * @param fields comma-separated field names, null or blank for all fields
+     * @param known  the fields of the record type
+     * @throws IllegalArgumentException if a name is not one of the known fields
+     */
+    public static FieldSelection parse(String fields, Set<String> known) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        SortedSet<String> selected = new TreeSet<>();
+        selected.add("id");
+        Arrays.stream(fields.split(",")).map(String::trim).filter(field -> !field.isEmpty()).forEach(field -> {
+            if (!known.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            selected.add(field);
+        });
+        return new FieldSelection(selected);
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+}
@@ -28,4 +28,8 @@ public class GenerationRecord {
     private String targetIdentifier;
     private Collection<String> generationSbomUrls;
     private Collection<EnhancementRecord> enhancements;
+    private int dispatchAttempts;
+    private int hedgeAttempts;
+    private int failedAttempts;
+    private Long version;
 }
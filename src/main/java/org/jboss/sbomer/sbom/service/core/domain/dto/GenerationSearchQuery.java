@@ -0,0 +1,67 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+import java.util.Set;
+
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Filters for {@link org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository#searchGenerations}. All given
+ * criteria have to match; results are ordered newest first (by ID, as TSIDs grow with their creation time).
+ */
+@Getter
+@Builder(toBuilder = true)
+public class GenerationSearchQuery {
+    /**
+     * Only generations in one of these statuses, or in any if empty.
+     */
+    @Builder.Default
+    private Set<GenerationStatus> statuses = Set.of();
+    private String targetType;
+    /**
+     * Only targets whose identifier starts with this, e.g. {@code quay.io/org/}.
+     */
+    private String targetIdentifierPrefix;
+    /**
+     * Only targets whose identifier contains this anywhere.
+     */
+    private String targetIdentifierContains;
+    private String generatorName;
+    private String generatorVersion;
+    private Integer result;
+    /**
+     * Only generations created at or after this instant.
+     */
+    private Instant createdAfter;
+    /**
+     * Only generations created before this instant.
+     */
+    private Instant createdBefore;
+    /**
+     * Only generations that finished at or after this instant.
+     */
+    private Instant finishedAfter;
+    /**
+     * Only generations that finished before this instant.
+     */
+    private Instant finishedBefore;
+    /**
+     * Keyset cursor: only generations older than the one with this ID, i.e. the last one of the previous page.
+     */
+    private String after;
+    /**
+     * The maximum number of records to return.
+     */
+    private int limit;
+
+    /**
+     * Escapes {@code %}, {@code _} and the escape character itself, so that the value is matched literally by
+     * {@code LIKE ... ESCAPE '\'}.
+     */
+    public static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,63 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * What a cached copy of a request, generation or enhancement is validated against. It covers the record and the
+ * records nested in its representation: the generations of a request, the enhancements of a generation.
+ *
+ * @param revision     the sum of {@code version + 1} over these records, so it grows with every update and every
+ *                     added record
+ * @param lastModified the latest {@code updated} of these records, the creation date for requests
+ * @param terminal     true if all of these records are FINISHED or FAILED, so only a retry changes them again
+ */
+public record RecordStamp(long revision, Instant lastModified, boolean terminal) {
+
+    public static RecordStamp of(RequestRecord record) {
+        RecordStamp stamp = of(record.getVersion(), record.getCreationDate(), record.getStatus());
+        Collection<GenerationRecord> generationRecords = record.getGenerationRecords();
+        if (generationRecords != null) {
+            for (GenerationRecord generationRecord : generationRecords) {
+                stamp = stamp.combine(of(generationRecord));
+            }
+        }
+        return stamp;
+    }
+
+    public static RecordStamp of(GenerationRecord record) {
+        RecordStamp stamp = of(record.getVersion(), record.getUpdated(), record.getStatus());
+        Collection<EnhancementRecord> enhancements = record.getEnhancements();
+        if (enhancements != null) {
+            for (EnhancementRecord enhancementRecord : enhancements) {
+                stamp = stamp.combine(of(enhancementRecord));
+            }
+        }
+        return stamp;
+    }
+
+    public static RecordStamp of(EnhancementRecord record) {
+        return of(record.getVersion(), record.getUpdated(), record.getStatus());
+    }
+
+    /**
+     * @return the stamp of both sets of records
+     */
+    public RecordStamp combine(RecordStamp other) {
+        Instant latest = lastModified == null || (other.lastModified != null && other.lastModified.isAfter(lastModified))
+                ? other.lastModified
+                : lastModified;
+        return new RecordStamp(revision + other.revision, latest, terminal && other.terminal);
+    }
+
+    private static RecordStamp of(Long version, Instant lastModified, Enum<?> status) {
+        return new RecordStamp((version == null ? 0 : version) + 1, lastModified, isTerminal(status));
+    }
+
+    /**
+     * All status enums end in FINISHED and FAILED.
+     */
+    public static boolean isTerminal(Enum<?> status) {
+        return status != null && ("FINISHED".equals(status.name()) || "FAILED".equals(status.name()));
+    }
+}
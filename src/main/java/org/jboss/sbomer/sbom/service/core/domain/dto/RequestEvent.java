@@ -0,0 +1,47 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+
+/**
+ * The state of one record of a request, as pushed to the watchers of {@code GET /api/v1/requests/{id}/events}.
+ *
+ * @param id       the event ID: {@code updated} in epoch milliseconds, so that a stream can be resumed on any replica
+ *                 from the records updated since
+ * @param kind     {@code request}, {@code generation} or {@code enhancement}
+ * @param recordId the ID of the request, generation or enhancement
+ */
+public record RequestEvent(String id, String requestId, String kind, String recordId, String status, Integer result,
+        String reason, Instant updated) {
+
+    public static final String REQUEST = "request";
+
+    public static final String GENERATION = "generation";
+
+    public static final String ENHANCEMENT = "enhancement";
+
+    public static RequestEvent of(GenerationRecord record) {
+        return new RequestEvent(eventId(record.getUpdated()), record.getRequestId(), GENERATION,
+                record.getId(), name(record.getStatus()), record.getResult(), record.getReason(), record.getUpdated());
+    }
+
+    public static RequestEvent of(EnhancementRecord record) {
+        return new RequestEvent(eventId(record.getUpdated()), record.getRequestId(), ENHANCEMENT,
+                record.getId(), name(record.getStatus()), record.getResult(), record.getReason(), record.getUpdated());
+    }
+
+    /**
+     * Requests carry no update time, they are stamped with the given one.
+     */
+    public static RequestEvent of(RequestRecord record, Instant updated) {
+        return new RequestEvent(eventId(updated), record.getId(), REQUEST, record.getId(), name(record.getStatus()),
+                null, null, updated);
+    }
+
+    private static String eventId(Instant updated) {
+        return updated == null ? "0" : Long.toString(updated.toEpochMilli());
+    }
+
+    private static String name(Enum<?> status) {
+        return status == null ? null : status.name();
+    }
+}
@@ -19,4 +19,5 @@ public class RequestRecord {
     private Collection<PublisherRecord> publisherRecords;
     private RequestStatus status;
     private Instant creationDate;
+    private Long version;
 }
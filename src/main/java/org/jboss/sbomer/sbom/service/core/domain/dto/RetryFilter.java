@@ -0,0 +1,47 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Selects FAILED generations or enhancements for a bulk retry. All given criteria have to match.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class RetryFilter {
+    /**
+     * Only these generations or enhancements.
+     */
+    private Collection<String> ids;
+    /**
+     * Only work of this request.
+     */
+    private String requestId;
+    /**
+     * Only work of this generator or enhancer.
+     */
+    private String workerName;
+    /**
+     * Only work that failed with this result code.
+     */
+    private Integer result;
+    /**
+     * Only work that failed at or after this instant.
+     */
+    private Instant finishedAfter;
+    /**
+     * Only work that failed before this instant.
+     */
+    private Instant finishedBefore;
+
+    /**
+     * @return true if no criteria are set, i.e. the filter would match everything that failed
+     */
+    public boolean isEmpty() {
+        return (ids == null || ids.isEmpty()) && requestId == null && workerName == null && result == null
+                && finishedAfter == null && finishedBefore == null;
+    }
+}
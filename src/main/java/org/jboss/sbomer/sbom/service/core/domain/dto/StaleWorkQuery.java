@@ -0,0 +1,43 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+import java.util.Set;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Selects generations or enhancements that have not moved on since a given instant, see
+ * {@link org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository#findStaleGenerations}.
+ */
+@Getter
+@Builder
+public class StaleWorkQuery {
+    /**
+     * Only work last updated before this instant.
+     */
+    private Instant updatedBefore;
+    /**
+     * Only work that has been dispatched again exactly this many times, or any number if {@code null}.
+     */
+    @Builder.Default
+    private Integer dispatchAttempts = 0;
+    /**
+     * Only generations that have been hedged fewer times than this, or any number if {@code null}. Not for
+     * enhancements.
+     */
+    private Integer hedgeAttemptsBelow;
+    /**
+     * Only work of this generator or enhancer, or of any if {@code null}.
+     */
+    private String workerName;
+    /**
+     * Never work of these generators or enhancers, e.g. because they are looked for with their own deadline.
+     */
+    @Builder.Default
+    private Set<String> excludedWorkerNames = Set.of();
+    /**
+     * The maximum number of records to return.
+     */
+    private int limit;
+}
@@ -0,0 +1,33 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+/**
+ * One rolled-up statistics value: either the number of generations or enhancements of a worker currently in a status,
+ * or one bucket of the histogram of the time they spent in it.
+ *
+ * @param kind   {@code generation} or {@code enhancement}
+ * @param name   the generator or enhancer
+ * @param status the generation or enhancement status
+ * @param bucket {@link #COUNT} for the current count, otherwise the time-in-state histogram bucket
+ */
+public record StatsKey(String kind, String name, String status, int bucket) {
+
+    public static final String GENERATION = "generation";
+
+    public static final String ENHANCEMENT = "enhancement";
+
+    public static final int COUNT = -1;
+
+    public StatsKey {
+        if (name == null) {
+            name = "unknown";
+        }
+    }
+
+    public static StatsKey count(String kind, String name, String status) {
+        return new StatsKey(kind, name, status, COUNT);
+    }
+
+    public boolean isCount() {
+        return bucket == COUNT;
+    }
+}
@@ -0,0 +1,34 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Throughput and latency of the generations and enhancements, as served by {@code GET /api/v1/stats}.
+ *
+ * @param computed     when the rollups of all replicas were last merged into this report
+ * @param generations  statistics of the generations, per generator in {@link Kind#byWorker()}
+ * @param enhancements statistics of the enhancements, per enhancer in {@link Kind#byWorker()}
+ */
+public record StatsReport(Instant computed, Kind generations, Kind enhancements) {
+
+    /**
+     * @param byStatus    number of records currently in each status
+     * @param timeInState how long records stayed in each status before moving on
+     * @param byWorker    the same, per generator or enhancer
+     */
+    public record Kind(Map<String, Long> byStatus, Map<String, Latency> timeInState, Map<String, Worker> byWorker) {
+    }
+
+    public record Worker(Map<String, Long> byStatus, Map<String, Latency> timeInState) {
+    }
+
+    /**
+     * Percentiles in milliseconds. They are read from a histogram with buckets about 19% apart, each reported as the
+     * upper bound of its bucket.
+     *
+     * @param count number of transitions out of the status
+     */
+    public record Latency(long count, long p50, long p95, long p99) {
+    }
+}
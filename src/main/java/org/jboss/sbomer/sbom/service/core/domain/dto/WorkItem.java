@@ -0,0 +1,71 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.time.Instant;
+
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.domain.enums.WorkKind;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * A generation or enhancement in the {@link org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue}, queued until its
+ * worker has capacity for it and released (in flight) from then on until it is FINISHED or FAILED.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class WorkItem {
+    /**
+     * The ID of the generation or enhancement, at most one item per record.
+     */
+    private String recordId;
+    private WorkKind kind;
+    private WorkerKey worker;
+    private RequestPriority priority;
+    private String requestId;
+    /**
+     * The position of the item among those of its request that were queued together. Items are released in this
+     * order across requests, so that requests take turns.
+     */
+    private int sequence;
+    private Instant enqueued;
+    /**
+     * When the item was handed to its worker, {@code null} while it is queued.
+     */
+    private Instant released;
+
+    public boolean isQueued() {
+        return released == null;
+    }
+
+    /**
+     * An item for a generation that is sent directly rather than released from the queue, i.e. a retry or a
+     * redispatch. It holds capacity of its generator from {@code now} on, like a released item.
+     */
+    public static WorkItem inFlight(GenerationRecord record, Instant now) {
+        return WorkItem.builder()
+                .recordId(record.getId())
+                .kind(WorkKind.GENERATION)
+                .worker(new WorkerKey(record.getGeneratorName(), record.getGeneratorVersion()))
+                .priority(RequestPriority.NORMAL)
+                .requestId(record.getRequestId())
+                .enqueued(now)
+                .released(now)
+                .build();
+    }
+
+    /**
+     * Same as {@link #inFlight(GenerationRecord, Instant)}, for enhancements.
+     */
+    public static WorkItem inFlight(EnhancementRecord record, Instant now) {
+        return WorkItem.builder()
+                .recordId(record.getId())
+                .kind(WorkKind.ENHANCEMENT)
+                .worker(new WorkerKey(record.getEnhancerName(), record.getEnhancerVersion()))
+                .priority(RequestPriority.NORMAL)
+                .requestId(record.getRequestId())
+                .enqueued(now)
+                .released(now)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package org.jboss.sbomer.sbom.service.core.domain.dto;
+
+import java.util.Objects;
+
+/**
+ * A generator or enhancer in a given version, the unit that concurrency limits apply to.
+ */
+public record WorkerKey(String name, String version) {
+
+    public WorkerKey {
+        Objects.requireNonNull(name, "name");
+        // Records without a version are counted together
+        version = Objects.requireNonNullElse(version, "");
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + version;
+    }
+}
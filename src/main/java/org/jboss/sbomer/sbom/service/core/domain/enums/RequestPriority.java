@@ -0,0 +1,17 @@
+package org.jboss.sbomer.sbom.service.core.domain.enums;
+
+/**
+ * Dispatch lane of the generations of a request. Lanes are served by weight, so LOW requests still move while HIGH
+ * ones are waiting, only slower.
+ */
+public enum RequestPriority {
+    HIGH, NORMAL, LOW;
+
+    /**
+     * @return the priority of the given name, in any case, or NORMAL if there is none
+     * @throws IllegalArgumentException if the name is not a priority
+     */
+    public static RequestPriority fromName(String name) {
+        return name == null || name.isBlank() ? NORMAL : RequestPriority.valueOf(name.trim().toUpperCase());
+    }
+}
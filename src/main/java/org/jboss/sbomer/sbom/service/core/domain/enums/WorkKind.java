@@ -0,0 +1,8 @@
+package org.jboss.sbomer.sbom.service.core.domain.enums;
+
+/**
+ * What a queued {@link org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem} dispatches.
+ */
+public enum WorkKind {
+    GENERATION, ENHANCEMENT
+}
@@ -0,0 +1,16 @@
+package org.jboss.sbomer.sbom.service.core.domain.exception;
+
+/**
+ * Thrown by a {@link org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository} when an update is based on a record
+ * that has been changed since it was read. Reading the record again and reapplying the change is safe.
+ */
+public class ConcurrentUpdateException extends IllegalStateException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
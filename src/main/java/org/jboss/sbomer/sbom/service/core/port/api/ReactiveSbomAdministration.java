@@ -0,0 +1,136 @@
+package org.jboss.sbomer.sbom.service.core.port.api;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.BatchGetResult;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.CursorPage;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestEvent;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsReport;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Driving Port for the read operations of {@link SbomAdministration}, without blocking the calling thread.
+ * <p>
+ * Each method completes with the same result as its {@link SbomAdministration} counterpart; a missing record is a
+ * {@code null} item.
+ * </p>
+ * <p>
+ * Generation and enhancement reads take the {@link FieldSelection} of the caller. Fields outside of it may be left
+ * empty, nested records included.
+ * </p>
+ */
+public interface ReactiveSbomAdministration {
+
+    /**
+     * @see SbomAdministration#fetchRequests(int, int)
+     */
+    Uni<Page<RequestRecord>> fetchRequests(int pageIndex, int pageSize);
+
+    /**
+     * @see SbomAdministration#getRequest(String)
+     */
+    Uni<RequestRecord> getRequest(String requestId);
+
+    /**
+     * The stamp of a request and its generations and enhancements, read without loading them, to validate a cached
+     * copy of {@link #getRequest(String)}.
+     *
+     * @return The stamp, or null if the request is not found.
+     */
+    Uni<RecordStamp> getRequestStamp(String requestId);
+
+    /**
+     * @see SbomAdministration#fetchGenerationsForRequest(String, int, int)
+     */
+    Uni<Page<GenerationRecord>> fetchGenerationsForRequest(String requestId, int pageIndex, int pageSize,
+            FieldSelection fields);
+
+    /**
+     * @see SbomAdministration#fetchGenerations(int, int)
+     */
+    Uni<Page<GenerationRecord>> fetchGenerations(int pageIndex, int pageSize, FieldSelection fields);
+
+    /**
+     * @see SbomAdministration#searchGenerations(GenerationSearchQuery)
+     */
+    Uni<CursorPage<GenerationRecord>> searchGenerations(GenerationSearchQuery query, FieldSelection fields);
+
+    /**
+     * @see SbomAdministration#getGeneration(String)
+     */
+    Uni<GenerationRecord> getGeneration(String generationId, FieldSelection fields);
+
+    /**
+     * @see #getRequestStamp(String)
+     */
+    Uni<RecordStamp> getGenerationStamp(String generationId);
+
+    /**
+     * Looks up many generations at once, with one query for the generations and one for their enhancements.
+     *
+     * @return The generations found, in the order of the IDs, and the IDs without a generation.
+     */
+    Uni<BatchGetResult<GenerationRecord>> getGenerations(Collection<String> generationIds, FieldSelection fields);
+
+    /**
+     * @see SbomAdministration#getGenerationsForRequest(String)
+     */
+    Uni<List<GenerationRecord>> getGenerationsForRequest(String requestId);
+
+    /**
+     * Streams the same generations as {@link #getGenerationsForRequest(String)}, reading them in batches as they are
+     * consumed, so that memory use does not grow with the size of the request.
+     */
+    Multi<GenerationRecord> streamGenerationsForRequest(String requestId);
+
+    /**
+     * @see SbomAdministration#getEnhancement(String)
+     */
+    Uni<EnhancementRecord> getEnhancement(String enhancementId, FieldSelection fields);
+
+    /**
+     * @see #getRequestStamp(String)
+     */
+    Uni<RecordStamp> getEnhancementStamp(String enhancementId);
+
+    /**
+     * @see #getGenerations(Collection, FieldSelection)
+     */
+    Uni<BatchGetResult<EnhancementRecord>> getEnhancements(Collection<String> enhancementIds, FieldSelection fields);
+
+    /**
+     * @see SbomAdministration#getEnhancementsForGeneration(String)
+     */
+    Uni<List<EnhancementRecord>> getEnhancementsForGeneration(String generationId, FieldSelection fields);
+
+    /**
+     * @see SbomAdministration#fetchEnhancements(int, int)
+     */
+    Uni<Page<EnhancementRecord>> fetchEnhancements(int pageIndex, int pageSize, FieldSelection fields);
+
+    /**
+     * Streams the state of a request, its generations and enhancements, then every change to them until the request
+     * is finished.
+     *
+     * @param requestId The ID of the request.
+     * @param since     Only records updated at or after this instant are part of the initial state, null for all.
+     * @return The events, or null if the request is not found.
+     */
+    Uni<Multi<RequestEvent>> watchRequest(String requestId, Instant since);
+
+    /**
+     * @see SbomAdministration#getStats()
+     */
+    Uni<StatsReport> getStats();
+}
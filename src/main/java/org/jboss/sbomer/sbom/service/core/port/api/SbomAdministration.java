@@ -2,10 +2,16 @@ package org.jboss.sbomer.sbom.service.core.port.api;
 
 import java.util.List;
 
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.CursorPage;
 import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.domain.dto.DeadLetterReplay;
 import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
 import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
 import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsReport;
 
 /**
  * Driving Port for SBOM Administration tasks.
@@ -52,6 +58,15 @@ public interface SbomAdministration {
      */
     Page<GenerationRecord> fetchGenerations(int pageIndex, int pageSize);
 
+    /**
+     * Searches generations by the given criteria, newest first.
+     *
+     * @param query The criteria, with the page size as limit and the {@code nextCursor} of the previous page as
+     *        {@code after}.
+     * @return A page of GenerationRecords, with the cursor of the next page if there is one.
+     */
+    CursorPage<GenerationRecord> searchGenerations(GenerationSearchQuery query);
+
     /**
      * Retrieves a single generation by its ID.
      *
@@ -72,7 +87,7 @@ public interface SbomAdministration {
     /**
      * Triggers a retry for a specific generation that is in a FAILED state.
      * <p>
-     * This will reset the status to NEW and re-schedule the generation event.
+     * This will reset the status to SCHEDULED and send the generation event again right away.
      * </p>
      *
      * @param generationId The unique ID of the generation to retry.
@@ -108,7 +123,7 @@ public interface SbomAdministration {
     /**
      * Triggers a retry for a specific enhancement that is in a FAILED state.
      * <p>
-     * This will reset the status to NEW and re-schedule the enhancement event,
+     * This will reset the status to SCHEDULED and send the enhancement event again right away,
      * using the output of the previous step as input.
      * </p>
      *
@@ -118,6 +133,50 @@ public interface SbomAdministration {
      */
     void retryEnhancement(String enhancementId);
 
+    /**
+     * Retries all FAILED generations matching the filter in the background, as {@link #retryGeneration(String)} does
+     * for one.
+     *
+     * @param filter Selects the generations, must not be empty.
+     * @return The started job, with the number of matching generations.
+     * @throws IllegalArgumentException if the filter is empty.
+     */
+    BulkRetryJob retryGenerations(RetryFilter filter);
 
+    /**
+     * Retries all FAILED enhancements matching the filter in the background, as {@link #retryEnhancement(String)} does
+     * for one.
+     *
+     * @param filter Selects the enhancements, must not be empty.
+     * @return The started job, with the number of matching enhancements.
+     * @throws IllegalArgumentException if the filter is empty.
+     */
+    BulkRetryJob retryEnhancements(RetryFilter filter);
 
+    /**
+     * Retrieves the progress of a bulk retry.
+     *
+     * @param jobId The ID of the job, as returned when it was started.
+     * @return The job as of its last finished batch, or null if it is not known (anymore).
+     */
+    BulkRetryJob getRetryJob(String jobId);
+
+    /**
+     * Sends the records that ended up in the dead-letter topic of an incoming channel, after all retry topics, back to
+     * the channel, e.g. once the cause of their failure is fixed.
+     *
+     * @param channel The incoming channel, e.g. {@code generation-update}.
+     * @param max     The maximum number of records to replay.
+     * @return The number of records replayed.
+     * @throws IllegalArgumentException if the channel has no dead-letter topic or max is not positive.
+     */
+    DeadLetterReplay replayDeadLetters(String channel, int max);
+
+    /**
+     * Reports the number of generations and enhancements per status and worker, and how long they stay in each
+     * status. Served from the statistics rollups, so it does not query the generations or enhancements.
+     *
+     * @return The statistics of all instances, those of other instances possibly a flush interval behind.
+     */
+    StatsReport getStats();
 }
@@ -1,6 +1,7 @@
 package org.jboss.sbomer.sbom.service.core.port.api.generation;
 
 import org.jboss.sbomer.events.request.RequestsCreated;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
 
 /**
  * API to process prepared generation requests coming from Handlers within SBOMer
@@ -11,6 +12,13 @@ public interface GenerationProcessor {
      * Process a list of generations requested
      */
     default void processGenerations(RequestsCreated requestsCreated) {
+        processGenerations(requestsCreated, RequestPriority.NORMAL);
+    }
+
+    /**
+     * Process a list of generations requested, dispatching them in the lane of the given priority
+     */
+    default void processGenerations(RequestsCreated requestsCreated, RequestPriority priority) {
         throw new UnsupportedOperationException("Not implemented yet");
     }
 }
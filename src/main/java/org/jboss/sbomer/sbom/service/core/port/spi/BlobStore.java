@@ -0,0 +1,25 @@
+package org.jboss.sbomer.sbom.service.core.port.spi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * Stores content too large to be sent in an event, for consumers to read from where the event points them.
+ */
+public interface BlobStore {
+    /**
+     * Writes a blob, replacing the blob stored under the same key if any. The content is streamed to the store as the
+     * writer produces it; the blob is only visible once the writer returned.
+     *
+     * @param key    A relative path like {@code requests-finished/<request ID>.ndjson.gz}.
+     * @param writer Writes the content to the stream it is given, without closing it.
+     * @return Where the blob can be read from.
+     */
+    URI write(String key, BlobWriter writer) throws IOException;
+
+    @FunctionalInterface
+    interface BlobWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,27 @@
+package org.jboss.sbomer.sbom.service.core.port.spi;
+
+import java.util.Optional;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+
+/**
+ * Keeps the progress of the bulk retries, so that any replica can report on a job started by another one. The
+ * dispatcher running a job writes its progress after every batch, so what is read is at most one batch behind.
+ */
+public interface BulkRetryJobRepository {
+
+    /**
+     * Adds a new job, forgetting the oldest ones beyond the retained number of jobs.
+     */
+    void create(BulkRetryJob job);
+
+    /**
+     * Writes the state and the counts of a job. A job that was forgotten in the meantime stays forgotten.
+     */
+    void update(BulkRetryJob job);
+
+    /**
+     * @return a snapshot of the job as last written
+     */
+    Optional<BulkRetryJob> findById(String jobId);
+}
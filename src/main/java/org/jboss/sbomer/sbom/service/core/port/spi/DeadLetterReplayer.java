@@ -0,0 +1,16 @@
+package org.jboss.sbomer.sbom.service.core.port.spi;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.DeadLetterReplay;
+
+public interface DeadLetterReplayer {
+    /**
+     * Sends the records of the dead-letter topic of an incoming channel back to the topic of the channel, oldest
+     * first, so that they are processed again. Replayed records are not replayed a second time.
+     *
+     * @param channel The incoming channel, e.g. {@code generation-update}.
+     * @param max     The maximum number of records to replay.
+     * @return How many records were replayed.
+     * @throws IllegalArgumentException if the channel has no dead-letter topic.
+     */
+    DeadLetterReplay replay(String channel, int max);
+}
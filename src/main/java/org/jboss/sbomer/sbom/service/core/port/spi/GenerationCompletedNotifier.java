@@ -0,0 +1,15 @@
+package org.jboss.sbomer.sbom.service.core.port.spi;
+
+import org.jboss.sbomer.events.orchestration.RequestsFinished;
+
+public interface GenerationCompletedNotifier {
+
+    /**
+     * Notifies that a generation and all its enhancements are done, ahead of the {@code RequestsFinished} event of
+     * its request.
+     * @param generationCompletedEvent A {@code RequestsFinished} event with the {@code GenerationCompleted} context
+     *                                 type and the one completed generation.
+     */
+    void notify(RequestsFinished generationCompletedEvent);
+
+}
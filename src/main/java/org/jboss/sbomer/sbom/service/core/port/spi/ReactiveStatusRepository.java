@@ -0,0 +1,116 @@
+package org.jboss.sbomer.sbom.service.core.port.spi;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * <p>
+ * Non-blocking variant of the read side of {@link StatusRepository}, so that callers on the event loop (the REST read
+ * endpoints) are limited by the database connection pool rather than by the worker thread pool.
+ * </p>
+ * <p>
+ * Records are returned in the same shape as by {@link StatusRepository}. A missing record is a {@code null} item.
+ * </p>
+ */
+public interface ReactiveStatusRepository {
+
+    /**
+     * Finds a RequestRecord by its unique ID.
+     */
+    Uni<RequestRecord> findRequestById(String requestId);
+
+    /**
+     * Finds all RequestRecords with pagination support.
+     * @param pageIndex 0-based page index
+     * @param pageSize number of records per page
+     */
+    Uni<Page<RequestRecord>> findAllRequests(int pageIndex, int pageSize);
+
+    /**
+     * Finds a GenerationRecord by its unique ID.
+     */
+    Uni<GenerationRecord> findGenerationById(String generationId);
+
+    /**
+     * @see StatusRepository#findGenerationsByIds(Collection)
+     */
+    Uni<List<GenerationRecord>> findGenerationsByIds(Collection<String> generationIds);
+
+    /**
+     * Finds all Generations with pagination support.
+     */
+    Uni<Page<GenerationRecord>> findAllGenerations(int pageIndex, int pageSize);
+
+    /**
+     * @see StatusRepository#searchGenerations(GenerationSearchQuery)
+     */
+    Uni<List<GenerationRecord>> searchGenerations(GenerationSearchQuery query);
+
+    /**
+     * Find generations by request ID
+     */
+    Multi<GenerationRecord> findGenerationsByRequestId(String requestId);
+
+    /**
+     * Find generations by request ID (Paginated and used by UI/Admin)
+     */
+    Uni<Page<GenerationRecord>> findGenerationsByRequestId(String requestId, int pageIndex, int pageSize);
+
+    /**
+     * @see StatusRepository#scrollGenerationsByRequestId(String, String, int)
+     */
+    Uni<List<GenerationRecord>> scrollGenerationsByRequestId(String requestId, String after, int limit);
+
+    /**
+     * Finds a EnhancementRecord by its unique ID.
+     */
+    Uni<EnhancementRecord> findEnhancementById(String enhancementId);
+
+    /**
+     * @see StatusRepository#findEnhancementsByIds(Collection)
+     */
+    Uni<List<EnhancementRecord>> findEnhancementsByIds(Collection<String> enhancementIds);
+
+    /**
+     * Find enhancements by generation ID
+     */
+    Multi<EnhancementRecord> findEnhancementsByGenerationId(String generationId);
+
+    /**
+     * Finds all Enhancements with pagination support.
+     */
+    Uni<Page<EnhancementRecord>> findAllEnhancements(int pageIndex, int pageSize);
+
+    /**
+     * @see StatusRepository#findRequestStamp(String)
+     */
+    Uni<RecordStamp> findRequestStamp(String requestId);
+
+    /**
+     * @see StatusRepository#findGenerationStamp(String)
+     */
+    Uni<RecordStamp> findGenerationStamp(String generationId);
+
+    /**
+     * @see StatusRepository#findEnhancementStamp(String)
+     */
+    Uni<RecordStamp> findEnhancementStamp(String enhancementId);
+
+    /**
+     * A view of this repository whose generation and enhancement reads only need to fill the selected fields, so that
+     * they can select fewer columns and skip nested records. Implementations that cannot narrow their queries return
+     * themselves.
+     */
+    ReactiveStatusRepository selecting(FieldSelection fields);
+}
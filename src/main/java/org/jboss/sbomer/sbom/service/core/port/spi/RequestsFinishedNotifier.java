@@ -1,9 +1,16 @@
 package org.jboss.sbomer.sbom.service.core.port.spi;
 
 import org.jboss.sbomer.events.orchestration.RequestsFinished;
+import org.jboss.sbomer.sbom.service.core.domain.dto.CompletionManifest;
 
 public interface RequestsFinishedNotifier {
 
     void notify(RequestsFinished requestsFinishedEvent);
 
+    /**
+     * Notifies of a request whose completed generations are in a manifest rather than in the event. The event carries
+     * no completed generations; the reference to the manifest is sent along with it.
+     */
+    void notify(RequestsFinished requestsFinishedEvent, CompletionManifest manifest);
+
 }
@@ -0,0 +1,30 @@
+package org.jboss.sbomer.sbom.service.core.port.spi;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsKey;
+
+/**
+ * Keeps the statistics rollups shared by all replicas. Every replica adds its own changes to them every now and then
+ * and reads back the totals, so no status transition has to touch a shared row.
+ */
+public interface StatsRollupRepository {
+
+    /**
+     * Seeds the rollups if there are none yet, e.g. on the first start with existing data.
+     *
+     * @param counts computes the current counts, only called when seeding
+     */
+    void seed(Supplier<Map<StatsKey, Long>> counts);
+
+    /**
+     * Adds the given deltas to the rollups, all or nothing.
+     */
+    void add(Map<StatsKey, Long> deltas);
+
+    /**
+     * @return all rollups
+     */
+    Map<StatsKey, Long> load();
+}
@@ -1,18 +1,35 @@
 package org.jboss.sbomer.sbom.service.core.port.spi;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
 import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
 import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
 import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StaleWorkQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsKey;
 import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
 import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
 
 /**
  * <p>
  * To store and fetch the status of an SBOM generation or enhancement
  * </p>
+ * <p>
+ * Records carry the version of the stored row they were read at. The update methods reject a record whose version is
+ * no longer the stored one with a {@link ConcurrentUpdateException}, instead of overwriting changes made in between
+ * (e.g. by another replica). A record without a version is written unconditionally. On success the record is given
+ * the new version.
+ * </p>
  */
 public interface StatusRepository {
 
@@ -23,14 +40,33 @@ public interface StatusRepository {
 
     /**
      * Saves or updates a RequestRecord in the database.
+     * @throws ConcurrentUpdateException if the stored record has changed since it was read
      */
     void updateRequestRecord(RequestRecord record);
 
+    /**
+     * Moves a request to the given status with one conditional update, without reading it or its generations. Of
+     * concurrent callers only one gets true.
+     * @return false if the request already has the status, or is not found
+     */
+    boolean updateRequestStatus(String requestId, RequestStatus status);
+
     /**
      * Finds a RequestRecord by its unique ID.
      */
     RequestRecord findRequestById(String requestId);
 
+    /**
+     * Whether there is a request with this ID, without reading it.
+     */
+    boolean requestExists(String requestId);
+
+    /**
+     * Finds the publishers of a request without loading its generations.
+     * @return the publishers, empty if the request is not found
+     */
+    List<PublisherRecord> findPublishersByRequestId(String requestId);
+
     /**
      * Finds all RequestRecords with pagination support.
      * @param pageIndex 0-based page index
@@ -64,13 +100,52 @@ public interface StatusRepository {
     Page<GenerationRecord> findGenerationsByRequestId(String requestId, int pageIndex, int pageSize);
 
     /**
-     * Finds a list of GenerationRecords with a specific status.
-     * This is used by the scheduler to find new work.
+     * Reads the generations of a request in ID order, at most {@code limit} at a time, so that all of them can be
+     * streamed without holding them in memory.
+     *
+     * @param after the last ID of the previous batch, null to start with the first generation
+     */
+    List<GenerationRecord> scrollGenerationsByRequestId(String requestId, String after, int limit);
+
+    /**
+     * Finds a list of GenerationRecords with a specific status. This loads every match, use
+     * {@link #findStaleGenerations(Collection, StaleWorkQuery)} to look for work.
      */
     List<GenerationRecord> findByGenerationStatus(GenerationStatus status);
 
+    /**
+     * Finds at most {@code query.limit} generations in one of the given statuses that match the query, least recently
+     * updated first. Backed by the (status, updated) index, so the cost depends on the limit rather than the table size.
+     */
+    List<GenerationRecord> findStaleGenerations(Collection<GenerationStatus> statuses, StaleWorkQuery query);
+
+    /**
+     * Finds at most {@code query.limit} generations matching all criteria of the query, newest first. Runs as one
+     * query on the indexed columns; a page is continued by passing the ID of its last record as {@code after}.
+     */
+    List<GenerationRecord> searchGenerations(GenerationSearchQuery query);
+
+    /**
+     * Finds the generations with the given IDs, in no particular order. Unknown IDs are left out.
+     */
+    List<GenerationRecord> findGenerationsByIds(Collection<String> generationIds);
+
+    /**
+     * Counts the FAILED generations matching the filter.
+     */
+    long countFailedGenerations(RetryFilter filter);
+
+    /**
+     * Resets at most {@code limit} FAILED generations matching the filter to SCHEDULED with a single set-based update,
+     * lowest IDs first: the caller is expected to dispatch the generations right away. Reason, result and finish time are cleared, the dispatch attempts start over and the version advances,
+     * so concurrent updates based on the FAILED record are rejected.
+     * @return the IDs of the generations that were reset
+     */
+    List<String> resetFailedGenerations(RetryFilter filter, Instant updated, int limit);
+
     /**
      * Saves or updates a GenerationRecord in the database.
+     * @throws ConcurrentUpdateException if the stored record has changed since it was read
      */
     void updateGeneration(GenerationRecord record);
     /**
@@ -83,19 +158,40 @@ public interface StatusRepository {
     EnhancementRecord findEnhancementById(String enhancementId);
 
     /**
-     * Finds a list of EnhancementRecords with a specific status.
-     * This is used by the scheduler to find new work.
+     * Finds a list of EnhancementRecords with a specific status. This loads every match, use
+     * {@link #findStaleEnhancements(Collection, StaleWorkQuery)} to look for work.
      */
     List<EnhancementRecord> findByEnhancementStatus(EnhancementStatus status);
 
+    /**
+     * Same as {@link #findStaleGenerations(Collection, StaleWorkQuery)}, matching the enhancer name.
+     */
+    List<EnhancementRecord> findStaleEnhancements(Collection<EnhancementStatus> statuses, StaleWorkQuery query);
+
 
     /**
      * Find enhancements by generation ID
      */
     List<EnhancementRecord> findEnhancementsByGenerationId(String generationId);
 
+    /**
+     * Finds the enhancements with the given IDs, in no particular order. Unknown IDs are left out.
+     */
+    List<EnhancementRecord> findEnhancementsByIds(Collection<String> enhancementIds);
+
+    /**
+     * Counts the FAILED enhancements matching the filter.
+     */
+    long countFailedEnhancements(RetryFilter filter);
+
+    /**
+     * Same as {@link #resetFailedGenerations(RetryFilter, Instant, int)}, for enhancements.
+     */
+    List<String> resetFailedEnhancements(RetryFilter filter, Instant updated, int limit);
+
     /**
      * Saves or updates a EnhancementRecord in the database.
+     * @throws ConcurrentUpdateException if the stored record has changed since it was read
      */
     void updateEnhancement(EnhancementRecord record);
 
@@ -119,4 +215,28 @@ public interface StatusRepository {
      * enhancers, it should give the urls of the last enhancement step
      */
     List<String> getFinalSbomUrlsForCompletedGeneration(String generationId);
+
+    /**
+     * Counts the generations and enhancements per generator or enhancer and status, with one aggregate query per
+     * table. Only used to seed the statistics rollups, which are kept up to date from then on.
+     */
+    Map<StatsKey, Long> countByWorkerAndStatus();
+
+    /**
+     * Stamps a request and its generations and enhancements with aggregate queries over the version, update time and
+     * status columns, without loading the records. Used to answer conditional GETs.
+     *
+     * @return the stamp, or null if the request is not found
+     */
+    RecordStamp findRequestStamp(String requestId);
+
+    /**
+     * @see #findRequestStamp(String)
+     */
+    RecordStamp findGenerationStamp(String generationId);
+
+    /**
+     * @see #findRequestStamp(String)
+     */
+    RecordStamp findEnhancementStamp(String enhancementId);
 }
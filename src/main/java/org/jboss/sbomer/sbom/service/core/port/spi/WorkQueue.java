@@ -0,0 +1,101 @@
+package org.jboss.sbomer.sbom.service.core.port.spi;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+
+/**
+ * Holds new generations and enhancements until their generator or enhancer has capacity for them, and keeps track of
+ * those in flight.
+ */
+public interface WorkQueue {
+
+    /**
+     * Queues items at the back of the lane of their priority. An item of the same record, queued or released, is
+     * replaced.
+     */
+    void enqueue(List<WorkItem> items);
+
+    /**
+     * @return the workers with queued items
+     */
+    Set<WorkerKey> queuedWorkers();
+
+    /**
+     * Releases the next queued items of a worker, as many as keep it at no more than {@code limit} released items.
+     * Lanes take turns by weight (see {@link #inTurn}), items within a lane are taken by sequence, then by age.
+     * Returns nothing if another caller is releasing items of the same worker at the same time.
+     *
+     * @return The released items, in order.
+     */
+    List<WorkItem> release(WorkerKey worker, int limit, Map<RequestPriority, Integer> weights);
+
+    /**
+     * Lists the items released before {@code cutoff}, by record ID, a page at a time.
+     *
+     * @param after the record ID of the last item of the previous page, {@code null} for the first page
+     * @return up to {@code limit} released items
+     */
+    List<WorkItem> releasedBefore(Instant cutoff, String after, int limit);
+
+    /**
+     * Puts released items back in the lane they were queued in, with their sequence and age, so that they are
+     * released again next. Items that are queued or gone are left as they are.
+     */
+    void requeue(Collection<String> recordIds);
+
+    /**
+     * Removes the item of a FINISHED or FAILED record, which frees its capacity.
+     *
+     * @return The worker of the removed item, if there was one.
+     */
+    Optional<WorkerKey> complete(String recordId);
+
+    /**
+     * @return those of the given records that are still queued
+     */
+    Set<String> queued(Collection<String> recordIds);
+
+    /**
+     * @return those of the given records that have an item, queued or released
+     */
+    Set<String> tracked(Collection<String> recordIds);
+
+    /**
+     * @return the number of queued items per lane
+     */
+    Map<RequestPriority, Long> depth();
+
+    /**
+     * Takes up to {@code max} items from the lanes in rounds, each lane giving up to its weight per round in priority
+     * order, so that lower lanes still move while higher ones have items.
+     *
+     * @param lanes the items of each lane, in the order they are to be taken
+     */
+    static List<WorkItem> inTurn(Map<RequestPriority, ? extends Collection<WorkItem>> lanes,
+            Map<RequestPriority, Integer> weights, int max) {
+        Map<RequestPriority, Deque<WorkItem>> remaining = new EnumMap<>(RequestPriority.class);
+        lanes.forEach((priority, items) -> remaining.put(priority, new ArrayDeque<>(items)));
+        List<WorkItem> taken = new ArrayList<>();
+        while (taken.size() < max && remaining.values().stream().anyMatch(items -> !items.isEmpty())) {
+            for (Map.Entry<RequestPriority, Deque<WorkItem>> lane : remaining.entrySet()) {
+                int credit = Math.max(1, weights.getOrDefault(lane.getKey(), 1));
+                while (credit-- > 0 && taken.size() < max && !lane.getValue().isEmpty()) {
+                    taken.add(lane.getValue().poll());
+                }
+            }
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,264 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.BulkRetryJobRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
+import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
+import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Retries all FAILED generations or enhancements matching a {@link RetryFilter} in the background. Records are reset
+ * in batches of {@code batch-size} with one set-based update each, then read back in one query and their events sent
+ * again, paced to at most {@code rate} events per second so that the generators are not flooded after an outage.
+ * Retried records count as in flight for the capacity limits of the {@link WorkDispatcher} once they are reset.
+ * </p>
+ * <p>
+ * Jobs run one after the other, so the rate holds across concurrent requests. Only work that failed before a job was
+ * started is retried by it, so retries that fail again are not picked up by the same job. Progress is written to the
+ * {@link BulkRetryJobRepository} after every batch, so any replica can report on it. If the replica goes away mid-job,
+ * the job is left RUNNING and the records that were reset but not dispatched are redispatched by the
+ * {@link StaleWorkReaper}.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class BulkRetryDispatcher {
+
+    static final String DISPATCHED_METRIC = "sbomer.bulk-retry.dispatched";
+
+    private final StatusRepository statusRepository;
+
+    private final GenerationScheduler generationScheduler;
+
+    private final EnhancementScheduler enhancementScheduler;
+
+    private final SbomMapper sbomMapper;
+
+    private final MeterRegistry registry;
+
+    private final StatusStatistics statusStatistics;
+
+    private final WorkQueue workQueue;
+
+    private final BulkRetryJobRepository jobRepository;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final long intervalNanos;
+
+    private long nextDispatch = System.nanoTime();
+
+    @Inject
+    public BulkRetryDispatcher(StatusRepository statusRepository, GenerationScheduler generationScheduler,
+            EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper, MeterRegistry registry,
+            StatusStatistics statusStatistics, WorkQueue workQueue, BulkRetryJobRepository jobRepository,
+            @ConfigProperty(name = "sbomer.bulk-retry.batch-size", defaultValue = "500") int batchSize,
+            @ConfigProperty(name = "sbomer.bulk-retry.rate", defaultValue = "50") double rate) {
+        this(statusRepository, generationScheduler, enhancementScheduler, sbomMapper, registry, statusStatistics,
+                workQueue, jobRepository,
+                Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "bulk-retry-dispatcher")), batchSize,
+                rate);
+    }
+
+    /**
+     * @param executor runs the jobs, has to run them one at a time
+     */
+    public BulkRetryDispatcher(StatusRepository statusRepository, GenerationScheduler generationScheduler,
+            EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper, MeterRegistry registry,
+            StatusStatistics statusStatistics, WorkQueue workQueue, BulkRetryJobRepository jobRepository,
+            Executor executor, int batchSize, double rate) {
+        this.statusRepository = statusRepository;
+        this.generationScheduler = generationScheduler;
+        this.enhancementScheduler = enhancementScheduler;
+        this.sbomMapper = sbomMapper;
+        this.registry = registry;
+        this.statusStatistics = statusStatistics;
+        this.workQueue = workQueue;
+        this.jobRepository = jobRepository;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the queued job, with the number of matching generations
+     */
+    public BulkRetryJob retryGenerations(RetryFilter filter) {
+        Instant started = Instant.now();
+        RetryFilter bounded = failedBefore(filter, started);
+        return submit(new BulkRetryJob(UUID.randomUUID().toString(), "generation",
+                (int) statusRepository.countFailedGenerations(bounded), started),
+                job -> dispatchGenerations(job, bounded));
+    }
+
+    /**
+     * @return the queued job, with the number of matching enhancements
+     */
+    public BulkRetryJob retryEnhancements(RetryFilter filter) {
+        Instant started = Instant.now();
+        RetryFilter bounded = failedBefore(filter, started);
+        return submit(new BulkRetryJob(UUID.randomUUID().toString(), "enhancement",
+                (int) statusRepository.countFailedEnhancements(bounded), started),
+                job -> dispatchEnhancements(job, bounded));
+    }
+
+    /**
+     * @return the job as of its last finished batch, whichever replica runs it
+     */
+    public Optional<BulkRetryJob> getJob(String jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    private interface JobBody {
+        void run(BulkRetryJob job) throws InterruptedException;
+    }
+
+    private BulkRetryJob submit(BulkRetryJob job, JobBody body) {
+        jobRepository.create(job);
+        log.info("Queued bulk retry {} of {} FAILED {}s", job.getId(), job.getMatched(), job.getKind());
+        executor.execute(() -> {
+            job.setState(BulkRetryJob.State.RUNNING);
+            try {
+                progress(job);
+                body.run(job);
+                job.setState(BulkRetryJob.State.FINISHED);
+                log.info("Bulk retry {} finished: {} reset, {} dispatched, {} skipped", job.getId(),
+                        job.getReset().get(), job.getDispatched().get(), job.getSkipped().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(job, e);
+            } catch (RuntimeException e) {
+                fail(job, e);
+            } finally {
+                job.setFinished(Instant.now());
+                progress(job);
+            }
+        });
+        return job;
+    }
+
+    private void dispatchGenerations(BulkRetryJob job, RetryFilter filter) throws InterruptedException {
+        List<String> ids;
+        do {
+            ids = statusRepository.resetFailedGenerations(filter, Instant.now(), batchSize);
+            job.getReset().addAndGet(ids.size());
+            List<GenerationRecord> records = statusRepository.findGenerationsByIds(ids);
+            Instant reset = Instant.now();
+            workQueue.enqueue(records.stream().map(record -> WorkItem.inFlight(record, reset)).toList());
+            for (GenerationRecord record : records) {
+                // When they failed is no longer known after the reset, so only the counts move
+                statusStatistics.generationMoved(record, GenerationStatus.FAILED, null);
+                pace();
+                generationScheduler.schedule(sbomMapper.toGenerationCreatedEvent(record,
+                        sbomMapper.toGenerationRequestSpec(record), record.getRequestId()));
+                dispatched(job);
+            }
+            progress(job);
+        } while (ids.size() == batchSize);
+    }
+
+    private void dispatchEnhancements(BulkRetryJob job, RetryFilter filter) throws InterruptedException {
+        List<String> ids;
+        do {
+            ids = statusRepository.resetFailedEnhancements(filter, Instant.now(), batchSize);
+            job.getReset().addAndGet(ids.size());
+            List<EnhancementRecord> records = statusRepository.findEnhancementsByIds(ids);
+            Map<String, GenerationRecord> parents = statusRepository
+                    .findGenerationsByIds(records.stream().map(EnhancementRecord::getGenerationId).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(GenerationRecord::getId, Function.identity()));
+            for (EnhancementRecord record : records) {
+                statusStatistics.enhancementMoved(record, EnhancementStatus.FAILED, null);
+                GenerationRecord parentGeneration = parents.get(record.getGenerationId());
+                if (parentGeneration == null) {
+                    log.warn("Cannot retry enhancement {}, its generation is missing", record.getId());
+                    job.getSkipped().incrementAndGet();
+                    continue;
+                }
+                pace();
+                workQueue.enqueue(List.of(WorkItem.inFlight(record, Instant.now())));
+                enhancementScheduler.schedule(sbomMapper.toEnhancementCreatedEvent(record, parentGeneration));
+                dispatched(job);
+            }
+            progress(job);
+        } while (ids.size() == batchSize);
+    }
+
+    /**
+     * Waits for the next dispatch slot. Only called from the job thread.
+     */
+    private void pace() throws InterruptedException {
+        long now = System.nanoTime();
+        long wait = nextDispatch - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        nextDispatch = Math.max(nextDispatch, now) + intervalNanos;
+    }
+
+    /**
+     * Writes the progress of the job. Failing to do so leaves the job running, its progress is only reported later.
+     */
+    private void progress(BulkRetryJob job) {
+        try {
+            jobRepository.update(job);
+        } catch (RuntimeException e) {
+            log.warn("Could not write the progress of bulk retry {}", job.getId(), e);
+        }
+    }
+
+    private void dispatched(BulkRetryJob job) {
+        job.getDispatched().incrementAndGet();
+        registry.counter(DISPATCHED_METRIC, "kind", job.getKind()).increment();
+    }
+
+    private static void fail(BulkRetryJob job, Exception e) {
+        log.error("Bulk retry {} failed after dispatching {} {}s", job.getId(), job.getDispatched().get(),
+                job.getKind(), e);
+        job.setError(e.getMessage());
+        job.setState(BulkRetryJob.State.FAILED);
+    }
+
+    private static RetryFilter failedBefore(RetryFilter filter, Instant started) {
+        Instant before = filter.getFinishedBefore();
+        return filter.toBuilder()
+                .finishedBefore(before != null && before.isBefore(started) ? before : started)
+                .build();
+    }
+}
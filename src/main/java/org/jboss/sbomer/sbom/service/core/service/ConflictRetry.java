@@ -0,0 +1,95 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Runs a read-modify-write transition again when the {@link org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository}
+ * rejects it with a {@link ConcurrentUpdateException}, e.g. because another replica updated the same record in between.
+ * The transition has to read the record itself, so that every attempt starts from the current state.
+ * </p>
+ * <p>
+ * Attempts are spaced by an exponential backoff with full jitter, so that replicas that collided once do not collide
+ * again. Every conflict is counted in {@code sbomer.status.update.conflicts}, tagged with the transition and whether it
+ * was retried or given up on.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class ConflictRetry {
+
+    static final String CONFLICTS_METRIC = "sbomer.status.update.conflicts";
+
+    private final MeterRegistry registry;
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    @Inject
+    public ConflictRetry(MeterRegistry registry,
+            @ConfigProperty(name = "sbomer.update-retry.max-attempts", defaultValue = "5") int maxAttempts,
+            @ConfigProperty(name = "sbomer.update-retry.initial-backoff", defaultValue = "20ms") Duration initialBackoff,
+            @ConfigProperty(name = "sbomer.update-retry.max-backoff", defaultValue = "1s") Duration maxBackoff) {
+        this.registry = registry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * @param transition short name of the transition, used as metric tag and in logs
+     * @param update reads, changes and writes the record
+     * @return the result of the first attempt that was not rejected
+     * @throws ConcurrentUpdateException if all attempts were rejected
+     */
+    public <T> T call(String transition, Supplier<T> update) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return update.get();
+            } catch (ConcurrentUpdateException e) {
+                if (attempt >= maxAttempts) {
+                    registry.counter(CONFLICTS_METRIC, "transition", transition, "outcome", "exhausted").increment();
+                    log.warn("Giving up on transition '{}' after {} conflicting attempts", transition, attempt);
+                    throw e;
+                }
+                registry.counter(CONFLICTS_METRIC, "transition", transition, "outcome", "retried").increment();
+                log.debug("Transition '{}' conflicted on attempt {}, retrying: {}", transition, attempt,
+                        e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * @see #call(String, Supplier)
+     */
+    public void run(String transition, Runnable update) {
+        call(transition, () -> {
+            update.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry transition", e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.CostEstimate;
+import org.jboss.sbomer.sbom.service.core.domain.dto.CostKey;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationResult;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * <p>
+ * Learns what generations cost from the ones that completed: per {@link CostKey}, how long FINISHED generations were
+ * GENERATING, and how often generations FAILED, with {@code ERR_OOM} or at all. Each key keeps a count and
+ * exponentially weighted moving averages, updated as every generation finishes or fails, so recent behaviour counts
+ * most. Keys without {@code min-samples} completions fall back to all identifiers of the same generator and target
+ * type.
+ * </p>
+ * <p>
+ * New generations of a request are queued shortest first, so that the quick ones are not stuck behind a long one, and
+ * their {@code generation.created} events carry the estimate as resource hints. The model lives in memory: every
+ * replica learns from the updates it processes, and starts over after a restart.
+ * </p>
+ */
+@ApplicationScoped
+public class CostModel {
+
+    private final CostModelConfig config;
+
+    /**
+     * Least recently used first, guarded by {@code this}.
+     */
+    private final Map<CostKey, Sketch> sketches;
+
+    @Inject
+    public CostModel(CostModelConfig config) {
+        this.config = config;
+        this.sketches = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CostKey, Sketch> eldest) {
+                return size() > config.maxKeys();
+            }
+        };
+    }
+
+    /**
+     * Learns from a generation that just became FINISHED or FAILED.
+     *
+     * @param from  the status before
+     * @param since when the generation entered {@code from}, null if unknown
+     */
+    public void completed(GenerationRecord record, GenerationStatus from, Instant since) {
+        Duration duration = null;
+        if (record.getStatus() == GenerationStatus.FINISHED && record.getFinished() != null) {
+            Instant started = from == GenerationStatus.GENERATING && since != null ? since : record.getCreated();
+            if (started != null) {
+                duration = Duration.between(started, record.getFinished());
+            }
+        }
+        boolean failed = record.getStatus() == GenerationStatus.FAILED;
+        boolean oom = failed && record.getResult() != null
+                && record.getResult() == GenerationResult.ERR_OOM.getCode();
+        CostKey key = CostKey.of(record.getGeneratorName(), record.getTargetType(), record.getTargetIdentifier());
+        synchronized (this) {
+            sketches.computeIfAbsent(key, k -> new Sketch()).add(duration, failed, oom, config.smoothing());
+            sketches.computeIfAbsent(key.anyIdentifier(), k -> new Sketch())
+                    .add(duration, failed, oom, config.smoothing());
+        }
+    }
+
+    /**
+     * @return the estimate for a generation, empty if too few generations like it completed yet
+     */
+    public Optional<CostEstimate> estimate(String generatorName, String targetType, String targetIdentifier) {
+        CostKey key = CostKey.of(generatorName, targetType, targetIdentifier);
+        Sketch sketch;
+        synchronized (this) {
+            sketch = usable(sketches.get(key));
+            if (sketch == null) {
+                sketch = usable(sketches.get(key.anyIdentifier()));
+            }
+            if (sketch == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new CostEstimate(sketch.samples,
+                    sketch.durations > 0 ? Duration.ofMillis(Math.round(sketch.durationMillis)) : null,
+                    sketch.failureRate, sketch.oomRate, sketch.oomRate >= config.highMemoryOomProbability()));
+        }
+    }
+
+    public Optional<CostEstimate> estimate(GenerationRecord record) {
+        return estimate(record.getGeneratorName(), record.getTargetType(), record.getTargetIdentifier());
+    }
+
+    /**
+     * @return the generations ordered by expected duration, shortest first. Generations without an expected duration
+     *         go last, and ties keep their order. Unchanged if the model is disabled.
+     */
+    public List<GenerationRecord> shortestFirst(List<GenerationRecord> records) {
+        if (!config.enabled() || records.size() < 2) {
+            return records;
+        }
+        Map<GenerationRecord, Duration> durations = new LinkedHashMap<>();
+        for (GenerationRecord record : records) {
+            durations.put(record, estimate(record).map(CostEstimate::expectedDuration).orElse(null));
+        }
+        // Sorting an ordered stream is stable
+        return records.stream()
+                .sorted(Comparator.comparing(durations::get, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    private Sketch usable(Sketch sketch) {
+        return sketch != null && sketch.samples >= config.minSamples() ? sketch : null;
+    }
+
+    private static final class Sketch {
+
+        private long samples;
+
+        private long durations;
+
+        private double durationMillis;
+
+        private double failureRate;
+
+        private double oomRate;
+
+        void add(Duration duration, boolean failed, boolean oom, double smoothing) {
+            // The first samples are averaged plainly, so that a key does not lean on its first completion for long
+            double weight = Math.max(smoothing, 1.0 / (samples + 1));
+            failureRate += weight * ((failed ? 1 : 0) - failureRate);
+            oomRate += weight * ((oom ? 1 : 0) - oomRate);
+            samples++;
+            if (duration != null) {
+                double durationWeight = Math.max(smoothing, 1.0 / (durations + 1));
+                durationMillis += durationWeight * (Math.max(duration.toMillis(), 0) - durationMillis);
+                durations++;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of the {@link CostModel}.
+ */
+@ConfigMapping(prefix = "sbomer.cost-model")
+public interface CostModelConfig {
+
+    /**
+     * Whether new generations are queued shortest first and sent with resource hints. The model learns either way.
+     */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Weight of the latest completed generation in the moving averages, between 0 and 1.
+     */
+    @WithDefault("0.2")
+    double smoothing();
+
+    /**
+     * The fewest completed generations of a key before its estimate is used.
+     */
+    @WithDefault("3")
+    long minSamples();
+
+    /**
+     * The most keys kept, the least recently used ones are dropped beyond that.
+     */
+    @WithDefault("10000")
+    int maxKeys();
+
+    /**
+     * The {@code ERR_OOM} probability from which generations are hinted to need more memory.
+     */
+    @WithDefault("0.1")
+    double highMemoryOomProbability();
+}
@@ -0,0 +1,58 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.port.spi.GenerationCompletedNotifier;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends a {@code generation.completed} event as soon as a generation and its enhancements are done, so that publishers
+ * can start on its final SBOMs while the rest of the request is still in progress. The {@code requests.finished} event
+ * still marks the completion of the request. Opt-in with {@code sbomer.generation-completed.enabled}.
+ */
+@ApplicationScoped
+@Slf4j
+public class GenerationCompletedPublisher {
+
+    private final StatusRepository statusRepository;
+
+    private final GenerationCompletedNotifier generationCompletedNotifier;
+
+    private final SbomMapper sbomMapper;
+
+    private final boolean enabled;
+
+    @Inject
+    public GenerationCompletedPublisher(StatusRepository statusRepository,
+            GenerationCompletedNotifier generationCompletedNotifier, SbomMapper sbomMapper,
+            @ConfigProperty(name = "sbomer.generation-completed.enabled", defaultValue = "false") boolean enabled) {
+        this.statusRepository = statusRepository;
+        this.generationCompletedNotifier = generationCompletedNotifier;
+        this.sbomMapper = sbomMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Sends the event of a generation whose enhancements are all FINISHED. A redelivered update sends it again, so
+     * consumers should expect duplicates.
+     */
+    public void publish(String generationId) {
+        if (!enabled) {
+            return;
+        }
+        GenerationRecord generationRecord = statusRepository.findGenerationById(generationId);
+        if (generationRecord == null) {
+            log.warn("Completed generation {} is gone, not sending generation.completed", generationId);
+            return;
+        }
+        List<String> finalSbomUrls = statusRepository.getFinalSbomUrlsForCompletedGeneration(generationId);
+        generationCompletedNotifier.notify(sbomMapper.toGenerationCompletedEvent(generationRecord, finalSbomUrls,
+                statusRepository.findPublishersByRequestId(generationRecord.getRequestId())));
+    }
+}
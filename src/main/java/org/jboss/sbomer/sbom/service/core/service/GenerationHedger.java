@@ -0,0 +1,190 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StaleWorkQuery;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Hedges generations that have been GENERATING far longer than their generator usually takes, e.g. because of a slow
+ * node or a registry hiccup, so that a single straggler does not hold back the {@code requests.finished} event of its
+ * request. Past the {@code percentile} of the time generations of the same generator spent GENERATING, taken from
+ * the {@link StatusStatistics}, a duplicate {@code generation.created} event is sent. Its event ID is the hedge
+ * attempt ID, {@code <generation ID>-hedge-<n>}.
+ * </p>
+ * <p>
+ * All attempts report on the same generation. The first FINISHED update wins, the updates of the other attempts are
+ * ignored afterwards; a FAILED update is only taken once every attempt failed. Hedges are counted in
+ * {@code sbomer.hedge.dispatched}, hedged generations that finished in {@code sbomer.hedge.won} and ignored updates in
+ * {@code sbomer.hedge.ignored}, all by generator.
+ * </p>
+ * <p>
+ * Hedges are sent directly, past the capacity limits of the {@link WorkDispatcher}, and only while hedging is enabled.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class GenerationHedger {
+
+    static final String DISPATCHED_METRIC = "sbomer.hedge.dispatched";
+
+    static final String WON_METRIC = "sbomer.hedge.won";
+
+    static final String IGNORED_METRIC = "sbomer.hedge.ignored";
+
+    private final StatusRepository statusRepository;
+
+    private final GenerationScheduler generationScheduler;
+
+    private final SbomMapper sbomMapper;
+
+    private final StatusStatistics statusStatistics;
+
+    private final ConflictRetry conflictRetry;
+
+    private final MeterRegistry registry;
+
+    private final GenerationHedgerConfig config;
+
+    @Inject
+    public GenerationHedger(StatusRepository statusRepository, GenerationScheduler generationScheduler,
+            SbomMapper sbomMapper, StatusStatistics statusStatistics, ConflictRetry conflictRetry,
+            MeterRegistry registry, GenerationHedgerConfig config) {
+        this.statusRepository = statusRepository;
+        this.generationScheduler = generationScheduler;
+        this.sbomMapper = sbomMapper;
+        this.statusStatistics = statusStatistics;
+        this.conflictRetry = conflictRetry;
+        this.registry = registry;
+        this.config = config;
+    }
+
+    @Scheduled(every = "${sbomer.hedge.interval:1m}", delayed = "${sbomer.hedge.interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void run() {
+        if (!config.enabled()) {
+            return;
+        }
+        int hedged = hedge(Instant.now());
+        if (hedged > 0) {
+            log.info("Hedged {} slow generations", hedged);
+        }
+    }
+
+    /**
+     * @param now the instant the time spent GENERATING is measured against
+     * @return the number of generations hedged
+     */
+    public int hedge(Instant now) {
+        int hedged = 0;
+        Map<String, Long> percentiles = statusStatistics.generationPercentiles(GenerationStatus.GENERATING,
+                config.percentile(), config.minSamples());
+        for (Map.Entry<String, Long> percentile : percentiles.entrySet()) {
+            if (hedged >= config.batchSize()) {
+                break;
+            }
+            Duration threshold = Duration.ofMillis(percentile.getValue());
+            if (threshold.compareTo(config.minDelay()) < 0) {
+                threshold = config.minDelay();
+            }
+            StaleWorkQuery query = StaleWorkQuery.builder()
+                    .updatedBefore(now.minus(threshold))
+                    .workerName(percentile.getKey())
+                    .dispatchAttempts(null)
+                    .hedgeAttemptsBelow(config.maxHedges())
+                    .limit(config.batchSize() - hedged)
+                    .build();
+            for (GenerationRecord record : statusRepository.findStaleGenerations(Set.of(GenerationStatus.GENERATING),
+                    query)) {
+                if (hedge(record)) {
+                    hedged++;
+                }
+            }
+        }
+        return hedged;
+    }
+
+    /**
+     * Decides whether an update of a hedged generation comes from an attempt that lost, or failed while another one is
+     * still running, and is to be ignored.
+     *
+     * @param record the generation, as read before the update
+     * @param status the status reported by the update
+     */
+    public boolean isLosingUpdate(GenerationRecord record, String status) {
+        if (record.getHedgeAttempts() == 0) {
+            return false;
+        }
+        boolean losing;
+        if (record.getStatus() == GenerationStatus.FINISHED) {
+            losing = true;
+        } else if ("GENERATING".equals(status)) {
+            // Another attempt is GENERATING already
+            losing = record.getStatus() == GenerationStatus.GENERATING;
+        } else if ("FAILED".equals(status)) {
+            losing = conflictRetry.call("generation-hedge-failed", () -> {
+                GenerationRecord current = statusRepository.findGenerationById(record.getId());
+                if (current.getFailedAttempts() >= current.getHedgeAttempts()) {
+                    // This was the last attempt running
+                    return false;
+                }
+                current.setFailedAttempts(current.getFailedAttempts() + 1);
+                statusRepository.updateGeneration(current);
+                return true;
+            });
+        } else {
+            losing = false;
+        }
+        if (losing) {
+            log.debug("Ignoring {} update of hedged generation {} ({})", status, record.getId(), record.getStatus());
+            registry.counter(IGNORED_METRIC, "generator", String.valueOf(record.getGeneratorName())).increment();
+        }
+        return losing;
+    }
+
+    /**
+     * Records that a generation finished, which for a hedged one means the first of its attempts won.
+     */
+    public void finished(GenerationRecord record) {
+        if (record.getHedgeAttempts() > 0) {
+            registry.counter(WON_METRIC, "generator", String.valueOf(record.getGeneratorName())).increment();
+        }
+    }
+
+    public static String attemptId(String generationId, int attempt) {
+        return generationId + "-hedge-" + attempt;
+    }
+
+    private boolean hedge(GenerationRecord record) {
+        record.setHedgeAttempts(record.getHedgeAttempts() + 1);
+        try {
+            // The time GENERATING is left as it is, so the statistics and the reaper still see the first attempt
+            statusRepository.updateGeneration(record);
+        } catch (ConcurrentUpdateException e) {
+            log.debug("Slow generation {} moved on or was hedged by another replica: {}", record.getId(),
+                    e.getMessage());
+            return false;
+        }
+        GenerationCreated event = sbomMapper.toGenerationCreatedEvent(record,
+                sbomMapper.toGenerationRequestSpec(record), record.getRequestId());
+        event.getContext().setEventId(attemptId(record.getId(), record.getHedgeAttempts()));
+        generationScheduler.schedule(event);
+        log.info("Hedged slow generation {} (attempt {})", record.getId(), event.getContext().getEventId());
+        registry.counter(DISPATCHED_METRIC, "generator", String.valueOf(record.getGeneratorName())).increment();
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of the {@link GenerationHedger}.
+ */
+@ConfigMapping(prefix = "sbomer.hedge")
+public interface GenerationHedgerConfig {
+
+    /**
+     * Whether slow generations are hedged at all.
+     */
+    @WithDefault("false")
+    boolean enabled();
+
+    /**
+     * How often slow generations are looked for. Only read by the schedule of {@link GenerationHedger#run()}.
+     */
+    @WithDefault("1m")
+    Duration interval();
+
+    /**
+     * The percentile of the time generations of the same generator spent GENERATING past which a generation is hedged.
+     */
+    @WithDefault("0.95")
+    double percentile();
+
+    /**
+     * The fewest generations of a generator that must have finished GENERATING before its percentile is trusted.
+     */
+    @WithDefault("20")
+    long minSamples();
+
+    /**
+     * No generation is hedged before it has been GENERATING this long, however fast its generator usually is.
+     */
+    @WithDefault("5m")
+    Duration minDelay();
+
+    /**
+     * How many duplicates of a generation are dispatched at most.
+     */
+    @WithDefault("1")
+    int maxHedges();
+
+    /**
+     * The most generations hedged by a single run.
+     */
+    @WithDefault("20")
+    int batchSize();
+}
@@ -0,0 +1,154 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.BatchGetResult;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.CursorPage;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.FieldSelection;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RecordStamp;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestEvent;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsReport;
+import org.jboss.sbomer.sbom.service.core.port.api.ReactiveSbomAdministration;
+import org.jboss.sbomer.sbom.service.core.port.spi.ReactiveStatusRepository;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class ReactiveSbomAdminService implements ReactiveSbomAdministration {
+
+    ReactiveStatusRepository statusRepository;
+    StatusStatistics statusStatistics;
+    RequestEventBroadcaster requestEventBroadcaster;
+    int streamBatchSize;
+
+    @Inject
+    public ReactiveSbomAdminService(ReactiveStatusRepository statusRepository, StatusStatistics statusStatistics,
+            RequestEventBroadcaster requestEventBroadcaster,
+            @ConfigProperty(name = "sbomer.api.stream.batch-size", defaultValue = "500") int streamBatchSize) {
+        this.statusRepository = statusRepository;
+        this.statusStatistics = statusStatistics;
+        this.requestEventBroadcaster = requestEventBroadcaster;
+        this.streamBatchSize = streamBatchSize;
+    }
+
+    // --- READ OPERATIONS (Pass-through to Repository) ---
+
+    @Override
+    public Uni<Page<RequestRecord>> fetchRequests(int pageIndex, int pageSize) {
+        return statusRepository.findAllRequests(pageIndex, pageSize);
+    }
+
+    @Override
+    public Uni<RequestRecord> getRequest(String requestId) {
+        return statusRepository.findRequestById(requestId);
+    }
+
+    @Override
+    public Uni<RecordStamp> getRequestStamp(String requestId) {
+        return statusRepository.findRequestStamp(requestId);
+    }
+
+    @Override
+    public Uni<Page<GenerationRecord>> fetchGenerationsForRequest(String requestId, int pageIndex, int pageSize,
+            FieldSelection fields) {
+        return statusRepository.selecting(fields).findGenerationsByRequestId(requestId, pageIndex, pageSize);
+    }
+
+    @Override
+    public Uni<Page<GenerationRecord>> fetchGenerations(int pageIndex, int pageSize, FieldSelection fields) {
+        return statusRepository.selecting(fields).findAllGenerations(pageIndex, pageSize);
+    }
+
+    @Override
+    public Uni<CursorPage<GenerationRecord>> searchGenerations(GenerationSearchQuery query, FieldSelection fields) {
+        // One more than requested, to tell whether there is a next page without counting
+        return statusRepository.selecting(fields).searchGenerations(query.toBuilder().limit(query.getLimit() + 1).build())
+                .map(records -> CursorPage.of(records, query.getLimit(), GenerationRecord::getId));
+    }
+
+    @Override
+    public Uni<GenerationRecord> getGeneration(String generationId, FieldSelection fields) {
+        return statusRepository.selecting(fields).findGenerationById(generationId);
+    }
+
+    @Override
+    public Uni<RecordStamp> getGenerationStamp(String generationId) {
+        return statusRepository.findGenerationStamp(generationId);
+    }
+
+    @Override
+    public Uni<BatchGetResult<GenerationRecord>> getGenerations(Collection<String> generationIds,
+            FieldSelection fields) {
+        return statusRepository.selecting(fields).findGenerationsByIds(generationIds)
+                .map(records -> BatchGetResult.of(generationIds, records, GenerationRecord::getId));
+    }
+
+    @Override
+    public Uni<List<GenerationRecord>> getGenerationsForRequest(String requestId) {
+        return statusRepository.findGenerationsByRequestId(requestId).collect().asList();
+    }
+
+    @Override
+    public Multi<GenerationRecord> streamGenerationsForRequest(String requestId) {
+        // The next batch is only read once the previous one has been consumed
+        return Multi.createBy().repeating()
+                .uni(() -> new String[1], after -> statusRepository
+                        .scrollGenerationsByRequestId(requestId, after[0], streamBatchSize)
+                        .invoke(batch -> {
+                            if (!batch.isEmpty()) {
+                                after[0] = batch.get(batch.size() - 1).getId();
+                            }
+                        }))
+                .whilst(batch -> batch.size() == streamBatchSize)
+                .onItem().<GenerationRecord>disjoint();
+    }
+
+    @Override
+    public Uni<EnhancementRecord> getEnhancement(String enhancementId, FieldSelection fields) {
+        return statusRepository.selecting(fields).findEnhancementById(enhancementId);
+    }
+
+    @Override
+    public Uni<RecordStamp> getEnhancementStamp(String enhancementId) {
+        return statusRepository.findEnhancementStamp(enhancementId);
+    }
+
+    @Override
+    public Uni<BatchGetResult<EnhancementRecord>> getEnhancements(Collection<String> enhancementIds,
+            FieldSelection fields) {
+        return statusRepository.selecting(fields).findEnhancementsByIds(enhancementIds)
+                .map(records -> BatchGetResult.of(enhancementIds, records, EnhancementRecord::getId));
+    }
+
+    @Override
+    public Uni<List<EnhancementRecord>> getEnhancementsForGeneration(String generationId, FieldSelection fields) {
+        return statusRepository.selecting(fields).findEnhancementsByGenerationId(generationId).collect().asList();
+    }
+
+    @Override
+    public Uni<Page<EnhancementRecord>> fetchEnhancements(int pageIndex, int pageSize, FieldSelection fields) {
+        return statusRepository.selecting(fields).findAllEnhancements(pageIndex, pageSize);
+    }
+
+    @Override
+    public Uni<Multi<RequestEvent>> watchRequest(String requestId, Instant since) {
+        return requestEventBroadcaster.subscribe(requestId, since);
+    }
+
+    @Override
+    public Uni<StatsReport> getStats() {
+        // Served from memory, nothing to wait for
+        return Uni.createFrom().item(statusStatistics::report);
+    }
+}
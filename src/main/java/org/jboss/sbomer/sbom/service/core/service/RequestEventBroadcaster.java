@@ -0,0 +1,213 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestEvent;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.ReactiveStatusRepository;
+
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.multi.processors.UnicastProcessor;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Pushes the status changes of a request, its generations and its enhancements to everyone watching it. Watchers of a
+ * request share one watch per replica: changes committed by this replica are pushed as they happen, and once every
+ * {@code poll-interval} the watched requests are read again to pick up changes committed by other replicas. The number
+ * of database reads therefore depends on the number of watched requests, not on the number of watchers.
+ * </p>
+ * <p>
+ * A new watcher first gets the current state of every record updated since the given instant (all of them if none),
+ * then the changes. Events carry the state of a record rather than the transition, so intermediate states can be
+ * skipped and a state can be sent twice around the initial read. The stream ends with the event of the finished
+ * request, watchers that go away before that have to cancel their subscription.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class RequestEventBroadcaster {
+
+    private final ReactiveStatusRepository statusRepository;
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+    @Inject
+    public RequestEventBroadcaster(ReactiveStatusRepository statusRepository) {
+        this.statusRepository = statusRepository;
+    }
+
+    /**
+     * @param since only records updated at or after this instant are part of the initial state, null for all
+     * @return the events of the request, or null if there is no such request. Resolved before anything is streamed,
+     *         so that a missing request can still be answered with a status code.
+     */
+    public Uni<Multi<RequestEvent>> subscribe(String requestId, Instant since) {
+        return statusRepository.findRequestById(requestId)
+                .onItem().ifNotNull().transform(request -> events(requestId, since));
+    }
+
+    private Multi<RequestEvent> events(String requestId, Instant since) {
+        return Multi.createFrom().deferred(() -> {
+            // Registered before the state is read, so that nothing committed in between is missed
+            UnicastProcessor<RequestEvent> changes = UnicastProcessor.create();
+            Watch watch = watches.compute(requestId, (id, existing) -> {
+                Watch joined = existing != null ? existing : new Watch();
+                joined.subscribers.add(changes);
+                return joined;
+            });
+            return readState(requestId)
+                    .onItem().transformToMulti(state -> {
+                        if (state == null) {
+                            // Deleted in the meantime
+                            return Multi.createFrom().empty();
+                        }
+                        // Only changes to what was read are pushed from now on
+                        synchronized (watch) {
+                            state.forEach(event -> watch.published.merge(event.recordId(), event,
+                                    (published, read) -> isNewer(read, published) ? read : published));
+                        }
+                        List<RequestEvent> initial = state.stream()
+                                .filter(event -> since == null || !event.updated().isBefore(since))
+                                .toList();
+                        if (isFinished(state.get(state.size() - 1))) {
+                            return Multi.createFrom().iterable(initial);
+                        }
+                        return Multi.createBy().concatenating()
+                                .streams(Multi.createFrom().iterable(initial), changes);
+                    })
+                    .onTermination().invoke(() -> unsubscribe(requestId, changes));
+        });
+    }
+
+    /**
+     * @return whether anyone on this replica is watching the request
+     */
+    public boolean isWatched(String requestId) {
+        return watches.containsKey(requestId);
+    }
+
+    public void publish(GenerationRecord record) {
+        publish(RequestEvent.of(record));
+    }
+
+    public void publish(EnhancementRecord record) {
+        publish(RequestEvent.of(record));
+    }
+
+    public void publish(RequestRecord record) {
+        publish(RequestEvent.of(record, Instant.now()));
+    }
+
+    @Scheduled(every = "${sbomer.request-events.poll-interval:5s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void poll() {
+        for (String requestId : watches.keySet()) {
+            readState(requestId).subscribe().with(
+                    state -> {
+                        if (state != null) {
+                            state.forEach(this::publish);
+                        }
+                    },
+                    failure -> log.warn("Could not read request {} for its watchers: {}", requestId,
+                            failure.getMessage()));
+        }
+    }
+
+    /**
+     * Sends the event to the watchers of its request, unless they already got this state of the record.
+     */
+    private void publish(RequestEvent event) {
+        Watch watch = watches.get(event.requestId());
+        if (watch == null) {
+            return;
+        }
+        synchronized (watch) {
+            RequestEvent previous = watch.published.get(event.recordId());
+            if (previous != null && !isNewer(event, previous)) {
+                return;
+            }
+            watch.published.put(event.recordId(), event);
+            watch.subscribers.forEach(subscriber -> subscriber.onNext(event));
+            if (isFinished(event)) {
+                watch.subscribers.forEach(UnicastProcessor::onComplete);
+                watches.remove(event.requestId(), watch);
+            }
+        }
+    }
+
+    private void unsubscribe(String requestId, UnicastProcessor<RequestEvent> changes) {
+        watches.computeIfPresent(requestId, (id, watch) -> {
+            watch.subscribers.remove(changes);
+            return watch.subscribers.isEmpty() ? null : watch;
+        });
+    }
+
+    /**
+     * A read that started before a change was pushed can finish after it, its older state is dropped. A request only
+     * changes with its status, its update time moves along with its records.
+     */
+    private static boolean isNewer(RequestEvent event, RequestEvent previous) {
+        if (event.updated() == null || previous.updated() == null) {
+            return !Objects.equals(event.status(), previous.status());
+        }
+        if (event.updated().isBefore(previous.updated())) {
+            return false;
+        }
+        if (!Objects.equals(event.status(), previous.status())) {
+            return true;
+        }
+        return !RequestEvent.REQUEST.equals(event.kind()) && event.updated().isAfter(previous.updated());
+    }
+
+    /**
+     * The current state of the request as events ordered by update time, the one of the request itself last. Null if
+     * there is no such request.
+     */
+    private Uni<List<RequestEvent>> readState(String requestId) {
+        return statusRepository.findRequestById(requestId)
+                .onItem().ifNotNull().transformToUni(request -> statusRepository.findGenerationsByRequestId(requestId)
+                        .collect().asList()
+                        .map(generations -> toEvents(request, generations)));
+    }
+
+    private static List<RequestEvent> toEvents(RequestRecord request, List<GenerationRecord> generations) {
+        List<RequestEvent> events = new ArrayList<>();
+        for (GenerationRecord generation : generations) {
+            events.add(RequestEvent.of(generation));
+            if (generation.getEnhancements() != null) {
+                generation.getEnhancements().forEach(enhancement -> events.add(RequestEvent.of(enhancement)));
+            }
+        }
+        events.sort(Comparator.comparing(RequestEvent::updated, Comparator.nullsFirst(Comparator.naturalOrder())));
+        // The request changes with its last record, it has no update time of its own
+        Instant updated = events.isEmpty() || events.get(events.size() - 1).updated() == null
+                ? request.getCreationDate()
+                : events.get(events.size() - 1).updated();
+        events.add(RequestEvent.of(request, updated != null ? updated : Instant.EPOCH));
+        return events;
+    }
+
+    private static boolean isFinished(RequestEvent event) {
+        return RequestEvent.REQUEST.equals(event.kind()) && (RequestStatus.FINISHED.name().equals(event.status())
+                || RequestStatus.FAILED.name().equals(event.status()));
+    }
+
+    private static final class Watch {
+        private final Set<UnicastProcessor<RequestEvent>> subscribers = ConcurrentHashMap.newKeySet();
+        private final Map<String, RequestEvent> published = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,173 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.sbomer.events.orchestration.CompletedGeneration;
+import org.jboss.sbomer.sbom.service.core.domain.dto.CompletionManifest;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.port.spi.BlobStore;
+import org.jboss.sbomer.sbom.service.core.port.spi.RequestsFinishedNotifier;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Sends the {@code RequestsFinished} event of a finished request. Requests of up to {@code inline-max-generations}
+ * generations list their completed generations in the event. Larger ones would not fit in a Kafka message: their
+ * completed generations are written to a manifest in the {@link BlobStore} instead (claim check), and the event only
+ * references it.
+ * </p>
+ * <p>
+ * The manifest is gzip compressed NDJSON, one {@code CompletedGeneration} per line in its Avro JSON form. The
+ * generations are read from the {@link StatusRepository} {@code batch-size} at a time and written as they are read, so
+ * the size of the request does not matter for memory.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class RequestsFinishedPublisher {
+
+    static final String MANIFEST_CONTENT_TYPE = "application/x-ndjson";
+
+    static final String MANIFEST_CONTENT_ENCODING = "gzip";
+
+    private final StatusRepository statusRepository;
+
+    private final BlobStore blobStore;
+
+    private final RequestsFinishedNotifier requestsFinishedNotifier;
+
+    private final SbomMapper sbomMapper;
+
+    private final int inlineMaxGenerations;
+
+    private final int batchSize;
+
+    @Inject
+    public RequestsFinishedPublisher(StatusRepository statusRepository, BlobStore blobStore,
+            RequestsFinishedNotifier requestsFinishedNotifier, SbomMapper sbomMapper,
+            @ConfigProperty(name = "sbomer.requests-finished.inline-max-generations", defaultValue = "200") int inlineMaxGenerations,
+            @ConfigProperty(name = "sbomer.requests-finished.manifest-batch-size", defaultValue = "500") int batchSize) {
+        this.statusRepository = statusRepository;
+        this.blobStore = blobStore;
+        this.requestsFinishedNotifier = requestsFinishedNotifier;
+        this.sbomMapper = sbomMapper;
+        this.inlineMaxGenerations = inlineMaxGenerations;
+        this.batchSize = batchSize;
+    }
+
+    public void publish(String requestId, Collection<PublisherRecord> publisherRecords) {
+        List<GenerationRecord> first = statusRepository.scrollGenerationsByRequestId(requestId, null,
+                inlineMaxGenerations + 1);
+        if (first.size() <= inlineMaxGenerations) {
+            requestsFinishedNotifier.notify(sbomMapper.toRequestsFinishedEvent(requestId, publisherRecords,
+                    first.stream().map(sbomMapper::toCompletedGeneration).toList()));
+            return;
+        }
+
+        CompletionManifest manifest;
+        try {
+            manifest = writeManifest(requestId, first);
+        } catch (IOException e) {
+            // The request is FINISHED already, an event that may be too large beats no event at all
+            log.warn("Could not write the manifest of request {}, sending its generations inline", requestId, e);
+            requestsFinishedNotifier.notify(sbomMapper.toRequestsFinishedEvent(requestId, publisherRecords,
+                    completedGenerations(requestId)));
+            return;
+        }
+        requestsFinishedNotifier.notify(sbomMapper.toRequestsFinishedEvent(requestId, publisherRecords, List.of()),
+                manifest);
+    }
+
+    private CompletionManifest writeManifest(String requestId, List<GenerationRecord> first) throws IOException {
+        MessageDigest digest = sha256();
+        long[] generations = new long[1];
+        CountingOutputStream[] counted = new CountingOutputStream[1];
+        URI location = blobStore.write("requests-finished/" + requestId + ".ndjson.gz", out -> {
+            counted[0] = new CountingOutputStream(new DigestOutputStream(out, digest));
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(new GZIPOutputStream(counted[0]), StandardCharsets.UTF_8))) {
+                List<GenerationRecord> batch = first;
+                while (!batch.isEmpty()) {
+                    for (GenerationRecord generationRecord : batch) {
+                        writer.write(sbomMapper.toCompletedGeneration(generationRecord).toString());
+                        writer.write('\n');
+                        generations[0]++;
+                    }
+                    batch = statusRepository.scrollGenerationsByRequestId(requestId,
+                            batch.get(batch.size() - 1).getId(), batchSize);
+                }
+            }
+        });
+        return new CompletionManifest(location, MANIFEST_CONTENT_TYPE, MANIFEST_CONTENT_ENCODING, generations[0],
+                HexFormat.of().formatHex(digest.digest()), counted[0].count);
+    }
+
+    private List<CompletedGeneration> completedGenerations(String requestId) {
+        List<CompletedGeneration> completedGenerations = new ArrayList<>();
+        List<GenerationRecord> batch = statusRepository.scrollGenerationsByRequestId(requestId, null, batchSize);
+        while (!batch.isEmpty()) {
+            batch.forEach(generationRecord -> completedGenerations.add(sbomMapper.toCompletedGeneration(generationRecord)));
+            batch = statusRepository.scrollGenerationsByRequestId(requestId, batch.get(batch.size() - 1).getId(),
+                    batchSize);
+        }
+        return completedGenerations;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Counts the bytes written, and leaves the stream of the {@link BlobStore} open when closed.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
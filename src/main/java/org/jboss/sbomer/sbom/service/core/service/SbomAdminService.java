@@ -6,14 +6,23 @@ import java.util.List;
 import org.jboss.sbomer.events.common.GenerationRequestSpec;
 import org.jboss.sbomer.events.orchestration.EnhancementCreated;
 import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.CursorPage;
 import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.domain.dto.DeadLetterReplay;
 import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
 import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
 import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsReport;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
 import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
 import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
 import org.jboss.sbomer.sbom.service.core.port.api.SbomAdministration;
+import org.jboss.sbomer.sbom.service.core.port.spi.DeadLetterReplayer;
 import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
 import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
 import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
 
@@ -29,14 +38,24 @@ public class SbomAdminService implements SbomAdministration {
     GenerationScheduler generationScheduler;
     EnhancementScheduler enhancementScheduler;
     SbomMapper sbomMapper;
+    BulkRetryDispatcher bulkRetryDispatcher;
+    StatusStatistics statusStatistics;
+    DeadLetterReplayer deadLetterReplayer;
+    WorkQueue workQueue;
 
     @Inject
     public SbomAdminService(StatusRepository statusRepository, GenerationScheduler generationScheduler,
-            EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper) {
+            EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper,
+            BulkRetryDispatcher bulkRetryDispatcher, StatusStatistics statusStatistics,
+            DeadLetterReplayer deadLetterReplayer, WorkQueue workQueue) {
         this.statusRepository = statusRepository;
         this.generationScheduler = generationScheduler;
         this.enhancementScheduler = enhancementScheduler;
         this.sbomMapper = sbomMapper;
+        this.bulkRetryDispatcher = bulkRetryDispatcher;
+        this.statusStatistics = statusStatistics;
+        this.deadLetterReplayer = deadLetterReplayer;
+        this.workQueue = workQueue;
     }
 
     // --- READ OPERATIONS (Pass-through to Repository) ---
@@ -61,6 +80,13 @@ public class SbomAdminService implements SbomAdministration {
         return statusRepository.findAllGenerations(pageIndex, pageSize);
     }
 
+    @Override
+    public CursorPage<GenerationRecord> searchGenerations(GenerationSearchQuery query) {
+        // One more than requested, to tell whether there is a next page without counting
+        return CursorPage.of(statusRepository.searchGenerations(query.toBuilder().limit(query.getLimit() + 1).build()),
+                query.getLimit(), GenerationRecord::getId);
+    }
+
     @Override
     public GenerationRecord getGeneration(String generationId) {
         return statusRepository.findGenerationById(generationId);
@@ -88,15 +114,22 @@ public class SbomAdminService implements SbomAdministration {
 
         log.info("Retrying generation: {}", generationId);
 
-        // 1. Reset the status
-        record.setStatus(GenerationStatus.NEW);
+        // 1. Reset the status, SCHEDULED as it is dispatched right away (and reaped if that gets lost)
+        Instant failedAt = record.getUpdated();
+        record.setStatus(GenerationStatus.SCHEDULED);
         record.setReason(null);
         record.setResult(null);
         record.setFinished(null);
         record.setUpdated(Instant.now());
+        record.setDispatchAttempts(0);
+        record.setHedgeAttempts(0);
+        record.setFailedAttempts(0);
 
         // 2. Save to DB (Transaction/Lock handled by Adapter)
         statusRepository.updateGeneration(record);
+        statusStatistics.generationMoved(record, GenerationStatus.FAILED, failedAt);
+        // Holds capacity of the generator until it is done again
+        workQueue.enqueue(List.of(WorkItem.inFlight(record, record.getUpdated())));
 
         // 3. Reconstruct Context
         GenerationRequestSpec originalSpec = sbomMapper.toGenerationRequestSpec(record);
@@ -142,15 +175,19 @@ public class SbomAdminService implements SbomAdministration {
 
         log.info("Retrying enhancement: {}", enhancementId);
 
-        // 1. Reset the status
-        record.setStatus(EnhancementStatus.NEW);
+        // 1. Reset the status, SCHEDULED as it is dispatched right away (and reaped if that gets lost)
+        Instant failedAt = record.getUpdated();
+        record.setStatus(EnhancementStatus.SCHEDULED);
         record.setReason(null);
         record.setResult(null);
         record.setFinished(null);
         record.setUpdated(Instant.now());
+        record.setDispatchAttempts(0);
 
         // 2. Save to DB (Transaction/Lock handled by Adapter)
         statusRepository.updateEnhancement(record);
+        statusStatistics.enhancementMoved(record, EnhancementStatus.FAILED, failedAt);
+        workQueue.enqueue(List.of(WorkItem.inFlight(record, record.getUpdated())));
 
         // 3. Determine Inputs
         EnhancementRecord lastFinished = findPreviousEnhancement(parentGeneration, record.getIndex());
@@ -160,6 +197,45 @@ public class SbomAdminService implements SbomAdministration {
         enhancementScheduler.schedule(retryEvent);
     }
 
+    @Override
+    public BulkRetryJob retryGenerations(RetryFilter filter) {
+        requireCriteria(filter);
+        return bulkRetryDispatcher.retryGenerations(filter);
+    }
+
+    @Override
+    public BulkRetryJob retryEnhancements(RetryFilter filter) {
+        requireCriteria(filter);
+        return bulkRetryDispatcher.retryEnhancements(filter);
+    }
+
+    @Override
+    public BulkRetryJob getRetryJob(String jobId) {
+        return bulkRetryDispatcher.getJob(jobId).orElse(null);
+    }
+
+    @Override
+    public DeadLetterReplay replayDeadLetters(String channel, int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("max must be positive");
+        }
+        return deadLetterReplayer.replay(channel, max);
+    }
+
+    @Override
+    public StatsReport getStats() {
+        return statusStatistics.report();
+    }
+
+    /**
+     * An empty filter would retry everything that ever failed, which is never what a single click should do.
+     */
+    private static void requireCriteria(RetryFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID or filter criterion is required");
+        }
+    }
+
     /**
      * Helper to find the enhancement that ran immediately before the target index.
      */
@@ -38,7 +38,7 @@ public class SbomMapper {
      * This includes running the RecipeBuilder to determine what generators/enhancers are needed.
      */
     public RequestRecord toNewRequestRecord(RequestsCreated requestsCreated) {
-        List<PublisherRecord> publisherRecords = requestsCreated.getData().getPublishers().stream()
+        Collection<PublisherRecord> publisherRecords = requestsCreated.getData().getPublishers().stream()
                 .map(this::toPublisherRecord)
                 .toList();
         RequestRecord requestRecord = new RequestRecord();
@@ -197,45 +197,65 @@ public class SbomMapper {
                 .build();
     }
 
-    public RequestsFinished toRequestsFinishedEvent(RequestRecord requestRecord) {
+    /**
+     * For dispatching an enhancement again: its input is the output of the last finished step before it, or of the
+     * generation if there is none.
+     */
+    public EnhancementCreated toEnhancementCreatedEvent(EnhancementRecord current, GenerationRecord parentGeneration) {
+        EnhancementRecord lastFinished = parentGeneration.getEnhancements().stream()
+                .filter(enhancement -> enhancement.getIndex() < current.getIndex())
+                .filter(enhancement -> enhancement.getStatus() == EnhancementStatus.FINISHED)
+                .max(Comparator.comparingInt(EnhancementRecord::getIndex))
+                .orElse(null);
+        return toEnhancementCreatedEvent(current, lastFinished, parentGeneration);
+    }
+
+    /**
+     * Builds the {@code RequestsFinished} event of a request. The completed generations are empty when they are
+     * referenced from a manifest instead.
+     */
+    public RequestsFinished toRequestsFinishedEvent(String requestId, Collection<PublisherRecord> publisherRecords,
+            List<CompletedGeneration> completedGenerations) {
+        return toRequestsFinishedEvent("RequestsFinished", requestId, publisherRecords, completedGenerations);
+    }
+
+    /**
+     * Builds the {@code generation.completed} event of a generation whose enhancements are all done. It has the form of
+     * a {@code RequestsFinished} event with the one completed generation, told apart by the {@code GenerationCompleted}
+     * context type.
+     */
+    public RequestsFinished toGenerationCompletedEvent(GenerationRecord generationRecord, List<String> finalSbomUrls,
+            Collection<PublisherRecord> publisherRecords) {
+        CompletedGeneration completedGeneration = CompletedGeneration.newBuilder()
+                .setGenerationRequest(toCompletedGenerationRequestSpec(generationRecord))
+                .setFinalSbomUrls(finalSbomUrls)
+                .build();
+        return toRequestsFinishedEvent("GenerationCompleted", generationRecord.getRequestId(), publisherRecords,
+                List.of(completedGeneration));
+    }
+
+    private RequestsFinished toRequestsFinishedEvent(String type, String requestId,
+            Collection<PublisherRecord> publisherRecords, List<CompletedGeneration> completedGenerations) {
 
         // First build the context
         ContextSpec context = ContextSpec.newBuilder()
                 .setEventId(UUID.randomUUID().toString())
-                .setType("RequestsFinished")
+                .setType(type)
                 .setSource(ApplicationConstants.COMPONENT_NAME)
-                .setCorrelationId(requestRecord.getId())
+                .setCorrelationId(requestId)
                 .setEventVersion("1.0")
                 .setTimestamp(Instant.now())
                 .build();
 
-        List<CompletedGeneration>  completedGenerations = new ArrayList<>();
-        for (GenerationRecord generationRecord : requestRecord.getGenerationRecords()) {
-            Target target = Target.newBuilder()
-                    .setType(generationRecord.getTargetType())
-                    .setIdentifier(generationRecord.getTargetIdentifier())
-                    .build();
-            GenerationRequestSpec generationRequestSpec = GenerationRequestSpec.newBuilder()
-                    .setGenerationId(generationRecord.getId())
-                    .setTarget(target)
-                    .build();
-            CompletedGeneration completedGeneration = CompletedGeneration.newBuilder()
-                    .setGenerationRequest(generationRequestSpec)
-                    .setFinalSbomUrls(List.copyOf(determineFinalUrls(generationRecord))) // TODO: Convert to Collection?
-                    .build();
-
-            completedGenerations.add(completedGeneration);
-        }
-
         List<PublisherSpec> publisherSpecs = new ArrayList<>();
-        if (requestRecord.getPublisherRecords() != null) {
-            publisherSpecs = requestRecord.getPublisherRecords().stream()
+        if (publisherRecords != null) {
+            publisherSpecs = publisherRecords.stream()
                     .map(this::toPublisherSpec)
                     .toList();
         }
 
         RequestsFinishedData requestsFinishedData = RequestsFinishedData.newBuilder()
-                .setRequestId(requestRecord.getId())
+                .setRequestId(requestId)
                 .setCompletedGenerations(completedGenerations)
                 .setPublishers(publisherSpecs) // TODO
                 .build();
@@ -246,6 +266,24 @@ public class SbomMapper {
                 .build();
     }
 
+    public CompletedGeneration toCompletedGeneration(GenerationRecord generationRecord) {
+        return CompletedGeneration.newBuilder()
+                .setGenerationRequest(toCompletedGenerationRequestSpec(generationRecord))
+                .setFinalSbomUrls(List.copyOf(determineFinalUrls(generationRecord))) // TODO: Convert to Collection?
+                .build();
+    }
+
+    private GenerationRequestSpec toCompletedGenerationRequestSpec(GenerationRecord generationRecord) {
+        Target target = Target.newBuilder()
+                .setType(generationRecord.getTargetType())
+                .setIdentifier(generationRecord.getTargetIdentifier())
+                .build();
+        return GenerationRequestSpec.newBuilder()
+                .setGenerationId(generationRecord.getId())
+                .setTarget(target)
+                .build();
+    }
+
     private Collection<String> determineFinalUrls(GenerationRecord record) {
         // If no enhancements, or list is null, return base generation URLs
         if (record.getEnhancements() == null || record.getEnhancements().isEmpty()) {
@@ -13,19 +13,20 @@ import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
 import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
 import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
 import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
 import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
 import org.jboss.sbomer.sbom.service.core.port.api.enhancement.EnhancementStatusProcessor;
 import org.jboss.sbomer.sbom.service.core.port.api.generation.GenerationProcessor;
 import org.jboss.sbomer.sbom.service.core.port.api.generation.GenerationStatusProcessor;
 import org.jboss.sbomer.sbom.service.core.port.spi.FailureNotifier;
 import org.jboss.sbomer.sbom.service.core.port.spi.RecipeBuilder;
-import org.jboss.sbomer.sbom.service.core.port.spi.RequestsFinishedNotifier;
 import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
 import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
 import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 @ApplicationScoped
@@ -37,40 +38,71 @@ public class SbomService implements GenerationProcessor, GenerationStatusProcess
     SbomMapper sbomMapper;
     StatusRepository statusRepository;
     RecipeBuilder recipeBuilder;
-    RequestsFinishedNotifier requestsFinishedNotifier;
+    RequestsFinishedPublisher requestsFinishedPublisher;
     FailureNotifier failureNotifier;
+    ConflictRetry conflictRetry;
+    StatusStatistics statusStatistics;
+    RequestEventBroadcaster requestEventBroadcaster;
+    WorkDispatcher workDispatcher;
+    GenerationCompletedPublisher generationCompletedPublisher;
+    GenerationHedger generationHedger;
+    CostModel costModel;
 
     @Inject
-    public SbomService(GenerationScheduler generationScheduler, EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper, StatusRepository statusRepository, RecipeBuilder recipeBuilder, RequestsFinishedNotifier requestsFinishedNotifier, FailureNotifier failureNotifier) {
+    public SbomService(GenerationScheduler generationScheduler, EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper, StatusRepository statusRepository, RecipeBuilder recipeBuilder, RequestsFinishedPublisher requestsFinishedPublisher, FailureNotifier failureNotifier, ConflictRetry conflictRetry, StatusStatistics statusStatistics, RequestEventBroadcaster requestEventBroadcaster, WorkDispatcher workDispatcher, GenerationCompletedPublisher generationCompletedPublisher, GenerationHedger generationHedger, CostModel costModel) {
         this.generationScheduler = generationScheduler;
         this.enhancementScheduler = enhancementScheduler;
         this.sbomMapper = sbomMapper;
         this.statusRepository = statusRepository;
         this.recipeBuilder = recipeBuilder;
-        this.requestsFinishedNotifier = requestsFinishedNotifier;
+        this.requestsFinishedPublisher = requestsFinishedPublisher;
         this.failureNotifier = failureNotifier;
+        this.conflictRetry = conflictRetry;
+        this.statusStatistics = statusStatistics;
+        this.requestEventBroadcaster = requestEventBroadcaster;
+        this.workDispatcher = workDispatcher;
+        this.generationCompletedPublisher = generationCompletedPublisher;
+        this.generationHedger = generationHedger;
+        this.costModel = costModel;
     }
 
-    // Create recipes for each generation requested from the source and schedule them to be generated
+    // Create recipes for each generation requested from the source and schedule them to be generated. The request,
+    // its generations and their work items are committed together, so that a failure leaves nothing behind
     @Override
-    public void processGenerations(RequestsCreated requestsCreatedEvent) {
+    @Transactional
+    public void processGenerations(RequestsCreated requestsCreatedEvent, RequestPriority priority) {
+        String requestId = requestsCreatedEvent.getData().getRequestId();
+        if (requestId != null && statusRepository.requestExists(requestId)) {
+            // Redelivered (or retried) after the request was saved, its generations are not created again. Those that
+            // did not get queued are, in case the queue could not roll back with the request
+            List<GenerationRecord> newGenerations = statusRepository.findGenerationsByRequestId(requestId).stream()
+                    .filter(generationRecord -> generationRecord.getStatus() == GenerationStatus.NEW)
+                    .toList();
+            int queued = workDispatcher.enqueueMissingGenerations(requestId, priority, costModel.shortestFirst(newGenerations));
+            log.info("Request {} was processed before, queued {} of its generations that were not", requestId, queued);
+            return;
+        }
+
         // Get list of generation requests
         List<GenerationRequestSpec> generationRequestSpecs = requestsCreatedEvent.getData().getGenerationRequests();
 
         // First create a RequestRecord to track all the generations
         RequestRecord requestRecord = sbomMapper.toNewRequestRecord(requestsCreatedEvent);
-        statusRepository.saveRequestRecord(requestRecord);
 
-        // For each generation request specification, prepare and fire off a "generation.created" event
+        // For each generation request specification, create a generation to be dispatched
+        List<GenerationRecord> generationRecords = new ArrayList<>(generationRequestSpecs.size());
         for (GenerationRequestSpec generationRequestSpec : generationRequestSpecs) {
-            // Create a generation record for tracking and save to data source
-            GenerationRecord generationRecord = sbomMapper.toNewGenerationRecord(generationRequestSpec, requestsCreatedEvent.getData().getRequestId());
-            statusRepository.saveGeneration(generationRecord);
-            // Schedule the new generation (i.e. send generation.created event to the system)
-            GenerationCreated generationCreatedEvent = sbomMapper.toGenerationCreatedEvent(generationRecord, generationRequestSpec, requestsCreatedEvent.getData().getRequestId());
-            generationScheduler.schedule(generationCreatedEvent);
+            generationRecords.add(sbomMapper.toNewGenerationRecord(generationRequestSpec, requestsCreatedEvent.getData().getRequestId()));
         }
 
+        // The generations are saved along with the request, in one go
+        requestRecord.setGenerationRecords(generationRecords);
+        statusRepository.saveRequestRecord(requestRecord);
+
+        // Queue the new generations, shortest expected first, their generation.created events are sent once their
+        // generators have capacity
+        workDispatcher.enqueueGenerations(requestRecord.getId(), priority, costModel.shortestFirst(generationRecords));
+        generationRecords.forEach(statusStatistics::generationCreated);
     }
 
     // Process the incoming updates from the generators
@@ -84,37 +116,74 @@ public class SbomService implements GenerationProcessor, GenerationStatusProcess
             return;
         }
 
+        // A hedged generation has several attempts reporting on it, only the first one to finish counts
+        if (generationHedger.isLosingUpdate(record, generationUpdate.getData().getStatus())) {
+            return;
+        }
+
+        // Each transition re-reads the record, so a retry after a conflicting update starts from the current state
         switch (generationUpdate.getData().getStatus()) {
             case "GENERATING":
                 // update generation status to GENERATING
-                GenerationRecord inProgressGenerationRecord = statusRepository.findGenerationById(generationId);
-                inProgressGenerationRecord.setStatus(GenerationStatus.GENERATING);
-                inProgressGenerationRecord.setUpdated(Instant.now());
-                statusRepository.updateGeneration(inProgressGenerationRecord);
+                conflictRetry.run("generation-generating", () -> {
+                    GenerationRecord inProgressGenerationRecord = statusRepository.findGenerationById(generationId);
+                    GenerationStatus previousStatus = inProgressGenerationRecord.getStatus();
+                    Instant since = inProgressGenerationRecord.getUpdated();
+                    inProgressGenerationRecord.setStatus(GenerationStatus.GENERATING);
+                    inProgressGenerationRecord.setUpdated(Instant.now());
+                    statusRepository.updateGeneration(inProgressGenerationRecord);
+                    statusStatistics.generationMoved(inProgressGenerationRecord, previousStatus, since);
+                    requestEventBroadcaster.publish(inProgressGenerationRecord);
+                });
                 break;
 
             case "FINISHED":
                 // update generation status to FINISHED
-                GenerationRecord finishedGenerationRecord = statusRepository.findGenerationById(generationId);
-                finishedGenerationRecord.setStatus(GenerationStatus.FINISHED);
-                finishedGenerationRecord.setResult(generationUpdate.getData().getResultCode());
-                finishedGenerationRecord.setUpdated(Instant.now());
-                finishedGenerationRecord.setFinished(Instant.now());
-                //  IMPORTANT part is to get the SBOM urls from the FINISHED update
-                finishedGenerationRecord.setGenerationSbomUrls(generationUpdate.getData().getBaseSbomUrls());
-                statusRepository.updateGeneration(finishedGenerationRecord);
+                GenerationRecord finishedGenerationRecord = conflictRetry.call("generation-finished", () -> {
+                    GenerationRecord current = statusRepository.findGenerationById(generationId);
+                    // Another attempt of a hedged generation finished since the first read and has won
+                    if (generationHedger.isLosingUpdate(current, "FINISHED")) {
+                        return null;
+                    }
+                    GenerationStatus previousStatus = current.getStatus();
+                    Instant since = current.getUpdated();
+                    current.setStatus(GenerationStatus.FINISHED);
+                    current.setResult(generationUpdate.getData().getResultCode());
+                    current.setUpdated(Instant.now());
+                    current.setFinished(Instant.now());
+                    //  IMPORTANT part is to get the SBOM urls from the FINISHED update
+                    current.setGenerationSbomUrls(generationUpdate.getData().getBaseSbomUrls());
+                    statusRepository.updateGeneration(current);
+                    statusStatistics.generationMoved(current, previousStatus, since);
+                    costModel.completed(current, previousStatus, since);
+                    requestEventBroadcaster.publish(current);
+                    return current;
+                });
+                if (finishedGenerationRecord == null) {
+                    break;
+                }
+                workDispatcher.completed(generationId);
+                generationHedger.finished(finishedGenerationRecord);
                 triggerNextStepForGeneration(finishedGenerationRecord.getId(), finishedGenerationRecord.getRequestId());
                 break;
 
             case "FAILED":
                 // update generation status to FAILED
-                GenerationRecord failedGenerationRecord = statusRepository.findGenerationById(generationId);
-                failedGenerationRecord.setStatus(GenerationStatus.FAILED);
-                failedGenerationRecord.setResult(generationUpdate.getData().getResultCode());
-                failedGenerationRecord.setReason(generationUpdate.getData().getReason());
-                failedGenerationRecord.setUpdated(Instant.now());
-                failedGenerationRecord.setFinished(Instant.now());
-                statusRepository.updateGeneration(failedGenerationRecord);
+                conflictRetry.run("generation-failed", () -> {
+                    GenerationRecord failedGenerationRecord = statusRepository.findGenerationById(generationId);
+                    GenerationStatus previousStatus = failedGenerationRecord.getStatus();
+                    Instant since = failedGenerationRecord.getUpdated();
+                    failedGenerationRecord.setStatus(GenerationStatus.FAILED);
+                    failedGenerationRecord.setResult(generationUpdate.getData().getResultCode());
+                    failedGenerationRecord.setReason(generationUpdate.getData().getReason());
+                    failedGenerationRecord.setUpdated(Instant.now());
+                    failedGenerationRecord.setFinished(Instant.now());
+                    statusRepository.updateGeneration(failedGenerationRecord);
+                    statusStatistics.generationMoved(failedGenerationRecord, previousStatus, since);
+                    costModel.completed(failedGenerationRecord, previousStatus, since);
+                    requestEventBroadcaster.publish(failedGenerationRecord);
+                });
+                workDispatcher.completed(generationId);
 
 
                 // update request status to FAILED
@@ -135,35 +204,56 @@ public class SbomService implements GenerationProcessor, GenerationStatusProcess
         switch (enhancementUpdate.getData().getStatus()) {
             case "ENHANCING":
                 // update enhancement status to ENHANCING
-                EnhancementRecord inProgressEnhancementRecord = statusRepository.findEnhancementById(enhancementId);
-                inProgressEnhancementRecord.setStatus(EnhancementStatus.ENHANCING);
-                inProgressEnhancementRecord.setUpdated(Instant.now());
-                statusRepository.updateEnhancement(inProgressEnhancementRecord);
+                conflictRetry.run("enhancement-enhancing", () -> {
+                    EnhancementRecord inProgressEnhancementRecord = statusRepository.findEnhancementById(enhancementId);
+                    EnhancementStatus previousStatus = inProgressEnhancementRecord.getStatus();
+                    Instant since = inProgressEnhancementRecord.getUpdated();
+                    inProgressEnhancementRecord.setStatus(EnhancementStatus.ENHANCING);
+                    inProgressEnhancementRecord.setUpdated(Instant.now());
+                    statusRepository.updateEnhancement(inProgressEnhancementRecord);
+                    statusStatistics.enhancementMoved(inProgressEnhancementRecord, previousStatus, since);
+                    requestEventBroadcaster.publish(inProgressEnhancementRecord);
+                });
                 break;
 
             case "FINISHED":
                 // update enhancement status to FINISHED
-                EnhancementRecord finishedEnhancementRecord = statusRepository.findEnhancementById(enhancementId);
-                finishedEnhancementRecord.setStatus(EnhancementStatus.FINISHED);
-                finishedEnhancementRecord.setResult(enhancementUpdate.getData().getResultCode());
-                finishedEnhancementRecord.setUpdated(Instant.now());
-                finishedEnhancementRecord.setFinished(Instant.now());
-                //  IMPORTANT part is to get the SBOM urls from the FINISHED update
-                finishedEnhancementRecord.setEnhancedSbomUrls(enhancementUpdate.getData().getEnhancedSbomUrls());
-                statusRepository.updateEnhancement(finishedEnhancementRecord);
+                EnhancementRecord finishedEnhancementRecord = conflictRetry.call("enhancement-finished", () -> {
+                    EnhancementRecord current = statusRepository.findEnhancementById(enhancementId);
+                    EnhancementStatus previousStatus = current.getStatus();
+                    Instant since = current.getUpdated();
+                    current.setStatus(EnhancementStatus.FINISHED);
+                    current.setResult(enhancementUpdate.getData().getResultCode());
+                    current.setUpdated(Instant.now());
+                    current.setFinished(Instant.now());
+                    //  IMPORTANT part is to get the SBOM urls from the FINISHED update
+                    current.setEnhancedSbomUrls(enhancementUpdate.getData().getEnhancedSbomUrls());
+                    statusRepository.updateEnhancement(current);
+                    statusStatistics.enhancementMoved(current, previousStatus, since);
+                    requestEventBroadcaster.publish(current);
+                    return current;
+                });
+                workDispatcher.completed(enhancementId);
                 // Important step to continue the process for the generation
                 triggerNextStepForGeneration(finishedEnhancementRecord.getGenerationId(), finishedEnhancementRecord.getRequestId());
                 break;
 
             case "FAILED":
                 // update enhancement status to FAILED
-                EnhancementRecord failedEnhancementRecord = statusRepository.findEnhancementById(enhancementId);
-                failedEnhancementRecord.setStatus(EnhancementStatus.FAILED);
-                failedEnhancementRecord.setResult(enhancementUpdate.getData().getResultCode());
-                failedEnhancementRecord.setReason(enhancementUpdate.getData().getReason());
-                failedEnhancementRecord.setUpdated(Instant.now());
-                failedEnhancementRecord.setFinished(Instant.now());
-                statusRepository.updateEnhancement(failedEnhancementRecord);
+                conflictRetry.run("enhancement-failed", () -> {
+                    EnhancementRecord failedEnhancementRecord = statusRepository.findEnhancementById(enhancementId);
+                    EnhancementStatus previousStatus = failedEnhancementRecord.getStatus();
+                    Instant since = failedEnhancementRecord.getUpdated();
+                    failedEnhancementRecord.setStatus(EnhancementStatus.FAILED);
+                    failedEnhancementRecord.setResult(enhancementUpdate.getData().getResultCode());
+                    failedEnhancementRecord.setReason(enhancementUpdate.getData().getReason());
+                    failedEnhancementRecord.setUpdated(Instant.now());
+                    failedEnhancementRecord.setFinished(Instant.now());
+                    statusRepository.updateEnhancement(failedEnhancementRecord);
+                    statusStatistics.enhancementMoved(failedEnhancementRecord, previousStatus, since);
+                    requestEventBroadcaster.publish(failedEnhancementRecord);
+                });
+                workDispatcher.completed(enhancementId);
                 break;
         }
     }
@@ -171,17 +261,21 @@ public class SbomService implements GenerationProcessor, GenerationStatusProcess
     private void triggerNextStepForGeneration(String generationId, String requestId) {
 
         if (statusRepository.isGenerationAndEnhancementsFinished(generationId)) {
+            // Lets publishers pick up this generation before the rest of the request is done
+            generationCompletedPublisher.publish(generationId);
             if (statusRepository.isAllGenerationRequestsFinished(requestId)) {
-                // ALL Generations and Enhancements finished
-                RequestRecord requestRecord = statusRepository.findRequestById(requestId);
-                requestRecord.setStatus(RequestStatus.FINISHED);
-
-                // Update request status to FINISHED
-                statusRepository.updateRequestRecord(requestRecord);
-
-                RequestsFinished requestsFinishedEvent = sbomMapper.toRequestsFinishedEvent(requestRecord);
-
-                requestsFinishedNotifier.notify(requestsFinishedEvent);
+                // ALL Generations and Enhancements finished. Only the status is updated, without reading the
+                // request's generations, and of concurrent replicas only one gets to move it
+                if (!statusRepository.updateRequestStatus(requestId, RequestStatus.FINISHED)) {
+                    // Another replica finished the last generation at the same time and won the update
+                    return;
+                }
+                RequestRecord finished = new RequestRecord();
+                finished.setId(requestId);
+                finished.setStatus(RequestStatus.FINISHED);
+                requestEventBroadcaster.publish(finished);
+
+                requestsFinishedPublisher.publish(requestId, statusRepository.findPublishersByRequestId(requestId));
                 // We have notified that all the generations for a given request have been finished.
                 return;
             }
@@ -200,19 +294,17 @@ public class SbomService implements GenerationProcessor, GenerationStatusProcess
                 .sorted(Comparator.comparingInt(EnhancementRecord::getIndex))
                 .toList();
 
-        EnhancementRecord lastFinished = null;
-
         for (EnhancementRecord current : sortedEnhancementRecords) {
-            // We find the last finished enhancement
+            // We skip the finished enhancements
             if (EnhancementStatus.FINISHED.equals(current.getStatus())) {
-                lastFinished = current;
                 continue;
             }
 
             // We find an enhancement with status NEW
             if (EnhancementStatus.NEW.equals(current.getStatus())) {
-                // lastFinished might be null if the very first record is NEW (expected)
-                enhancementScheduler.schedule(sbomMapper.toEnhancementCreatedEvent(current, lastFinished, generationRecord));
+                // Queued as it is; it becomes SCHEDULED once the enhancer has capacity and the enhancement.created
+                // event is sent, with the output of the enhancement finished last (or of the generation)
+                workDispatcher.enqueueEnhancement(current);
                 return;
             }
 
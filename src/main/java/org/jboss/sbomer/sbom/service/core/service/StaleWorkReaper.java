@@ -0,0 +1,273 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StaleWorkQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementResult;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationResult;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
+import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
+import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Redispatches generations and enhancements that have not been updated within their deadline, e.g. because the
+ * {@code generation.created} event got lost or the generator crashed. Work that has been redispatched
+ * {@code max-attempts} times and went stale again is marked as FAILED.
+ * </p>
+ * <p>
+ * Each run looks for overdue work with bounded queries on the (status, updated) index, one per deadline and number of
+ * previous attempts, as the deadline doubles with every attempt. A run handles at most {@code batch-size} records, the
+ * rest is left for the next run. Every replica runs the reaper; the versioned update of a record decides which one
+ * redispatches it.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class StaleWorkReaper {
+
+    static final String REAPED_METRIC = "sbomer.reaper.reaped";
+
+    /**
+     * Everything a generator is still expected to report on. NEW generations wait in the {@link WorkQueue} for their
+     * generator to have capacity, only dispatched ones can go stale. Released generations that were never marked as
+     * SCHEDULED are queued again by {@link WorkDispatcher#recover}.
+     */
+    private static final Set<GenerationStatus> GENERATION_STATUSES = EnumSet.complementOf(
+            EnumSet.of(GenerationStatus.NEW, GenerationStatus.FINISHED, GenerationStatus.FAILED));
+
+    /**
+     * Enhancements stay NEW until their predecessor is done and their enhancer has capacity, only dispatched ones can
+     * go stale.
+     */
+    private static final Set<EnhancementStatus> ENHANCEMENT_STATUSES = EnumSet.of(EnhancementStatus.SCHEDULED,
+            EnhancementStatus.ENHANCING);
+
+    private final StatusRepository statusRepository;
+
+    private final GenerationScheduler generationScheduler;
+
+    private final EnhancementScheduler enhancementScheduler;
+
+    private final SbomMapper sbomMapper;
+
+    private final MeterRegistry registry;
+
+    private final StatusStatistics statusStatistics;
+
+    private final WorkQueue workQueue;
+
+    private final StaleWorkReaperConfig config;
+
+    @Inject
+    public StaleWorkReaper(StatusRepository statusRepository, GenerationScheduler generationScheduler,
+            EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper, MeterRegistry registry,
+            StatusStatistics statusStatistics, WorkQueue workQueue, StaleWorkReaperConfig config) {
+        this.statusRepository = statusRepository;
+        this.generationScheduler = generationScheduler;
+        this.enhancementScheduler = enhancementScheduler;
+        this.sbomMapper = sbomMapper;
+        this.registry = registry;
+        this.statusStatistics = statusStatistics;
+        this.workQueue = workQueue;
+        this.config = config;
+    }
+
+    @Scheduled(every = "${sbomer.reaper.interval:1m}", delayed = "${sbomer.reaper.interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void run() {
+        if (!config.enabled()) {
+            return;
+        }
+        int reaped = reap(Instant.now());
+        if (reaped > 0) {
+            log.info("Reaped {} stale generations and enhancements", reaped);
+        }
+    }
+
+    /**
+     * @param now the instant the deadlines are measured against
+     * @return the number of records that were redispatched or failed
+     */
+    public int reap(Instant now) {
+        int reaped = 0;
+        for (Deadline deadline : deadlines()) {
+            for (int attempts = 0; attempts <= config.maxAttempts(); attempts++) {
+                reaped += reapGenerations(deadline, attempts, now, config.batchSize() - reaped);
+                reaped += reapEnhancements(deadline, attempts, now, config.batchSize() - reaped);
+            }
+        }
+        return reaped;
+    }
+
+    private int reapGenerations(Deadline deadline, int attempts, Instant now, int limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        Duration backoff = backoff(deadline.duration(), attempts);
+        int reaped = 0;
+        for (GenerationRecord record : statusRepository.findStaleGenerations(GENERATION_STATUSES,
+                query(deadline, attempts, now.minus(backoff), limit))) {
+            if (isDue(record.getId(), record.getUpdated(), backoff, now) && reapGeneration(record, now)) {
+                reaped++;
+            }
+        }
+        return reaped;
+    }
+
+    private int reapEnhancements(Deadline deadline, int attempts, Instant now, int limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        Duration backoff = backoff(deadline.duration(), attempts);
+        int reaped = 0;
+        for (EnhancementRecord record : statusRepository.findStaleEnhancements(ENHANCEMENT_STATUSES,
+                query(deadline, attempts, now.minus(backoff), limit))) {
+            if (isDue(record.getId(), record.getUpdated(), backoff, now) && reapEnhancement(record, now)) {
+                reaped++;
+            }
+        }
+        return reaped;
+    }
+
+    private boolean reapGeneration(GenerationRecord record, Instant now) {
+        GenerationStatus previousStatus = record.getStatus();
+        Instant since = record.getUpdated();
+        try {
+            if (record.getDispatchAttempts() >= config.maxAttempts()) {
+                record.setStatus(GenerationStatus.FAILED);
+                record.setResult(GenerationResult.ERR_SYSTEM.getCode());
+                record.setReason(timeoutReason(record.getDispatchAttempts()));
+                record.setUpdated(now);
+                record.setFinished(now);
+                statusRepository.updateGeneration(record);
+                statusStatistics.generationMoved(record, previousStatus, since);
+                // Frees the capacity of the generator
+                workQueue.complete(record.getId());
+                log.warn("Generation {} is still stale after {} redispatches, marked as FAILED", record.getId(),
+                        record.getDispatchAttempts());
+                count("generation", "failed");
+                return true;
+            }
+
+            record.setStatus(GenerationStatus.SCHEDULED);
+            record.setUpdated(now);
+            record.setDispatchAttempts(record.getDispatchAttempts() + 1);
+            statusRepository.updateGeneration(record);
+            statusStatistics.generationMoved(record, previousStatus, since);
+            workQueue.enqueue(List.of(WorkItem.inFlight(record, now)));
+            generationScheduler.schedule(sbomMapper.toGenerationCreatedEvent(record,
+                    sbomMapper.toGenerationRequestSpec(record), record.getRequestId()));
+            log.info("Redispatched stale generation {} (attempt {})", record.getId(), record.getDispatchAttempts());
+            count("generation", "redispatched");
+            return true;
+        } catch (ConcurrentUpdateException e) {
+            log.debug("Stale generation {} moved on or was reaped by another replica: {}", record.getId(),
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean reapEnhancement(EnhancementRecord record, Instant now) {
+        EnhancementStatus previousStatus = record.getStatus();
+        Instant since = record.getUpdated();
+        try {
+            if (record.getDispatchAttempts() >= config.maxAttempts()) {
+                record.setStatus(EnhancementStatus.FAILED);
+                record.setResult(EnhancementResult.ERR_GENERAL.getCode());
+                record.setReason(timeoutReason(record.getDispatchAttempts()));
+                record.setUpdated(now);
+                record.setFinished(now);
+                statusRepository.updateEnhancement(record);
+                statusStatistics.enhancementMoved(record, previousStatus, since);
+                workQueue.complete(record.getId());
+                log.warn("Enhancement {} is still stale after {} redispatches, marked as FAILED", record.getId(),
+                        record.getDispatchAttempts());
+                count("enhancement", "failed");
+                return true;
+            }
+
+            GenerationRecord parentGeneration = statusRepository.findGenerationById(record.getGenerationId());
+            if (parentGeneration == null) {
+                log.warn("Cannot redispatch stale enhancement {}, its generation is missing", record.getId());
+                return false;
+            }
+            record.setStatus(EnhancementStatus.SCHEDULED);
+            record.setUpdated(now);
+            record.setDispatchAttempts(record.getDispatchAttempts() + 1);
+            statusRepository.updateEnhancement(record);
+            statusStatistics.enhancementMoved(record, previousStatus, since);
+            workQueue.enqueue(List.of(WorkItem.inFlight(record, now)));
+            enhancementScheduler.schedule(sbomMapper.toEnhancementCreatedEvent(record, parentGeneration));
+            log.info("Redispatched stale enhancement {} (attempt {})", record.getId(), record.getDispatchAttempts());
+            count("enhancement", "redispatched");
+            return true;
+        } catch (ConcurrentUpdateException e) {
+            log.debug("Stale enhancement {} moved on or was reaped by another replica: {}", record.getId(),
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The configured per-name deadlines, followed by the default one for everything else.
+     */
+    private List<Deadline> deadlines() {
+        List<Deadline> deadlines = new ArrayList<>();
+        config.deadlines().forEach((name, duration) -> deadlines.add(new Deadline(name, duration)));
+        deadlines.add(new Deadline(null, config.deadline()));
+        return deadlines;
+    }
+
+    private StaleWorkQuery query(Deadline deadline, int attempts, Instant updatedBefore, int limit) {
+        return StaleWorkQuery.builder()
+                .updatedBefore(updatedBefore)
+                .dispatchAttempts(attempts)
+                .workerName(deadline.workerName())
+                .excludedWorkerNames(deadline.workerName() == null ? config.deadlines().keySet() : Set.of())
+                .limit(limit)
+                .build();
+    }
+
+    private static Duration backoff(Duration deadline, int attempts) {
+        return deadline.multipliedBy(1L << Math.min(attempts, 16));
+    }
+
+    /**
+     * The queries only cut off at the plain backoff. The jitter is derived from the ID, so that a record that was not
+     * due yet keeps its extra time across runs and replicas.
+     */
+    private boolean isDue(String id, Instant updated, Duration backoff, Instant now) {
+        double fraction = (id.hashCode() & 0x7fffffff) % 1000 / 1000.0;
+        long extraMillis = (long) (backoff.toMillis() * config.jitter() * fraction);
+        return !updated.plus(backoff).plusMillis(extraMillis).isAfter(now);
+    }
+
+    private static String timeoutReason(int attempts) {
+        return "No progress within the deadline after " + attempts + " redispatches";
+    }
+
+    private void count(String kind, String outcome) {
+        registry.counter(REAPED_METRIC, "kind", kind, "outcome", outcome).increment();
+    }
+
+    private record Deadline(String workerName, Duration duration) {
+    }
+}
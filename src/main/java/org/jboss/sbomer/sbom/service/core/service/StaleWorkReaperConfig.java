@@ -0,0 +1,57 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of the {@link StaleWorkReaper}.
+ */
+@ConfigMapping(prefix = "sbomer.reaper")
+public interface StaleWorkReaperConfig {
+
+    /**
+     * Whether the reaper runs at all.
+     */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * How often the reaper runs. Only read by the schedule of {@link StaleWorkReaper#run()}.
+     */
+    @WithDefault("1m")
+    Duration interval();
+
+    /**
+     * The most records redispatched or failed by a single run, across generations and enhancements.
+     */
+    @WithDefault("100")
+    int batchSize();
+
+    /**
+     * How often work is redispatched before it is marked as FAILED instead.
+     */
+    @WithDefault("3")
+    int maxAttempts();
+
+    /**
+     * How long work may go without an update before it is redispatched, for generators and enhancers without a
+     * deadline of their own. Doubles with every redispatch.
+     */
+    @WithDefault("30m")
+    Duration deadline();
+
+    /**
+     * Deadlines by generator or enhancer name, for those that are known to take longer (or shorter) than the default.
+     */
+    Map<String, Duration> deadlines();
+
+    /**
+     * Up to this fraction of the deadline is added per record, so that a burst of work that got stuck together is not
+     * redispatched all at once.
+     */
+    @WithDefault("0.2")
+    double jitter();
+}
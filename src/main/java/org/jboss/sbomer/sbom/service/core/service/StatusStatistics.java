@@ -0,0 +1,296 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsKey;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsReport;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatsRollupRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Counts the generations and enhancements per worker and status, and keeps a histogram of how long they stayed in
+ * each status. Every status transition is recorded here in memory, right after it was stored; nothing is aggregated
+ * over the generation or enhancement tables except once, to seed empty rollups.
+ * </p>
+ * <p>
+ * Every {@code flush-interval} the changes of this replica are added to the shared {@link StatsRollupRepository} and
+ * the totals of all replicas are read back. Reports combine those totals with the changes not flushed yet, so they
+ * are exact for this replica and at most one interval behind for the others. Changes of a replica that dies without
+ * shutting down are lost, which the counts do not recover from; deleting the rollups makes the next start seed them
+ * again.
+ * </p>
+ * <p>
+ * Histogram bucket {@code i} holds the durations up to {@code 2^((i + 1) / 4)} milliseconds, so a percentile is at
+ * most about 19% above the real value.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class StatusStatistics {
+
+    private static final int BUCKETS_PER_DOUBLING = 4;
+
+    private final StatusRepository statusRepository;
+
+    private final StatsRollupRepository rollupRepository;
+
+    /**
+     * Changes not flushed yet, guarded by {@code this}.
+     */
+    private final Map<StatsKey, Long> pending = new HashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private volatile Map<StatsKey, Long> totals = Map.of();
+
+    private volatile Instant computed;
+
+    @Inject
+    public StatusStatistics(StatusRepository statusRepository, StatsRollupRepository rollupRepository) {
+        this.statusRepository = statusRepository;
+        this.rollupRepository = rollupRepository;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        initialize();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    /**
+     * Seeds the rollups if there are none yet and reads the totals.
+     */
+    public void initialize() {
+        try {
+            rollupRepository.seed(statusRepository::countByWorkerAndStatus);
+        } catch (RuntimeException e) {
+            // Most likely another replica seeded them at the same time
+            log.warn("Could not seed the statistics rollups: {}", e.getMessage());
+        }
+        flush();
+    }
+
+    /**
+     * Records a new generation, with its enhancements.
+     */
+    public void generationCreated(GenerationRecord record) {
+        record(StatsKey.count(StatsKey.GENERATION, record.getGeneratorName(), record.getStatus().name()), 1);
+        if (record.getEnhancements() != null) {
+            record.getEnhancements().forEach(enhancement -> record(StatsKey.count(StatsKey.ENHANCEMENT,
+                    enhancement.getEnhancerName(), enhancement.getStatus().name()), 1));
+        }
+    }
+
+    /**
+     * Records a stored generation transition, measured up to the record's {@code updated}.
+     *
+     * @param from  the status before the transition
+     * @param since when the generation entered {@code from}, null if unknown
+     */
+    public void generationMoved(GenerationRecord record, GenerationStatus from, Instant since) {
+        moved(StatsKey.GENERATION, record.getGeneratorName(), from, record.getStatus(), since, record.getUpdated());
+    }
+
+    /**
+     * Records a stored enhancement transition, measured up to the record's {@code updated}.
+     *
+     * @param from  the status before the transition
+     * @param since when the enhancement entered {@code from}, null if unknown
+     */
+    public void enhancementMoved(EnhancementRecord record, EnhancementStatus from, Instant since) {
+        moved(StatsKey.ENHANCEMENT, record.getEnhancerName(), from, record.getStatus(), since, record.getUpdated());
+    }
+
+    @Scheduled(every = "${sbomer.stats.flush-interval:15s}", delayed = "${sbomer.stats.flush-interval:15s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void flush() {
+        synchronized (flushLock) {
+            Map<StatsKey, Long> flushed;
+            synchronized (this) {
+                flushed = Map.copyOf(pending);
+            }
+            if (!flushed.isEmpty()) {
+                try {
+                    rollupRepository.add(flushed);
+                } catch (RuntimeException e) {
+                    log.warn("Could not flush {} statistics rollups, retrying with the next flush: {}",
+                            flushed.size(), e.getMessage());
+                    return;
+                }
+            }
+            Map<StatsKey, Long> loaded = null;
+            try {
+                loaded = rollupRepository.load();
+            } catch (RuntimeException e) {
+                log.warn("Could not read the statistics rollups: {}", e.getMessage());
+            }
+            synchronized (this) {
+                // Changes recorded while flushing stay pending
+                flushed.forEach((key, delta) -> pending.merge(key, -delta, StatusStatistics::sumOrRemove));
+                if (loaded != null) {
+                    totals = loaded;
+                    computed = Instant.now();
+                } else {
+                    totals = merge(totals, flushed);
+                }
+            }
+        }
+    }
+
+    public StatsReport report() {
+        Map<StatsKey, Long> rollups;
+        Instant reported;
+        synchronized (this) {
+            rollups = merge(totals, pending);
+            reported = computed;
+        }
+        return new StatsReport(reported, summarize(rollups, StatsKey.GENERATION),
+                summarize(rollups, StatsKey.ENHANCEMENT));
+    }
+
+    /**
+     * @param quantile   e.g. {@code 0.95}
+     * @param minSamples the fewest generations that must have left the status for a generator to be included
+     * @return by generator, how long generations stayed in the status at the given quantile, in milliseconds
+     */
+    public Map<String, Long> generationPercentiles(GenerationStatus status, double quantile, long minSamples) {
+        Map<StatsKey, Long> rollups;
+        synchronized (this) {
+            rollups = merge(totals, pending);
+        }
+        Map<String, NavigableMap<Integer, Long>> histograms = new HashMap<>();
+        rollups.forEach((key, value) -> {
+            if (key.kind().equals(StatsKey.GENERATION) && !key.isCount() && key.status().equals(status.name())
+                    && value > 0) {
+                histograms.computeIfAbsent(key.name(), name -> new TreeMap<>()).merge(key.bucket(), value, Long::sum);
+            }
+        });
+        Map<String, Long> percentiles = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            long count = histogram.values().stream().mapToLong(Long::longValue).sum();
+            if (count >= minSamples) {
+                percentiles.put(name, percentile(histogram, count, quantile));
+            }
+        });
+        return percentiles;
+    }
+
+    static int bucket(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return (int) (Math.log(millis) / Math.log(2) * BUCKETS_PER_DOUBLING);
+    }
+
+    static long upperBound(int bucket) {
+        return Math.round(Math.pow(2, (bucket + 1) / (double) BUCKETS_PER_DOUBLING));
+    }
+
+    private void moved(String kind, String name, Enum<?> from, Enum<?> to, Instant since, Instant until) {
+        if (from == to) {
+            return;
+        }
+        synchronized (this) {
+            if (from != null) {
+                record(StatsKey.count(kind, name, from.name()), -1);
+                if (since != null && until != null) {
+                    long millis = Math.max(Duration.between(since, until).toMillis(), 0);
+                    record(new StatsKey(kind, name, from.name(), bucket(millis)), 1);
+                }
+            }
+            record(StatsKey.count(kind, name, to.name()), 1);
+        }
+    }
+
+    private synchronized void record(StatsKey key, long delta) {
+        pending.merge(key, delta, StatusStatistics::sumOrRemove);
+    }
+
+    private static Long sumOrRemove(Long a, Long b) {
+        long sum = a + b;
+        return sum == 0 ? null : sum;
+    }
+
+    private static Map<StatsKey, Long> merge(Map<StatsKey, Long> base, Map<StatsKey, Long> deltas) {
+        Map<StatsKey, Long> merged = new HashMap<>(base);
+        deltas.forEach((key, delta) -> merged.merge(key, delta, Long::sum));
+        return merged;
+    }
+
+    private static StatsReport.Kind summarize(Map<StatsKey, Long> rollups, String kind) {
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<String, NavigableMap<Integer, Long>> histograms = new TreeMap<>();
+        Map<String, Map<String, Long>> workerCounts = new HashMap<>();
+        Map<String, Map<String, NavigableMap<Integer, Long>>> workerHistograms = new HashMap<>();
+        rollups.forEach((key, value) -> {
+            // Statuses nothing is in anymore are left out, whether or not their rollup was flushed
+            if (!key.kind().equals(kind) || value == 0) {
+                return;
+            }
+            if (key.isCount()) {
+                byStatus.merge(key.status(), value, Long::sum);
+                workerCounts.computeIfAbsent(key.name(), name -> new TreeMap<>())
+                        .merge(key.status(), value, Long::sum);
+            } else {
+                histograms.computeIfAbsent(key.status(), status -> new TreeMap<>())
+                        .merge(key.bucket(), value, Long::sum);
+                workerHistograms.computeIfAbsent(key.name(), name -> new TreeMap<>())
+                        .computeIfAbsent(key.status(), status -> new TreeMap<>())
+                        .merge(key.bucket(), value, Long::sum);
+            }
+        });
+
+        Map<String, StatsReport.Worker> byWorker = new TreeMap<>();
+        TreeSet<String> workers = new TreeSet<>(workerCounts.keySet());
+        workers.addAll(workerHistograms.keySet());
+        for (String worker : workers) {
+            byWorker.put(worker, new StatsReport.Worker(workerCounts.getOrDefault(worker, Map.of()),
+                    latencies(workerHistograms.getOrDefault(worker, Map.of()))));
+        }
+        return new StatsReport.Kind(byStatus, latencies(histograms), byWorker);
+    }
+
+    private static Map<String, StatsReport.Latency> latencies(Map<String, NavigableMap<Integer, Long>> histograms) {
+        Map<String, StatsReport.Latency> latencies = new TreeMap<>();
+        histograms.forEach((status, histogram) -> {
+            long count = histogram.values().stream().mapToLong(Long::longValue).sum();
+            if (count > 0) {
+                latencies.put(status, new StatsReport.Latency(count, percentile(histogram, count, 0.50),
+                        percentile(histogram, count, 0.95), percentile(histogram, count, 0.99)));
+            }
+        });
+        return latencies;
+    }
+
+    private static long percentile(NavigableMap<Integer, Long> histogram, long count, double quantile) {
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : histogram.entrySet()) {
+            seen += bucket.getValue();
+            if (seen >= rank) {
+                return upperBound(bucket.getKey());
+            }
+        }
+        return upperBound(histogram.lastKey());
+    }
+}
@@ -0,0 +1,332 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.domain.enums.WorkKind;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
+import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
+import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Sends the {@code generation.created} and {@code enhancement.created} events of new work only while its generator or
+ * enhancer has capacity for it, so that a burst of requests waits in the {@link WorkQueue} instead of flooding the
+ * workers. Every generator and enhancer version has at most {@code limit} generations or enhancements in flight: from
+ * the release of the event until the record is FINISHED or FAILED, which releases the next queued item right away.
+ * </p>
+ * <p>
+ * Every {@link RequestPriority} has a lane. Lanes take turns by weight: per round, a lane releases up to its
+ * {@code weight} items before the next lane gets its turn, so LOW requests still move while HIGH ones wait. Within a
+ * lane, the first item of every request goes before the second item of any, so a small request is done after a few
+ * rounds whatever the size of the others. Enhancements are queued in the NORMAL lane. The time items spend in a lane is
+ * recorded in the {@code sbomer.dispatch.wait} metric, the number of queued items in {@code sbomer.dispatch.queued}.
+ * </p>
+ * <p>
+ * Queued generations and enhancements are NEW and become SCHEDULED when released, from then on the
+ * {@link StaleWorkReaper} looks after them. Releasing an item and marking its record as SCHEDULED are separate steps:
+ * a released item whose record is still NEW after {@code release-timeout} is queued again by {@link #recover}. Retries and redispatches by the reaper are sent directly, not through the
+ * queue, but are counted as in flight from then on (see {@link WorkItem#inFlight}), so they hold capacity of their
+ * worker until FINISHED or FAILED like released items do. They can take a worker past its limit for a while, which
+ * holds back its queued items until it is below the limit again.
+ * </p>
+ */
+@ApplicationScoped
+@Slf4j
+public class WorkDispatcher {
+
+    static final String WAIT_METRIC = "sbomer.dispatch.wait";
+
+    static final String QUEUED_METRIC = "sbomer.dispatch.queued";
+
+    private static final int RECOVERY_BATCH_SIZE = 500;
+
+    private final WorkQueue workQueue;
+
+    private final StatusRepository statusRepository;
+
+    private final GenerationScheduler generationScheduler;
+
+    private final EnhancementScheduler enhancementScheduler;
+
+    private final SbomMapper sbomMapper;
+
+    private final StatusStatistics statusStatistics;
+
+    private final RequestEventBroadcaster requestEventBroadcaster;
+
+    private final WorkDispatcherConfig config;
+
+    private final Map<RequestPriority, Integer> weights;
+
+    private final Map<RequestPriority, Timer> waits = new EnumMap<>(RequestPriority.class);
+
+    private volatile Map<RequestPriority, Long> depth = Map.of();
+
+    @Inject
+    public WorkDispatcher(WorkQueue workQueue, StatusRepository statusRepository,
+            GenerationScheduler generationScheduler, EnhancementScheduler enhancementScheduler, SbomMapper sbomMapper,
+            StatusStatistics statusStatistics, RequestEventBroadcaster requestEventBroadcaster, MeterRegistry registry,
+            WorkDispatcherConfig config) {
+        this.workQueue = workQueue;
+        this.statusRepository = statusRepository;
+        this.generationScheduler = generationScheduler;
+        this.enhancementScheduler = enhancementScheduler;
+        this.sbomMapper = sbomMapper;
+        this.statusStatistics = statusStatistics;
+        this.requestEventBroadcaster = requestEventBroadcaster;
+        this.config = config;
+        this.weights = Map.of(RequestPriority.HIGH, config.weight().high(), RequestPriority.NORMAL,
+                config.weight().normal(), RequestPriority.LOW, config.weight().low());
+        for (RequestPriority priority : RequestPriority.values()) {
+            waits.put(priority, Timer.builder(WAIT_METRIC)
+                    .tag("lane", priority.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry));
+            Gauge.builder(QUEUED_METRIC, this, dispatcher -> dispatcher.depth.getOrDefault(priority, 0L))
+                    .tag("lane", priority.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Queues the new generations of a request at the back of the lane of its priority, in the order given.
+     */
+    public void enqueueGenerations(String requestId, RequestPriority priority, List<GenerationRecord> records) {
+        Instant now = Instant.now();
+        List<WorkItem> items = new ArrayList<>(records.size());
+        for (int sequence = 0; sequence < records.size(); sequence++) {
+            GenerationRecord record = records.get(sequence);
+            items.add(WorkItem.builder()
+                    .recordId(record.getId())
+                    .kind(WorkKind.GENERATION)
+                    .worker(new WorkerKey(record.getGeneratorName(), record.getGeneratorVersion()))
+                    .priority(priority)
+                    .requestId(requestId)
+                    .sequence(sequence)
+                    .enqueued(now)
+                    .build());
+        }
+        workQueue.enqueue(items);
+        log.debug("Queued {} generations of request {} in the {} lane", items.size(), requestId, priority);
+    }
+
+    /**
+     * Queues those of the new generations of a request that have no item in the queue, queued or released, e.g. when
+     * its {@code requests.created} event is redelivered.
+     *
+     * @return the number of generations queued
+     */
+    public int enqueueMissingGenerations(String requestId, RequestPriority priority, List<GenerationRecord> records) {
+        Set<String> tracked = workQueue.tracked(records.stream().map(GenerationRecord::getId).toList());
+        List<GenerationRecord> missing = records.stream().filter(record -> !tracked.contains(record.getId())).toList();
+        if (!missing.isEmpty()) {
+            enqueueGenerations(requestId, priority, missing);
+        }
+        return missing.size();
+    }
+
+    /**
+     * Queues the next enhancement of a generation whose previous step is done.
+     */
+    public void enqueueEnhancement(EnhancementRecord record) {
+        workQueue.enqueue(List.of(WorkItem.builder()
+                .recordId(record.getId())
+                .kind(WorkKind.ENHANCEMENT)
+                .worker(new WorkerKey(record.getEnhancerName(), record.getEnhancerVersion()))
+                .priority(RequestPriority.NORMAL)
+                .requestId(record.getRequestId())
+                .enqueued(Instant.now())
+                .build()));
+    }
+
+    /**
+     * Frees the capacity held by a FINISHED or FAILED generation or enhancement, and hands it to the next queued item
+     * of the same worker.
+     */
+    public void completed(String recordId) {
+        try {
+            workQueue.complete(recordId).ifPresent(this::dispatch);
+        } catch (RuntimeException e) {
+            // The update itself went through, the next scheduled run releases the queued items
+            log.warn("Could not release queued work after {} completed", recordId, e);
+        }
+    }
+
+    @Scheduled(every = "${sbomer.dispatch.interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void run() {
+        if (config.enabled()) {
+            dispatch();
+        }
+    }
+
+    @Scheduled(every = "${sbomer.dispatch.release-timeout:1m}", delayed = "${sbomer.dispatch.release-timeout:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void runRecovery() {
+        if (config.enabled()) {
+            int requeued = recover(Instant.now());
+            if (requeued > 0) {
+                log.warn("Queued {} released generations and enhancements again, they were still NEW", requeued);
+            }
+        }
+    }
+
+    /**
+     * Queues released items again whose record is still NEW after {@code release-timeout}, because the replica that
+     * released them stopped or failed before the record was SCHEDULED. Without this they would hold capacity of their
+     * worker for good, and their records would never be dispatched. Items of records that are gone are removed.
+     *
+     * @param now the instant the timeout is measured against
+     * @return the number of items queued again
+     */
+    public int recover(Instant now) {
+        Instant cutoff = now.minus(config.releaseTimeout());
+        int requeued = 0;
+        String after = null;
+        List<WorkItem> page;
+        do {
+            page = workQueue.releasedBefore(cutoff, after, RECOVERY_BATCH_SIZE);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getRecordId();
+                requeued += recover(page);
+            }
+        } while (page.size() == RECOVERY_BATCH_SIZE);
+        return requeued;
+    }
+
+    private int recover(List<WorkItem> items) {
+        Map<WorkKind, List<String>> ids = items.stream()
+                .collect(Collectors.groupingBy(WorkItem::getKind,
+                        Collectors.mapping(WorkItem::getRecordId, Collectors.toList())));
+        Map<String, Boolean> isNew = new HashMap<>();
+        statusRepository.findGenerationsByIds(ids.getOrDefault(WorkKind.GENERATION, List.of()))
+                .forEach(record -> isNew.put(record.getId(), record.getStatus() == GenerationStatus.NEW));
+        statusRepository.findEnhancementsByIds(ids.getOrDefault(WorkKind.ENHANCEMENT, List.of()))
+                .forEach(record -> isNew.put(record.getId(), record.getStatus() == EnhancementStatus.NEW));
+
+        Set<String> stranded = new HashSet<>();
+        for (WorkItem item : items) {
+            Boolean recordIsNew = isNew.get(item.getRecordId());
+            if (recordIsNew == null) {
+                log.debug("Released {} {} is gone, its item is removed", item.getKind(), item.getRecordId());
+                workQueue.complete(item.getRecordId());
+            } else if (recordIsNew) {
+                stranded.add(item.getRecordId());
+            }
+        }
+        workQueue.requeue(stranded);
+        return stranded.size();
+    }
+
+    /**
+     * Releases queued items of all workers, as far as their limits allow.
+     *
+     * @return the number of items released
+     */
+    public int dispatch() {
+        int released = 0;
+        for (WorkerKey worker : workQueue.queuedWorkers()) {
+            released += dispatch(worker);
+        }
+        depth = workQueue.depth();
+        return released;
+    }
+
+    /**
+     * @return the number of queued items of the lane when {@link #dispatch()} last ran
+     */
+    public long queued(RequestPriority priority) {
+        return depth.getOrDefault(priority, 0L);
+    }
+
+    /**
+     * @return the most generations or enhancements of the worker that may be in flight at a time
+     */
+    public int limit(WorkerKey worker) {
+        Integer limit = config.limits().get(worker.toString());
+        if (limit == null) {
+            limit = config.limits().getOrDefault(worker.name(), config.limit());
+        }
+        return limit;
+    }
+
+    private int dispatch(WorkerKey worker) {
+        List<WorkItem> released = workQueue.release(worker, limit(worker), weights);
+        for (WorkItem item : released) {
+            waits.get(item.getPriority()).record(Duration.between(item.getEnqueued(), item.getReleased()));
+            try {
+                send(item);
+            } catch (ConcurrentUpdateException e) {
+                log.debug("{} {} was dispatched concurrently: {}", item.getKind(), item.getRecordId(), e.getMessage());
+            } catch (RuntimeException e) {
+                // Either the record is still NEW, and recover() queues it again after the release timeout, or it is
+                // SCHEDULED but its event was not sent, and the reaper redispatches it past its deadline
+                log.warn("Could not dispatch {} {}", item.getKind(), item.getRecordId(), e);
+            }
+        }
+        if (!released.isEmpty()) {
+            log.debug("Released {} items of {}", released.size(), worker);
+        }
+        return released.size();
+    }
+
+    /**
+     * Marks the record as SCHEDULED and sends its event. A record that is no longer NEW was released before, or
+     * moved on in the meantime, and is left as it is.
+     */
+    private void send(WorkItem item) {
+        if (item.getKind() == WorkKind.GENERATION) {
+            GenerationRecord record = statusRepository.findGenerationById(item.getRecordId());
+            if (record == null || record.getStatus() != GenerationStatus.NEW) {
+                log.debug("Released generation {} is gone or no longer NEW", item.getRecordId());
+                return;
+            }
+            Instant since = record.getUpdated();
+            record.setStatus(GenerationStatus.SCHEDULED);
+            record.setUpdated(Instant.now());
+            statusRepository.updateGeneration(record);
+            statusStatistics.generationMoved(record, GenerationStatus.NEW, since);
+            requestEventBroadcaster.publish(record);
+            generationScheduler.schedule(sbomMapper.toGenerationCreatedEvent(record,
+                    sbomMapper.toGenerationRequestSpec(record), record.getRequestId()));
+        } else {
+            EnhancementRecord record = statusRepository.findEnhancementById(item.getRecordId());
+            if (record == null || record.getStatus() != EnhancementStatus.NEW) {
+                log.debug("Released enhancement {} is gone or no longer NEW", item.getRecordId());
+                return;
+            }
+            GenerationRecord parentGeneration = statusRepository.findGenerationById(record.getGenerationId());
+            Instant since = record.getUpdated();
+            record.setStatus(EnhancementStatus.SCHEDULED);
+            record.setUpdated(Instant.now());
+            statusRepository.updateEnhancement(record);
+            statusStatistics.enhancementMoved(record, EnhancementStatus.NEW, since);
+            requestEventBroadcaster.publish(record);
+            enhancementScheduler.schedule(sbomMapper.toEnhancementCreatedEvent(record, parentGeneration));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.jboss.sbomer.sbom.service.core.service;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of the {@link WorkDispatcher}.
+ */
+@ConfigMapping(prefix = "sbomer.dispatch")
+public interface WorkDispatcherConfig {
+
+    /**
+     * Whether queued work is released on a schedule. Work that finishes or fails releases the next items either way.
+     */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * How often queued work is released, on top of whenever work finishes or fails. Only read by the schedule of
+     * {@link WorkDispatcher#run()}.
+     */
+    @WithDefault("1s")
+    Duration interval();
+
+    /**
+     * How long a released generation or enhancement may stay NEW before it is queued again, and how often released
+     * items are checked for that. Releasing and marking the record as SCHEDULED are separate steps, a replica that
+     * stops in between or fails to update the record leaves it NEW.
+     */
+    @WithDefault("1m")
+    Duration releaseTimeout();
+
+    /**
+     * The most generations or enhancements in flight per generator or enhancer version without a limit of its own.
+     */
+    @WithDefault("20")
+    int limit();
+
+    /**
+     * Limits by {@code name:version}, or by name for all versions (each version counted on its own).
+     */
+    Map<String, Integer> limits();
+
+    /**
+     * How many items each lane releases per round while several have queued work.
+     */
+    Weight weight();
+
+    interface Weight {
+
+        @WithDefault("8")
+        int high();
+
+        @WithDefault("4")
+        int normal();
+
+        @WithDefault("1")
+        int low();
+    }
+}
@@ -1,33 +1,62 @@
 package org.jboss.sbomer.sbom.service.core.utility;
 
-import com.github.f4b6a3.tsid.TsidCreator;
+import java.util.Optional;
+
+import com.github.f4b6a3.tsid.Tsid;
+import com.github.f4b6a3.tsid.TsidFactory;
 
-// TODO to consider during deployment
 /**
  * <p>
- * <strong>WARNING</strong>: make sure that you have set following environment
- * variables in production to avoid clashes:
- *
- * <ul>
- * <li>{@code TSIDCREATOR_NODE} - set it to a unique value per instance</li>
- * <li>{@code TSIDCREATOR_NODE_COUNT} - set it to the total number of
- * instances</li>
- * </ul>
+ * Each replica must generate IDs with its own node identifier to avoid clashes. By default the node is leased from
+ * the database on startup (see {@code TsidNodeLeaseManager}), which calls {@link #useNode(int)}. When leasing is
+ * disabled the factory falls back to the {@code TSIDCREATOR_NODE} and {@code TSIDCREATOR_NODE_COUNT} environment
+ * variables, which then have to be set to a unique value per instance.
  * </p>
  *
- * across services
+ * <p>
+ * IDs are stored as plain 64-bit TSIDs. The prefixed string form ({@code R}, {@code G} or {@code E} followed by the
+ * 13 character Crockford encoding) is what the REST API, the events and the core records carry. Use
+ * {@link #toNumericId(String)} and the {@code to*Id(long)} methods to convert between the two.
+ * </p>
  *
  * @see <a href="https://github.com/f4b6a3/tsid-creator/?tab=readme-ov-file#node-identifier">Node Identifier</a>
  */
 public class TsidUtility {
 
+    public static final char REQUEST_PREFIX = 'R';
+
+    public static final char GENERATION_PREFIX = 'G';
+
+    public static final char ENHANCEMENT_PREFIX = 'E';
+
+    /**
+     * Number of distinct node identifiers available with the 10 node bits of a TSID-1024.
+     */
+    public static final int NODE_COUNT = 1024;
+
+    private static volatile TsidFactory factory = TsidFactory.newInstance1024();
+
+    private TsidUtility() {}
+
+    /**
+     * Switches ID generation to the given node identifier.
+     *
+     * @param node node identifier in the range {@code [0, NODE_COUNT)}
+     */
+    public static void useNode(int node) {
+        if (node < 0 || node >= NODE_COUNT) {
+            throw new IllegalArgumentException("TSID node must be between 0 and " + (NODE_COUNT - 1) + ": " + node);
+        }
+        factory = TsidFactory.newInstance1024(node);
+    }
+
     /**
      * Utility method to create a generation ID using Tsid, starting with G
      *
      * @return Tsid of generation
      */
     public static String createUniqueGenerationId() {
-        return "G" + TsidCreator.getTsid1024().toString();
+        return toGenerationId(createNumericId());
     }
 
     /**
@@ -36,16 +65,73 @@ public class TsidUtility {
      * @return Tsid of generation request
      */
     public static String createUniqueGenerationRequestId() {
-        return "R" + TsidCreator.getTsid1024().toString();
+        return toRequestId(createNumericId());
     }
 
     /**
-     * Utility method to create a enhancement ID using Tsid, starting with G
+     * Utility method to create a enhancement ID using Tsid, starting with E
      *
      * @return Tsid of enhancement
      */
     public static String createUniqueEnhancementId() {
-        return "E" + TsidCreator.getTsid1024().toString();
+        return toEnhancementId(createNumericId());
+    }
+
+    /**
+     * Utility method to create the numeric form of a new Tsid, as stored in the database
+     *
+     * @return Tsid as a long
+     */
+    public static long createNumericId() {
+        return factory.create().toLong();
+    }
+
+    public static String toRequestId(long id) {
+        return REQUEST_PREFIX + Tsid.from(id).toString();
+    }
+
+    public static String toGenerationId(long id) {
+        return GENERATION_PREFIX + Tsid.from(id).toString();
+    }
+
+    public static String toEnhancementId(long id) {
+        return ENHANCEMENT_PREFIX + Tsid.from(id).toString();
+    }
+
+    /**
+     * Converts a prefixed ID (e.g. {@code G0ABCDEFGHJKM}) into the numeric Tsid it was rendered from.
+     *
+     * @param id the prefixed ID
+     * @return Tsid as a long
+     * @throws IllegalArgumentException if the ID does not have a known prefix followed by a valid Tsid
+     */
+    public static long toNumericId(String id) {
+        return parseNumericId(id)
+                .orElseThrow(() -> new IllegalArgumentException("Not a valid SBOMer ID: " + id));
+    }
+
+    /**
+     * Lenient variant of {@link #toNumericId(String)} for lookups, where a malformed ID simply cannot match anything.
+     *
+     * @param id the prefixed ID
+     * @return Tsid as a long, or empty if the ID is null or malformed
+     */
+    public static Optional<Long> parseNumericId(String id) {
+        if (id == null || id.length() != Tsid.TSID_CHARS + 1) {
+            return Optional.empty();
+        }
+
+        char prefix = id.charAt(0);
+        if (prefix != REQUEST_PREFIX && prefix != GENERATION_PREFIX && prefix != ENHANCEMENT_PREFIX) {
+            return Optional.empty();
+        }
+
+        String tsid = id.substring(1);
+        if (!Tsid.isValid(tsid)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Tsid.from(tsid).toLong());
     }
 
 }
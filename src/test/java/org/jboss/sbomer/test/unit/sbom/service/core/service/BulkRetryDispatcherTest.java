@@ -0,0 +1,232 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.sbomer.events.orchestration.EnhancementCreated;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryBulkRetryJobRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatsRollupRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryWorkQueue;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.domain.enums.WorkKind;
+import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
+import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+import org.jboss.sbomer.sbom.service.core.service.BulkRetryDispatcher;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.service.StatusStatistics;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BulkRetryDispatcherTest {
+
+    private static final Instant FAILED_AT = Instant.now().minus(1, ChronoUnit.HOURS);
+
+    @TempDir
+    Path directory;
+
+    private InMemoryStatusRepository statusRepository;
+
+    private final GenerationScheduler generationScheduler = mock(GenerationScheduler.class);
+
+    private final EnhancementScheduler enhancementScheduler = mock(EnhancementScheduler.class);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final InMemoryWorkQueue workQueue = new InMemoryWorkQueue();
+
+    private final InMemoryBulkRetryJobRepository jobRepository = new InMemoryBulkRetryJobRepository(2);
+
+    private RequestRecord requestRecord;
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = new InMemoryStatusRepository(directory, 64 * 1024, 1000, false);
+        statusRepository.open();
+        requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+    }
+
+    @AfterEach
+    void closeRepository() {
+        statusRepository.close();
+    }
+
+    @Test
+    void testMatchingGenerationsAreResetAndDispatchedInBatches() {
+        List<GenerationRecord> failed = List.of(saveFailedGeneration("generator"), saveFailedGeneration("generator"),
+                saveFailedGeneration("generator"));
+        GenerationRecord other = saveFailedGeneration("other-generator");
+
+        BulkRetryJob job = dispatcher(2).retryGenerations(RetryFilter.builder().workerName("generator").build());
+
+        assertThat(job.getMatched()).isEqualTo(3);
+        assertThat(job.getState()).isEqualTo(BulkRetryJob.State.FINISHED);
+        assertThat(job.getReset()).hasValue(3);
+        assertThat(job.getDispatched()).hasValue(3);
+        assertThat(job.getFinished()).isNotNull();
+        verify(generationScheduler, times(3)).schedule(any());
+        for (GenerationRecord generationRecord : failed) {
+            GenerationRecord retried = statusRepository.findGenerationById(generationRecord.getId());
+            assertThat(retried.getStatus()).isEqualTo(GenerationStatus.SCHEDULED);
+            assertThat(retried.getResult()).isNull();
+        }
+        assertThat(statusRepository.findGenerationById(other.getId()).getStatus()).isEqualTo(GenerationStatus.FAILED);
+        assertThat(registry.counter("sbomer.bulk-retry.dispatched", "kind", "generation").count()).isEqualTo(3);
+
+        // The retries hold capacity of their generator until they are done
+        WorkerKey generator = new WorkerKey("generator", "1.0");
+        workQueue.enqueue(List.of(WorkItem.builder()
+                .recordId(TsidUtility.createUniqueGenerationId())
+                .kind(WorkKind.GENERATION)
+                .worker(generator)
+                .priority(RequestPriority.NORMAL)
+                .enqueued(Instant.now())
+                .build()));
+        assertThat(workQueue.release(generator, 3, Map.of())).isEmpty();
+        workQueue.complete(failed.get(0).getId());
+        assertThat(workQueue.release(generator, 3, Map.of())).hasSize(1);
+    }
+
+    @Test
+    void testJobFailsWhenTheEventCannotBeSent() {
+        GenerationRecord generationRecord = saveFailedGeneration("generator");
+        doThrow(new IllegalStateException("Kafka is down")).when(generationScheduler).schedule(any());
+
+        BulkRetryJob job = dispatcher(1).retryGenerations(RetryFilter.builder().workerName("generator").build());
+
+        assertThat(job.getState()).isEqualTo(BulkRetryJob.State.FAILED);
+        assertThat(job.getError()).isEqualTo("Kafka is down");
+        assertThat(job.getReset()).hasValue(1);
+        assertThat(job.getDispatched()).hasValue(0);
+        assertThat(statusRepository.findGenerationById(generationRecord.getId()).getStatus())
+                .isEqualTo(GenerationStatus.SCHEDULED);
+    }
+
+    @Test
+    void testEnhancementsAreDispatchedWithThePreviousOutput() {
+        GenerationRecord generationRecord = newGeneration("generator", GenerationStatus.FINISHED);
+        EnhancementRecord first = newEnhancement(generationRecord, 0, EnhancementStatus.FINISHED);
+        first.setEnhancedSbomUrls(List.of("https://enhanced-0"));
+        EnhancementRecord second = newEnhancement(generationRecord, 1, EnhancementStatus.FAILED);
+        second.setFinished(FAILED_AT);
+        generationRecord.setEnhancements(List.of(first, second));
+        statusRepository.saveGeneration(generationRecord);
+        BulkRetryDispatcher dispatcher = dispatcher(10);
+
+        BulkRetryJob job = dispatcher.retryEnhancements(RetryFilter.builder().requestId(requestRecord.getId()).build());
+
+        assertThat(job.getDispatched()).hasValue(1);
+        assertThat(dispatcher.getJob(job.getId())).hasValueSatisfying(
+                stored -> assertThat(stored.getDispatched()).hasValue(1));
+        assertThat(statusRepository.findEnhancementById(second.getId()).getStatus())
+                .isEqualTo(EnhancementStatus.SCHEDULED);
+        ArgumentCaptor<EnhancementCreated> event = ArgumentCaptor.forClass(EnhancementCreated.class);
+        verify(enhancementScheduler).schedule(event.capture());
+        assertThat(event.getValue().getData().getEnhancementId()).isEqualTo(second.getId());
+        assertThat(event.getValue().getData().getInputSbomUrls()).containsExactly("https://enhanced-0");
+        verify(generationScheduler, never()).schedule(any());
+    }
+
+    @Test
+    void testProgressIsReportedByEveryReplica() {
+        saveFailedGeneration("generator");
+        saveFailedGeneration("generator");
+        saveFailedGeneration("generator");
+        BulkRetryDispatcher replica = dispatcher(10);
+
+        BulkRetryJob job = dispatcher(2).retryGenerations(RetryFilter.builder().workerName("generator").build());
+
+        assertThat(replica.getJob(job.getId())).hasValueSatisfying(stored -> {
+            assertThat(stored.getState()).isEqualTo(BulkRetryJob.State.FINISHED);
+            assertThat(stored.getMatched()).isEqualTo(3);
+            assertThat(stored.getReset()).hasValue(3);
+            assertThat(stored.getDispatched()).hasValue(3);
+            assertThat(stored.getFinished()).isEqualTo(job.getFinished());
+        });
+    }
+
+    @Test
+    void testOnlyTheLastJobsAreRetained() {
+        BulkRetryDispatcher dispatcher = dispatcher(10);
+        RetryFilter filter = RetryFilter.builder().workerName("none").build();
+        BulkRetryJob oldest = dispatcher.retryGenerations(filter);
+        dispatcher.retryGenerations(filter);
+        BulkRetryJob latest = dispatcher.retryGenerations(filter);
+
+        assertThat(dispatcher.getJob(oldest.getId())).isEmpty();
+        assertThat(dispatcher.getJob(latest.getId())).isPresent();
+        assertThat(dispatcher.getJob(null)).isEmpty();
+    }
+
+    private BulkRetryDispatcher dispatcher(int batchSize) {
+        // Jobs run on the calling thread, the rate is high enough not to slow the tests down
+        return new BulkRetryDispatcher(statusRepository, generationScheduler, enhancementScheduler,
+                new SbomMapper(null), registry,
+                new StatusStatistics(statusRepository, new InMemoryStatsRollupRepository()), workQueue, jobRepository,
+                Runnable::run, batchSize, 1_000_000);
+    }
+
+    private GenerationRecord saveFailedGeneration(String generatorName) {
+        GenerationRecord generationRecord = newGeneration(generatorName, GenerationStatus.FAILED);
+        generationRecord.setResult(1);
+        generationRecord.setReason("Failed");
+        generationRecord.setFinished(FAILED_AT);
+        statusRepository.saveGeneration(generationRecord);
+        return generationRecord;
+    }
+
+    private GenerationRecord newGeneration(String generatorName, GenerationStatus status) {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setGeneratorName(generatorName);
+        generationRecord.setGeneratorVersion("1.0");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier("quay.io/org/image:1.0");
+        generationRecord.setStatus(status);
+        generationRecord.setCreated(FAILED_AT);
+        generationRecord.setUpdated(FAILED_AT);
+        generationRecord.setEnhancements(List.of());
+        return generationRecord;
+    }
+
+    private EnhancementRecord newEnhancement(GenerationRecord generationRecord, int index, EnhancementStatus status) {
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        enhancementRecord.setEnhancerName("enhancer-" + index);
+        enhancementRecord.setEnhancerVersion("1.0");
+        enhancementRecord.setIndex(index);
+        enhancementRecord.setStatus(status);
+        enhancementRecord.setUpdated(FAILED_AT);
+        enhancementRecord.setRequestId(generationRecord.getRequestId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        return enhancementRecord;
+    }
+}
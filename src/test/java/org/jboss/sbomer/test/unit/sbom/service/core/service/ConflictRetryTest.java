@@ -0,0 +1,72 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
+import org.jboss.sbomer.sbom.service.core.service.ConflictRetry;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConflictRetryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ConflictRetry conflictRetry = new ConflictRetry(registry, 3, Duration.ofMillis(1),
+            Duration.ofMillis(5));
+
+    @Test
+    void testConflictingTransitionIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = conflictRetry.call("generation-finished", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ConcurrentUpdateException("conflict");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+        assertThat(conflicts("generation-finished", "retried")).isEqualTo(2);
+        assertThat(registry.find("sbomer.status.update.conflicts").tag("outcome", "exhausted").counter()).isNull();
+    }
+
+    @Test
+    void testRetriesAreBounded() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> conflictRetry.run("request-finished", () -> {
+            attempts.incrementAndGet();
+            throw new ConcurrentUpdateException("conflict");
+        })).isInstanceOf(ConcurrentUpdateException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(conflicts("request-finished", "retried")).isEqualTo(2);
+        assertThat(conflicts("request-finished", "exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void testOtherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> conflictRetry.run("generation-failed", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("unknown generation");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    private double conflicts(String transition, String outcome) {
+        return registry.get("sbomer.status.update.conflicts")
+                .tag("transition", transition)
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,107 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.CostEstimate;
+import org.jboss.sbomer.sbom.service.core.domain.dto.CostKey;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationResult;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.service.CostModel;
+import org.jboss.sbomer.sbom.service.core.service.CostModelConfig;
+import org.junit.jupiter.api.Test;
+
+public class CostModelTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T12:00:00Z");
+
+    @Test
+    void testIdentifiersAreLearnedByWhatTheyPointAt() {
+        assertThat(CostKey.of("syft", "CONTAINER_IMAGE", "quay.io/org/image:1.0").identifierPattern())
+                .isEqualTo("quay.io/org/image");
+        assertThat(CostKey.of("syft", "CONTAINER_IMAGE", "quay.io/org/image@sha256:abc").identifierPattern())
+                .isEqualTo("quay.io/org/image");
+        assertThat(CostKey.of("syft", "CONTAINER_IMAGE", "registry:5000/image").identifierPattern())
+                .isEqualTo("registry:5000/image");
+        assertThat(CostKey.of("maven", "MAVEN", "org.acme:app:1.2.3").identifierPattern()).isEqualTo("org.acme:app");
+    }
+
+    @Test
+    void testEstimatesAreLearnedFromCompletedGenerations() {
+        CostModel model = model(true);
+        for (int i = 0; i < 3; i++) {
+            finished(model, "quay.io/org/small:" + i, Duration.ofMinutes(2));
+        }
+        finished(model, "quay.io/org/large:1", Duration.ofMinutes(40));
+        finished(model, "quay.io/org/large:2", Duration.ofMinutes(40));
+        failed(model, "quay.io/org/large:3", GenerationResult.ERR_OOM);
+
+        CostEstimate small = model.estimate("syft", "CONTAINER_IMAGE", "quay.io/org/small:9").orElseThrow();
+        assertThat(small.samples()).isEqualTo(3);
+        assertThat(small.expectedDuration()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(small.failureProbability()).isZero();
+        assertThat(small.highMemory()).isFalse();
+
+        CostEstimate large = model.estimate("syft", "CONTAINER_IMAGE", "quay.io/org/large:4").orElseThrow();
+        assertThat(large.expectedDuration()).isEqualTo(Duration.ofMinutes(40));
+        assertThat(large.oomProbability()).isCloseTo(1.0 / 3, offset(0.001));
+        assertThat(large.highMemory()).isTrue();
+
+        // Too few samples of this image, so all images of the generator count
+        CostEstimate other = model.estimate("syft", "CONTAINER_IMAGE", "quay.io/org/other:1").orElseThrow();
+        assertThat(other.samples()).isEqualTo(6);
+        assertThat(model.estimate("cdx", "CONTAINER_IMAGE", "quay.io/org/small:1")).isEmpty();
+    }
+
+    @Test
+    void testGenerationsAreOrderedShortestFirst() {
+        CostModel model = model(true);
+        for (int i = 0; i < 3; i++) {
+            finished(model, "quay.io/org/small:" + i, Duration.ofMinutes(2));
+            finished(model, "quay.io/org/large:" + i, Duration.ofMinutes(40));
+        }
+        GenerationRecord large = generation("syft", "quay.io/org/large:9");
+        GenerationRecord unknown = generation("cdx", "quay.io/org/small:9");
+        GenerationRecord small = generation("syft", "quay.io/org/small:9");
+
+        assertThat(model.shortestFirst(List.of(large, unknown, small))).containsExactly(small, large, unknown);
+        assertThat(model(false).shortestFirst(List.of(large, unknown, small))).containsExactly(large, unknown, small);
+    }
+
+    private static CostModel model(boolean enabled) {
+        return new CostModel(new Config(enabled, 0.2, 3, 100, 0.1));
+    }
+
+    private static void finished(CostModel model, String identifier, Duration duration) {
+        GenerationRecord record = generation("syft", identifier);
+        record.setStatus(GenerationStatus.FINISHED);
+        record.setFinished(NOW);
+        model.completed(record, GenerationStatus.GENERATING, NOW.minus(duration));
+    }
+
+    private static void failed(CostModel model, String identifier, GenerationResult result) {
+        GenerationRecord record = generation("syft", identifier);
+        record.setStatus(GenerationStatus.FAILED);
+        record.setResult(result.getCode());
+        record.setFinished(NOW);
+        model.completed(record, GenerationStatus.GENERATING, NOW.minusSeconds(30));
+    }
+
+    private static GenerationRecord generation(String generatorName, String identifier) {
+        GenerationRecord record = new GenerationRecord();
+        record.setGeneratorName(generatorName);
+        record.setTargetType("CONTAINER_IMAGE");
+        record.setTargetIdentifier(identifier);
+        record.setCreated(NOW.minus(Duration.ofHours(1)));
+        return record;
+    }
+
+    private record Config(boolean enabled, double smoothing, long minSamples, int maxKeys,
+            double highMemoryOomProbability) implements CostModelConfig {
+    }
+}
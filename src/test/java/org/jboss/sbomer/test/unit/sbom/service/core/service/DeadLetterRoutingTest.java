@@ -0,0 +1,217 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.sbomer.events.request.RequestsCreated;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.FailedRecords;
+import org.jboss.sbomer.sbom.service.adapter.out.KafkaDeadLetterReplayer;
+import org.jboss.sbomer.sbom.service.adapter.out.MockRecipeBuilder;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatsRollupRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryWorkQueue;
+import org.jboss.sbomer.sbom.service.core.domain.dto.DeadLetterReplay;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.service.CostModel;
+import org.jboss.sbomer.sbom.service.core.service.CostModelConfig;
+import org.jboss.sbomer.sbom.service.core.service.RequestEventBroadcaster;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.service.SbomService;
+import org.jboss.sbomer.sbom.service.core.service.StatusStatistics;
+import org.jboss.sbomer.sbom.service.core.service.WorkDispatcher;
+import org.jboss.sbomer.sbom.service.core.service.WorkDispatcherConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.persistence.EntityNotFoundException;
+
+public class DeadLetterRoutingTest {
+
+    private static final String DLT = "generation.update.dlt";
+
+    @Test
+    void testAFailedRecordIsNackedWithTheFailureInHeaders() {
+        AtomicReference<Metadata> nacked = new AtomicReference<>();
+        Message<String> message = Message.of("update", () -> CompletableFuture.completedFuture(null))
+                .withNackWithMetadata((failure, metadata) -> {
+                    nacked.set(metadata);
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        FailedRecords.process(message, update -> {
+            throw new EntityNotFoundException("Generation G1 not found");
+        });
+
+        OutgoingKafkaRecordMetadata<?> outgoing = nacked.get().get(OutgoingKafkaRecordMetadata.class).orElseThrow();
+        assertThat(value(outgoing.getHeaders().lastHeader(FailedRecords.FAILURE_ERROR_CODE_HEADER)))
+                .isEqualTo("EntityNotFoundException");
+        assertThat(value(outgoing.getHeaders().lastHeader(FailedRecords.FAILURE_SPEC_HEADER)))
+                .contains("Generation G1 not found");
+    }
+
+    @Test
+    void testAProcessedRecordIsAcked() {
+        AtomicReference<Boolean> acked = new AtomicReference<>(false);
+        Message<String> message = Message.of("update", () -> {
+            acked.set(true);
+            return CompletableFuture.completedFuture(null);
+        });
+
+        FailedRecords.process(message, update -> {
+        });
+
+        assertThat(acked.get()).isTrue();
+    }
+
+    @Test
+    void testARedeliveredRequestsCreatedIsProcessedOnce(@TempDir Path directory) {
+        InMemoryStatusRepository statusRepository = new InMemoryStatusRepository(directory, 64 * 1024, 1000, false);
+        statusRepository.open();
+        AtomicBoolean queueUnavailable = new AtomicBoolean(true);
+        // Nothing rolls back the in-memory repository, the request is saved even though queueing failed
+        InMemoryWorkQueue workQueue = new InMemoryWorkQueue() {
+            @Override
+            public synchronized void enqueue(List<WorkItem> items) {
+                if (queueUnavailable.get()) {
+                    throw new IllegalStateException("The work queue is unavailable");
+                }
+                super.enqueue(items);
+            }
+        };
+        StatusStatistics statusStatistics = new StatusStatistics(statusRepository, new InMemoryStatsRollupRepository());
+        SbomService sbomService = new SbomService(null, null, new SbomMapper(new MockRecipeBuilder()),
+                statusRepository, null, null, null, null, statusStatistics, new RequestEventBroadcaster(null),
+                new WorkDispatcher(workQueue, statusRepository, null, null, null, statusStatistics, null,
+                        new SimpleMeterRegistry(), mock(WorkDispatcherConfig.class, RETURNS_DEEP_STUBS)),
+                null, null, new CostModel(mock(CostModelConfig.class)));
+        RequestsCreated requestsCreated = GenerationProcessorTest.requestsCreated(3);
+        String requestId = requestsCreated.getData().getRequestId();
+        List<String> generationIds = GenerationProcessorTest.generationIds(requestsCreated);
+        AtomicInteger acked = new AtomicInteger();
+        AtomicInteger nacked = new AtomicInteger();
+        Message<RequestsCreated> message = Message.of(requestsCreated, () -> {
+            acked.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }).withNack(failure -> {
+            nacked.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        try {
+            FailedRecords.process(message, sbomService::processGenerations);
+            assertThat(nacked.get()).isEqualTo(1);
+            assertThat(statusRepository.requestExists(requestId)).isTrue();
+
+            // From the retry topic, then once more as a duplicate
+            queueUnavailable.set(false);
+            FailedRecords.process(message, sbomService::processGenerations);
+            FailedRecords.process(message, sbomService::processGenerations);
+
+            assertThat(acked.get()).isEqualTo(2);
+            assertThat(statusRepository.findGenerationsByRequestId(requestId)).hasSize(3);
+            assertThat(workQueue.queued(generationIds)).containsExactlyInAnyOrderElementsOf(generationIds);
+        } finally {
+            statusRepository.close();
+        }
+    }
+
+    @Test
+    void testDeadLettersAreReplayedWithoutFailureHeadersAndCommitted() {
+        TopicPartition partition = new TopicPartition(DLT, 0);
+        ReusableConsumer consumer = new ReusableConsumer();
+        consumer.updatePartitions(DLT, List.of(new PartitionInfo(DLT, 0, Node.noNode(), null, null)));
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+        // Records can only be added once the replayer assigned the partition
+        consumer.schedulePollTask(() -> addDeadLetters(consumer, 3));
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, null, new ByteArraySerializer(),
+                new ByteArraySerializer());
+        KafkaDeadLetterReplayer replayer = new KafkaDeadLetterReplayer(
+                Map.of("generation-update", new KafkaDeadLetterReplayer.Route("generation.update", DLT)),
+                () -> consumer, () -> producer, Duration.ofMillis(10));
+
+        DeadLetterReplay replay = replayer.replay("generation-update", 2);
+
+        assertThat(replay).isEqualTo(new DeadLetterReplay("generation-update", DLT, "generation.update", 2));
+        assertThat(producer.history()).extracting(ProducerRecord::topic).containsOnly("generation.update");
+        assertThat(producer.history()).extracting(record -> new String(record.key(), StandardCharsets.UTF_8))
+                .containsExactly("key-0", "key-1");
+        assertThat(producer.history().get(0).headers()).extracting(Header::key)
+                .containsExactly("apicurio.value.globalId");
+        // The third record is left for the next replay
+        assertThat(consumer.committed(Set.of(partition)).get(partition).offset()).isEqualTo(2);
+    }
+
+    @Test
+    void testReplayingAChannelWithoutDeadLetterTopicIsRejected() {
+        KafkaDeadLetterReplayer replayer = new KafkaDeadLetterReplayer(Map.of(), ReusableConsumer::new,
+                MockProducer::new, Duration.ofMillis(10));
+
+        assertThatThrownBy(() -> replayer.replay("requests-finished", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("requests-finished");
+    }
+
+    private static void addDeadLetters(MockConsumer<byte[], byte[]> consumer, int count) {
+        for (int offset = 0; offset < count; offset++) {
+            RecordHeaders headers = new RecordHeaders();
+            headers.add("apicurio.value.globalId", new byte[] { 1 });
+            headers.add("delayed-retry-count", new byte[] { 3 });
+            headers.add("dead-letter-reason", "boom".getBytes(StandardCharsets.UTF_8));
+            headers.add(FailedRecords.FAILURE_SPEC_HEADER, "{}".getBytes(StandardCharsets.UTF_8));
+            consumer.addRecord(new ConsumerRecord<>(DLT, 0, offset, 0L, TimestampType.CREATE_TIME, 0, 0,
+                    ("key-" + offset).getBytes(StandardCharsets.UTF_8), new byte[] { (byte) offset }, headers,
+                    Optional.empty()));
+        }
+    }
+
+    private static String value(Header header) {
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stays open when the replayer is done with it, so that the committed offsets can be checked.
+     */
+    private static class ReusableConsumer extends MockConsumer<byte[], byte[]> {
+
+        ReusableConsumer() {
+            super("earliest");
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public synchronized void close(Duration timeout) {
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.sbom.service.adapter.out.spool.EventSpool;
+import org.jboss.sbomer.sbom.service.adapter.out.spool.EventSpools;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+
+public class EventSpoolTest {
+
+    private static final String CHANNEL = "generation-created";
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SbomMapper sbomMapper = new SbomMapper(null);
+
+    @Test
+    void testEventsAreSentDirectlyWhileKafkaTakesThem() {
+        FakeEmitter emitter = new FakeEmitter();
+        EventSpool<GenerationCreated> spool = spools(64 * 1024, 4).open(CHANNEL, emitter, GenerationCreated.class);
+
+        GenerationCreated event = event();
+        spool.send(event);
+
+        assertThat(emitter.sent).containsExactly(event);
+        assertThat(spool.depth()).isZero();
+    }
+
+    @Test
+    void testSpooledEventsAreReplayedInOrderOnceKafkaRecovers() {
+        FakeEmitter emitter = new FakeEmitter();
+        EventSpool<GenerationCreated> spool = spools(64 * 1024, 4).open(CHANNEL, emitter, GenerationCreated.class);
+        emitter.full = true;
+        List<GenerationCreated> events = List.of(event(), event(), event());
+        events.forEach(spool::send);
+
+        assertThat(spool.depth()).isEqualTo(3);
+        assertThat(spool.drain()).isZero();
+
+        // Kafka is back, but rejects the second event once
+        emitter.full = false;
+        emitter.rejections = 1;
+        emitter.rejectAfter = 1;
+        assertThat(spool.drain()).isEqualTo(1);
+        assertThat(spool.depth()).isEqualTo(2);
+        assertThat(spool.drain()).isEqualTo(2);
+        assertThat(spool.depth()).isZero();
+        // The event after the rejected one is sent again too, so that the order is kept
+        assertThat(emitter.sent).containsExactly(events.get(0), events.get(1), events.get(2), events.get(1),
+                events.get(2));
+        assertThat(registry.get("sbomer.spool.depth").tag("channel", CHANNEL).gauge().value()).isZero();
+        assertThat(registry.counter("sbomer.spool.events", "channel", CHANNEL, "outcome", "replayed").count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void testSpooledEventsAreRoutedWhenReplayed() {
+        FakeEmitter emitter = new FakeEmitter();
+        EventSpool<GenerationCreated> spool = spools(64 * 1024, 4).open(CHANNEL, emitter,
+                event -> Metadata.of(OutgoingKafkaRecordMetadata.builder()
+                        .withTopic("generation.created." + event.getData().getRecipe().getGenerator().getName())
+                        .build()),
+                GenerationCreated.class);
+        spool.send(event());
+        emitter.full = true;
+        spool.send(event());
+
+        emitter.full = false;
+        assertThat(spool.drain()).isEqualTo(1);
+
+        assertThat(emitter.topics).containsExactly("generation.created.generator", "generation.created.generator");
+    }
+
+    @Test
+    void testSpooledEventsSurviveARestart() throws Exception {
+        FakeEmitter emitter = new FakeEmitter();
+        emitter.full = true;
+        EventSpools spools = spools(1024, 16);
+        EventSpool<GenerationCreated> spool = spools.open(CHANNEL, emitter, GenerationCreated.class);
+        List<GenerationCreated> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(event());
+            spool.send(events.get(i));
+        }
+        spool.close();
+
+        FakeEmitter restarted = new FakeEmitter();
+        EventSpool<GenerationCreated> reopened = spools(1024, 16).open(CHANNEL, restarted, GenerationCreated.class);
+        assertThat(reopened.depth()).isEqualTo(10);
+        while (reopened.drain() > 0) {
+            // Drained in batches of 4
+        }
+
+        assertThat(reopened.depth()).isZero();
+        assertThat(restarted.acknowledged).containsExactlyElementsOf(events);
+    }
+
+    @Test
+    void testAFullSpoolHandsEventsToTheEmitter() {
+        FakeEmitter emitter = new FakeEmitter();
+        EventSpool<GenerationCreated> spool = spools(1024, 1).open(CHANNEL, emitter, GenerationCreated.class);
+        emitter.full = true;
+        for (int i = 0; i < 20; i++) {
+            spool.send(event());
+        }
+
+        assertThat(spool.depth()).isBetween(1L, 19L);
+        assertThat(emitter.overflowed).isEqualTo(20 - spool.depth());
+        assertThat(registry.counter("sbomer.spool.events", "channel", CHANNEL, "outcome", "overflowed").count())
+                .isEqualTo(emitter.overflowed);
+    }
+
+    private EventSpools spools(long segmentSize, int maxSegments) {
+        return new EventSpools(true, directory, segmentSize, maxSegments, 4, Duration.ofSeconds(1), registry);
+    }
+
+    private GenerationCreated event() {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setRequestId(TsidUtility.createUniqueGenerationRequestId());
+        generationRecord.setGeneratorName("generator");
+        generationRecord.setGeneratorVersion("1.0");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier("quay.io/org/image:1.0");
+        generationRecord.setStatus(GenerationStatus.NEW);
+        generationRecord.setCreated(Instant.now());
+        generationRecord.setEnhancements(List.of());
+        return sbomMapper.toGenerationCreatedEvent(generationRecord,
+                sbomMapper.toGenerationRequestSpec(generationRecord), generationRecord.getRequestId());
+    }
+
+    /**
+     * Acknowledges messages right away, unless it is {@code full} (no demand, sends overflow) or still has
+     * {@code rejections} for the messages after the first {@code rejectAfter}.
+     */
+    private static class FakeEmitter implements Emitter<GenerationCreated> {
+
+        final List<GenerationCreated> sent = new ArrayList<>();
+
+        final List<GenerationCreated> acknowledged = new ArrayList<>();
+
+        final List<String> topics = new ArrayList<>();
+
+        boolean full;
+
+        int rejections;
+
+        int rejectAfter;
+
+        long overflowed;
+
+        @Override
+        public CompletionStage<Void> send(GenerationCreated event) {
+            overflowed++;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public <M extends Message<? extends GenerationCreated>> void send(M message) {
+            if (full) {
+                throw new IllegalStateException("Insufficient downstream requests");
+            }
+            sent.add(message.getPayload());
+            message.getMetadata(OutgoingKafkaRecordMetadata.class).ifPresent(metadata -> topics.add(metadata.getTopic()));
+            if (rejections > 0 && rejectAfter-- <= 0) {
+                rejections--;
+                message.nack(new IllegalStateException("Broker unavailable"));
+            } else {
+                acknowledged.add(message.getPayload());
+                message.ack();
+            }
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        @Override
+        public void error(Exception e) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean hasRequests() {
+            return !full;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.jboss.sbomer.events.orchestration.CompletedGeneration;
+import org.jboss.sbomer.events.orchestration.RequestsFinished;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.GenerationCompletedNotifier;
+import org.jboss.sbomer.sbom.service.core.service.GenerationCompletedPublisher;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+public class GenerationCompletedPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryStatusRepository statusRepository;
+
+    private final GenerationCompletedNotifier notifier = mock(GenerationCompletedNotifier.class);
+
+    private GenerationRecord generationRecord;
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = new InMemoryStatusRepository(directory, 64 * 1024, 1000, false);
+        statusRepository.open();
+
+        PublisherRecord publisherRecord = new PublisherRecord();
+        publisherRecord.setName("publisher");
+        publisherRecord.setVersion("1.0");
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setPublisherRecords(List.of(publisherRecord));
+        statusRepository.saveRequestRecord(requestRecord);
+
+        generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setGeneratorName("generator");
+        generationRecord.setGeneratorVersion("1.0");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier("quay.io/org/image:1.0");
+        generationRecord.setStatus(GenerationStatus.FINISHED);
+        generationRecord.setGenerationSbomUrls(List.of("https://generated"));
+        generationRecord.setCreated(Instant.now());
+        generationRecord.setUpdated(Instant.now());
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        enhancementRecord.setEnhancerName("enhancer");
+        enhancementRecord.setEnhancerVersion("1.0");
+        enhancementRecord.setStatus(EnhancementStatus.FINISHED);
+        enhancementRecord.setEnhancedSbomUrls(List.of("https://enhanced"));
+        enhancementRecord.setUpdated(Instant.now());
+        enhancementRecord.setRequestId(requestRecord.getId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        generationRecord.setEnhancements(List.of(enhancementRecord));
+        statusRepository.saveGeneration(generationRecord);
+    }
+
+    @AfterEach
+    void closeRepository() {
+        statusRepository.close();
+    }
+
+    @Test
+    void testCompletedGenerationIsSentWithItsFinalUrls() {
+        new GenerationCompletedPublisher(statusRepository, notifier, new SbomMapper(null), true)
+                .publish(generationRecord.getId());
+
+        ArgumentCaptor<RequestsFinished> event = ArgumentCaptor.forClass(RequestsFinished.class);
+        verify(notifier).notify(event.capture());
+        assertThat(event.getValue().getContext().getType()).isEqualTo("GenerationCompleted");
+        assertThat(event.getValue().getData().getRequestId()).isEqualTo(generationRecord.getRequestId());
+        assertThat(event.getValue().getData().getPublishers()).singleElement()
+                .satisfies(publisher -> assertThat(publisher.getName()).isEqualTo("publisher"));
+        CompletedGeneration completedGeneration = event.getValue().getData().getCompletedGenerations().get(0);
+        assertThat(event.getValue().getData().getCompletedGenerations()).hasSize(1);
+        assertThat(completedGeneration.getGenerationRequest().getGenerationId()).isEqualTo(generationRecord.getId());
+        assertThat(completedGeneration.getFinalSbomUrls()).containsExactly("https://enhanced");
+    }
+
+    @Test
+    void testNothingIsSentUnlessEnabled() {
+        new GenerationCompletedPublisher(statusRepository, notifier, new SbomMapper(null), false)
+                .publish(generationRecord.getId());
+
+        verify(notifier, never()).notify(any());
+    }
+}
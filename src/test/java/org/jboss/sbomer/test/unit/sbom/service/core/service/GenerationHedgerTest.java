@@ -0,0 +1,228 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.sbomer.events.common.ContextSpec;
+import org.jboss.sbomer.events.generator.GenerationUpdate;
+import org.jboss.sbomer.events.generator.GenerationUpdateData;
+import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatsRollupRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+import org.jboss.sbomer.sbom.service.core.service.ConflictRetry;
+import org.jboss.sbomer.sbom.service.core.service.CostModel;
+import org.jboss.sbomer.sbom.service.core.service.CostModelConfig;
+import org.jboss.sbomer.sbom.service.core.service.GenerationCompletedPublisher;
+import org.jboss.sbomer.sbom.service.core.service.GenerationHedger;
+import org.jboss.sbomer.sbom.service.core.service.GenerationHedgerConfig;
+import org.jboss.sbomer.sbom.service.core.service.RequestEventBroadcaster;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.service.SbomService;
+import org.jboss.sbomer.sbom.service.core.service.StatusStatistics;
+import org.jboss.sbomer.sbom.service.core.service.WorkDispatcher;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GenerationHedgerTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private InMemoryStatusRepository statusRepository;
+
+    private StatusStatistics statusStatistics;
+
+    private final GenerationScheduler generationScheduler = mock(GenerationScheduler.class);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private RequestRecord requestRecord;
+
+    private final AtomicReference<GenerationRecord> staleRead = new AtomicReference<>();
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = new InMemoryStatusRepository(directory, 64 * 1024, 1000, false) {
+            @Override
+            public GenerationRecord findGenerationById(String generationId) {
+                GenerationRecord stale = staleRead.getAndSet(null);
+                return stale != null ? stale : super.findGenerationById(generationId);
+            }
+        };
+        statusRepository.open();
+        statusStatistics = new StatusStatistics(statusRepository, new InMemoryStatsRollupRepository());
+        requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+    }
+
+    @AfterEach
+    void closeRepository() {
+        statusRepository.close();
+    }
+
+    @Test
+    void testOnlyGenerationsPastThePercentileOfTheirGeneratorAreHedged() {
+        // The generator usually takes about 10 minutes
+        for (int i = 0; i < 20; i++) {
+            GenerationRecord done = newGeneration("generator", GenerationStatus.FINISHED, minutesAgo(100));
+            statusStatistics.generationMoved(done, GenerationStatus.GENERATING, minutesAgo(110));
+        }
+        GenerationRecord slow = saveGeneration("generator", GenerationStatus.GENERATING, minutesAgo(60));
+        GenerationRecord normal = saveGeneration("generator", GenerationStatus.GENERATING, minutesAgo(8));
+        // Without enough history, nothing of this generator is hedged
+        saveGeneration("new-generator", GenerationStatus.GENERATING, minutesAgo(600));
+        GenerationHedger hedger = hedger();
+
+        assertThat(hedger.hedge(NOW)).isEqualTo(1);
+        assertThat(hedger.hedge(NOW)).isZero();
+
+        ArgumentCaptor<GenerationCreated> event = ArgumentCaptor.forClass(GenerationCreated.class);
+        verify(generationScheduler).schedule(event.capture());
+        assertThat(event.getValue().getData().getGenerationRequest().getGenerationId()).isEqualTo(slow.getId());
+        assertThat(event.getValue().getContext().getEventId()).isEqualTo(slow.getId() + "-hedge-1");
+        GenerationRecord hedged = statusRepository.findGenerationById(slow.getId());
+        assertThat(hedged.getHedgeAttempts()).isEqualTo(1);
+        assertThat(hedged.getStatus()).isEqualTo(GenerationStatus.GENERATING);
+        assertThat(hedged.getUpdated()).isEqualTo(minutesAgo(60));
+        assertThat(statusRepository.findGenerationById(normal.getId()).getHedgeAttempts()).isZero();
+        assertThat(registry.counter("sbomer.hedge.dispatched", "generator", "generator").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFirstFinishedAttemptWins() {
+        GenerationRecord generation = newGeneration("generator", GenerationStatus.GENERATING, minutesAgo(60));
+        generation.setHedgeAttempts(1);
+        statusRepository.saveGeneration(generation);
+        GenerationHedger hedger = hedger();
+
+        // The first attempt to fail is ignored while the other one still runs, the second failure is taken
+        assertThat(hedger.isLosingUpdate(statusRepository.findGenerationById(generation.getId()), "GENERATING"))
+                .isTrue();
+        assertThat(hedger.isLosingUpdate(statusRepository.findGenerationById(generation.getId()), "FAILED")).isTrue();
+        assertThat(statusRepository.findGenerationById(generation.getId()).getFailedAttempts()).isEqualTo(1);
+        assertThat(hedger.isLosingUpdate(statusRepository.findGenerationById(generation.getId()), "FAILED")).isFalse();
+        assertThat(hedger.isLosingUpdate(statusRepository.findGenerationById(generation.getId()), "FINISHED"))
+                .isFalse();
+
+        GenerationRecord finished = statusRepository.findGenerationById(generation.getId());
+        finished.setStatus(GenerationStatus.FINISHED);
+        statusRepository.updateGeneration(finished);
+        hedger.finished(finished);
+
+        assertThat(hedger.isLosingUpdate(statusRepository.findGenerationById(generation.getId()), "FINISHED"))
+                .isTrue();
+        assertThat(hedger.isLosingUpdate(statusRepository.findGenerationById(generation.getId()), "FAILED")).isTrue();
+        assertThat(registry.counter("sbomer.hedge.won", "generator", "generator").count()).isEqualTo(1);
+        assertThat(registry.counter("sbomer.hedge.ignored", "generator", "generator").count()).isEqualTo(4);
+
+        // Generations that were never hedged take every update
+        GenerationRecord plain = saveGeneration("generator", GenerationStatus.FINISHED, minutesAgo(5));
+        assertThat(hedger.isLosingUpdate(plain, "FAILED")).isFalse();
+        verify(generationScheduler, never()).schedule(any());
+    }
+
+    @Test
+    void testConcurrentlyFinishedAttemptsAreCompletedOnce() {
+        GenerationRecord generation = newGeneration("generator", GenerationStatus.GENERATING, minutesAgo(60));
+        generation.setHedgeAttempts(1);
+        statusRepository.saveGeneration(generation);
+        // Keeps the request open, so that only the generation completes
+        saveGeneration("generator", GenerationStatus.GENERATING, minutesAgo(60));
+        GenerationCompletedPublisher generationCompletedPublisher = mock(GenerationCompletedPublisher.class);
+        WorkDispatcher workDispatcher = mock(WorkDispatcher.class);
+        GenerationHedger hedger = hedger();
+        SbomService sbomService = new SbomService(null, null, new SbomMapper(null), statusRepository, null, null,
+                null, new ConflictRetry(registry, 3, Duration.ofMillis(1), Duration.ofMillis(5)), statusStatistics,
+                new RequestEventBroadcaster(null), workDispatcher, generationCompletedPublisher, hedger,
+                new CostModel(mock(CostModelConfig.class)));
+
+        // Both attempts read the generation while it was GENERATING, the first one finishes it
+        staleRead.set(statusRepository.findGenerationById(generation.getId()));
+        sbomService.processGenerationStatusUpdate(finished(generation.getId(), "quay.io/org/first.json"));
+        sbomService.processGenerationStatusUpdate(finished(generation.getId(), "quay.io/org/second.json"));
+
+        GenerationRecord finished = statusRepository.findGenerationById(generation.getId());
+        assertThat(finished.getStatus()).isEqualTo(GenerationStatus.FINISHED);
+        assertThat(finished.getGenerationSbomUrls()).containsExactly("quay.io/org/first.json");
+        verify(generationCompletedPublisher, times(1)).publish(generation.getId());
+        verify(workDispatcher, times(1)).completed(generation.getId());
+        assertThat(registry.counter("sbomer.hedge.won", "generator", "generator").count()).isEqualTo(1);
+        assertThat(registry.counter("sbomer.hedge.ignored", "generator", "generator").count()).isEqualTo(1);
+    }
+
+    private static GenerationUpdate finished(String generationId, String sbomUrl) {
+        return GenerationUpdate.newBuilder()
+                .setContext(ContextSpec.newBuilder()
+                        .setEventId(generationId + "-" + sbomUrl)
+                        .setSource("test")
+                        .setEventVersion("1.0")
+                        .setType("GenerationUpdate")
+                        .setTimestamp(Instant.now())
+                        .build())
+                .setData(GenerationUpdateData.newBuilder()
+                        .setGenerationId(generationId)
+                        .setStatus("FINISHED")
+                        .setResultCode(0)
+                        .setBaseSbomUrls(List.of(sbomUrl))
+                        .build())
+                .build();
+    }
+
+    private GenerationHedger hedger() {
+        return new GenerationHedger(statusRepository, generationScheduler, new SbomMapper(null), statusStatistics,
+                new ConflictRetry(registry, 3, Duration.ofMillis(1), Duration.ofMillis(5)), registry,
+                new Config(true, Duration.ofMinutes(1), 0.95, 20, Duration.ofMinutes(1), 1, 10));
+    }
+
+    private GenerationRecord saveGeneration(String generatorName, GenerationStatus status, Instant updated) {
+        GenerationRecord generationRecord = newGeneration(generatorName, status, updated);
+        statusRepository.saveGeneration(generationRecord);
+        return generationRecord;
+    }
+
+    private GenerationRecord newGeneration(String generatorName, GenerationStatus status, Instant updated) {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setGeneratorName(generatorName);
+        generationRecord.setGeneratorVersion("1.0");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier("quay.io/org/image:1.0");
+        generationRecord.setStatus(status);
+        generationRecord.setCreated(updated);
+        generationRecord.setUpdated(updated);
+        generationRecord.setEnhancements(List.of());
+        return generationRecord;
+    }
+
+    private static Instant minutesAgo(long minutes) {
+        return NOW.minus(minutes, ChronoUnit.MINUTES);
+    }
+
+    private record Config(boolean enabled, Duration interval, double percentile, long minSamples, Duration minDelay,
+            int maxHedges, int batchSize) implements GenerationHedgerConfig {
+    }
+}
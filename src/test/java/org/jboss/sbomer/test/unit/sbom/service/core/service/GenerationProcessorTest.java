@@ -0,0 +1,110 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.jboss.sbomer.events.common.ContextSpec;
+import org.jboss.sbomer.events.common.GenerationRequestSpec;
+import org.jboss.sbomer.events.common.Target;
+import org.jboss.sbomer.events.request.RequestData;
+import org.jboss.sbomer.events.request.RequestsCreated;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.port.api.generation.GenerationProcessor;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class GenerationProcessorTest {
+
+    @Inject
+    GenerationProcessor generationProcessor;
+
+    @Inject
+    StatusRepository statusRepository;
+
+    @InjectSpy
+    WorkQueue workQueue;
+
+    @Test
+    void testARequestThatCannotBeQueuedLeavesNothingBehind() {
+        RequestsCreated requestsCreated = requestsCreated(2);
+        doThrow(new IllegalStateException("The work queue is unavailable")).when(workQueue).enqueue(anyList());
+
+        assertThatThrownBy(() -> generationProcessor.processGenerations(requestsCreated))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(statusRepository.findRequestById(requestsCreated.getData().getRequestId())).isNull();
+        assertThat(statusRepository.findGenerationsByIds(generationIds(requestsCreated))).isEmpty();
+    }
+
+    @Test
+    void testARedeliveredRequestIsProcessedOnce() {
+        RequestsCreated requestsCreated = requestsCreated(2);
+        List<String> generationIds = generationIds(requestsCreated);
+        doThrow(new IllegalStateException("The work queue is unavailable")).doCallRealMethod()
+                .when(workQueue)
+                .enqueue(anyList());
+
+        assertThatThrownBy(() -> generationProcessor.processGenerations(requestsCreated))
+                .isInstanceOf(IllegalStateException.class);
+        generationProcessor.processGenerations(requestsCreated);
+        generationProcessor.processGenerations(requestsCreated);
+
+        assertThat(statusRepository.findGenerationsByRequestId(requestsCreated.getData().getRequestId()))
+                .extracting(GenerationRecord::getId)
+                .containsExactlyInAnyOrderElementsOf(generationIds);
+        assertThat(workQueue.queued(generationIds)).containsExactlyInAnyOrderElementsOf(generationIds);
+        verify(workQueue, times(2)).enqueue(anyList());
+    }
+
+    static RequestsCreated requestsCreated(int generations) {
+        String requestId = TsidUtility.createUniqueGenerationRequestId();
+        List<GenerationRequestSpec> generationRequests = IntStream.range(0, generations)
+                .mapToObj(i -> GenerationRequestSpec.newBuilder()
+                        .setGenerationId(TsidUtility.createUniqueGenerationId())
+                        .setTarget(Target.newBuilder()
+                                .setType("CONTAINER_IMAGE")
+                                .setIdentifier("quay.io/org/image:" + i)
+                                .build())
+                        .build())
+                .toList();
+        return RequestsCreated.newBuilder()
+                .setContext(ContextSpec.newBuilder()
+                        .setCorrelationId(requestId)
+                        .setEventId(UUID.randomUUID().toString())
+                        .setSource("test")
+                        .setEventVersion("1.0")
+                        .setType("RequestsCreated")
+                        .setTimestamp(Instant.now())
+                        .build())
+                .setData(RequestData.newBuilder()
+                        .setRequestId(requestId)
+                        .setGenerationRequests(generationRequests)
+                        .setPublishers(List.of())
+                        .build())
+                .build();
+    }
+
+    static List<String> generationIds(RequestsCreated requestsCreated) {
+        return requestsCreated.getData()
+                .getGenerationRequests()
+                .stream()
+                .map(GenerationRequestSpec::getGenerationId)
+                .toList();
+    }
+}
@@ -0,0 +1,142 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class InMemoryStatusRepositoryTest extends StatusRepositoryContractTest {
+
+    private static final long WAL_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final List<InMemoryStatusRepository> opened = new ArrayList<>();
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = open(WAL_SIZE, 1000);
+    }
+
+    @AfterEach
+    void closeRepositories() {
+        opened.forEach(InMemoryStatusRepository::close);
+    }
+
+    @Test
+    void testStateIsReplayedFromLogAfterCrash() {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.RECEIVED);
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.NEW);
+        EnhancementRecord enhancementRecord = newEnhancement(generationRecord, 0, EnhancementStatus.NEW);
+        generationRecord.setEnhancements(List.of(enhancementRecord));
+        statusRepository.saveGeneration(generationRecord);
+        GenerationRecord finished = statusRepository.findGenerationById(generationRecord.getId());
+        finished.setStatus(GenerationStatus.FINISHED);
+        finished.setGenerationSbomUrls(List.of("https://url1"));
+        statusRepository.updateGeneration(finished);
+
+        // Opened without closing the first instance, so nothing but the log is there to recover from
+        InMemoryStatusRepository recovered = open(WAL_SIZE, 1000);
+
+        RequestRecord recoveredRequest = recovered.findRequestById(requestRecord.getId());
+        assertThat(recoveredRequest.getStatus()).isEqualTo(RequestStatus.RECEIVED);
+        assertThat(recoveredRequest.getGenerationRecords()).singleElement()
+                .satisfies(generation -> {
+                    assertThat(generation.getStatus()).isEqualTo(GenerationStatus.FINISHED);
+                    assertThat(generation.getGenerationSbomUrls()).containsExactly("https://url1");
+                    assertThat(generation.getEnhancements()).extracting(EnhancementRecord::getId)
+                            .containsExactly(enhancementRecord.getId());
+                });
+        assertThat(recovered.findByGenerationStatus(GenerationStatus.FINISHED)).extracting(GenerationRecord::getId)
+                .containsExactly(generationRecord.getId());
+    }
+
+    @Test
+    void testSnapshotsAndLogAreCombinedOnRestart() {
+        // A small log and snapshot interval, so the state ends up split between several snapshots and the log
+        InMemoryStatusRepository repository = open(4 * 1024, 7);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            GenerationRecord generationRecord = newGeneration(null, GenerationStatus.NEW);
+            generationRecord.setTargetIdentifier("target-" + i);
+            repository.saveGeneration(generationRecord);
+            ids.add(generationRecord.getId());
+        }
+        repository.close();
+        opened.remove(repository);
+
+        InMemoryStatusRepository recovered = open(4 * 1024, 7);
+
+        assertThat(recovered.findAllGenerations(0, 200).getContent()).extracting(GenerationRecord::getId)
+                .containsExactlyElementsOf(ids);
+        assertThat(recovered.findGenerationById(ids.get(42)).getTargetIdentifier()).isEqualTo("target-42");
+    }
+
+    @Test
+    void testTornWriteOnlyLosesTheLastMutation() throws IOException {
+        RequestRecord kept = new RequestRecord();
+        statusRepository.saveRequestRecord(kept);
+        RequestRecord torn = new RequestRecord();
+        statusRepository.saveRequestRecord(torn);
+
+        corruptLastLogEntry();
+        InMemoryStatusRepository recovered = open(WAL_SIZE, 1000);
+
+        assertThat(recovered.findRequestById(kept.getId())).isNotNull();
+        assertThat(recovered.findRequestById(torn.getId())).isNull();
+
+        RequestRecord next = new RequestRecord();
+        recovered.saveRequestRecord(next);
+        assertThat(open(WAL_SIZE, 1000).findRequestById(next.getId())).isNotNull();
+    }
+
+    private InMemoryStatusRepository open(long walSize, int snapshotInterval) {
+        InMemoryStatusRepository repository = new InMemoryStatusRepository(directory, walSize, snapshotInterval,
+                false);
+        repository.open();
+        opened.add(0, repository);
+        return repository;
+    }
+
+    /**
+     * Flips a payload byte of the last entry, following the {@code [length][crc][sequence][payload]} layout.
+     */
+    private void corruptLastLogEntry() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("wal.bin"), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            long position = 0;
+            long last = -1;
+            while (channel.read(header.clear(), position) == Integer.BYTES && header.getInt(0) > 0) {
+                last = position;
+                position += 2L * Integer.BYTES + header.getInt(0);
+            }
+            assertThat(last).isNotNegative();
+            ByteBuffer flipped = ByteBuffer.allocate(1);
+            long target = last + 2L * Integer.BYTES + Long.BYTES;
+            channel.read(flipped, target);
+            flipped.put(0, (byte) ~flipped.get(0));
+            channel.write(flipped.rewind(), target);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.jboss.sbomer.events.common.ContextSpec;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.InboundFilter;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.InboundFilterConfig;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.LazyAvroDeserializer;
+import org.jboss.sbomer.sbom.service.adapter.in.kafka.LazyRecord;
+import org.jboss.sbomer.sbom.service.adapter.out.CloudEventHeaders;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InboundFilterTest {
+
+    private static final String CHANNEL = "generation-update";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AtomicInteger decoded = new AtomicInteger();
+
+    private final Deserializer<String> decoder = (topic, data) -> {
+        decoded.incrementAndGet();
+        return new String(data, StandardCharsets.UTF_8);
+    };
+
+    @Test
+    void testContextIsWrittenToCloudEventsHeaders() {
+        Headers headers = CloudEventHeaders.of(context("event-1", "GenerationUpdate"), "G1");
+
+        assertThat(value(headers, "ce_specversion")).isEqualTo("1.0");
+        assertThat(value(headers, "ce_id")).isEqualTo("event-1");
+        assertThat(value(headers, "ce_type")).isEqualTo("GenerationUpdate");
+        assertThat(value(headers, "ce_source")).isEqualTo("sbom-service");
+        assertThat(value(headers, "ce_subject")).isEqualTo("G1");
+        assertThat(value(headers, "ce_correlationid")).isEqualTo("correlation");
+        assertThat(CloudEventHeaders.of(null, "G1").toArray()).isEmpty();
+    }
+
+    @Test
+    void testRecordsAreDroppedOnTheirHeadersWithoutBeingDecoded() {
+        InboundFilter filter = filter(Map.of(CHANNEL, List.of("GenerationUpdate")));
+
+        LazyRecord<String> first = record("event-1", "GenerationUpdate", "G1");
+        assertThat(filter.accept(CHANNEL, first)).isTrue();
+        assertThat(first.get()).isEqualTo("payload");
+        first.get();
+        filter.processed(CHANNEL, first);
+
+        assertThat(filter.accept(CHANNEL, record("event-1", "GenerationUpdate", "G1"))).isFalse();
+        assertThat(filter.accept(CHANNEL, record("event-2", "EnhancementUpdate", "G1"))).isFalse();
+        // Records without CloudEvents headers are processed as before
+        assertThat(filter.accept(CHANNEL, new LazyRecord<>("topic", new RecordHeaders(), bytes(), decoder))).isTrue();
+
+        assertThat(decoded).hasValue(1);
+        assertThat(registry.counter("sbomer.inbound.skipped", "channel", CHANNEL, "reason", "duplicate").count())
+                .isEqualTo(1);
+        assertThat(registry.counter("sbomer.inbound.skipped", "channel", CHANNEL, "reason", "type").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testFailedRecordsAreProcessedAgain() {
+        InboundFilter filter = filter(Map.of());
+
+        // Only processed events are remembered, a retry of one that failed goes through
+        assertThat(filter.accept(CHANNEL, record("event-1", "GenerationUpdate", null))).isTrue();
+        assertThat(filter.accept(CHANNEL, record("event-1", "GenerationUpdate", null))).isTrue();
+        filter.processed(CHANNEL, record("event-1", "GenerationUpdate", null));
+        assertThat(filter.accept(CHANNEL, record("event-1", "GenerationUpdate", null))).isFalse();
+        // The window only keeps the latest events
+        filter.processed(CHANNEL, record("event-2", "GenerationUpdate", null));
+        filter.processed(CHANNEL, record("event-3", "GenerationUpdate", null));
+        assertThat(filter.accept(CHANNEL, record("event-1", "GenerationUpdate", null))).isTrue();
+    }
+
+    private InboundFilter filter(Map<String, List<String>> types) {
+        return new InboundFilter(new Config(true, 2, types), registry);
+    }
+
+    private LazyRecord<String> record(String eventId, String type, String subject) {
+        Headers headers = CloudEventHeaders.of(context(eventId, type), subject);
+        return new LazyAvroDeserializer<>(decoder).deserialize("topic", headers, bytes());
+    }
+
+    private static ContextSpec context(String eventId, String type) {
+        return ContextSpec.newBuilder()
+                .setEventId(eventId)
+                .setType(type)
+                .setSource("sbom-service")
+                .setCorrelationId("correlation")
+                .setEventVersion("1.0")
+                .setTimestamp(Instant.now())
+                .build();
+    }
+
+    private static byte[] bytes() {
+        return "payload".getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String value(Headers headers, String key) {
+        return new String(headers.lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+
+    private record Config(boolean enabled, int dedupeWindow, Map<String, List<String>> types)
+            implements InboundFilterConfig {
+    }
+}
@@ -4,7 +4,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
 
 import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.EnhancementEntity;
 import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.GenerationEntity;
@@ -16,6 +15,7 @@ import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
 import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
 import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
 import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
 import org.junit.jupiter.api.Test;
 
 import io.quarkus.test.junit.QuarkusTest;
@@ -35,21 +35,21 @@ public class MapperTest {
     @Test
     void testRequestRecord() {
         RequestRecord requestRecord = new RequestRecord();
-        String requestId = UUID.randomUUID().toString();
+        String requestId = TsidUtility.createUniqueGenerationRequestId();
         requestRecord.setId(requestId);
         requestRecord.setStatus(RequestStatus.RECEIVED);
         requestRecord.setCreationDate(Instant.now());
         GenerationRecord generationRecord = new GenerationRecord();
-        String generationId = UUID.randomUUID().toString();
+        String generationId = TsidUtility.createUniqueGenerationId();
         generationRecord.setId(generationId);
-        String generationRequestId = UUID.randomUUID().toString();
+        String generationRequestId = TsidUtility.createUniqueGenerationRequestId();
         generationRecord.setRequestId(generationRequestId);
         requestRecord.setGenerationRecords(List.of(generationRecord));
         RequestEntity requestEntity = statusMapper.toEntity(requestRecord);
-        assertThat(requestEntity.getId()).isEqualTo(requestRecord.getId());
+        assertThat(requestEntity.getId()).isEqualTo(TsidUtility.toNumericId(requestRecord.getId()));
         assertThat(requestEntity.getStatus()).isEqualTo(requestRecord.getStatus());
         assertThat(requestEntity.getGenerations()).hasSize(1);
-        assertThat(requestEntity.getGenerations()).element(0).extracting("id").isEqualTo(generationId);
+        assertThat(requestEntity.getGenerations()).element(0).extracting("id").isEqualTo(TsidUtility.toNumericId(generationId));
         RequestRecord statusMapperDto = statusMapper.toDto(requestEntity);
         assertThat(statusMapperDto.getId()).isEqualTo(requestRecord.getId());
         assertThat(statusMapperDto.getGenerationRecords()).hasSize(1);
@@ -59,23 +59,23 @@ public class MapperTest {
     @Test
     void testGenerationRecord() {
         GenerationRecord generationRecord = new GenerationRecord();
-        String generationId = UUID.randomUUID().toString();
+        String generationId = TsidUtility.createUniqueGenerationId();
         generationRecord.setId(generationId);
-        String requestId = UUID.randomUUID().toString();
+        String requestId = TsidUtility.createUniqueGenerationRequestId();
         generationRecord.setRequestId(requestId);
         generationRecord.setTargetType("image");
         generationRecord.setGenerationSbomUrls(List.of("https://url1", "https://url2"));
         EnhancementRecord enhancementRecord = new EnhancementRecord();
-        String enhancementId = UUID.randomUUID().toString();
+        String enhancementId = TsidUtility.createUniqueEnhancementId();
         enhancementRecord.setId(enhancementId);
         enhancementRecord.setGenerationId(generationId);
         generationRecord.setEnhancements(List.of(enhancementRecord));
         GenerationEntity generationEntity = generationMapper.toEntity(generationRecord);
-        assertThat(generationEntity.getId()).isEqualTo(generationId);
+        assertThat(generationEntity.getId()).isEqualTo(TsidUtility.toNumericId(generationId));
         assertThat(generationEntity.getRequest()).isNotNull();
-        assertThat(generationEntity.getRequest().getId()).isEqualTo(requestId);
+        assertThat(generationEntity.getRequest().getId()).isEqualTo(TsidUtility.toNumericId(requestId));
         assertThat(generationEntity.getEnhancements()).hasSize(1);
-        assertThat(generationEntity.getEnhancements()).element(0).extracting("id").isEqualTo(enhancementId);
+        assertThat(generationEntity.getEnhancements()).element(0).extracting("id").isEqualTo(TsidUtility.toNumericId(enhancementId));
         assertThat(generationEntity.getGenerationSbomUrls()).containsExactly("https://url1", "https://url2");
         GenerationRecord generationMapperDto = generationMapper.toDto(generationEntity);
         assertThat(generationMapperDto.getId()).isEqualTo(generationId);
@@ -88,19 +88,19 @@ public class MapperTest {
     @Test
     void testEnhancementRecord() {
         EnhancementRecord enhancementRecord = new EnhancementRecord();
-        String enhancementId = UUID.randomUUID().toString();
+        String enhancementId = TsidUtility.createUniqueEnhancementId();
         enhancementRecord.setId(enhancementId);
-        String requestId = UUID.randomUUID().toString();
+        String requestId = TsidUtility.createUniqueGenerationRequestId();
         enhancementRecord.setRequestId(requestId);
-        String generationId = UUID.randomUUID().toString();
+        String generationId = TsidUtility.createUniqueGenerationId();
         enhancementRecord.setGenerationId(generationId);
         enhancementRecord.setEnhancedSbomUrls(List.of("https://url1", "https://url2"));
         EnhancementEntity enhancementEntity = enhancementMapper.toEntity(enhancementRecord);
-        assertThat(enhancementEntity.getId()).isEqualTo(enhancementId);
+        assertThat(enhancementEntity.getId()).isEqualTo(TsidUtility.toNumericId(enhancementId));
         assertThat(enhancementEntity.getRequest()).isNotNull();
-        assertThat(enhancementEntity.getRequest().getId()).isEqualTo(requestId);
+        assertThat(enhancementEntity.getRequest().getId()).isEqualTo(TsidUtility.toNumericId(requestId));
         assertThat(enhancementEntity.getGeneration()).isNotNull();
-        assertThat(enhancementEntity.getGeneration().getId()).isEqualTo(generationId);
+        assertThat(enhancementEntity.getGeneration().getId()).isEqualTo(TsidUtility.toNumericId(generationId));
         assertThat(enhancementEntity.getEnhancedSbomUrls()).containsExactly("https://url1", "https://url2");
         EnhancementRecord enhancementMapperDto = enhancementMapper.toDto(enhancementEntity);
         assertThat(enhancementMapperDto.getId()).isEqualTo(enhancementId);
@@ -0,0 +1,54 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.PanacheBulkRetryJobRepository;
+import org.jboss.sbomer.sbom.service.core.domain.dto.BulkRetryJob;
+import org.jboss.sbomer.sbom.service.core.port.spi.BulkRetryJobRepository;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class PanacheBulkRetryJobRepositoryTest {
+
+    @Inject
+    BulkRetryJobRepository jobRepository;
+
+    @Test
+    void testPanacheIsTheDefaultBulkRetryJobRepository() {
+        assertThat(jobRepository).isInstanceOf(PanacheBulkRetryJobRepository.class);
+    }
+
+    @Test
+    void testProgressIsReadBackAsLastWritten() {
+        Instant created = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        BulkRetryJob job = new BulkRetryJob(UUID.randomUUID().toString(), "generation", 3, created);
+        jobRepository.create(job);
+
+        job.setState(BulkRetryJob.State.RUNNING);
+        job.getReset().set(2);
+        job.getDispatched().set(1);
+        jobRepository.update(job);
+        // Not written yet
+        job.getDispatched().set(2);
+
+        BulkRetryJob stored = jobRepository.findById(job.getId()).orElseThrow();
+        assertThat(stored).isNotSameAs(job);
+        assertThat(stored.getKind()).isEqualTo("generation");
+        assertThat(stored.getMatched()).isEqualTo(3);
+        assertThat(stored.getCreated()).isEqualTo(created);
+        assertThat(stored.getState()).isEqualTo(BulkRetryJob.State.RUNNING);
+        assertThat(stored.getReset()).hasValue(2);
+        assertThat(stored.getDispatched()).hasValue(1);
+        assertThat(stored.getFinished()).isNull();
+
+        assertThat(jobRepository.findById(UUID.randomUUID().toString())).isEmpty();
+        assertThat(jobRepository.findById(null)).isEmpty();
+    }
+}
@@ -0,0 +1,105 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.PanacheWorkQueue;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.domain.enums.WorkKind;
+import org.jboss.sbomer.sbom.service.core.port.spi.WorkQueue;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class PanacheWorkQueueTest {
+
+    private static final Map<RequestPriority, Integer> WEIGHTS = Map.of(RequestPriority.HIGH, 2,
+            RequestPriority.NORMAL, 1, RequestPriority.LOW, 1);
+
+    @Inject
+    WorkQueue workQueue;
+
+    @Test
+    void testPanacheIsTheDefaultWorkQueue() {
+        assertThat(workQueue).isInstanceOf(PanacheWorkQueue.class);
+    }
+
+    @Test
+    void testReleasedItemsAreBoundedByTheLimitUntilCompleted() {
+        WorkerKey worker = new WorkerKey("queue-" + UUID.randomUUID(), "1.0");
+        List<WorkItem> items = items(worker, RequestPriority.NORMAL, 3);
+        workQueue.enqueue(items);
+
+        assertThat(workQueue.queuedWorkers()).contains(worker);
+        assertThat(workQueue.release(worker, 2, WEIGHTS)).extracting(WorkItem::getRecordId)
+                .containsExactly(items.get(0).getRecordId(), items.get(1).getRecordId());
+        assertThat(workQueue.release(worker, 2, WEIGHTS)).isEmpty();
+        assertThat(workQueue.queued(items.stream().map(WorkItem::getRecordId).toList()))
+                .containsExactly(items.get(2).getRecordId());
+
+        assertThat(workQueue.complete(items.get(0).getRecordId())).contains(worker);
+        assertThat(workQueue.complete(items.get(0).getRecordId())).isEmpty();
+
+        List<WorkItem> released = workQueue.release(worker, 2, WEIGHTS);
+        assertThat(released).extracting(WorkItem::getRecordId).containsExactly(items.get(2).getRecordId());
+        assertThat(released.get(0).getReleased()).isNotNull();
+        assertThat(workQueue.queuedWorkers()).doesNotContain(worker);
+    }
+
+    @Test
+    void testRequeuedItemsAreReleasedAgain() {
+        WorkerKey worker = new WorkerKey("queue-" + UUID.randomUUID(), "1.0");
+        List<WorkItem> items = items(worker, RequestPriority.NORMAL, 2);
+        workQueue.enqueue(items);
+        workQueue.release(worker, 1, WEIGHTS);
+        String released = items.get(0).getRecordId();
+
+        assertThat(workQueue.releasedBefore(Instant.now().minusSeconds(60), null, 10)).isEmpty();
+        assertThat(workQueue.releasedBefore(Instant.now().plusSeconds(60), null, 1000))
+                .extracting(WorkItem::getRecordId)
+                .contains(released)
+                .doesNotContain(items.get(1).getRecordId());
+
+        workQueue.requeue(List.of(released));
+
+        assertThat(workQueue.release(worker, 1, WEIGHTS)).extracting(WorkItem::getRecordId).containsExactly(released);
+    }
+
+    @Test
+    void testLanesTakeTurnsByWeight() {
+        WorkerKey worker = new WorkerKey("queue-" + UUID.randomUUID(), "1.0");
+        List<WorkItem> low = items(worker, RequestPriority.LOW, 2);
+        List<WorkItem> high = items(worker, RequestPriority.HIGH, 3);
+        workQueue.enqueue(low);
+        workQueue.enqueue(high);
+
+        assertThat(workQueue.release(worker, 10, WEIGHTS)).extracting(WorkItem::getRecordId).containsExactly(
+                high.get(0).getRecordId(), high.get(1).getRecordId(), low.get(0).getRecordId(),
+                high.get(2).getRecordId(), low.get(1).getRecordId());
+    }
+
+    private static List<WorkItem> items(WorkerKey worker, RequestPriority priority, int count) {
+        String requestId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        return IntStream.range(0, count)
+                .mapToObj(sequence -> WorkItem.builder()
+                        .recordId(UUID.randomUUID().toString())
+                        .kind(WorkKind.GENERATION)
+                        .worker(worker)
+                        .priority(priority)
+                        .requestId(requestId)
+                        .sequence(sequence)
+                        .enqueued(now)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,79 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestEvent;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.service.RequestEventBroadcaster;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class RequestEventBroadcasterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Inject
+    StatusRepository statusRepository;
+
+    @Inject
+    RequestEventBroadcaster broadcaster;
+
+    @Test
+    void testWatchersGetTheStateThenTheChangesUntilTheRequestFinishes() {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.RECEIVED);
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setStatus(GenerationStatus.NEW);
+        generationRecord.setUpdated(Instant.now().minusSeconds(1));
+        statusRepository.saveGeneration(generationRecord);
+
+        AssertSubscriber<RequestEvent> first = watch(requestRecord.getId());
+        AssertSubscriber<RequestEvent> second = watch(requestRecord.getId());
+        first.awaitItems(2, TIMEOUT);
+        second.awaitItems(2, TIMEOUT);
+        assertThat(first.getItems()).extracting(RequestEvent::kind, RequestEvent::status)
+                .containsExactly(tuple("generation", "NEW"),
+                        tuple("request", "RECEIVED"));
+
+        generationRecord.setStatus(GenerationStatus.GENERATING);
+        generationRecord.setUpdated(Instant.now());
+        broadcaster.publish(generationRecord);
+        // The same state again, e.g. from a poll, is not pushed twice
+        broadcaster.publish(generationRecord);
+        first.awaitItems(3, TIMEOUT);
+        assertThat(first.getItems().get(2).status()).isEqualTo("GENERATING");
+
+        requestRecord.setStatus(RequestStatus.FINISHED);
+        broadcaster.publish(requestRecord);
+
+        first.awaitCompletion(TIMEOUT);
+        second.awaitCompletion(TIMEOUT);
+        assertThat(first.getItems()).hasSize(4);
+        assertThat(second.getItems()).extracting(RequestEvent::status)
+                .containsExactly("NEW", "RECEIVED", "GENERATING", "FINISHED");
+    }
+
+    @Test
+    void testUnknownRequestsCannotBeWatched() {
+        assertThat(broadcaster.subscribe("R0000000000000", null).await().atMost(TIMEOUT)).isNull();
+    }
+
+    private AssertSubscriber<RequestEvent> watch(String requestId) {
+        return broadcaster.subscribe(requestId, null).await().atMost(TIMEOUT)
+                .subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+    }
+}
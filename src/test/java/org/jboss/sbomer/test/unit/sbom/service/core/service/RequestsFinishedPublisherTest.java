@@ -0,0 +1,164 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import org.jboss.sbomer.events.orchestration.RequestsFinished;
+import org.jboss.sbomer.sbom.service.adapter.out.blob.FileSystemBlobStore;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.core.domain.dto.CompletionManifest;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.RequestsFinishedNotifier;
+import org.jboss.sbomer.sbom.service.core.service.RequestsFinishedPublisher;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+public class RequestsFinishedPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryStatusRepository statusRepository;
+
+    private final RequestsFinishedNotifier notifier = mock(RequestsFinishedNotifier.class);
+
+    private final List<PublisherRecord> publishers = List.of(publisher());
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = new InMemoryStatusRepository(directory.resolve("status"), 64 * 1024, 1000, false);
+        statusRepository.open();
+    }
+
+    @AfterEach
+    void closeRepository() {
+        statusRepository.close();
+    }
+
+    @Test
+    void testSmallRequestsListTheirGenerationsInline() {
+        String requestId = saveRequest(3);
+
+        publisher(3).publish(requestId, publishers);
+
+        ArgumentCaptor<RequestsFinished> event = ArgumentCaptor.forClass(RequestsFinished.class);
+        verify(notifier).notify(event.capture());
+        verify(notifier, never()).notify(any(), any(CompletionManifest.class));
+        assertThat(event.getValue().getData().getCompletedGenerations()).hasSize(3)
+                .allSatisfy(generation -> assertThat(generation.getFinalSbomUrls()).hasSize(1));
+        assertThat(event.getValue().getData().getPublishers()).hasSize(1);
+        assertThat(directory.resolve("blobs")).doesNotExist();
+    }
+
+    @Test
+    void testLargeRequestsReferenceAStreamedManifest() throws Exception {
+        String requestId = saveRequest(7);
+
+        publisher(3).publish(requestId, publishers);
+
+        ArgumentCaptor<RequestsFinished> event = ArgumentCaptor.forClass(RequestsFinished.class);
+        ArgumentCaptor<CompletionManifest> manifest = ArgumentCaptor.forClass(CompletionManifest.class);
+        verify(notifier).notify(event.capture(), manifest.capture());
+        assertThat(event.getValue().getData().getRequestId()).isEqualTo(requestId);
+        assertThat(event.getValue().getData().getCompletedGenerations()).isEmpty();
+        assertThat(event.getValue().getData().getPublishers()).hasSize(1);
+
+        CompletionManifest reference = manifest.getValue();
+        Path stored = Path.of(reference.location());
+        assertThat(stored).isEqualTo(directory.resolve("blobs/requests-finished/" + requestId + ".ndjson.gz"));
+        assertThat(reference.generations()).isEqualTo(7);
+        assertThat(reference.contentType()).isEqualTo("application/x-ndjson");
+        assertThat(reference.contentEncoding()).isEqualTo("gzip");
+        byte[] bytes = Files.readAllBytes(stored);
+        assertThat(reference.size()).isEqualTo(bytes.length);
+        assertThat(reference.sha256())
+                .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)));
+
+        List<String> lines;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(stored))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        // Every generation once, across the batches of two
+        assertThat(lines).hasSize(7);
+        assertThat(statusRepository.findGenerationsByRequestId(requestId))
+                .allSatisfy(generation -> assertThat(lines).filteredOn(line -> line.contains(generation.getId()))
+                        .singleElement()
+                        .asString()
+                        .contains("https://sboms/" + generation.getId()));
+        try (var files = Files.list(stored.getParent())) {
+            assertThat(files).containsExactly(stored);
+        }
+    }
+
+    @Test
+    void testBlobsAreResolvedAgainstTheBaseUrl() throws IOException {
+        FileSystemBlobStore blobStore = new FileSystemBlobStore(directory,
+                Optional.of(URI.create("https://sbomer.example.com/blobs")));
+
+        URI location = blobStore.write("requests-finished/R1.ndjson.gz", out -> out.write(1));
+
+        assertThat(location).isEqualTo(URI.create("https://sbomer.example.com/blobs/requests-finished/R1.ndjson.gz"));
+        assertThatThrownBy(() -> blobStore.write("../outside", out -> out.write(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RequestsFinishedPublisher publisher(int inlineMaxGenerations) {
+        return new RequestsFinishedPublisher(statusRepository,
+                new FileSystemBlobStore(directory.resolve("blobs"), Optional.empty()), notifier, new SbomMapper(null),
+                inlineMaxGenerations, 2);
+    }
+
+    private String saveRequest(int generations) {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        IntStream.range(0, generations).forEach(i -> {
+            GenerationRecord generationRecord = new GenerationRecord();
+            generationRecord.setId(TsidUtility.createUniqueGenerationId());
+            generationRecord.setRequestId(requestRecord.getId());
+            generationRecord.setGeneratorName("generator");
+            generationRecord.setGeneratorVersion("1.0");
+            generationRecord.setTargetType("CONTAINER_IMAGE");
+            generationRecord.setTargetIdentifier("quay.io/org/image:" + i);
+            generationRecord.setStatus(GenerationStatus.FINISHED);
+            generationRecord.setGenerationSbomUrls(List.of("https://sboms/" + generationRecord.getId()));
+            generationRecord.setCreated(Instant.now());
+            generationRecord.setUpdated(Instant.now());
+            generationRecord.setEnhancements(List.of());
+            statusRepository.saveGeneration(generationRecord);
+        });
+        return requestRecord.getId();
+    }
+
+    private static PublisherRecord publisher() {
+        PublisherRecord publisherRecord = new PublisherRecord();
+        publisherRecord.setName("publisher");
+        publisherRecord.setVersion("1.0");
+        return publisherRecord;
+    }
+}
@@ -0,0 +1,440 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.service.RequestEventBroadcaster;
+import org.jboss.sbomer.sbom.service.core.service.StatusStatistics;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class SbomResourceTest {
+
+    @Inject
+    StatusRepository statusRepository;
+
+    @Inject
+    StatusStatistics statusStatistics;
+
+    @Inject
+    RequestEventBroadcaster requestEventBroadcaster;
+
+    @TestHTTPResource("/api/v1/")
+    URL requests;
+
+    @Test
+    void testReadEndpoints() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setStatus(GenerationStatus.FINISHED);
+        generationRecord.setGenerationSbomUrls(List.of("https://url1"));
+        statusRepository.saveGeneration(generationRecord);
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setRequestId(requestRecord.getId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        enhancementRecord.setStatus(EnhancementStatus.NEW);
+        statusRepository.saveEnhancement(enhancementRecord);
+
+        given().get("/api/v1/requests/{id}", requestRecord.getId())
+                .then().statusCode(200)
+                .body("id", equalTo(requestRecord.getId()));
+        given().get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(200)
+                .body("status", equalTo("FINISHED"))
+                .body("generationSbomUrls", contains("https://url1"));
+        given().get("/api/v1/requests/{id}/generations/all", requestRecord.getId())
+                .then().statusCode(200)
+                .body("id", contains(generationRecord.getId()));
+        given().get("/api/v1/requests/{id}/generations", requestRecord.getId())
+                .then().statusCode(200)
+                .body("totalHits", equalTo(1));
+        given().get("/api/v1/enhancements/generation/{id}", generationRecord.getId())
+                .then().statusCode(200)
+                .body("$", hasSize(1));
+        given().get("/api/v1/enhancements/{id}", enhancementRecord.getId())
+                .then().statusCode(200)
+                .body("generationId", equalTo(generationRecord.getId()));
+    }
+
+    @Test
+    void testMissingRecordsAreNotFound() {
+        given().get("/api/v1/requests/{id}", TsidUtility.createUniqueGenerationRequestId()).then().statusCode(404);
+        given().get("/api/v1/generations/{id}", TsidUtility.createUniqueGenerationId()).then().statusCode(404);
+        given().get("/api/v1/enhancements/{id}", "not-a-tsid").then().statusCode(404);
+    }
+
+    @Test
+    void testAllGenerationsAreStreamedInBatches() throws IOException {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        for (int i = 0; i < 5; i++) {
+            GenerationRecord generationRecord = new GenerationRecord();
+            generationRecord.setRequestId(requestRecord.getId());
+            generationRecord.setStatus(GenerationStatus.NEW);
+            statusRepository.saveGeneration(generationRecord);
+        }
+
+        given().get("/api/v1/requests/{id}/generations/all", requestRecord.getId())
+                .then().statusCode(200)
+                .contentType(containsString("application/json"))
+                .body("$", hasSize(5));
+        byte[] compressed = given().config(RestAssuredConfig.config().decoderConfig(
+                        DecoderConfig.decoderConfig().noContentDecoders()))
+                .accept("application/x-ndjson")
+                .header("Accept-Encoding", "gzip")
+                .get("/api/v1/requests/{id}/generations/all", requestRecord.getId())
+                .then().statusCode(200)
+                .contentType(containsString("application/x-ndjson"))
+                .header("Content-Encoding", equalTo("gzip"))
+                .extract().asByteArray();
+        String lines = new String(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(lines.lines().filter(line -> !line.isBlank()).toList()).hasSize(5)
+                .allSatisfy(line -> assertThat(line).startsWith("{").contains(requestRecord.getId()));
+
+        // The JSON array is gzipped as well
+        byte[] compressedArray = given().config(RestAssuredConfig.config().decoderConfig(
+                        DecoderConfig.decoderConfig().noContentDecoders()))
+                .accept("application/json")
+                .header("Accept-Encoding", "gzip")
+                .get("/api/v1/requests/{id}/generations/all", requestRecord.getId())
+                .then().statusCode(200)
+                .contentType(containsString("application/json"))
+                .header("Content-Encoding", equalTo("gzip"))
+                .extract().asByteArray();
+        String array = new String(new GZIPInputStream(new ByteArrayInputStream(compressedArray)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(array).startsWith("[").endsWith("]").contains(requestRecord.getId());
+
+        given().get("/api/v1/requests/{id}/generations/all", TsidUtility.createUniqueGenerationRequestId())
+                .then().statusCode(200)
+                .body("$", hasSize(0));
+    }
+
+    @Test
+    void testConditionalGetsAreAnsweredFromTheStamp() {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.RECEIVED);
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setStatus(GenerationStatus.GENERATING);
+        generationRecord.setUpdated(Instant.now());
+        statusRepository.saveGeneration(generationRecord);
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setRequestId(requestRecord.getId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        enhancementRecord.setStatus(EnhancementStatus.NEW);
+        enhancementRecord.setUpdated(Instant.now());
+        statusRepository.saveEnhancement(enhancementRecord);
+
+        String requestTag = given().get("/api/v1/requests/{id}", requestRecord.getId())
+                .then().statusCode(200)
+                .header("ETag", notNullValue())
+                .header("Last-Modified", notNullValue())
+                .header("Cache-Control", containsString("no-cache"))
+                .extract().header("ETag");
+        given().header("If-None-Match", requestTag).get("/api/v1/requests/{id}", requestRecord.getId())
+                .then().statusCode(304)
+                .header("ETag", equalTo(requestTag));
+        String generationTag = given().get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(200)
+                .extract().header("ETag");
+        given().header("If-None-Match", "\"0\", W/" + generationTag)
+                .get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(304);
+
+        // Changes to a nested record change the stamp of its parents
+        GenerationRecord finished = statusRepository.findGenerationById(generationRecord.getId());
+        finished.setStatus(GenerationStatus.FINISHED);
+        finished.getEnhancements().forEach(enhancement -> enhancement.setStatus(EnhancementStatus.FINISHED));
+        statusRepository.updateGeneration(finished);
+        RequestRecord finishedRequest = statusRepository.findRequestById(requestRecord.getId());
+        finishedRequest.setStatus(RequestStatus.FINISHED);
+        statusRepository.updateRequestRecord(finishedRequest);
+
+        given().header("If-None-Match", requestTag).get("/api/v1/requests/{id}", requestRecord.getId())
+                .then().statusCode(200)
+                .header("ETag", not(equalTo(requestTag)))
+                .header("Cache-Control", containsString("max-age=3600"))
+                .body("status", equalTo("FINISHED"));
+        given().header("If-None-Match", generationTag).get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(200)
+                .header("ETag", not(equalTo(generationTag)));
+
+        given().header("If-Modified-Since", "Fri, 01 Jan 2100 00:00:00 GMT")
+                .get("/api/v1/enhancements/{id}", enhancementRecord.getId())
+                .then().statusCode(304);
+        given().header("If-Modified-Since", "Thu, 01 Jan 2015 00:00:00 GMT")
+                .get("/api/v1/enhancements/{id}", enhancementRecord.getId())
+                .then().statusCode(200)
+                .body("status", equalTo("FINISHED"));
+        given().header("If-None-Match", "*")
+                .get("/api/v1/requests/{id}", TsidUtility.createUniqueGenerationRequestId())
+                .then().statusCode(404);
+    }
+
+    @Test
+    void testFieldsLimitTheRecordsToTheSelectedProperties() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setStatus(GenerationStatus.FINISHED);
+        generationRecord.setGenerationSbomUrls(List.of("https://sbom"));
+        statusRepository.saveGeneration(generationRecord);
+
+        String sparseTag = given().queryParam("fields", "status, generationSbomUrls")
+                .get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(200)
+                .body("keySet()", containsInAnyOrder("id", "status", "generationSbomUrls"))
+                .body("generationSbomUrls", contains("https://sbom"))
+                .extract().header("ETag");
+        String fullTag = given().get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(200)
+                .body("requestId", equalTo(requestRecord.getId()))
+                .extract().header("ETag");
+        assertThat(sparseTag).isNotEqualTo(fullTag);
+        given().queryParam("fields", "status,generationSbomUrls").header("If-None-Match", sparseTag)
+                .get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(304);
+
+        given().queryParam("fields", "status")
+                .get("/api/v1/requests/{id}/generations", requestRecord.getId())
+                .then().statusCode(200)
+                .body("totalHits", equalTo(1))
+                .body("content[0].keySet()", containsInAnyOrder("id", "status"));
+        given().queryParam("fields", "status,enhancerName")
+                .get("/api/v1/enhancements/generation/{generationId}", generationRecord.getId())
+                .then().statusCode(200)
+                .body("$", hasSize(0));
+
+        given().queryParam("fields", "status,secret")
+                .get("/api/v1/generations/{id}", generationRecord.getId())
+                .then().statusCode(400);
+        given().queryParam("fields", "enhancerName").get("/api/v1/generations").then().statusCode(400);
+    }
+
+    @Test
+    void testBatchGetReturnsTheRecordsFoundAndTheMissingIds() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord first = new GenerationRecord();
+        first.setRequestId(requestRecord.getId());
+        first.setStatus(GenerationStatus.NEW);
+        statusRepository.saveGeneration(first);
+        GenerationRecord second = new GenerationRecord();
+        second.setRequestId(requestRecord.getId());
+        second.setStatus(GenerationStatus.NEW);
+        statusRepository.saveGeneration(second);
+        String unknown = TsidUtility.createUniqueGenerationId();
+
+        // Custom methods are addressed with a literal colon, which RestAssured would otherwise encode
+
+        given().urlEncodingEnabled(false).contentType("application/json")
+                .body("{\"ids\": [\"" + second.getId() + "\", \"" + unknown + "\", \"" + first.getId()
+                        + "\", \"not-a-tsid\", \"" + second.getId() + "\"]}")
+                .post("/api/v1/generations:batchGet")
+                .then().statusCode(200)
+                .body("records.id", contains(second.getId(), first.getId()))
+                .body("missing", contains(unknown, "not-a-tsid"));
+        given().urlEncodingEnabled(false).contentType("application/json")
+                .body("{\"ids\": [\"" + TsidUtility.createUniqueEnhancementId() + "\"]}")
+                .post("/api/v1/enhancements:batchGet")
+                .then().statusCode(200)
+                .body("records", hasSize(0))
+                .body("missing", hasSize(1));
+
+        given().urlEncodingEnabled(false).contentType("application/json").body("{\"ids\": []}")
+                .post("/api/v1/generations:batchGet")
+                .then().statusCode(400);
+        String tooMany = String.join(",", Collections.nCopies(501, "\"" + unknown + "\""));
+        given().urlEncodingEnabled(false).contentType("application/json").body("{\"ids\": [" + tooMany + "]}")
+                .post("/api/v1/enhancements:batchGet")
+                .then().statusCode(400);
+    }
+
+    @Test
+    void testSearchPagesWithACursor() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        for (int i = 0; i < 3; i++) {
+            GenerationRecord generationRecord = new GenerationRecord();
+            generationRecord.setRequestId(requestRecord.getId());
+            generationRecord.setGeneratorName("resource-search-generator");
+            generationRecord.setTargetIdentifier("quay.io/org/image:" + i);
+            generationRecord.setStatus(GenerationStatus.FAILED);
+            statusRepository.saveGeneration(generationRecord);
+        }
+
+        String cursor = given().queryParam("generatorName", "resource-search-generator")
+                .queryParam("status", "FAILED")
+                .queryParam("targetIdentifierContains", "org/image")
+                .queryParam("size", 2)
+                .get("/api/v1/generations/search")
+                .then().statusCode(200)
+                .body("content", hasSize(2))
+                .body("nextCursor", notNullValue())
+                .extract().path("nextCursor");
+        given().queryParam("generatorName", "resource-search-generator")
+                .queryParam("after", cursor)
+                .queryParam("size", 2)
+                .get("/api/v1/generations/search")
+                .then().statusCode(200)
+                .body("content.targetIdentifier", contains("quay.io/org/image:0"))
+                .body("nextCursor", nullValue());
+
+        given().queryParam("size", 0).get("/api/v1/generations/search").then().statusCode(400);
+        given().queryParam("after", "not-a-tsid").get("/api/v1/generations/search").then().statusCode(400);
+    }
+
+    @Test
+    void testBulkRetryNeedsCriteriaAndReportsProgress() {
+        given().contentType("application/json").body("{}")
+                .post("/api/v1/generations/retry")
+                .then().statusCode(400);
+
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        String location = given().contentType("application/json")
+                .body("{\"requestId\": \"" + requestRecord.getId() + "\"}")
+                .post("/api/v1/enhancements/retry")
+                .then().statusCode(202)
+                .body("kind", equalTo("enhancement"))
+                .body("matched", equalTo(0))
+                .extract().header("Location");
+
+        given().get(location).then().statusCode(200).body("matched", equalTo(0));
+        given().get("/api/v1/retries/{id}", "unknown").then().statusCode(404);
+    }
+
+    @Test
+    void testStatsAreServedFromTheRollups() {
+        Instant created = Instant.now();
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setGeneratorName("resource-stats-generator");
+        generationRecord.setStatus(GenerationStatus.NEW);
+        generationRecord.setUpdated(created);
+        statusStatistics.generationCreated(generationRecord);
+        generationRecord.setStatus(GenerationStatus.GENERATING);
+        generationRecord.setUpdated(created.plusMillis(100));
+        statusStatistics.generationMoved(generationRecord, GenerationStatus.NEW, created);
+
+        given().get("/api/v1/stats")
+                .then().statusCode(200)
+                .body("generations.byWorker.resource-stats-generator.byStatus.GENERATING", equalTo(1))
+                .body("generations.byWorker.resource-stats-generator.timeInState.NEW.count", equalTo(1))
+                .body("generations.byWorker.resource-stats-generator.timeInState.NEW.p99", equalTo(108));
+
+        // Same numbers once they went through the rollup table
+        statusStatistics.flush();
+        given().get("/api/v1/stats")
+                .then().statusCode(200)
+                .body("computed", notNullValue())
+                .body("generations.byWorker.resource-stats-generator.byStatus.NEW", nullValue())
+                .body("generations.byWorker.resource-stats-generator.byStatus.GENERATING", equalTo(1))
+                .body("generations.byWorker.resource-stats-generator.timeInState.NEW.p50", equalTo(108));
+    }
+
+    @Test
+    void testFinishedRequestEventsEndWithTheRequest() {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.FINISHED);
+        statusRepository.saveRequestRecord(requestRecord);
+        Instant finished = Instant.now();
+        GenerationRecord earlier = new GenerationRecord();
+        earlier.setRequestId(requestRecord.getId());
+        earlier.setStatus(GenerationStatus.FINISHED);
+        earlier.setUpdated(finished.minusSeconds(60));
+        statusRepository.saveGeneration(earlier);
+        GenerationRecord later = new GenerationRecord();
+        later.setRequestId(requestRecord.getId());
+        later.setStatus(GenerationStatus.FAILED);
+        later.setUpdated(finished);
+        statusRepository.saveGeneration(later);
+
+        given().accept("text/event-stream").get("/api/v1/requests/{id}/events", requestRecord.getId())
+                .then().statusCode(200)
+                .body(containsString("event:generation"))
+                .body(containsString(earlier.getId()))
+                .body(containsString("id:" + finished.toEpochMilli()))
+                .body(containsString("\"status\":\"FINISHED\",\"result\":null,\"reason\":null"))
+                .body(containsString("event:request"));
+
+        // Resumed after the first generation
+        given().accept("text/event-stream").header("Last-Event-ID", finished.minusSeconds(30).toEpochMilli())
+                .get("/api/v1/requests/{id}/events", requestRecord.getId())
+                .then().statusCode(200)
+                .body(not(containsString(earlier.getId())))
+                .body(containsString(later.getId()))
+                .body(containsString("event:request"));
+
+        given().accept("text/event-stream")
+                .get("/api/v1/requests/{id}/events", TsidUtility.createUniqueGenerationRequestId())
+                .then().statusCode(404);
+    }
+
+    @Test
+    void testDisconnectedWatchersAreUnsubscribed() throws IOException, InterruptedException {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.RECEIVED);
+        statusRepository.saveRequestRecord(requestRecord);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(requests, "requests/" + requestRecord.getId() + "/events")
+                .openConnection();
+        connection.setRequestProperty("Accept", "text/event-stream");
+        connection.setReadTimeout(10_000);
+        BufferedReader events = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        do {
+            line = events.readLine();
+        } while (line != null && !line.startsWith("event:request"));
+        assertThat(line).isNotNull();
+        assertThat(requestEventBroadcaster.isWatched(requestRecord.getId())).isTrue();
+
+        connection.disconnect();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (requestEventBroadcaster.isWatched(requestRecord.getId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(requestEventBroadcaster.isWatched(requestRecord.getId())).isFalse();
+    }
+}
@@ -0,0 +1,241 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.sbomer.events.orchestration.EnhancementCreated;
+import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatsRollupRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryWorkQueue;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkItem;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.domain.enums.WorkKind;
+import org.jboss.sbomer.sbom.service.core.port.spi.enhancement.EnhancementScheduler;
+import org.jboss.sbomer.sbom.service.core.port.spi.generation.GenerationScheduler;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.service.StaleWorkReaper;
+import org.jboss.sbomer.sbom.service.core.service.StaleWorkReaperConfig;
+import org.jboss.sbomer.sbom.service.core.service.StatusStatistics;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class StaleWorkReaperTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T12:00:00Z");
+
+    private static final Duration DEADLINE = Duration.ofMinutes(30);
+
+    @TempDir
+    Path directory;
+
+    private InMemoryStatusRepository statusRepository;
+
+    private final GenerationScheduler generationScheduler = mock(GenerationScheduler.class);
+
+    private final EnhancementScheduler enhancementScheduler = mock(EnhancementScheduler.class);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final InMemoryWorkQueue workQueue = new InMemoryWorkQueue();
+
+    private RequestRecord requestRecord;
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = new InMemoryStatusRepository(directory, 64 * 1024, 1000, false);
+        statusRepository.open();
+        requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+    }
+
+    @AfterEach
+    void closeRepository() {
+        statusRepository.close();
+    }
+
+    @Test
+    void testOnlyOverdueGenerationsAreRedispatched() {
+        GenerationRecord stuck = saveGeneration("generator", GenerationStatus.GENERATING, minutesAgo(31));
+        GenerationRecord recent = saveGeneration("generator", GenerationStatus.GENERATING, minutesAgo(5));
+        GenerationRecord finished = saveGeneration("generator", GenerationStatus.FINISHED, minutesAgo(60));
+
+        assertThat(reaper(3, 100, Map.of()).reap(NOW)).isEqualTo(1);
+
+        GenerationRecord redispatched = statusRepository.findGenerationById(stuck.getId());
+        assertThat(redispatched.getStatus()).isEqualTo(GenerationStatus.SCHEDULED);
+        assertThat(redispatched.getDispatchAttempts()).isEqualTo(1);
+        assertThat(redispatched.getUpdated()).isEqualTo(NOW);
+        assertThat(statusRepository.findGenerationById(recent.getId()).getStatus())
+                .isEqualTo(GenerationStatus.GENERATING);
+        assertThat(statusRepository.findGenerationById(finished.getId()).getDispatchAttempts()).isZero();
+
+        ArgumentCaptor<GenerationCreated> event = ArgumentCaptor.forClass(GenerationCreated.class);
+        verify(generationScheduler).schedule(event.capture());
+        assertThat(event.getValue().getData().getGenerationRequest().getGenerationId()).isEqualTo(stuck.getId());
+        assertThat(registry.counter("sbomer.reaper.reaped", "kind", "generation", "outcome", "redispatched").count())
+                .isEqualTo(1);
+        // The redispatch holds capacity of its generator
+        WorkerKey generator = new WorkerKey("generator", "1.0");
+        workQueue.enqueue(List.of(WorkItem.builder()
+                .recordId(TsidUtility.createUniqueGenerationId())
+                .kind(WorkKind.GENERATION)
+                .worker(generator)
+                .priority(RequestPriority.NORMAL)
+                .enqueued(NOW)
+                .build()));
+        assertThat(workQueue.release(generator, 1, Map.of())).isEmpty();
+        assertThat(workQueue.release(generator, 2, Map.of())).hasSize(1);
+    }
+
+    @Test
+    void testDeadlineDoublesUntilTheGenerationIsFailed() {
+        GenerationRecord stuck = saveGeneration("generator", GenerationStatus.SCHEDULED, minutesAgo(31));
+        StaleWorkReaper reaper = reaper(2, 100, Map.of());
+
+        assertThat(reaper.reap(NOW)).isEqualTo(1);
+        // The second attempt gets twice the deadline, the third four times
+        assertThat(reaper.reap(NOW.plus(DEADLINE.multipliedBy(2)).minusSeconds(1))).isZero();
+        Instant second = NOW.plus(DEADLINE.multipliedBy(2)).plusSeconds(1);
+        assertThat(reaper.reap(second)).isEqualTo(1);
+        assertThat(statusRepository.findGenerationById(stuck.getId()).getDispatchAttempts()).isEqualTo(2);
+
+        assertThat(reaper.reap(second.plus(DEADLINE.multipliedBy(4)).minusSeconds(1))).isZero();
+        assertThat(reaper.reap(second.plus(DEADLINE.multipliedBy(4)).plusSeconds(1))).isEqualTo(1);
+
+        GenerationRecord failed = statusRepository.findGenerationById(stuck.getId());
+        assertThat(failed.getStatus()).isEqualTo(GenerationStatus.FAILED);
+        assertThat(failed.getReason()).contains("2 redispatches");
+        assertThat(registry.counter("sbomer.reaper.reaped", "kind", "generation", "outcome", "failed").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testGeneratorsCanHaveTheirOwnDeadline() {
+        GenerationRecord slow = saveGeneration("slow-generator", GenerationStatus.GENERATING, minutesAgo(31));
+        GenerationRecord fast = saveGeneration("generator", GenerationStatus.GENERATING, minutesAgo(31));
+        StaleWorkReaper reaper = reaper(3, 100, Map.of("slow-generator", Duration.ofHours(2)));
+
+        assertThat(reaper.reap(NOW)).isEqualTo(1);
+        assertThat(statusRepository.findGenerationById(fast.getId()).getDispatchAttempts()).isEqualTo(1);
+        assertThat(statusRepository.findGenerationById(slow.getId()).getDispatchAttempts()).isZero();
+
+        assertThat(reaper.reap(NOW.plus(2, ChronoUnit.HOURS))).isEqualTo(2);
+        assertThat(statusRepository.findGenerationById(slow.getId()).getDispatchAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void testRunsAreBoundedByTheBatchSize() {
+        for (int i = 0; i < 3; i++) {
+            saveGeneration("generator", GenerationStatus.SCHEDULED, minutesAgo(40 - i));
+        }
+        StaleWorkReaper reaper = reaper(3, 2, Map.of());
+
+        assertThat(reaper.reap(NOW)).isEqualTo(2);
+        assertThat(reaper.reap(NOW)).isEqualTo(1);
+        assertThat(reaper.reap(NOW)).isZero();
+    }
+
+    @Test
+    void testQueuedGenerationsAreLeftAlone() {
+        GenerationRecord queued = saveGeneration("generator", GenerationStatus.NEW, minutesAgo(120));
+
+        assertThat(reaper(3, 100, Map.of()).reap(NOW)).isZero();
+
+        assertThat(statusRepository.findGenerationById(queued.getId()).getDispatchAttempts()).isZero();
+        verify(generationScheduler, never()).schedule(any());
+    }
+
+    @Test
+    void testStaleEnhancementIsRedispatchedWithThePreviousOutput() {
+        GenerationRecord generationRecord = newGeneration("generator", GenerationStatus.FINISHED, minutesAgo(60));
+        generationRecord.setGenerationSbomUrls(List.of("https://generated"));
+        EnhancementRecord first = newEnhancement(generationRecord, 0, EnhancementStatus.FINISHED);
+        first.setEnhancedSbomUrls(List.of("https://enhanced-0"));
+        EnhancementRecord second = newEnhancement(generationRecord, 1, EnhancementStatus.SCHEDULED);
+        EnhancementRecord third = newEnhancement(generationRecord, 2, EnhancementStatus.NEW);
+        generationRecord.setEnhancements(List.of(first, second, third));
+        statusRepository.saveGeneration(generationRecord);
+
+        assertThat(reaper(3, 100, Map.of()).reap(NOW)).isEqualTo(1);
+
+        EnhancementRecord redispatched = statusRepository.findEnhancementById(second.getId());
+        assertThat(redispatched.getStatus()).isEqualTo(EnhancementStatus.SCHEDULED);
+        assertThat(redispatched.getDispatchAttempts()).isEqualTo(1);
+        ArgumentCaptor<EnhancementCreated> event = ArgumentCaptor.forClass(EnhancementCreated.class);
+        verify(enhancementScheduler).schedule(event.capture());
+        assertThat(event.getValue().getData().getEnhancementId()).isEqualTo(second.getId());
+        assertThat(event.getValue().getData().getInputSbomUrls()).containsExactly("https://enhanced-0");
+        verify(generationScheduler, never()).schedule(any());
+    }
+
+    private StaleWorkReaper reaper(int maxAttempts, int batchSize, Map<String, Duration> deadlines) {
+        return new StaleWorkReaper(statusRepository, generationScheduler, enhancementScheduler, new SbomMapper(null),
+                registry, new StatusStatistics(statusRepository, new InMemoryStatsRollupRepository()), workQueue,
+                new Config(true, Duration.ofMinutes(1), batchSize, maxAttempts, DEADLINE, deadlines, 0));
+    }
+
+    private GenerationRecord saveGeneration(String generatorName, GenerationStatus status, Instant updated) {
+        GenerationRecord generationRecord = newGeneration(generatorName, status, updated);
+        statusRepository.saveGeneration(generationRecord);
+        return generationRecord;
+    }
+
+    private GenerationRecord newGeneration(String generatorName, GenerationStatus status, Instant updated) {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setGeneratorName(generatorName);
+        generationRecord.setGeneratorVersion("1.0");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier("quay.io/org/image:1.0");
+        generationRecord.setStatus(status);
+        generationRecord.setCreated(updated);
+        generationRecord.setUpdated(updated);
+        generationRecord.setEnhancements(List.of());
+        return generationRecord;
+    }
+
+    private EnhancementRecord newEnhancement(GenerationRecord generationRecord, int index, EnhancementStatus status) {
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        enhancementRecord.setEnhancerName("enhancer-" + index);
+        enhancementRecord.setEnhancerVersion("1.0");
+        enhancementRecord.setIndex(index);
+        enhancementRecord.setStatus(status);
+        enhancementRecord.setUpdated(minutesAgo(31));
+        enhancementRecord.setRequestId(generationRecord.getRequestId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        return enhancementRecord;
+    }
+
+    private static Instant minutesAgo(long minutes) {
+        return NOW.minus(minutes, ChronoUnit.MINUTES);
+    }
+
+    private record Config(boolean enabled, Duration interval, int batchSize, int maxAttempts, Duration deadline,
+            Map<String, Duration> deadlines, double jitter) implements StaleWorkReaperConfig {
+    }
+}
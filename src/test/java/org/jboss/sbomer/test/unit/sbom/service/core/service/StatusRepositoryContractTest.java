@@ -0,0 +1,670 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.jboss.sbomer.sbom.service.adapter.in.rest.model.Page;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationSearchQuery;
+import org.jboss.sbomer.sbom.service.core.domain.dto.PublisherRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RetryFilter;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StaleWorkQuery;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestStatus;
+import org.jboss.sbomer.sbom.service.core.domain.exception.ConcurrentUpdateException;
+import org.jboss.sbomer.sbom.service.core.port.spi.StatusRepository;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.TestTransaction;
+import jakarta.inject.Inject;
+
+/**
+ * Behaviour every {@link StatusRepository} implementation has to provide. Subclasses supply the repository under test,
+ * either by injection or by setting {@link #statusRepository} before each test.
+ */
+public abstract class StatusRepositoryContractTest {
+    private static final int PAGE_SIZE = 5;
+
+    private static final int NUM_RECORDS = 10;
+
+    @Inject
+    protected StatusRepository statusRepository;
+
+    @Test
+    @TestTransaction
+    void testSaveAndRetrieveRequest() {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.RECEIVED);
+        Instant now = Instant.now();
+        requestRecord.setCreationDate(now);
+        statusRepository.saveRequestRecord(requestRecord);
+        RequestRecord statusRepositoryRequestById = statusRepository.findRequestById(requestRecord.getId());
+        assertThat(statusRepositoryRequestById).isNotNull();
+        assertThat(statusRepositoryRequestById.getId()).isEqualTo(requestRecord.getId());
+        assertThat(statusRepositoryRequestById.getStatus()).isEqualTo(RequestStatus.RECEIVED);
+        assertThat(statusRepositoryRequestById.getCreationDate()).isAfterOrEqualTo(now);
+    }
+
+    @Test
+    @TestTransaction
+    void testFindPublishersByRequestId() {
+        PublisherRecord publisherRecord = new PublisherRecord();
+        publisherRecord.setName("publisher");
+        publisherRecord.setVersion("1.0");
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.RECEIVED);
+        requestRecord.setPublisherRecords(List.of(publisherRecord));
+        statusRepository.saveRequestRecord(requestRecord);
+
+        assertThat(statusRepository.findPublishersByRequestId(requestRecord.getId())).singleElement()
+                .satisfies(publisher -> {
+                    assertThat(publisher.getName()).isEqualTo("publisher");
+                    assertThat(publisher.getVersion()).isEqualTo("1.0");
+                });
+        assertThat(statusRepository.findPublishersByRequestId(TsidUtility.createUniqueGenerationRequestId())).isEmpty();
+    }
+
+  @Test
+    @TestTransaction
+    void testPagingAndMapStruct() {
+        long initialCount = statusRepository.findAllRequests(0, 1).getTotalHits();
+        IntStream.range(0, NUM_RECORDS).forEach(i -> statusRepository.saveRequestRecord(new RequestRecord()));
+        Page<RequestRecord> requestRecordPage = statusRepository.findAllRequests(0, PAGE_SIZE);
+        assertThat(requestRecordPage.getContent()).hasSize(PAGE_SIZE);
+        assertThat(requestRecordPage.getTotalHits()).isEqualTo(initialCount + NUM_RECORDS);
+    }
+
+    @Test
+    @TestTransaction
+    void testUpdateGeneration() {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setGeneratorName("generatorName1");
+        generationRecord.setStatus(GenerationStatus.NEW);
+        generationRecord.setGenerationSbomUrls(List.of("https://url1"));
+        statusRepository.saveGeneration(generationRecord);
+        generationRecord.setGeneratorName("generatorName2");
+        generationRecord.setStatus(GenerationStatus.FINISHED);
+        generationRecord.setGenerationSbomUrls(List.of("https://url1", "https://url2"));
+        statusRepository.updateGeneration(generationRecord);
+        GenerationRecord updated = statusRepository.findGenerationById(generationRecord.getId());
+        assertThat(updated).isNotNull();
+        assertThat(updated.getGeneratorName()).isEqualTo("generatorName2");
+        assertThat(updated.getStatus()).isEqualTo(GenerationStatus.FINISHED);
+        assertThat(updated.getGenerationSbomUrls()).containsExactly("https://url1", "https://url2");
+    }
+
+    @Test
+    @TestTransaction
+    void testUpdateEnhancement() {
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setEnhancerName("enhancerName1");
+        enhancementRecord.setStatus(EnhancementStatus.NEW);
+        enhancementRecord.setEnhancedSbomUrls(List.of("https://url1"));
+        statusRepository.saveEnhancement(enhancementRecord);
+        enhancementRecord.setEnhancerName("enhancerName2");
+        enhancementRecord.setStatus(EnhancementStatus.FINISHED);
+        enhancementRecord.setEnhancedSbomUrls(List.of("https://url1", "https://url2"));
+        statusRepository.updateEnhancement(enhancementRecord);
+        EnhancementRecord updatedEnhancementRecord = statusRepository.findEnhancementById(enhancementRecord.getId());
+        assertThat(updatedEnhancementRecord).isNotNull();
+        assertThat(updatedEnhancementRecord.getEnhancerName()).isEqualTo("enhancerName2");
+        assertThat(updatedEnhancementRecord.getStatus()).isEqualTo(EnhancementStatus.FINISHED);
+        assertThat(updatedEnhancementRecord.getEnhancedSbomUrls()).containsExactly("https://url1", "https://url2");
+    }
+
+    @Test
+    @TestTransaction
+    void testUpdateMissingGeneration() {
+        String requestRecordId = TsidUtility.createUniqueGenerationId();
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(requestRecordId);
+        generationRecord.setGeneratorName("shouldNotExist");
+        generationRecord.setStatus(GenerationStatus.NEW);
+        statusRepository.updateGeneration(generationRecord);
+        GenerationRecord updatedGenerationRecord = statusRepository.findGenerationById(requestRecordId);
+        assertThat(updatedGenerationRecord).isNull();
+    }
+
+    @Test
+    @TestTransaction
+    void testUpdateMissingEnhancement() {
+        String requestRecordId = TsidUtility.createUniqueEnhancementId();
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(requestRecordId);
+        enhancementRecord.setEnhancerName("shouldNotExist");
+        enhancementRecord.setStatus(EnhancementStatus.NEW);
+        statusRepository.updateEnhancement(enhancementRecord);
+        EnhancementRecord updatedEnhancementRecord = statusRepository.findEnhancementById(requestRecordId);
+        assertThat(updatedEnhancementRecord).isNull();
+    }
+
+    @Test
+    @TestTransaction
+    void testUpdateGenerationWithEnhancements() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord initialGenerationRecord = new GenerationRecord();
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setEnhancerName("enahancerName1");
+        enhancementRecord.setEnhancedSbomUrls(List.of("https://url1"));
+        enhancementRecord.setRequestId(requestRecord.getId());
+        initialGenerationRecord.setEnhancements(List.of(enhancementRecord));
+        statusRepository.saveGeneration(initialGenerationRecord);
+        GenerationRecord updateGenerationRecord = new GenerationRecord();
+        updateGenerationRecord.setId(initialGenerationRecord.getId());
+        updateGenerationRecord.setGeneratorName("updatedGeneratorName");
+        EnhancementRecord enhancementRecord2 = new EnhancementRecord();
+        enhancementRecord2.setEnhancerName("enahancerName2");
+        enhancementRecord2.setEnhancedSbomUrls(List.of("https://url2"));
+        enhancementRecord2.setRequestId(requestRecord.getId());
+        updateGenerationRecord.setEnhancements(List.of(enhancementRecord2));
+        statusRepository.saveEnhancement(enhancementRecord2);
+        EnhancementRecord enhancementRecord3 = statusRepository.findEnhancementById(enhancementRecord2.getId());
+        assertThat(enhancementRecord3).isNotNull();
+        enhancementRecord3.setGenerationId(initialGenerationRecord.getId());
+        assertThat(enhancementRecord3.getGenerationId()).isEqualTo(updateGenerationRecord.getId());
+        statusRepository.updateGeneration(updateGenerationRecord);
+        GenerationRecord updatedGenerationRecord = statusRepository.findGenerationById(updateGenerationRecord.getId());
+        assertThat(updatedGenerationRecord).isNotNull();
+        assertThat(updatedGenerationRecord.getGeneratorName()).isEqualTo("updatedGeneratorName");
+        assertThat(updatedGenerationRecord.getEnhancements()).hasSize(1);
+        assertThat(updatedGenerationRecord.getEnhancements()).element(0).extracting("id").isEqualTo(enhancementRecord2.getId());
+        assertThat(updatedGenerationRecord.getEnhancements()).element(0).extracting("enhancerName").isEqualTo("enahancerName2");
+    }
+
+    // This test checks whether saveRequestRecord successfully saves a request that already has an ID defined
+    @Test
+    @TestTransaction
+    void testSaveRequestWithExistingId() {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setId(TsidUtility.createUniqueGenerationRequestId());
+        statusRepository.saveRequestRecord(requestRecord);
+    }
+
+    // This test checks whether saveGeneration successfully saves a generation that already has an ID defined
+    @Test
+    @TestTransaction
+    void testSaveGenerationWithExistingId() {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        statusRepository.saveGeneration(generationRecord);
+    }
+
+    // This test checks whether saveEnhancement successfully saves a enhancement that already has an ID defined
+    @Test
+    @TestTransaction
+    void testSaveEnhancementWithExistingId() {
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        statusRepository.saveEnhancement(enhancementRecord);
+    }
+
+    @Test
+    @TestTransaction
+    void testSaveRequestWithChildren() {
+        // Create Parent
+        RequestRecord request = new RequestRecord();
+        request.setId(TsidUtility.createUniqueGenerationRequestId());
+
+        // Create Child
+        GenerationRecord gen = new GenerationRecord();
+        gen.setId(TsidUtility.createUniqueGenerationId());
+        gen.setRequestId(request.getId()); // Link back
+
+        request.setGenerationRecords(List.of(gen));
+
+        // This shouldn't fail
+        statusRepository.saveRequestRecord(request);
+    }
+
+    @Test
+    @TestTransaction
+    void testGeneratedIdsArePrefixedTsids() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setRequestId(requestRecord.getId());
+        statusRepository.saveGeneration(generationRecord);
+        assertThat(requestRecord.getId()).startsWith("R").hasSize(14);
+        assertThat(generationRecord.getId()).startsWith("G").hasSize(14);
+        assertThat(statusRepository.findGenerationsByRequestId(requestRecord.getId())).singleElement()
+                .extracting(GenerationRecord::getRequestId).isEqualTo(requestRecord.getId());
+    }
+
+    @Test
+    @TestTransaction
+    void testMalformedIdIsNotFound() {
+        assertThat(statusRepository.findRequestById("not-a-tsid")).isNull();
+        assertThat(statusRepository.findGenerationById("not-a-tsid")).isNull();
+        assertThat(statusRepository.findEnhancementById("not-a-tsid")).isNull();
+        assertThat(statusRepository.findGenerationsByRequestId("not-a-tsid")).isEmpty();
+    }
+
+    @Test
+    @TestTransaction
+    void testGenerationsOfARequestAreScrolledInIdOrder() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        List<String> ids = IntStream.range(0, 3).mapToObj(i -> {
+            GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.NEW);
+            generationRecord.setEnhancements(List.of(newEnhancement(generationRecord, 0, EnhancementStatus.NEW)));
+            statusRepository.saveGeneration(generationRecord);
+            return generationRecord.getId();
+        }).sorted().toList();
+
+        List<GenerationRecord> first = statusRepository.scrollGenerationsByRequestId(requestRecord.getId(), null, 2);
+        assertThat(first).extracting(GenerationRecord::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(first).allSatisfy(generation -> assertThat(generation.getEnhancements()).hasSize(1));
+        assertThat(statusRepository.scrollGenerationsByRequestId(requestRecord.getId(), ids.get(1), 2))
+                .extracting(GenerationRecord::getId)
+                .containsExactly(ids.get(2));
+        assertThat(statusRepository.scrollGenerationsByRequestId(requestRecord.getId(), ids.get(2), 2)).isEmpty();
+        assertThat(statusRepository.scrollGenerationsByRequestId("not-a-tsid", null, 2)).isEmpty();
+        assertThat(statusRepository.scrollGenerationsByRequestId(requestRecord.getId(), "not-a-tsid", 2)).isEmpty();
+    }
+
+    @Test
+    @TestTransaction
+    void testStatusAndParentIndexes() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.NEW);
+        EnhancementRecord first = newEnhancement(generationRecord, 0, EnhancementStatus.NEW);
+        EnhancementRecord second = newEnhancement(generationRecord, 1, EnhancementStatus.NEW);
+        generationRecord.setEnhancements(List.of(first, second));
+        statusRepository.saveGeneration(generationRecord);
+
+        assertThat(statusRepository.findByGenerationStatus(GenerationStatus.NEW)).extracting(GenerationRecord::getId)
+                .contains(generationRecord.getId());
+        assertThat(statusRepository.findByEnhancementStatus(EnhancementStatus.NEW)).extracting(EnhancementRecord::getId)
+                .contains(first.getId(), second.getId());
+        assertThat(statusRepository.findEnhancementsByGenerationId(generationRecord.getId()))
+                .extracting(EnhancementRecord::getId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(statusRepository.findGenerationsByRequestId(requestRecord.getId(), 0, PAGE_SIZE).getContent())
+                .extracting(GenerationRecord::getId)
+                .containsExactly(generationRecord.getId());
+
+        GenerationRecord generating = statusRepository.findGenerationById(generationRecord.getId());
+        generating.setStatus(GenerationStatus.GENERATING);
+        statusRepository.updateGeneration(generating);
+
+        assertThat(statusRepository.findByGenerationStatus(GenerationStatus.NEW)).extracting(GenerationRecord::getId)
+                .doesNotContain(generationRecord.getId());
+        assertThat(statusRepository.findByGenerationStatus(GenerationStatus.GENERATING))
+                .extracting(GenerationRecord::getId)
+                .contains(generationRecord.getId());
+        assertThat(statusRepository.findGenerationById(generationRecord.getId()).getEnhancements()).hasSize(2);
+    }
+
+    @Test
+    @TestTransaction
+    void testCompletionAndFinalSbomUrls() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.FINISHED);
+        generationRecord.setGenerationSbomUrls(List.of("https://generated"));
+        EnhancementRecord first = newEnhancement(generationRecord, 0, EnhancementStatus.FINISHED);
+        first.setEnhancedSbomUrls(List.of("https://enhanced-0"));
+        EnhancementRecord second = newEnhancement(generationRecord, 1, EnhancementStatus.ENHANCING);
+        generationRecord.setEnhancements(List.of(first, second));
+        statusRepository.saveGeneration(generationRecord);
+
+        assertThat(statusRepository.isGenerationAndEnhancementsFinished(generationRecord.getId())).isFalse();
+        assertThat(statusRepository.isAllGenerationRequestsFinished(requestRecord.getId())).isFalse();
+        assertThat(statusRepository.getFinalSbomUrlsForCompletedGeneration(generationRecord.getId()))
+                .containsExactly("https://enhanced-0");
+
+        EnhancementRecord finished = statusRepository.findEnhancementById(second.getId());
+        finished.setStatus(EnhancementStatus.FINISHED);
+        finished.setEnhancedSbomUrls(List.of("https://enhanced-1"));
+        statusRepository.updateEnhancement(finished);
+
+        assertThat(statusRepository.isGenerationAndEnhancementsFinished(generationRecord.getId())).isTrue();
+        assertThat(statusRepository.isAllGenerationRequestsFinished(requestRecord.getId())).isTrue();
+        assertThat(statusRepository.getFinalSbomUrlsForCompletedGeneration(generationRecord.getId()))
+                .containsExactly("https://enhanced-1");
+        assertThat(statusRepository.isAllGenerationRequestsFinished(TsidUtility.createUniqueGenerationRequestId()))
+                .isFalse();
+    }
+
+    @Test
+    @TestTransaction
+    void testExistenceOfRecords() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.NEW);
+        statusRepository.saveGeneration(generationRecord);
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setRequestId(requestRecord.getId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        enhancementRecord.setStatus(EnhancementStatus.NEW);
+        statusRepository.saveEnhancement(enhancementRecord);
+
+        assertThat(statusRepository.requestExists(requestRecord.getId())).isTrue();
+        assertThat(statusRepository.requestExists(TsidUtility.createUniqueGenerationRequestId())).isFalse();
+        assertThat(statusRepository.requestExists("malformed")).isFalse();
+        assertThat(statusRepository.requestExists(null)).isFalse();
+    }
+
+    @Test
+    @TestTransaction
+    void testRequestStatusIsUpdatedOnce() {
+        RequestRecord requestRecord = new RequestRecord();
+        requestRecord.setStatus(RequestStatus.RECEIVED);
+        statusRepository.saveRequestRecord(requestRecord);
+
+        assertThat(statusRepository.updateRequestStatus(requestRecord.getId(), RequestStatus.FINISHED)).isTrue();
+        // Already FINISHED, e.g. by another replica
+        assertThat(statusRepository.updateRequestStatus(requestRecord.getId(), RequestStatus.FINISHED)).isFalse();
+        assertThat(statusRepository.updateRequestStatus(TsidUtility.createUniqueGenerationRequestId(),
+                RequestStatus.FINISHED)).isFalse();
+        assertThat(statusRepository.updateRequestStatus("malformed", RequestStatus.FINISHED)).isFalse();
+
+        RequestRecord updated = statusRepository.findRequestById(requestRecord.getId());
+        assertThat(updated.getStatus()).isEqualTo(RequestStatus.FINISHED);
+        assertThat(updated.getVersion()).isGreaterThan(requestRecord.getVersion());
+    }
+
+    @Test
+    @TestTransaction
+    void testUpdatesAdvanceTheVersion() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.NEW);
+        statusRepository.saveGeneration(generationRecord);
+        GenerationRecord read = statusRepository.findGenerationById(generationRecord.getId());
+        assertThat(read.getVersion()).isNotNull().isEqualTo(generationRecord.getVersion());
+
+        read.setStatus(GenerationStatus.GENERATING);
+        statusRepository.updateGeneration(read);
+        read.setStatus(GenerationStatus.FINISHED);
+        statusRepository.updateGeneration(read);
+
+        GenerationRecord updated = statusRepository.findGenerationById(generationRecord.getId());
+        assertThat(updated.getStatus()).isEqualTo(GenerationStatus.FINISHED);
+        assertThat(updated.getVersion()).isEqualTo(read.getVersion()).isGreaterThan(generationRecord.getVersion());
+
+        RequestRecord readRequest = statusRepository.findRequestById(requestRecord.getId());
+        readRequest.setStatus(RequestStatus.FINISHED);
+        statusRepository.updateRequestRecord(readRequest);
+        assertThat(statusRepository.findRequestById(requestRecord.getId()).getVersion())
+                .isEqualTo(readRequest.getVersion())
+                .isGreaterThan(requestRecord.getVersion());
+    }
+
+    @Test
+    @TestTransaction
+    void testStaleGenerationUpdateIsRejected() {
+        GenerationRecord generationRecord = newGeneration(null, GenerationStatus.NEW);
+        statusRepository.saveGeneration(generationRecord);
+        GenerationRecord first = statusRepository.findGenerationById(generationRecord.getId());
+        GenerationRecord second = statusRepository.findGenerationById(generationRecord.getId());
+
+        first.setStatus(GenerationStatus.FINISHED);
+        statusRepository.updateGeneration(first);
+        second.setStatus(GenerationStatus.FAILED);
+
+        assertThat(statusRepository.findGenerationById(generationRecord.getId()).getStatus())
+                .isEqualTo(GenerationStatus.FINISHED);
+        assertThatThrownBy(() -> statusRepository.updateGeneration(second))
+                .isInstanceOf(ConcurrentUpdateException.class);
+    }
+
+    @Test
+    @TestTransaction
+    void testStaleEnhancementInGenerationUpdateIsRejected() {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.FINISHED);
+        EnhancementRecord enhancementRecord = newEnhancement(generationRecord, 0, EnhancementStatus.NEW);
+        generationRecord.setEnhancements(List.of(enhancementRecord));
+        statusRepository.saveGeneration(generationRecord);
+        GenerationRecord staleGeneration = statusRepository.findGenerationById(generationRecord.getId());
+
+        // The enhancer reports progress while the generation is being updated elsewhere
+        EnhancementRecord enhancing = statusRepository.findEnhancementById(enhancementRecord.getId());
+        enhancing.setStatus(EnhancementStatus.ENHANCING);
+        statusRepository.updateEnhancement(enhancing);
+        staleGeneration.setReason("updated with a stale copy of its enhancements");
+
+        assertThatThrownBy(() -> statusRepository.updateGeneration(staleGeneration))
+                .isInstanceOf(ConcurrentUpdateException.class);
+    }
+
+    @Test
+    @TestTransaction
+    void testStaleWorkIsFoundOldestFirstAndBounded() {
+        // Far in the past, so that rows of other tests cannot match
+        Instant base = Instant.parse("2001-01-01T00:00:00Z");
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord oldest = saveStale(requestRecord, "stale-a", GenerationStatus.GENERATING, base, 0);
+        GenerationRecord older = saveStale(requestRecord, "stale-a", GenerationStatus.NEW, base.plusSeconds(60), 0);
+        saveStale(requestRecord, "stale-a", GenerationStatus.FINISHED, base, 0);
+        saveStale(requestRecord, "stale-a", GenerationStatus.GENERATING, base.plus(1, ChronoUnit.HOURS), 0);
+        GenerationRecord retried = saveStale(requestRecord, "stale-a", GenerationStatus.GENERATING, base, 1);
+        GenerationRecord other = saveStale(requestRecord, "stale-b", GenerationStatus.GENERATING, base, 0);
+        Set<GenerationStatus> statuses = Set.of(GenerationStatus.NEW, GenerationStatus.GENERATING);
+        Instant cutoff = base.plus(30, ChronoUnit.MINUTES);
+
+        assertThat(statusRepository.findStaleGenerations(statuses, StaleWorkQuery.builder().updatedBefore(cutoff)
+                .workerName("stale-a").limit(10).build())).extracting(GenerationRecord::getId)
+                .containsExactly(oldest.getId(), older.getId());
+        assertThat(statusRepository.findStaleGenerations(statuses, StaleWorkQuery.builder().updatedBefore(cutoff)
+                .workerName("stale-a").limit(1).build())).extracting(GenerationRecord::getId)
+                .containsExactly(oldest.getId());
+        assertThat(statusRepository.findStaleGenerations(statuses, StaleWorkQuery.builder().updatedBefore(cutoff)
+                .workerName("stale-a").dispatchAttempts(1).limit(10).build()))
+                .singleElement()
+                .satisfies(generation -> {
+                    assertThat(generation.getId()).isEqualTo(retried.getId());
+                    assertThat(generation.getDispatchAttempts()).isEqualTo(1);
+                });
+        assertThat(statusRepository.findStaleGenerations(statuses, StaleWorkQuery.builder().updatedBefore(cutoff)
+                .excludedWorkerNames(Set.of("stale-a")).limit(10).build())).extracting(GenerationRecord::getId)
+                .contains(other.getId())
+                .doesNotContain(oldest.getId(), older.getId());
+
+        GenerationRecord hedged = newGeneration(requestRecord.getId(), GenerationStatus.GENERATING);
+        hedged.setGeneratorName("stale-c");
+        hedged.setUpdated(base);
+        hedged.setDispatchAttempts(2);
+        hedged.setHedgeAttempts(1);
+        statusRepository.saveGeneration(hedged);
+        assertThat(statusRepository.findStaleGenerations(statuses, StaleWorkQuery.builder().updatedBefore(cutoff)
+                .workerName("stale-c").dispatchAttempts(null).hedgeAttemptsBelow(1).limit(10).build())).isEmpty();
+        assertThat(statusRepository.findStaleGenerations(statuses, StaleWorkQuery.builder().updatedBefore(cutoff)
+                .workerName("stale-c").dispatchAttempts(null).hedgeAttemptsBelow(2).limit(10).build()))
+                .singleElement()
+                .satisfies(generation -> assertThat(generation.getHedgeAttempts()).isEqualTo(1));
+
+        GenerationRecord withEnhancements = newGeneration(requestRecord.getId(), GenerationStatus.FINISHED);
+        EnhancementRecord scheduled = newEnhancement(withEnhancements, 0, EnhancementStatus.SCHEDULED);
+        scheduled.setUpdated(base);
+        EnhancementRecord finished = newEnhancement(withEnhancements, 1, EnhancementStatus.FINISHED);
+        finished.setEnhancerName(scheduled.getEnhancerName());
+        finished.setUpdated(base);
+        withEnhancements.setEnhancements(List.of(scheduled, finished));
+        statusRepository.saveGeneration(withEnhancements);
+
+        assertThat(statusRepository.findStaleEnhancements(
+                Set.of(EnhancementStatus.SCHEDULED, EnhancementStatus.ENHANCING),
+                StaleWorkQuery.builder().updatedBefore(cutoff).workerName(scheduled.getEnhancerName()).limit(10)
+                        .build())).extracting(EnhancementRecord::getId)
+                .containsExactly(scheduled.getId());
+    }
+
+    @Test
+    @TestTransaction
+    void testFailedWorkIsCountedAndResetInBatches() {
+        Instant failedAt = Instant.parse("2002-01-01T00:00:00Z");
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord first = saveFailed(requestRecord, "retry-a", 1, failedAt);
+        GenerationRecord second = saveFailed(requestRecord, "retry-a", 1, failedAt.plusSeconds(60));
+        GenerationRecord otherResult = saveFailed(requestRecord, "retry-a", 2, failedAt);
+        GenerationRecord late = saveFailed(requestRecord, "retry-a", 1, failedAt.plus(1, ChronoUnit.DAYS));
+        RetryFilter filter = RetryFilter.builder()
+                .workerName("retry-a")
+                .result(1)
+                .finishedBefore(failedAt.plus(1, ChronoUnit.HOURS))
+                .build();
+
+        assertThat(statusRepository.countFailedGenerations(filter)).isEqualTo(2);
+        assertThat(statusRepository.countFailedGenerations(RetryFilter.builder().requestId(requestRecord.getId())
+                .build())).isEqualTo(4);
+        assertThat(statusRepository.countFailedGenerations(RetryFilter.builder().requestId("malformed").build()))
+                .isZero();
+
+        Instant retried = failedAt.plus(2, ChronoUnit.DAYS);
+        List<String> firstBatch = statusRepository.resetFailedGenerations(filter, retried, 1);
+        List<String> secondBatch = statusRepository.resetFailedGenerations(filter, retried, 1);
+        assertThat(statusRepository.resetFailedGenerations(filter, retried, 1)).isEmpty();
+        assertThat(List.of(firstBatch, secondBatch)).flatExtracting(ids -> ids)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+
+        assertThat(statusRepository.findGenerationsByIds(List.of(first.getId(), second.getId(), "malformed")))
+                .hasSize(2)
+                .allSatisfy(generation -> {
+                    assertThat(generation.getStatus()).isEqualTo(GenerationStatus.SCHEDULED);
+                    assertThat(generation.getResult()).isNull();
+                    assertThat(generation.getFinished()).isNull();
+                    assertThat(generation.getUpdated()).isEqualTo(retried);
+                    assertThat(generation.getVersion()).isGreaterThan(first.getVersion());
+                });
+        assertThat(statusRepository.findGenerationById(otherResult.getId()).getStatus())
+                .isEqualTo(GenerationStatus.FAILED);
+        assertThat(statusRepository.findGenerationById(late.getId()).getStatus()).isEqualTo(GenerationStatus.FAILED);
+
+        GenerationRecord withEnhancements = newGeneration(requestRecord.getId(), GenerationStatus.FINISHED);
+        EnhancementRecord failed = newEnhancement(withEnhancements, 0, EnhancementStatus.FAILED);
+        failed.setEnhancerName("retry-enhancer");
+        failed.setFinished(failedAt);
+        withEnhancements.setEnhancements(List.of(failed));
+        statusRepository.saveGeneration(withEnhancements);
+        RetryFilter byIds = RetryFilter.builder().ids(List.of(failed.getId())).build();
+
+        assertThat(statusRepository.countFailedEnhancements(byIds)).isEqualTo(1);
+        assertThat(statusRepository.resetFailedEnhancements(byIds, retried, 10)).containsExactly(failed.getId());
+        assertThat(statusRepository.findEnhancementsByIds(List.of(failed.getId()))).singleElement()
+                .satisfies(enhancement -> assertThat(enhancement.getStatus()).isEqualTo(EnhancementStatus.SCHEDULED));
+        assertThat(statusRepository.countFailedEnhancements(byIds)).isZero();
+    }
+
+    @Test
+    @TestTransaction
+    void testSearchFiltersAndPagesByKeyset() {
+        // Saved oldest first, so that the IDs grow with the creation time as they do in production
+        Instant created = Instant.parse("2003-01-01T00:00:00Z");
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        GenerationRecord oldest = saveSearchable(requestRecord, "quay.io/org/app:1.0", GenerationStatus.FAILED,
+                created);
+        GenerationRecord middle = saveSearchable(requestRecord, "quay.io/org/app:2.0", GenerationStatus.FAILED,
+                created.plusSeconds(60));
+        GenerationRecord newest = saveSearchable(requestRecord, "quay.io/other/app_x:1.0", GenerationStatus.FAILED,
+                created.plusSeconds(120));
+        GenerationRecord finished = saveSearchable(requestRecord, "quay.io/org/app:3.0", GenerationStatus.FINISHED,
+                created.plusSeconds(180));
+        GenerationSearchQuery byGenerator = GenerationSearchQuery.builder()
+                .generatorName("search-generator")
+                .limit(10)
+                .build();
+
+        assertThat(statusRepository.searchGenerations(byGenerator)).extracting(GenerationRecord::getId)
+                .containsExactly(finished.getId(), newest.getId(), middle.getId(), oldest.getId());
+        assertThat(statusRepository.searchGenerations(byGenerator.toBuilder()
+                .statuses(Set.of(GenerationStatus.FAILED))
+                .targetIdentifierPrefix("quay.io/org/")
+                .build())).extracting(GenerationRecord::getId)
+                .containsExactly(middle.getId(), oldest.getId());
+        // LIKE wildcards in the input are matched literally
+        assertThat(statusRepository.searchGenerations(byGenerator.toBuilder()
+                .targetIdentifierContains("app_")
+                .build())).extracting(GenerationRecord::getId)
+                .containsExactly(newest.getId());
+        assertThat(statusRepository.searchGenerations(byGenerator.toBuilder()
+                .targetIdentifierContains("%")
+                .build())).isEmpty();
+        assertThat(statusRepository.searchGenerations(byGenerator.toBuilder()
+                .createdAfter(created.plusSeconds(60))
+                .createdBefore(created.plusSeconds(180))
+                .build())).extracting(GenerationRecord::getId)
+                .containsExactly(newest.getId(), middle.getId());
+
+        List<GenerationRecord> firstPage = statusRepository.searchGenerations(byGenerator.toBuilder()
+                .limit(2)
+                .build());
+        assertThat(firstPage).extracting(GenerationRecord::getId).containsExactly(finished.getId(), newest.getId());
+        assertThat(statusRepository.searchGenerations(byGenerator.toBuilder()
+                .after(firstPage.get(1).getId())
+                .limit(2)
+                .build())).extracting(GenerationRecord::getId)
+                .containsExactly(middle.getId(), oldest.getId());
+        assertThat(statusRepository.searchGenerations(byGenerator.toBuilder().after("malformed").build())).isEmpty();
+    }
+
+    private GenerationRecord saveSearchable(RequestRecord requestRecord, String targetIdentifier,
+            GenerationStatus status, Instant created) {
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), status);
+        generationRecord.setGeneratorName("search-generator");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier(targetIdentifier);
+        generationRecord.setCreated(created);
+        statusRepository.saveGeneration(generationRecord);
+        return generationRecord;
+    }
+
+    private GenerationRecord saveFailed(RequestRecord requestRecord, String generatorName, int result,
+            Instant finished) {
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), GenerationStatus.FAILED);
+        generationRecord.setGeneratorName(generatorName);
+        generationRecord.setResult(result);
+        generationRecord.setFinished(finished);
+        generationRecord.setUpdated(finished);
+        statusRepository.saveGeneration(generationRecord);
+        return statusRepository.findGenerationById(generationRecord.getId());
+    }
+
+    private GenerationRecord saveStale(RequestRecord requestRecord, String generatorName, GenerationStatus status,
+            Instant updated, int dispatchAttempts) {
+        GenerationRecord generationRecord = newGeneration(requestRecord.getId(), status);
+        generationRecord.setGeneratorName(generatorName);
+        generationRecord.setUpdated(updated);
+        generationRecord.setDispatchAttempts(dispatchAttempts);
+        statusRepository.saveGeneration(generationRecord);
+        return generationRecord;
+    }
+
+    protected static GenerationRecord newGeneration(String requestId, GenerationStatus status) {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setGeneratorName("generator");
+        generationRecord.setStatus(status);
+        generationRecord.setRequestId(requestId);
+        return generationRecord;
+    }
+
+    protected static EnhancementRecord newEnhancement(GenerationRecord generationRecord, int index,
+            EnhancementStatus status) {
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        enhancementRecord.setEnhancerName("enhancer-" + index);
+        enhancementRecord.setIndex(index);
+        enhancementRecord.setStatus(status);
+        enhancementRecord.setRequestId(generationRecord.getRequestId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        return enhancementRecord;
+    }
+}
@@ -0,0 +1,165 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatsRollupRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.StatsReport;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.service.StatusStatistics;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StatusStatisticsTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private InMemoryStatusRepository statusRepository;
+
+    private final InMemoryStatsRollupRepository rollupRepository = spy(new InMemoryStatsRollupRepository());
+
+    private RequestRecord requestRecord;
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = new InMemoryStatusRepository(directory, 64 * 1024, 1000, false);
+        statusRepository.open();
+        requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+    }
+
+    @AfterEach
+    void closeRepository() {
+        statusRepository.close();
+    }
+
+    @Test
+    void testEmptyRollupsAreSeededFromTheExistingRecords() {
+        GenerationRecord generationRecord = newGeneration("generator", GenerationStatus.FINISHED);
+        generationRecord.setEnhancements(List.of(newEnhancement(generationRecord, "enhancer", EnhancementStatus.FAILED)));
+        statusRepository.saveGeneration(generationRecord);
+        statusRepository.saveGeneration(newGeneration("generator", GenerationStatus.FAILED));
+        StatusStatistics statistics = new StatusStatistics(statusRepository, rollupRepository);
+
+        statistics.initialize();
+        StatsReport report = statistics.report();
+
+        assertThat(report.computed()).isNotNull();
+        assertThat(report.generations().byStatus()).containsEntry("FINISHED", 1L).containsEntry("FAILED", 1L);
+        assertThat(report.generations().timeInState()).isEmpty();
+        assertThat(report.enhancements().byWorker().get("enhancer").byStatus()).containsEntry("FAILED", 1L);
+
+        // Only seeded once, later starts go on from the rollups
+        statusRepository.saveGeneration(newGeneration("generator", GenerationStatus.FAILED));
+        StatusStatistics restarted = new StatusStatistics(statusRepository, rollupRepository);
+        restarted.initialize();
+        assertThat(restarted.report().generations().byStatus()).containsEntry("FAILED", 1L);
+    }
+
+    @Test
+    void testTransitionsMoveTheCountsAndFillTheHistogram() {
+        StatusStatistics statistics = new StatusStatistics(statusRepository, rollupRepository);
+        statistics.initialize();
+        for (int i = 1; i <= 100; i++) {
+            GenerationRecord generationRecord = newGeneration("generator", GenerationStatus.NEW);
+            statistics.generationCreated(generationRecord);
+            move(statistics, generationRecord, GenerationStatus.GENERATING, i * 10L);
+        }
+        GenerationRecord failed = newGeneration("other-generator", GenerationStatus.GENERATING);
+        statistics.generationCreated(failed);
+        move(statistics, failed, GenerationStatus.FAILED, 60_000);
+        // Another update in the same status is no transition
+        move(statistics, failed, GenerationStatus.FAILED, 1000);
+
+        StatsReport.Kind generations = statistics.report().generations();
+
+        assertThat(generations.byStatus()).containsOnly(entry("GENERATING", 100L), entry("FAILED", 1L));
+        StatsReport.Latency inNew = generations.byWorker().get("generator").timeInState().get("NEW");
+        assertThat(inNew.count()).isEqualTo(100);
+        // 500ms, 950ms and 990ms, rounded up to the bucket bounds
+        assertThat(inNew.p50()).isBetween(500L, 500L * 6 / 5);
+        assertThat(inNew.p95()).isBetween(950L, 950L * 6 / 5);
+        assertThat(inNew.p99()).isBetween(990L, 990L * 6 / 5);
+        assertThat(generations.timeInState().get("GENERATING").count()).isEqualTo(1);
+        assertThat(generations.byWorker().get("other-generator").timeInState()).containsOnlyKeys("GENERATING");
+    }
+
+    @Test
+    void testChangesAreKeptWhenTheFlushFails() {
+        StatusStatistics statistics = new StatusStatistics(statusRepository, rollupRepository);
+        statistics.initialize();
+        GenerationRecord generationRecord = newGeneration("generator", GenerationStatus.NEW);
+        statistics.generationCreated(generationRecord);
+        doThrow(new IllegalStateException("Database is down")).when(rollupRepository).add(any());
+
+        statistics.flush();
+
+        assertThat(statistics.report().generations().byStatus()).containsEntry("NEW", 1L);
+        assertThat(rollupRepository.load()).isEmpty();
+
+        doCallRealMethod().when(rollupRepository).add(any());
+        statistics.flush();
+
+        assertThat(statistics.report().generations().byStatus()).containsEntry("NEW", 1L);
+        StatusStatistics otherReplica = new StatusStatistics(statusRepository, rollupRepository);
+        otherReplica.flush();
+        assertThat(otherReplica.report().generations().byStatus()).containsEntry("NEW", 1L);
+    }
+
+    private static void move(StatusStatistics statistics, GenerationRecord generationRecord, GenerationStatus status,
+            long millis) {
+        GenerationStatus previousStatus = generationRecord.getStatus();
+        Instant since = generationRecord.getUpdated();
+        generationRecord.setStatus(status);
+        generationRecord.setUpdated(since.plusMillis(millis));
+        statistics.generationMoved(generationRecord, previousStatus, since);
+    }
+
+    private GenerationRecord newGeneration(String generatorName, GenerationStatus status) {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setRequestId(requestRecord.getId());
+        generationRecord.setGeneratorName(generatorName);
+        generationRecord.setGeneratorVersion("1.0");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier("quay.io/org/image:1.0");
+        generationRecord.setStatus(status);
+        generationRecord.setCreated(START);
+        generationRecord.setUpdated(START);
+        generationRecord.setEnhancements(List.of());
+        return generationRecord;
+    }
+
+    private EnhancementRecord newEnhancement(GenerationRecord generationRecord, String enhancerName,
+            EnhancementStatus status) {
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        enhancementRecord.setEnhancerName(enhancerName);
+        enhancementRecord.setEnhancerVersion("1.0");
+        enhancementRecord.setIndex(0);
+        enhancementRecord.setStatus(status);
+        enhancementRecord.setUpdated(START);
+        enhancementRecord.setRequestId(generationRecord.getRequestId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        return enhancementRecord;
+    }
+}
@@ -0,0 +1,44 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.TsidNodeLeaseManager;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.TsidNodeLeaseRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.domain.entity.TsidNodeLeaseEntity;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class TsidNodeLeaseManagerTest {
+
+    @Inject
+    TsidNodeLeaseManager leaseManager;
+
+    @Inject
+    TsidNodeLeaseRepository leaseRepository;
+
+    @Test
+    void testNodeIsLeasedOnStartup() {
+        Integer nodeId = leaseManager.getNodeId();
+        assertThat(nodeId).isNotNull();
+        TsidNodeLeaseEntity lease = QuarkusTransaction.requiringNew().call(() -> leaseRepository.findById(nodeId));
+        assertThat(lease).isNotNull();
+        assertThat(lease.getHeartbeat()).isNotNull();
+    }
+
+    @Test
+    void testLostLeaseIsReplacedOnHeartbeat() {
+        Integer stolenNodeId = leaseManager.getNodeId();
+        QuarkusTransaction.requiringNew()
+                .run(() -> leaseRepository.update("owner = ?1 where nodeId = ?2", "another-replica", stolenNodeId));
+
+        leaseManager.heartbeat();
+
+        assertThat(leaseManager.getNodeId()).isNotNull().isNotEqualTo(stolenNodeId);
+        TsidNodeLeaseEntity stolen = QuarkusTransaction.requiringNew().call(() -> leaseRepository.findById(stolenNodeId));
+        assertThat(stolen.getOwner()).isEqualTo("another-replica");
+    }
+}
@@ -0,0 +1,293 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatsRollupRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryStatusRepository;
+import org.jboss.sbomer.sbom.service.adapter.out.persistence.memory.InMemoryWorkQueue;
+import org.jboss.sbomer.sbom.service.core.domain.dto.EnhancementRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.RequestRecord;
+import org.jboss.sbomer.sbom.service.core.domain.dto.WorkerKey;
+import org.jboss.sbomer.sbom.service.core.domain.enums.EnhancementStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.domain.enums.RequestPriority;
+import org.jboss.sbomer.sbom.service.core.service.RequestEventBroadcaster;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.service.StatusStatistics;
+import org.jboss.sbomer.sbom.service.core.service.WorkDispatcher;
+import org.jboss.sbomer.sbom.service.core.service.WorkDispatcherConfig;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class WorkDispatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryStatusRepository statusRepository;
+
+    /**
+     * Whether generation updates fail, as with the database unavailable.
+     */
+    private boolean failUpdates;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * Labels of the generations and enhancements in the order their events were sent.
+     */
+    private final List<String> dispatched = new ArrayList<>();
+
+    private final Map<String, String> labels = new HashMap<>();
+
+    @BeforeEach
+    void openRepository() {
+        statusRepository = new InMemoryStatusRepository(directory, 64 * 1024, 1000, false) {
+            @Override
+            public void updateGeneration(GenerationRecord record) {
+                if (failUpdates) {
+                    throw new IllegalStateException("The database is unavailable");
+                }
+                super.updateGeneration(record);
+            }
+        };
+        statusRepository.open();
+    }
+
+    @AfterEach
+    void closeRepository() {
+        statusRepository.close();
+    }
+
+    @Test
+    void testRequestsInALaneTakeTurns() {
+        WorkDispatcher dispatcher = dispatcher(100, Map.of());
+        dispatcher.enqueueGenerations("R1", RequestPriority.NORMAL, generations("A", 5));
+        dispatcher.enqueueGenerations("R2", RequestPriority.NORMAL, generations("B", 2));
+
+        assertThat(dispatcher.dispatch()).isEqualTo(7);
+
+        assertThat(dispatched).containsExactly("A0", "B0", "A1", "B1", "A2", "A3", "A4");
+    }
+
+    @Test
+    void testLanesTakeTurnsByWeight() {
+        WorkDispatcher dispatcher = dispatcher(100, Map.of());
+        dispatcher.enqueueGenerations("R1", RequestPriority.LOW, generations("L", 3));
+        dispatcher.enqueueGenerations("R2", RequestPriority.HIGH, generations("H", 4));
+
+        dispatcher.dispatch();
+
+        // LOW requests that came first still move, one item for every two HIGH ones
+        assertThat(dispatched).containsExactly("H0", "H1", "L0", "H2", "H3", "L1", "L2");
+        assertThat(dispatcher.queued(RequestPriority.LOW)).isZero();
+        assertThat(registry.get("sbomer.dispatch.wait").tag("lane", "LOW").timer().count()).isEqualTo(3);
+        assertThat(registry.get("sbomer.dispatch.wait").tag("lane", "HIGH").timer().count()).isEqualTo(4);
+    }
+
+    @Test
+    void testOnlyLimitItemsOfAWorkerAreInFlight() {
+        WorkDispatcher dispatcher = dispatcher(2, Map.of());
+        List<GenerationRecord> generations = generations("A", 3);
+        dispatcher.enqueueGenerations("R1", RequestPriority.NORMAL, generations);
+
+        assertThat(dispatcher.dispatch()).isEqualTo(2);
+        assertThat(dispatcher.dispatch()).isZero();
+        assertThat(dispatched).containsExactly("A0", "A1");
+        assertThat(dispatcher.queued(RequestPriority.NORMAL)).isEqualTo(1);
+        assertThat(registry.get("sbomer.dispatch.queued").tag("lane", "NORMAL").gauge().value()).isEqualTo(1);
+        assertThat(statusRepository.findGenerationById(generations.get(0).getId()).getStatus())
+                .isEqualTo(GenerationStatus.SCHEDULED);
+        assertThat(statusRepository.findGenerationById(generations.get(2).getId()).getStatus())
+                .isEqualTo(GenerationStatus.NEW);
+
+        // A finished generation hands its capacity to the next one right away
+        dispatcher.completed(generations.get(0).getId());
+
+        assertThat(dispatched).containsExactly("A0", "A1", "A2");
+        assertThat(statusRepository.findGenerationById(generations.get(2).getId()).getStatus())
+                .isEqualTo(GenerationStatus.SCHEDULED);
+    }
+
+    @Test
+    void testReleasedWorkThatStayedNewIsQueuedAgain() {
+        WorkDispatcher dispatcher = dispatcher(1, Map.of());
+        List<GenerationRecord> generations = generations("A", 2);
+        dispatcher.enqueueGenerations("R1", RequestPriority.NORMAL, generations);
+
+        // Released, but the record could not be marked as SCHEDULED
+        failUpdates = true;
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        failUpdates = false;
+        assertThat(dispatched).isEmpty();
+        assertThat(statusRepository.findGenerationById(generations.get(0).getId()).getStatus())
+                .isEqualTo(GenerationStatus.NEW);
+        // It holds the capacity of the generator
+        assertThat(dispatcher.dispatch()).isZero();
+
+        Instant now = Instant.now();
+        assertThat(dispatcher.recover(now)).isZero();
+        assertThat(dispatcher.recover(now.plus(Duration.ofMinutes(2)))).isEqualTo(1);
+
+        // Queued again in its old place, ahead of the second generation
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        assertThat(dispatched).containsExactly("A0");
+        assertThat(statusRepository.findGenerationById(generations.get(0).getId()).getStatus())
+                .isEqualTo(GenerationStatus.SCHEDULED);
+        // SCHEDULED work is left to the reaper
+        assertThat(dispatcher.recover(now.plus(Duration.ofMinutes(2)))).isZero();
+    }
+
+    @Test
+    void testLimitsApplyPerWorkerVersion() {
+        WorkDispatcher dispatcher = dispatcher(5, Map.of("syft-generator", 3, "syft-generator:1.0", 1));
+
+        assertThat(dispatcher.limit(new WorkerKey("syft-generator", "1.0"))).isEqualTo(1);
+        assertThat(dispatcher.limit(new WorkerKey("syft-generator", "2.0"))).isEqualTo(3);
+        assertThat(dispatcher.limit(new WorkerKey("cyclonedx-maven-plugin", "2.9.1"))).isEqualTo(5);
+
+        dispatcher = dispatcher(5, Map.of("generator:1.0", 1));
+        dispatcher.enqueueGenerations("R1", RequestPriority.NORMAL, generations("A", 2));
+        List<GenerationRecord> other = generations("B", 2);
+        other.forEach(generationRecord -> {
+            generationRecord.setGeneratorVersion("2.0");
+            statusRepository.updateGeneration(generationRecord);
+        });
+        dispatcher.enqueueGenerations("R2", RequestPriority.NORMAL, other);
+
+        assertThat(dispatcher.dispatch()).isEqualTo(3);
+        assertThat(dispatched).containsExactlyInAnyOrder("A0", "B0", "B1");
+    }
+
+    @Test
+    void testQueuedEnhancementIsDispatchedWithTheGenerationOutput() {
+        WorkDispatcher dispatcher = dispatcher(1, Map.of());
+        GenerationRecord generationRecord = generations("G", 1).get(0);
+        generationRecord.setStatus(GenerationStatus.FINISHED);
+        generationRecord.setGenerationSbomUrls(List.of("https://generated"));
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        enhancementRecord.setEnhancerName("enhancer");
+        enhancementRecord.setEnhancerVersion("1.0");
+        enhancementRecord.setStatus(EnhancementStatus.NEW);
+        enhancementRecord.setUpdated(Instant.now());
+        enhancementRecord.setRequestId(generationRecord.getRequestId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        statusRepository.updateGeneration(generationRecord);
+        statusRepository.saveEnhancement(enhancementRecord);
+        labels.put(enhancementRecord.getId(), "E0");
+
+        dispatcher.enqueueEnhancement(enhancementRecord);
+        dispatcher.dispatch();
+
+        assertThat(dispatched).containsExactly("E0");
+        assertThat(statusRepository.findEnhancementById(enhancementRecord.getId()).getStatus())
+                .isEqualTo(EnhancementStatus.SCHEDULED);
+    }
+
+    @Test
+    void testInMemoryQueueIsRebuiltOnStartup() {
+        WorkDispatcher dispatcher = dispatcher(1, Map.of());
+        List<GenerationRecord> generations = generations("A", 2);
+        dispatcher.enqueueGenerations("R1", RequestPriority.NORMAL, generations);
+        dispatcher.dispatch();
+        assertThat(dispatched).containsExactly("A0");
+
+        // A generation whose second enhancement is not next yet
+        GenerationRecord enhanced = generations("G", 1).get(0);
+        enhanced.setStatus(GenerationStatus.FINISHED);
+        enhanced.setGenerationSbomUrls(List.of("https://generated"));
+        statusRepository.updateGeneration(enhanced);
+        EnhancementRecord first = enhancement(enhanced, 0);
+        EnhancementRecord second = enhancement(enhanced, 1);
+
+        // The queue of a restarted instance starts out empty
+        InMemoryWorkQueue workQueue = new InMemoryWorkQueue();
+        workQueue.rebuild(statusRepository);
+        dispatcher = dispatcher(workQueue, 1, Map.of());
+
+        assertThat(workQueue.queued(List.of(generations.get(1).getId(), first.getId(), second.getId())))
+                .containsExactlyInAnyOrder(generations.get(1).getId(), first.getId());
+        // The SCHEDULED generation still holds the capacity of the generator
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        assertThat(dispatched).containsExactly("A0", "E0");
+
+        dispatcher.completed(generations.get(0).getId());
+
+        assertThat(dispatched).containsExactly("A0", "E0", "A1");
+    }
+
+    private EnhancementRecord enhancement(GenerationRecord generationRecord, int index) {
+        EnhancementRecord enhancementRecord = new EnhancementRecord();
+        enhancementRecord.setId(TsidUtility.createUniqueEnhancementId());
+        enhancementRecord.setEnhancerName("enhancer");
+        enhancementRecord.setEnhancerVersion("1.0");
+        enhancementRecord.setIndex(index);
+        enhancementRecord.setStatus(EnhancementStatus.NEW);
+        enhancementRecord.setUpdated(Instant.now());
+        enhancementRecord.setRequestId(generationRecord.getRequestId());
+        enhancementRecord.setGenerationId(generationRecord.getId());
+        statusRepository.saveEnhancement(enhancementRecord);
+        labels.put(enhancementRecord.getId(), "E" + index);
+        return enhancementRecord;
+    }
+
+    private WorkDispatcher dispatcher(int limit, Map<String, Integer> limits) {
+        return dispatcher(new InMemoryWorkQueue(), limit, limits);
+    }
+
+    private WorkDispatcher dispatcher(InMemoryWorkQueue workQueue, int limit, Map<String, Integer> limits) {
+        return new WorkDispatcher(workQueue, statusRepository,
+                event -> dispatched.add(labels.get(event.getData().getGenerationRequest().getGenerationId())),
+                event -> {
+                    assertThat(event.getData().getInputSbomUrls()).containsExactly("https://generated");
+                    dispatched.add(labels.get(event.getData().getEnhancementId()));
+                }, new SbomMapper(null),
+                new StatusStatistics(statusRepository, new InMemoryStatsRollupRepository()),
+                new RequestEventBroadcaster(null), registry,
+                new Config(true, Duration.ofSeconds(1), Duration.ofMinutes(1), limit, limits, new Weight(2, 2, 1)));
+    }
+
+    private List<GenerationRecord> generations(String prefix, int count) {
+        RequestRecord requestRecord = new RequestRecord();
+        statusRepository.saveRequestRecord(requestRecord);
+        return IntStream.range(0, count).mapToObj(i -> {
+            GenerationRecord generationRecord = new GenerationRecord();
+            generationRecord.setId(TsidUtility.createUniqueGenerationId());
+            generationRecord.setRequestId(requestRecord.getId());
+            generationRecord.setGeneratorName("generator");
+            generationRecord.setGeneratorVersion("1.0");
+            generationRecord.setTargetType("CONTAINER_IMAGE");
+            generationRecord.setTargetIdentifier("quay.io/org/image:" + prefix + i);
+            generationRecord.setStatus(GenerationStatus.NEW);
+            generationRecord.setCreated(Instant.now());
+            generationRecord.setUpdated(Instant.now());
+            generationRecord.setEnhancements(List.of());
+            statusRepository.saveGeneration(generationRecord);
+            labels.put(generationRecord.getId(), prefix + i);
+            return generationRecord;
+        }).toList();
+    }
+
+    private record Config(boolean enabled, Duration interval, Duration releaseTimeout, int limit,
+            Map<String, Integer> limits, Weight weight) implements WorkDispatcherConfig {
+    }
+
+    private record Weight(int high, int normal, int low) implements WorkDispatcherConfig.Weight {
+    }
+}
@@ -0,0 +1,65 @@
+package org.jboss.sbomer.test.unit.sbom.service.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.jboss.sbomer.events.orchestration.GenerationCreated;
+import org.jboss.sbomer.sbom.service.adapter.out.TopicRoutingConfig;
+import org.jboss.sbomer.sbom.service.adapter.out.WorkerTopics;
+import org.jboss.sbomer.sbom.service.core.domain.dto.GenerationRecord;
+import org.jboss.sbomer.sbom.service.core.domain.enums.GenerationStatus;
+import org.jboss.sbomer.sbom.service.core.service.SbomMapper;
+import org.jboss.sbomer.sbom.service.core.utility.TsidUtility;
+import org.junit.jupiter.api.Test;
+
+public class WorkerTopicsTest {
+
+    private final SbomMapper sbomMapper = new SbomMapper(null);
+
+    @Test
+    void testTopicMapWinsOverThePattern() {
+        Route route = new Route(Optional.of("generation.created.{worker}"), Map.of("syft-generator", "syft"));
+
+        assertThat(WorkerTopics.topic(route, Optional.of("syft-generator"))).contains("syft");
+        assertThat(WorkerTopics.topic(route, Optional.of("cyclonedx-maven-plugin")))
+                .contains("generation.created.cyclonedx-maven-plugin");
+        // Only letters, digits, '.', '_' and '-' are allowed in topic names
+        assertThat(WorkerTopics.topic(route, Optional.of("org/generator:1")))
+                .contains("generation.created.org_generator_1");
+        assertThat(WorkerTopics.topic(route, Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void testUnroutedEventsKeepTheTopicOfTheChannel() {
+        WorkerTopics workerTopics = new WorkerTopics(new Config(new Route(Optional.empty(), Map.of("syft", "syft")),
+                new Route(Optional.empty(), Map.of())));
+
+        assertThat(workerTopics.generation(generationCreated("syft"))).contains("syft");
+        assertThat(workerTopics.generation(generationCreated("other"))).isEmpty();
+    }
+
+    private GenerationCreated generationCreated(String generatorName) {
+        GenerationRecord generationRecord = new GenerationRecord();
+        generationRecord.setId(TsidUtility.createUniqueGenerationId());
+        generationRecord.setRequestId(TsidUtility.createUniqueGenerationRequestId());
+        generationRecord.setGeneratorName(generatorName);
+        generationRecord.setGeneratorVersion("1.0");
+        generationRecord.setTargetType("CONTAINER_IMAGE");
+        generationRecord.setTargetIdentifier("quay.io/org/image:1.0");
+        generationRecord.setStatus(GenerationStatus.NEW);
+        generationRecord.setCreated(Instant.now());
+        generationRecord.setEnhancements(List.of());
+        return sbomMapper.toGenerationCreatedEvent(generationRecord,
+                sbomMapper.toGenerationRequestSpec(generationRecord), generationRecord.getRequestId());
+    }
+
+    private record Config(Route generation, Route enhancement) implements TopicRoutingConfig {
+    }
+
+    private record Route(Optional<String> pattern, Map<String, String> topics) implements TopicRoutingConfig.Route {
+    }
+}